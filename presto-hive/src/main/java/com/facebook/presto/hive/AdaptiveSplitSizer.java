@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.base.Ticker;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Adjusts the split size of a scan to the rate at which the engine consumes its splits.
+ * Once the engine has filled the workers, it asks for a split whenever one finishes, so a
+ * high rate means splits are processed quickly and only add scheduling overhead on the
+ * coordinator. The size doubles while the rate stays above the target and halves while
+ * it stays well below it, within the given bounds. The first interval is ignored, because
+ * the engine fills all workers at once when the scan starts.
+ */
+@ThreadSafe
+class AdaptiveSplitSizer
+{
+    private static final long ADJUSTMENT_INTERVAL_NANOS = SECONDS.toNanos(1);
+    // shrink only when far below the target, so the size does not oscillate around it
+    private static final double SHRINK_THRESHOLD = 0.25;
+
+    private final long minSplitBytes;
+    private final long maxSplitBytes;
+    private final double targetSplitsPerSecond;
+    private final Ticker ticker;
+
+    @GuardedBy("this")
+    private long splitBytes;
+    @GuardedBy("this")
+    private boolean started;
+    @GuardedBy("this")
+    private boolean warmedUp;
+    @GuardedBy("this")
+    private long intervalStartNanos;
+    @GuardedBy("this")
+    private long intervalSplitCount;
+
+    public AdaptiveSplitSizer(DataSize initialSplitSize, DataSize minSplitSize, DataSize maxSplitSize, int targetSplitsPerSecond, Ticker ticker)
+    {
+        checkArgument(targetSplitsPerSecond > 0, "targetSplitsPerSecond must be positive");
+        this.minSplitBytes = requireNonNull(minSplitSize, "minSplitSize is null").toBytes();
+        this.maxSplitBytes = max(minSplitBytes, requireNonNull(maxSplitSize, "maxSplitSize is null").toBytes());
+        this.targetSplitsPerSecond = targetSplitsPerSecond;
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.splitBytes = min(max(requireNonNull(initialSplitSize, "initialSplitSize is null").toBytes(), minSplitBytes), maxSplitBytes);
+    }
+
+    public synchronized long getSplitBytes()
+    {
+        return splitBytes;
+    }
+
+    /**
+     * Records splits handed to the engine, and adjusts the split size at most once per interval.
+     */
+    public synchronized void recordSplits(int splitCount)
+    {
+        long now = ticker.read();
+        if (!started) {
+            started = true;
+            intervalStartNanos = now;
+        }
+        intervalSplitCount += splitCount;
+
+        long elapsedNanos = now - intervalStartNanos;
+        if (elapsedNanos < ADJUSTMENT_INTERVAL_NANOS) {
+            return;
+        }
+        if (!warmedUp) {
+            warmedUp = true;
+            intervalStartNanos = now;
+            intervalSplitCount = 0;
+            return;
+        }
+
+        double splitsPerSecond = intervalSplitCount * (double) SECONDS.toNanos(1) / elapsedNanos;
+        if (splitsPerSecond > targetSplitsPerSecond) {
+            splitBytes = min(splitBytes * 2, maxSplitBytes);
+        }
+        else if (splitsPerSecond < targetSplitsPerSecond * SHRINK_THRESHOLD) {
+            splitBytes = max(splitBytes / 2, minSplitBytes);
+        }
+        intervalStartNanos = now;
+        intervalSplitCount = 0;
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import io.airlift.stats.CounterStat;
 import io.airlift.stats.DistributionStat;
 import io.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
@@ -25,6 +26,8 @@ public class FileFormatDataSourceStats
 {
     private final DistributionStat readBytes = new DistributionStat();
     private final DistributionStat maxCombinedBytesPerRow = new DistributionStat();
+    private final CounterStat coalescedReadBytes = new CounterStat();
+    private final CounterStat coalescedUsedBytes = new CounterStat();
     private final TimeStat time0Bto100KB = new TimeStat(MILLISECONDS);
     private final TimeStat time100KBto1MB = new TimeStat(MILLISECONDS);
     private final TimeStat time1MBto10MB = new TimeStat(MILLISECONDS);
@@ -44,6 +47,20 @@ public class FileFormatDataSourceStats
         return maxCombinedBytesPerRow;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getCoalescedReadBytes()
+    {
+        return coalescedReadBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getCoalescedUsedBytes()
+    {
+        return coalescedUsedBytes;
+    }
+
     @Managed
     @Nested
     public TimeStat get0Bto100KB()
@@ -93,4 +110,10 @@ public class FileFormatDataSourceStats
     {
         maxCombinedBytesPerRow.add(bytes);
     }
+
+    public void addCoalescedRead(long readBytes, long usedBytes)
+    {
+        coalescedReadBytes.update(readBytes);
+        coalescedUsedBytes.update(usedBytes);
+    }
 }
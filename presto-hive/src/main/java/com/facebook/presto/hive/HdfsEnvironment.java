@@ -17,9 +17,11 @@ import com.facebook.presto.hadoop.HadoopFileSystemCache;
 import com.facebook.presto.hadoop.HadoopNative;
 import com.facebook.presto.hive.authentication.GenericExceptionAction;
 import com.facebook.presto.hive.authentication.HdfsAuthentication;
+import com.facebook.presto.hive.cache.FileChunkCache;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.security.Identity;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
@@ -41,16 +43,27 @@ public class HdfsEnvironment
     private final HdfsConfiguration hdfsConfiguration;
     private final HdfsAuthentication hdfsAuthentication;
     private final boolean verifyChecksum;
+    private final FileChunkCache fileChunkCache;
 
-    @Inject
     public HdfsEnvironment(
             HdfsConfiguration hdfsConfiguration,
             HiveClientConfig config,
             HdfsAuthentication hdfsAuthentication)
+    {
+        this(hdfsConfiguration, config, hdfsAuthentication, FileChunkCache.disabled());
+    }
+
+    @Inject
+    public HdfsEnvironment(
+            HdfsConfiguration hdfsConfiguration,
+            HiveClientConfig config,
+            HdfsAuthentication hdfsAuthentication,
+            FileChunkCache fileChunkCache)
     {
         this.hdfsConfiguration = requireNonNull(hdfsConfiguration, "hdfsConfiguration is null");
         this.verifyChecksum = requireNonNull(config, "config is null").isVerifyChecksum();
         this.hdfsAuthentication = requireNonNull(hdfsAuthentication, "hdfsAuthentication is null");
+        this.fileChunkCache = requireNonNull(fileChunkCache, "fileChunkCache is null");
     }
 
     public Configuration getConfiguration(HdfsContext context, Path path)
@@ -74,6 +87,16 @@ public class HdfsEnvironment
         });
     }
 
+    /**
+     * Opens a data file for reading. Positioned reads are served from the local
+     * file cache, when it is enabled.
+     */
+    public FSDataInputStream open(FileSystem fileSystem, Path path, long fileSize, long fileModifiedTime)
+            throws IOException
+    {
+        return fileChunkCache.wrap(path.toString(), fileSize, fileModifiedTime, fileSystem.open(path));
+    }
+
     public <R, E extends Exception> R doAs(String user, GenericExceptionAction<R, E> action)
             throws E
     {
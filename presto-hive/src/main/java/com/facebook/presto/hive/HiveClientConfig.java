@@ -56,6 +56,9 @@ public class HiveClientConfig
     private int maxInitialSplits = 200;
     private int splitLoaderConcurrency = 4;
     private DataSize maxInitialSplitSize;
+    private boolean adaptiveSplitSizingEnabled;
+    private DataSize adaptiveMaxSplitSize = new DataSize(512, MEGABYTE);
+    private int adaptiveSplitSizingTargetSplitsPerSecond = 100;
     private int domainCompactionThreshold = 100;
     private boolean forceLocalScheduling;
     private boolean recursiveDirWalkerEnabled;
@@ -93,6 +96,8 @@ public class HiveClientConfig
     private boolean useParquetColumnNames;
     private boolean parquetOptimizedReaderEnabled;
     private boolean parquetPredicatePushdownEnabled;
+    private DataSize parquetMaxMergeDistance = new DataSize(1, MEGABYTE);
+    private DataSize parquetMaxBufferSize = new DataSize(8, MEGABYTE);
 
     private boolean assumeCanonicalPartitionKeys;
 
@@ -104,6 +109,7 @@ public class HiveClientConfig
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
     private DataSize orcMaxReadBlockSize = new DataSize(16, MEGABYTE);
     private boolean orcLazyReadSmallRanges = true;
+    private boolean orcStripePrefetchEnabled;
     private boolean orcOptimizedWriterEnabled;
     private boolean orcWriterValidate = true;
 
@@ -151,6 +157,47 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isAdaptiveSplitSizingEnabled()
+    {
+        return adaptiveSplitSizingEnabled;
+    }
+
+    @Config("hive.adaptive-split-sizing.enabled")
+    @ConfigDescription("Adjust the split size of a scan to the rate at which its splits are processed")
+    public HiveClientConfig setAdaptiveSplitSizingEnabled(boolean adaptiveSplitSizingEnabled)
+    {
+        this.adaptiveSplitSizingEnabled = adaptiveSplitSizingEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getAdaptiveMaxSplitSize()
+    {
+        return adaptiveMaxSplitSize;
+    }
+
+    @Config("hive.adaptive-split-sizing.max-split-size")
+    @ConfigDescription("Largest split size adaptive split sizing may grow to")
+    public HiveClientConfig setAdaptiveMaxSplitSize(DataSize adaptiveMaxSplitSize)
+    {
+        this.adaptiveMaxSplitSize = adaptiveMaxSplitSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getAdaptiveSplitSizingTargetSplitsPerSecond()
+    {
+        return adaptiveSplitSizingTargetSplitsPerSecond;
+    }
+
+    @Config("hive.adaptive-split-sizing.target-splits-per-second")
+    @ConfigDescription("Rate of split scheduling per scan above which adaptive split sizing makes splits larger")
+    public HiveClientConfig setAdaptiveSplitSizingTargetSplitsPerSecond(int adaptiveSplitSizingTargetSplitsPerSecond)
+    {
+        this.adaptiveSplitSizingTargetSplitsPerSecond = adaptiveSplitSizingTargetSplitsPerSecond;
+        return this;
+    }
+
     @Min(1)
     public int getSplitLoaderConcurrency()
     {
@@ -650,6 +697,34 @@ public class HiveClientConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getParquetMaxMergeDistance()
+    {
+        return parquetMaxMergeDistance;
+    }
+
+    @Config("hive.parquet.max-merge-distance")
+    @ConfigDescription("Maximum size of gap between two column chunks to merge into a single read")
+    public HiveClientConfig setParquetMaxMergeDistance(DataSize parquetMaxMergeDistance)
+    {
+        this.parquetMaxMergeDistance = parquetMaxMergeDistance;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getParquetMaxBufferSize()
+    {
+        return parquetMaxBufferSize;
+    }
+
+    @Config("hive.parquet.max-buffer-size")
+    @ConfigDescription("Maximum size of a single read; larger column chunks are split into concurrent reads")
+    public HiveClientConfig setParquetMaxBufferSize(DataSize parquetMaxBufferSize)
+    {
+        this.parquetMaxBufferSize = parquetMaxBufferSize;
+        return this;
+    }
+
     public boolean isUseOrcColumnNames()
     {
         return useOrcColumnNames;
@@ -731,6 +806,19 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isOrcStripePrefetchEnabled()
+    {
+        return orcStripePrefetchEnabled;
+    }
+
+    @Config("hive.orc.stripe-prefetch.enabled")
+    @ConfigDescription("ORC read the next stripe in the background while the current stripe is processed")
+    public HiveClientConfig setOrcStripePrefetchEnabled(boolean orcStripePrefetchEnabled)
+    {
+        this.orcStripePrefetchEnabled = orcStripePrefetchEnabled;
+        return this;
+    }
+
     public boolean isOrcBloomFiltersEnabled()
     {
         return orcBloomFiltersEnabled;
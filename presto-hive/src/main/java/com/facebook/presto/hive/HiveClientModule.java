@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.cache.FileChunkCache;
+import com.facebook.presto.hive.cache.HiveCacheConfig;
 import com.facebook.presto.hive.metastore.SemiTransactionalHiveMetastore;
 import com.facebook.presto.hive.orc.DwrfPageSourceFactory;
 import com.facebook.presto.hive.orc.OrcPageSourceFactory;
@@ -76,6 +78,10 @@ public class HiveClientModule
         binder.bind(DirectoryLister.class).to(HadoopDirectoryLister.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(HiveClientConfig.class);
 
+        configBinder(binder).bindConfig(HiveCacheConfig.class);
+        binder.bind(FileChunkCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(FileChunkCache.class).as(generatedNameOf(FileChunkCache.class, connectorId));
+
         binder.bind(HiveSessionProperties.class).in(Scopes.SINGLETON);
         binder.bind(HiveTableProperties.class).in(Scopes.SINGLETON);
 
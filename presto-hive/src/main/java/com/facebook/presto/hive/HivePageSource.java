@@ -32,6 +32,7 @@ import org.joda.time.DateTimeZone;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
@@ -246,6 +247,12 @@ public class HivePageSource
         return delegate.getSystemMemoryUsage();
     }
 
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return delegate.isBlocked();
+    }
+
     protected void closeWithSuppression(Throwable throwable)
     {
         requireNonNull(throwable, "throwable is null");
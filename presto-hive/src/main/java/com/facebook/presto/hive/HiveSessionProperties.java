@@ -23,6 +23,7 @@ import javax.inject.Inject;
 import java.util.List;
 
 import static com.facebook.presto.spi.session.PropertyMetadata.booleanSessionProperty;
+import static com.facebook.presto.spi.session.PropertyMetadata.integerSessionProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.stringSessionProperty;
 import static com.facebook.presto.spi.type.VarcharType.createUnboundedVarcharType;
 import static java.util.Locale.ENGLISH;
@@ -37,14 +38,20 @@ public final class HiveSessionProperties
     private static final String ORC_STREAM_BUFFER_SIZE = "orc_stream_buffer_size";
     private static final String ORC_MAX_READ_BLOCK_SIZE = "orc_max_read_block_size";
     private static final String ORC_LAZY_READ_SMALL_RANGES = "orc_lazy_read_small_ranges";
+    private static final String ORC_STRIPE_PREFETCH_ENABLED = "orc_stripe_prefetch_enabled";
     private static final String ORC_OPTIMIZED_WRITER_ENABLED = "orc_optimized_writer_enabled";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE = "orc_optimized_writer_validate";
     private static final String HIVE_STORAGE_FORMAT = "hive_storage_format";
     private static final String RESPECT_TABLE_FORMAT = "respect_table_format";
     private static final String PARQUET_PREDICATE_PUSHDOWN_ENABLED = "parquet_predicate_pushdown_enabled";
     private static final String PARQUET_OPTIMIZED_READER_ENABLED = "parquet_optimized_reader_enabled";
+    private static final String PARQUET_MAX_MERGE_DISTANCE = "parquet_max_merge_distance";
+    private static final String PARQUET_MAX_BUFFER_SIZE = "parquet_max_buffer_size";
     private static final String MAX_SPLIT_SIZE = "max_split_size";
     private static final String MAX_INITIAL_SPLIT_SIZE = "max_initial_split_size";
+    private static final String ADAPTIVE_SPLIT_SIZING_ENABLED = "adaptive_split_sizing_enabled";
+    private static final String ADAPTIVE_MAX_SPLIT_SIZE = "adaptive_max_split_size";
+    private static final String ADAPTIVE_SPLIT_SIZING_TARGET_SPLITS_PER_SECOND = "adaptive_split_sizing_target_splits_per_second";
     public static final String RCFILE_OPTIMIZED_WRITER_ENABLED = "rcfile_optimized_writer_enabled";
     private static final String RCFILE_OPTIMIZED_WRITER_VALIDATE = "rcfile_optimized_writer_validate";
     private static final String STATISTICS_ENABLED = "statistics_enabled";
@@ -95,6 +102,11 @@ public final class HiveSessionProperties
                         "Experimental: ORC: Read small file segments lazily",
                         config.isOrcLazyReadSmallRanges(),
                         false),
+                booleanSessionProperty(
+                        ORC_STRIPE_PREFETCH_ENABLED,
+                        "Experimental: ORC: Read the next stripe in the background",
+                        config.isOrcStripePrefetchEnabled(),
+                        false),
                 booleanSessionProperty(
                         ORC_OPTIMIZED_WRITER_ENABLED,
                         "Experimental: ORC: Enable optimized writer",
@@ -125,6 +137,16 @@ public final class HiveSessionProperties
                         "Experimental: Parquet: Enable predicate pushdown for Parquet",
                         config.isParquetPredicatePushdownEnabled(),
                         false),
+                dataSizeSessionProperty(
+                        PARQUET_MAX_MERGE_DISTANCE,
+                        "Parquet: Maximum size of gap between two column chunks to merge into a single read",
+                        config.getParquetMaxMergeDistance(),
+                        false),
+                dataSizeSessionProperty(
+                        PARQUET_MAX_BUFFER_SIZE,
+                        "Parquet: Maximum size of a single read",
+                        config.getParquetMaxBufferSize(),
+                        false),
                 dataSizeSessionProperty(
                         MAX_SPLIT_SIZE,
                         "Max split size",
@@ -135,6 +157,21 @@ public final class HiveSessionProperties
                         "Max initial split size",
                         config.getMaxInitialSplitSize(),
                         true),
+                booleanSessionProperty(
+                        ADAPTIVE_SPLIT_SIZING_ENABLED,
+                        "Experimental: Adjust the split size to the rate at which splits are processed",
+                        config.isAdaptiveSplitSizingEnabled(),
+                        false),
+                dataSizeSessionProperty(
+                        ADAPTIVE_MAX_SPLIT_SIZE,
+                        "Max split size when adaptive split sizing is enabled",
+                        config.getAdaptiveMaxSplitSize(),
+                        true),
+                integerSessionProperty(
+                        ADAPTIVE_SPLIT_SIZING_TARGET_SPLITS_PER_SECOND,
+                        "Rate of split scheduling per scan above which adaptive split sizing makes splits larger",
+                        config.getAdaptiveSplitSizingTargetSplitsPerSecond(),
+                        true),
                 booleanSessionProperty(
                         RCFILE_OPTIMIZED_WRITER_ENABLED,
                         "Experimental: RCFile: Enable optimized writer",
@@ -202,6 +239,11 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_LAZY_READ_SMALL_RANGES, Boolean.class);
     }
 
+    public static boolean isOrcStripePrefetchEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_STRIPE_PREFETCH_ENABLED, Boolean.class);
+    }
+
     public static boolean isOrcOptimizedWriterEnabled(ConnectorSession session)
     {
         return session.getProperty(ORC_OPTIMIZED_WRITER_ENABLED, Boolean.class);
@@ -227,6 +269,16 @@ public final class HiveSessionProperties
         return session.getProperty(PARQUET_PREDICATE_PUSHDOWN_ENABLED, Boolean.class);
     }
 
+    public static DataSize getParquetMaxMergeDistance(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_MAX_MERGE_DISTANCE, DataSize.class);
+    }
+
+    public static DataSize getParquetMaxBufferSize(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_MAX_BUFFER_SIZE, DataSize.class);
+    }
+
     public static DataSize getMaxSplitSize(ConnectorSession session)
     {
         return session.getProperty(MAX_SPLIT_SIZE, DataSize.class);
@@ -237,6 +289,21 @@ public final class HiveSessionProperties
         return session.getProperty(MAX_INITIAL_SPLIT_SIZE, DataSize.class);
     }
 
+    public static boolean isAdaptiveSplitSizingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ADAPTIVE_SPLIT_SIZING_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getAdaptiveMaxSplitSize(ConnectorSession session)
+    {
+        return session.getProperty(ADAPTIVE_MAX_SPLIT_SIZE, DataSize.class);
+    }
+
+    public static int getAdaptiveSplitSizingTargetSplitsPerSecond(ConnectorSession session)
+    {
+        return session.getProperty(ADAPTIVE_SPLIT_SIZING_TARGET_SPLITS_PER_SECOND, Integer.class);
+    }
+
     public static boolean isRcfileOptimizedWriterEnabled(ConnectorSession session)
     {
         return session.getProperty(RCFILE_OPTIMIZED_WRITER_ENABLED, Boolean.class);
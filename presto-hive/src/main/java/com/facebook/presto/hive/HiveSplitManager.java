@@ -14,6 +14,8 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.hive.HiveBucketing.HiveBucket;
+import com.facebook.presto.hive.cache.HiveCacheConfig;
+import com.facebook.presto.hive.cache.SoftAffinitySplitSource;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.SemiTransactionalHiveMetastore;
@@ -22,6 +24,7 @@ import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.ConnectorTableLayoutHandle;
 import com.facebook.presto.spi.FixedSplitSource;
+import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.TableNotFoundException;
@@ -91,6 +94,7 @@ public class HiveSplitManager
     private final int splitLoaderConcurrency;
     private final boolean recursiveDfsWalkerEnabled;
     private final CounterStat highMemorySplitSourceCounter;
+    private final Optional<NodeManager> softAffinityNodeManager;
 
     @Inject
     public HiveSplitManager(
@@ -100,7 +104,9 @@ public class HiveSplitManager
             HdfsEnvironment hdfsEnvironment,
             DirectoryLister directoryLister,
             @ForHiveClient ExecutorService executorService,
-            CoercionPolicy coercionPolicy)
+            CoercionPolicy coercionPolicy,
+            NodeManager nodeManager,
+            HiveCacheConfig cacheConfig)
     {
         this(
                 metastoreProvider,
@@ -116,7 +122,8 @@ public class HiveSplitManager
                 hiveClientConfig.getMaxPartitionBatchSize(),
                 hiveClientConfig.getMaxInitialSplits(),
                 hiveClientConfig.getSplitLoaderConcurrency(),
-                hiveClientConfig.getRecursiveDirWalkerEnabled());
+                hiveClientConfig.getRecursiveDirWalkerEnabled(),
+                cacheConfig.isEnabled() && cacheConfig.isSoftAffinitySchedulingEnabled() ? Optional.of(nodeManager) : Optional.empty());
     }
 
     public HiveSplitManager(
@@ -134,6 +141,41 @@ public class HiveSplitManager
             int maxInitialSplits,
             int splitLoaderConcurrency,
             boolean recursiveDfsWalkerEnabled)
+    {
+        this(
+                metastoreProvider,
+                namenodeStats,
+                hdfsEnvironment,
+                directoryLister,
+                executor,
+                coercionPolicy,
+                highMemorySplitSourceCounter,
+                maxOutstandingSplits,
+                maxOutstandingSplitsSize,
+                minPartitionBatchSize,
+                maxPartitionBatchSize,
+                maxInitialSplits,
+                splitLoaderConcurrency,
+                recursiveDfsWalkerEnabled,
+                Optional.empty());
+    }
+
+    public HiveSplitManager(
+            Function<HiveTransactionHandle, SemiTransactionalHiveMetastore> metastoreProvider,
+            NamenodeStats namenodeStats,
+            HdfsEnvironment hdfsEnvironment,
+            DirectoryLister directoryLister,
+            Executor executor,
+            CoercionPolicy coercionPolicy,
+            CounterStat highMemorySplitSourceCounter,
+            int maxOutstandingSplits,
+            DataSize maxOutstandingSplitsSize,
+            int minPartitionBatchSize,
+            int maxPartitionBatchSize,
+            int maxInitialSplits,
+            int splitLoaderConcurrency,
+            boolean recursiveDfsWalkerEnabled,
+            Optional<NodeManager> softAffinityNodeManager)
     {
         this.metastoreProvider = requireNonNull(metastoreProvider, "metastore is null");
         this.namenodeStats = requireNonNull(namenodeStats, "namenodeStats is null");
@@ -150,6 +192,7 @@ public class HiveSplitManager
         this.maxInitialSplits = maxInitialSplits;
         this.splitLoaderConcurrency = splitLoaderConcurrency;
         this.recursiveDfsWalkerEnabled = recursiveDfsWalkerEnabled;
+        this.softAffinityNodeManager = requireNonNull(softAffinityNodeManager, "softAffinityNodeManager is null");
     }
 
     @Override
@@ -239,6 +282,9 @@ public class HiveSplitManager
         }
         hiveSplitLoader.start(splitSource);
 
+        if (softAffinityNodeManager.isPresent()) {
+            return new SoftAffinitySplitSource(splitSource, softAffinityNodeManager.get());
+        }
         return splitSource;
     }
 
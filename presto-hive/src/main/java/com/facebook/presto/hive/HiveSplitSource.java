@@ -24,6 +24,7 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -34,6 +35,7 @@ import io.airlift.units.DataSize;
 import java.io.FileNotFoundException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -47,8 +49,11 @@ import java.util.function.Predicate;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILE_NOT_FOUND;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
+import static com.facebook.presto.hive.HiveSessionProperties.getAdaptiveMaxSplitSize;
+import static com.facebook.presto.hive.HiveSessionProperties.getAdaptiveSplitSizingTargetSplitsPerSecond;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxInitialSplitSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxSplitSize;
+import static com.facebook.presto.hive.HiveSessionProperties.isAdaptiveSplitSizingEnabled;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.CLOSED;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.FAILED;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.INITIAL;
@@ -83,6 +88,7 @@ class HiveSplitSource
     private final DataSize maxSplitSize;
     private final DataSize maxInitialSplitSize;
     private final AtomicInteger remainingInitialSplits;
+    private final Optional<AdaptiveSplitSizer> adaptiveSplitSizer;
 
     private final HiveSplitLoader splitLoader;
     private final AtomicReference<State> stateReference;
@@ -118,6 +124,17 @@ class HiveSplitSource
         this.maxSplitSize = getMaxSplitSize(session);
         this.maxInitialSplitSize = getMaxInitialSplitSize(session);
         this.remainingInitialSplits = new AtomicInteger(maxInitialSplits);
+        if (isAdaptiveSplitSizingEnabled(session)) {
+            this.adaptiveSplitSizer = Optional.of(new AdaptiveSplitSizer(
+                    maxSplitSize,
+                    maxInitialSplitSize,
+                    getAdaptiveMaxSplitSize(session),
+                    getAdaptiveSplitSizingTargetSplitsPerSecond(session),
+                    Ticker.systemTicker()));
+        }
+        else {
+            this.adaptiveSplitSizer = Optional.empty();
+        }
     }
 
     public static HiveSplitSource allAtOnce(
@@ -337,7 +354,7 @@ class HiveSplitSource
             ImmutableList.Builder<ConnectorSplit> resultBuilder = ImmutableList.builder();
             int removedEstimatedSizeInBytes = 0;
             for (InternalHiveSplit internalSplit : internalSplits) {
-                long maxSplitBytes = maxSplitSize.toBytes();
+                long maxSplitBytes = adaptiveSplitSizer.map(AdaptiveSplitSizer::getSplitBytes).orElse(maxSplitSize.toBytes());
                 if (remainingInitialSplits.get() > 0) {
                     if (remainingInitialSplits.getAndDecrement() > 0) {
                         maxSplitBytes = maxInitialSplitSize.toBytes();
@@ -345,7 +362,11 @@ class HiveSplitSource
                 }
                 InternalHiveBlock block = internalSplit.currentBlock();
                 long splitBytes;
-                if (internalSplit.isSplittable()) {
+                if (internalSplit.isSplittable() && adaptiveSplitSizer.isPresent() && !internalSplit.isForceLocalScheduling()) {
+                    // adaptive splits may span blocks, because blocks of object stores are small
+                    splitBytes = internalSplit.getSpanningSplitBytes(maxSplitBytes);
+                }
+                else if (internalSplit.isSplittable()) {
                     splitBytes = min(maxSplitBytes, block.getEnd() - internalSplit.getStart());
                 }
                 else {
@@ -360,6 +381,7 @@ class HiveSplitSource
                         internalSplit.getStart(),
                         splitBytes,
                         internalSplit.getFileSize(),
+                        internalSplit.getFileModifiedTime(),
                         internalSplit.getSchema(),
                         internalSplit.getPartitionKeys(),
                         block.getAddresses(),
@@ -381,6 +403,7 @@ class HiveSplitSource
             List<InternalHiveSplit> splitsToInsert = splitsToInsertBuilder.build();
             List<ConnectorSplit> result = resultBuilder.build();
             bufferedInternalSplitCount.addAndGet(splitsToInsert.size() - result.size());
+            adaptiveSplitSizer.ifPresent(sizer -> sizer.recordSplits(result.size()));
 
             return new AsyncQueue.BorrowResult<>(splitsToInsert, result);
         });
@@ -30,6 +30,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static io.airlift.slice.SizeOf.sizeOfObjectArray;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -46,6 +47,7 @@ public class InternalHiveSplit
     private final String path;
     private final long end;
     private final long fileSize;
+    private final long fileModifiedTime;
     private final Properties schema;
     private final List<HivePartitionKey> partitionKeys;
     private final List<InternalHiveBlock> blocks;
@@ -64,6 +66,7 @@ public class InternalHiveSplit
             long start,
             long end,
             long fileSize,
+            long fileModifiedTime,
             Properties schema,
             List<HivePartitionKey> partitionKeys,
             List<InternalHiveBlock> blocks,
@@ -88,6 +91,7 @@ public class InternalHiveSplit
         this.start = start;
         this.end = end;
         this.fileSize = fileSize;
+        this.fileModifiedTime = fileModifiedTime;
         this.schema = schema;
         this.partitionKeys = ImmutableList.copyOf(partitionKeys);
         this.blocks = ImmutableList.copyOf(blocks);
@@ -117,6 +121,11 @@ public class InternalHiveSplit
         return fileSize;
     }
 
+    public long getFileModifiedTime()
+    {
+        return fileModifiedTime;
+    }
+
     public Properties getSchema()
     {
         return schema;
@@ -163,15 +172,30 @@ public class InternalHiveSplit
         return currentBlockIndex == blocks.size();
     }
 
+    /**
+     * Returns the size of the next split of at most {@code maxSplitBytes}, which may span
+     * several blocks. The split ends at a block boundary, unless the current block alone
+     * is larger than {@code maxSplitBytes}.
+     */
+    public long getSpanningSplitBytes(long maxSplitBytes)
+    {
+        long splitEnd = min(currentBlock().getEnd(), start + maxSplitBytes);
+        for (int i = currentBlockIndex + 1; i < blocks.size() && blocks.get(i).getEnd() - start <= maxSplitBytes; i++) {
+            splitEnd = blocks.get(i).getEnd();
+        }
+        return splitEnd - start;
+    }
+
     public void increaseStart(long value)
     {
         start += value;
-        if (start == currentBlock().getEnd()) {
+        while (start >= currentBlock().getEnd()) {
+            verify(start == currentBlock().getEnd() || currentBlockIndex + 1 < blocks.size(), "start is beyond the last block");
             currentBlockIndex++;
             if (isDone()) {
                 return;
             }
-            verify(start == currentBlock().getStart());
+            verify(start >= currentBlock().getStart());
         }
     }
 
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.IOException;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serves positioned reads, which the columnar readers use, from a {@link FileChunkCache}.
+ * A miss reads the whole enclosing chunk from the remote file and adds it to the cache.
+ * Sequential reads go directly to the remote file.
+ */
+class CachingInputStream
+        extends FSInputStream
+{
+    private final FileChunkCache cache;
+    private final FSDataInputStream delegate;
+    private final String path;
+    private final long fileSize;
+    private final long fileModifiedTime;
+    private final int chunkSize;
+
+    public CachingInputStream(FileChunkCache cache, FSDataInputStream delegate, String path, long fileSize, long fileModifiedTime, int chunkSize)
+    {
+        this.cache = requireNonNull(cache, "cache is null");
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.path = requireNonNull(path, "path is null");
+        this.fileSize = fileSize;
+        this.fileModifiedTime = fileModifiedTime;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (position < 0 || position >= fileSize) {
+            return delegate.read(position, buffer, offset, length);
+        }
+        int bytesToRead = toIntExact(min(length, fileSize - position));
+        readFully(position, buffer, offset, bytesToRead);
+        return bytesToRead;
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (position < 0 || position + length > fileSize) {
+            // let the remote file report the error
+            delegate.readFully(position, buffer, offset, length);
+            return;
+        }
+
+        while (length > 0) {
+            long chunkOffset = position - (position % chunkSize);
+            int positionInChunk = toIntExact(position - chunkOffset);
+            int chunkLength = toIntExact(min(chunkSize, fileSize - chunkOffset));
+            int bytesToRead = min(length, chunkLength - positionInChunk);
+
+            FileChunkKey key = new FileChunkKey(path, fileModifiedTime, chunkOffset);
+            if (!cache.read(key, positionInChunk, buffer, offset, bytesToRead)) {
+                byte[] chunk = new byte[chunkLength];
+                delegate.readFully(chunkOffset, chunk);
+                System.arraycopy(chunk, positionInChunk, buffer, offset, bytesToRead);
+                cache.put(key, chunk);
+            }
+
+            position += bytesToRead;
+            offset += bytesToRead;
+            length -= bytesToRead;
+        }
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer)
+            throws IOException
+    {
+        readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void seek(long position)
+            throws IOException
+    {
+        delegate.seek(position);
+    }
+
+    @Override
+    public long getPos()
+            throws IOException
+    {
+        return delegate.getPos();
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPosition)
+            throws IOException
+    {
+        return delegate.seekToNewSource(targetPosition);
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        return delegate.read();
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        return delegate.read(buffer, offset, length);
+    }
+
+    @Override
+    public long skip(long n)
+            throws IOException
+    {
+        return delegate.skip(n);
+    }
+
+    @Override
+    public int available()
+            throws IOException
+    {
+        return delegate.available();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+}
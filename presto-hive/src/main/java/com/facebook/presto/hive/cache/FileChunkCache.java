@@ -0,0 +1,391 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.hive.ForHiveClient;
+import com.facebook.presto.hive.HiveConnectorId;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.lang.Math.toIntExact;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.write;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read-through cache of remote file data on local disk. Files are cached in
+ * fixed-size chunks, each stored in its own local file, and the least recently
+ * used chunks are evicted when the cache exceeds its maximum size. Chunks are
+ * written to disk in the background, so a miss only costs the remote read.
+ * Each catalog keeps its chunks in its own subdirectory of the base directory,
+ * so catalogs sharing a base directory do not overwrite or delete each other's chunks.
+ */
+@ThreadSafe
+public class FileChunkCache
+{
+    private static final Logger log = Logger.get(FileChunkCache.class);
+
+    private static final String CHUNK_SUFFIX = ".chunk";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    // chunks waiting to be written are held in memory, so drop new ones when the disk falls behind
+    private static final long MAX_PENDING_POPULATION_BYTES = 256L * 1024 * 1024;
+
+    private final boolean enabled;
+    private final Path baseDirectory;
+    private final long maxSizeInBytes;
+    private final int chunkSize;
+    private final Executor populationExecutor;
+
+    @GuardedBy("this")
+    private final LinkedHashMap<FileChunkKey, CachedChunk> chunks = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long cacheSizeInBytes;
+
+    private final AtomicLong pendingPopulationBytes = new AtomicLong();
+    private final AtomicLong nextChunkId = new AtomicLong();
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat hitBytes = new CounterStat();
+    private final CounterStat populatedBytes = new CounterStat();
+    private final CounterStat evictedBytes = new CounterStat();
+
+    @Inject
+    public FileChunkCache(HiveConnectorId connectorId, HiveCacheConfig config, @ForHiveClient ExecutorService executorService)
+    {
+        this(connectorId, config, (Executor) executorService);
+    }
+
+    private FileChunkCache(HiveConnectorId connectorId, HiveCacheConfig config, Executor populationExecutor)
+    {
+        requireNonNull(connectorId, "connectorId is null");
+        requireNonNull(config, "config is null");
+        this.enabled = config.isEnabled();
+        this.baseDirectory = enabled ? Paths.get(config.getBaseDirectory()).resolve(connectorId.toString()) : null;
+        this.maxSizeInBytes = config.getMaxSize().toBytes();
+        this.chunkSize = toIntExact(config.getChunkSize().toBytes());
+        this.populationExecutor = requireNonNull(populationExecutor, "populationExecutor is null");
+
+        if (enabled) {
+            deleteStaleChunks();
+        }
+    }
+
+    public static FileChunkCache disabled()
+    {
+        return new FileChunkCache(new HiveConnectorId("disabled"), new HiveCacheConfig(), directExecutor());
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Returns a stream that serves positioned reads through this cache, or the
+     * given stream if the cache is disabled.
+     */
+    public FSDataInputStream wrap(String path, long fileSize, long fileModifiedTime, FSDataInputStream inputStream)
+    {
+        if (!enabled) {
+            return inputStream;
+        }
+        return new FSDataInputStream(new CachingInputStream(this, inputStream, path, fileSize, fileModifiedTime, chunkSize));
+    }
+
+    /**
+     * Copies part of a cached chunk into the buffer.
+     *
+     * @return false if the chunk is not cached, in which case the buffer is unspecified
+     */
+    public boolean read(FileChunkKey key, int positionInChunk, byte[] buffer, int offset, int length)
+    {
+        CachedChunk chunk;
+        synchronized (this) {
+            chunk = chunks.get(key);
+        }
+        if (chunk == null || !chunk.isPopulated() || positionInChunk + length > chunk.getLength()) {
+            misses.update(1);
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(chunk.getFile(), READ)) {
+            ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+            long position = positionInChunk;
+            while (target.hasRemaining()) {
+                int bytesRead = channel.read(target, position);
+                if (bytesRead < 0) {
+                    throw new EOFException("Unexpected end of cached chunk " + chunk.getFile());
+                }
+                position += bytesRead;
+            }
+        }
+        catch (IOException e) {
+            // the chunk was evicted while being read, or the local disk failed
+            invalidate(key, chunk);
+            misses.update(1);
+            return false;
+        }
+
+        hits.update(1);
+        hitBytes.update(length);
+        return true;
+    }
+
+    /**
+     * Adds a chunk to the cache. The chunk is written to disk asynchronously, so
+     * the caller must not modify the data afterwards.
+     */
+    public void put(FileChunkKey key, byte[] data)
+    {
+        if (!enabled || data.length > maxSizeInBytes) {
+            return;
+        }
+        if (pendingPopulationBytes.addAndGet(data.length) > MAX_PENDING_POPULATION_BYTES) {
+            pendingPopulationBytes.addAndGet(-data.length);
+            return;
+        }
+
+        CachedChunk chunk = new CachedChunk(baseDirectory.resolve(nextChunkId.incrementAndGet() + CHUNK_SUFFIX), data.length);
+        List<CachedChunk> evictedChunks = new ArrayList<>();
+        synchronized (this) {
+            if (chunks.containsKey(key)) {
+                pendingPopulationBytes.addAndGet(-data.length);
+                return;
+            }
+            chunks.put(key, chunk);
+            cacheSizeInBytes += data.length;
+
+            // iteration is in access order, so the least recently used chunks come first
+            Iterator<CachedChunk> iterator = chunks.values().iterator();
+            while (cacheSizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+                CachedChunk candidate = iterator.next();
+                if (candidate == chunk) {
+                    continue;
+                }
+                iterator.remove();
+                cacheSizeInBytes -= candidate.getLength();
+                candidate.setEvicted();
+                evictedChunks.add(candidate);
+            }
+        }
+        for (CachedChunk evictedChunk : evictedChunks) {
+            evictedBytes.update(evictedChunk.getLength());
+            deleteChunkFile(evictedChunk);
+        }
+
+        try {
+            populationExecutor.execute(() -> populate(key, chunk, data));
+        }
+        catch (RejectedExecutionException e) {
+            pendingPopulationBytes.addAndGet(-data.length);
+            invalidate(key, chunk);
+        }
+    }
+
+    private void populate(FileChunkKey key, CachedChunk chunk, byte[] data)
+    {
+        Path temporaryFile = chunk.getFile().resolveSibling(chunk.getFile().getFileName() + TEMPORARY_SUFFIX);
+        try {
+            write(temporaryFile, data);
+            move(temporaryFile, chunk.getFile(), ATOMIC_MOVE);
+            synchronized (this) {
+                if (!chunk.isEvicted()) {
+                    chunk.setPopulated();
+                    populatedBytes.update(data.length);
+                    return;
+                }
+            }
+            deleteChunkFile(chunk);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to cache chunk %s", key);
+            try {
+                deleteIfExists(temporaryFile);
+            }
+            catch (IOException ignored) {
+            }
+            invalidate(key, chunk);
+        }
+        finally {
+            pendingPopulationBytes.addAndGet(-data.length);
+        }
+    }
+
+    private void invalidate(FileChunkKey key, CachedChunk chunk)
+    {
+        synchronized (this) {
+            if (!chunks.remove(key, chunk)) {
+                return;
+            }
+            cacheSizeInBytes -= chunk.getLength();
+            chunk.setEvicted();
+        }
+        deleteChunkFile(chunk);
+    }
+
+    private static void deleteChunkFile(CachedChunk chunk)
+    {
+        try {
+            deleteIfExists(chunk.getFile());
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete cached chunk %s", chunk.getFile());
+        }
+    }
+
+    private void deleteStaleChunks()
+    {
+        try {
+            createDirectories(baseDirectory);
+            try (DirectoryStream<Path> files = newDirectoryStream(baseDirectory, "*{" + CHUNK_SUFFIX + "," + TEMPORARY_SUFFIX + "}")) {
+                for (Path file : files) {
+                    deleteIfExists(file);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize cache directory " + baseDirectory, e);
+        }
+    }
+
+    @Managed
+    public synchronized long getCacheSizeInBytes()
+    {
+        return cacheSizeInBytes;
+    }
+
+    @Managed
+    public synchronized long getCachedChunks()
+    {
+        return chunks.size();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        long hitCount = hits.getTotalCount();
+        long requestCount = hitCount + misses.getTotalCount();
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHitBytes()
+    {
+        return hitBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPopulatedBytes()
+    {
+        return populatedBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictedBytes()
+    {
+        return evictedBytes;
+    }
+
+    private static class CachedChunk
+    {
+        private final Path file;
+        private final int length;
+        private volatile boolean populated;
+        private volatile boolean evicted;
+
+        public CachedChunk(Path file, int length)
+        {
+            this.file = requireNonNull(file, "file is null");
+            this.length = length;
+        }
+
+        public Path getFile()
+        {
+            return file;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+
+        public boolean isPopulated()
+        {
+            return populated;
+        }
+
+        public void setPopulated()
+        {
+            populated = true;
+        }
+
+        public boolean isEvicted()
+        {
+            return evicted;
+        }
+
+        public void setEvicted()
+        {
+            evicted = true;
+        }
+    }
+}
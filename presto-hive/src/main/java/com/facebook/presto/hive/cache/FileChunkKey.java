@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies a chunk of a remote file. The modification time is part of the key,
+ * so that chunks of a file that was overwritten are never served.
+ */
+public final class FileChunkKey
+{
+    private final String path;
+    private final long modificationTime;
+    private final long chunkOffset;
+
+    public FileChunkKey(String path, long modificationTime, long chunkOffset)
+    {
+        this.path = requireNonNull(path, "path is null");
+        this.modificationTime = modificationTime;
+        this.chunkOffset = chunkOffset;
+    }
+
+    public String getPath()
+    {
+        return path;
+    }
+
+    public long getModificationTime()
+    {
+        return modificationTime;
+    }
+
+    public long getChunkOffset()
+    {
+        return chunkOffset;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FileChunkKey that = (FileChunkKey) o;
+        return modificationTime == that.modificationTime &&
+                chunkOffset == that.chunkOffset &&
+                path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(path, modificationTime, chunkOffset);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("path", path)
+                .add("modificationTime", modificationTime)
+                .add("chunkOffset", chunkOffset)
+                .toString();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class HiveCacheConfig
+{
+    private boolean enabled;
+    private String baseDirectory;
+    private DataSize maxSize = new DataSize(100, GIGABYTE);
+    private DataSize chunkSize = new DataSize(1, MEGABYTE);
+    private boolean softAffinitySchedulingEnabled = true;
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("hive.cache.enabled")
+    @ConfigDescription("Cache remote file data on local disk")
+    public HiveCacheConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public String getBaseDirectory()
+    {
+        return baseDirectory;
+    }
+
+    @Config("hive.cache.base-directory")
+    @ConfigDescription("Local directory, preferably on SSD, where cached file data is stored")
+    public HiveCacheConfig setBaseDirectory(String baseDirectory)
+    {
+        this.baseDirectory = baseDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Config("hive.cache.max-size")
+    @ConfigDescription("Maximum size of the local cache; least recently used data is evicted beyond it")
+    public HiveCacheConfig setMaxSize(DataSize maxSize)
+    {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("64kB")
+    @MaxDataSize("64MB")
+    public DataSize getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    @Config("hive.cache.chunk-size")
+    @ConfigDescription("Size of the file regions the cache stores and evicts as a unit")
+    public HiveCacheConfig setChunkSize(DataSize chunkSize)
+    {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public boolean isSoftAffinitySchedulingEnabled()
+    {
+        return softAffinitySchedulingEnabled;
+    }
+
+    @Config("hive.cache.soft-affinity-scheduling-enabled")
+    @ConfigDescription("Prefer scheduling splits of a file on the same worker, so that its cache can be reused")
+    public HiveCacheConfig setSoftAffinitySchedulingEnabled(boolean softAffinitySchedulingEnabled)
+    {
+        this.softAffinitySchedulingEnabled = softAffinitySchedulingEnabled;
+        return this;
+    }
+
+    @AssertTrue(message = "hive.cache.base-directory must be set when hive.cache.enabled is true")
+    public boolean isBaseDirectorySetWhenEnabled()
+    {
+        return !enabled || baseDirectory != null;
+    }
+}
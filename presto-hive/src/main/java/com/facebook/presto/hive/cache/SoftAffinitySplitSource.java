@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.hive.HiveSplit;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.ConnectorSplitSource;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
+import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashFunction;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.hash.Hashing.murmur3_128;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sets the address of each split to a worker chosen by rendezvous hashing of the
+ * file path, so that all splits of a file prefer the same worker and hit its local
+ * cache. Adding or removing a worker only moves the files that hash to it. The
+ * address is a preference: remotely accessible splits still go to other workers
+ * when the preferred one is busy.
+ */
+public class SoftAffinitySplitSource
+        implements ConnectorSplitSource
+{
+    private static final HashFunction HASH_FUNCTION = murmur3_128();
+
+    private final ConnectorSplitSource delegate;
+    private final NodeManager nodeManager;
+
+    public SoftAffinitySplitSource(ConnectorSplitSource delegate, NodeManager nodeManager)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
+    }
+
+    @Override
+    public CompletableFuture<ConnectorSplitBatch> getNextBatch(ConnectorPartitionHandle partitionHandle, int maxSize)
+    {
+        return delegate.getNextBatch(partitionHandle, maxSize).thenApply(this::assignPreferredNodes);
+    }
+
+    @Override
+    public void close()
+    {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return delegate.isFinished();
+    }
+
+    private ConnectorSplitBatch assignPreferredNodes(ConnectorSplitBatch batch)
+    {
+        List<Node> nodes = ImmutableList.copyOf(nodeManager.getWorkerNodes());
+        if (nodes.isEmpty()) {
+            return batch;
+        }
+
+        ImmutableList.Builder<ConnectorSplit> splits = ImmutableList.builder();
+        for (ConnectorSplit split : batch.getSplits()) {
+            HiveSplit hiveSplit = (HiveSplit) split;
+            if (hiveSplit.isForceLocalScheduling()) {
+                splits.add(hiveSplit);
+                continue;
+            }
+            Node preferredNode = selectPreferredNode(hiveSplit.getPath(), nodes);
+            splits.add(new HiveSplit(
+                    hiveSplit.getDatabase(),
+                    hiveSplit.getTable(),
+                    hiveSplit.getPartitionName(),
+                    hiveSplit.getPath(),
+                    hiveSplit.getStart(),
+                    hiveSplit.getLength(),
+                    hiveSplit.getFileSize(),
+                    hiveSplit.getFileModifiedTime(),
+                    hiveSplit.getSchema(),
+                    hiveSplit.getPartitionKeys(),
+                    ImmutableList.of(preferredNode.getHostAndPort()),
+                    hiveSplit.getBucketNumber(),
+                    false,
+                    hiveSplit.getEffectivePredicate(),
+                    hiveSplit.getColumnCoercions()));
+        }
+        return new ConnectorSplitBatch(splits.build(), batch.isNoMoreSplits());
+    }
+
+    static Node selectPreferredNode(String path, List<Node> nodes)
+    {
+        Node preferredNode = null;
+        long maxScore = Long.MIN_VALUE;
+        for (Node node : nodes) {
+            long score = HASH_FUNCTION.newHasher()
+                    .putString(path, UTF_8)
+                    .putString(node.getNodeIdentifier(), UTF_8)
+                    .hash()
+                    .asLong();
+            if (preferredNode == null || score > maxScore) {
+                preferredNode = node;
+                maxScore = score;
+            }
+        }
+        return preferredNode;
+    }
+}
@@ -34,6 +34,7 @@ import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
@@ -197,6 +198,15 @@ public class OrcPageSource
         return systemMemoryContext.getBytes();
     }
 
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        if (closed) {
+            return NOT_BLOCKED;
+        }
+        return recordReader.isBlocked();
+    }
+
     protected void closeWithSuppression(Throwable throwable)
     {
         requireNonNull(throwable, "throwable is null");
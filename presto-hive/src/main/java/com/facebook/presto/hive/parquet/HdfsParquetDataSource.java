@@ -13,32 +13,63 @@
  */
 package com.facebook.presto.hive.parquet;
 
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.HdfsEnvironment;
+import com.facebook.presto.orc.DiskRange;
 import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.nullToEmpty;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 public class HdfsParquetDataSource
         implements ParquetDataSource
 {
+    private static final DataSize DEFAULT_MAX_READ_SIZE = new DataSize(8, MEGABYTE);
+
     private final String name;
     private final long size;
     private final FSDataInputStream inputStream;
+    private final int maxReadSize;
+    private final Executor executor;
+    private final FileFormatDataSourceStats stats;
     private long readBytes;
 
     public HdfsParquetDataSource(Path path, long size, FSDataInputStream inputStream)
+    {
+        this(path, size, inputStream, DEFAULT_MAX_READ_SIZE, directExecutor(), new FileFormatDataSourceStats());
+    }
+
+    public HdfsParquetDataSource(Path path, long size, FSDataInputStream inputStream, DataSize maxReadSize, Executor executor, FileFormatDataSourceStats stats)
     {
         this.name = path.toString();
         this.size = size;
         this.inputStream = inputStream;
+        this.maxReadSize = toIntExact(requireNonNull(maxReadSize, "maxReadSize is null").toBytes());
+        checkArgument(this.maxReadSize > 0, "maxReadSize must be greater than 0");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.stats = requireNonNull(stats, "stats is null");
     }
 
     @Override
@@ -73,10 +104,37 @@ public class HdfsParquetDataSource
         readBytes += bufferLength;
     }
 
+    @Override
+    public CompletableFuture<Map<DiskRange, byte[]>> readFullyAsync(Collection<DiskRange> diskRanges)
+    {
+        ImmutableMap.Builder<DiskRange, byte[]> buffers = ImmutableMap.builder();
+        List<CompletableFuture<?>> reads = new ArrayList<>();
+        for (DiskRange diskRange : diskRanges) {
+            byte[] buffer = new byte[diskRange.getLength()];
+            buffers.put(diskRange, buffer);
+            readBytes += buffer.length;
+
+            // ranges larger than the max read size are split, and each piece is read
+            // directly into its slot of the buffer, so the pieces can be fetched concurrently
+            for (int bufferOffset = 0; bufferOffset < buffer.length; bufferOffset += maxReadSize) {
+                long position = diskRange.getOffset() + bufferOffset;
+                int offset = bufferOffset;
+                int length = min(maxReadSize, buffer.length - bufferOffset);
+                reads.add(CompletableFuture.runAsync(() -> readInternal(position, buffer, offset, length), executor));
+            }
+        }
+
+        Map<DiskRange, byte[]> result = buffers.build();
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> result);
+    }
+
     private void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
     {
         try {
+            long readStart = System.nanoTime();
             inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+            stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
         }
         catch (PrestoException e) {
             // just in case there is a Presto wrapper or hook
@@ -90,15 +148,40 @@ public class HdfsParquetDataSource
     public static HdfsParquetDataSource buildHdfsParquetDataSource(FileSystem fileSystem, Path path, long start, long length, long fileSize)
     {
         try {
-            FSDataInputStream inputStream = fileSystem.open(path);
-            return new HdfsParquetDataSource(path, fileSize, inputStream);
+            return new HdfsParquetDataSource(path, fileSize, fileSystem.open(path));
         }
         catch (Exception e) {
-            if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
-                    e instanceof FileNotFoundException) {
-                throw new PrestoException(HIVE_CANNOT_OPEN_SPLIT, e);
-            }
-            throw new PrestoException(HIVE_CANNOT_OPEN_SPLIT, format("Error opening Hive split %s (offset=%s, length=%s): %s", path, start, length, e.getMessage()), e);
+            throw openSplitError(e, path, start, length);
+        }
+    }
+
+    public static HdfsParquetDataSource buildHdfsParquetDataSource(
+            HdfsEnvironment hdfsEnvironment,
+            FileSystem fileSystem,
+            Path path,
+            long start,
+            long length,
+            long fileSize,
+            long fileModifiedTime,
+            DataSize maxReadSize,
+            Executor executor,
+            FileFormatDataSourceStats stats)
+    {
+        try {
+            FSDataInputStream inputStream = hdfsEnvironment.open(fileSystem, path, fileSize, fileModifiedTime);
+            return new HdfsParquetDataSource(path, fileSize, inputStream, maxReadSize, executor, stats);
+        }
+        catch (Exception e) {
+            throw openSplitError(e, path, start, length);
+        }
+    }
+
+    private static PrestoException openSplitError(Exception e, Path path, long start, long length)
+    {
+        if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
+                e instanceof FileNotFoundException) {
+            return new PrestoException(HIVE_CANNOT_OPEN_SPLIT, e);
         }
+        return new PrestoException(HIVE_CANNOT_OPEN_SPLIT, format("Error opening Hive split %s (offset=%s, length=%s): %s", path, start, length, e.getMessage()), e);
     }
 }
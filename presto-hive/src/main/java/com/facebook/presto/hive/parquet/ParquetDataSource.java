@@ -13,8 +13,16 @@
  */
 package com.facebook.presto.hive.parquet;
 
+import com.facebook.presto.orc.DiskRange;
+import com.google.common.collect.ImmutableMap;
+
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 public interface ParquetDataSource
         extends Closeable
@@ -27,6 +35,22 @@ public interface ParquetDataSource
 
     void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength);
 
+    /**
+     * Reads the specified non-overlapping disk ranges into newly allocated buffers.
+     * Implementations may issue the reads concurrently, in which case the returned
+     * future completes once all buffers are filled.
+     */
+    default CompletableFuture<Map<DiskRange, byte[]>> readFullyAsync(Collection<DiskRange> diskRanges)
+    {
+        ImmutableMap.Builder<DiskRange, byte[]> buffers = ImmutableMap.builder();
+        for (DiskRange diskRange : diskRanges) {
+            byte[] buffer = new byte[diskRange.getLength()];
+            readFully(diskRange.getOffset(), buffer);
+            buffers.put(diskRange, buffer);
+        }
+        return completedFuture(buffers.build());
+    }
+
     @Override
     default void close()
             throws IOException
@@ -13,11 +13,13 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.FileFormatDataSourceStats;
 import com.facebook.presto.hive.parquet.ParquetCorruptionException;
 import com.facebook.presto.hive.parquet.ParquetDataSource;
 import com.facebook.presto.hive.parquet.RichColumnDescriptor;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.orc.DiskRange;
 import com.facebook.presto.spi.block.ArrayBlock;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.RowBlock;
@@ -27,6 +29,8 @@ import com.facebook.presto.spi.type.NamedTypeSignature;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.spi.type.TypeSignatureParameter;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import parquet.column.ColumnDescriptor;
@@ -42,21 +46,29 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getColumns;
 import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getDescriptor;
 import static com.facebook.presto.hive.parquet.ParquetValidationUtils.validateParquet;
+import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
 import static com.facebook.presto.spi.type.StandardTypes.ARRAY;
 import static com.facebook.presto.spi.type.StandardTypes.MAP;
 import static com.facebook.presto.spi.type.StandardTypes.ROW;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 public class ParquetReader
         implements Closeable
 {
+    private static final CompletableFuture<?> NOT_BLOCKED = completedFuture(null);
     private static final int MAX_VECTOR_LENGTH = 1024;
     private static final String MAP_TYPE_NAME = "map";
     private static final String MAP_KEY_NAME = "key";
@@ -69,6 +81,9 @@ public class ParquetReader
     private final List<BlockMetaData> blocks;
     private final ParquetDataSource dataSource;
     private final TypeManager typeManager;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxBufferSize;
+    private final FileFormatDataSourceStats stats;
 
     private int currentBlock;
     private BlockMetaData currentBlockMetadata;
@@ -77,8 +92,11 @@ public class ParquetReader
     private long nextRowInGroup;
     private int batchSize;
     private final Map<ColumnDescriptor, ParquetColumnReader> columnReadersMap = new HashMap<>();
+    private CompletableFuture<Map<ColumnPath, ParquetColumnChunk>> columnChunks;
+    private CompletableFuture<Map<ColumnPath, ParquetColumnChunk>> nextColumnChunks;
 
     private AggregatedMemoryContext currentRowGroupMemoryContext;
+    private AggregatedMemoryContext nextRowGroupMemoryContext;
     private final AggregatedMemoryContext systemMemoryContext;
 
     public ParquetReader(MessageType fileSchema,
@@ -86,13 +104,19 @@ public class ParquetReader
             List<BlockMetaData> blocks,
             ParquetDataSource dataSource,
             TypeManager typeManager,
-            AggregatedMemoryContext systemMemoryContext)
+            AggregatedMemoryContext systemMemoryContext,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize,
+            FileFormatDataSourceStats stats)
     {
         this.fileSchema = fileSchema;
         this.requestedSchema = requestedSchema;
         this.blocks = blocks;
         this.dataSource = dataSource;
         this.typeManager = typeManager;
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
+        this.stats = requireNonNull(stats, "stats is null");
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
         this.currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
         initializeColumnReaders();
@@ -102,10 +126,33 @@ public class ParquetReader
     public void close()
             throws IOException
     {
+        // the data source and the buffers must outlive reads that are still in flight
+        awaitQuietly(columnChunks);
+        awaitQuietly(nextColumnChunks);
         currentRowGroupMemoryContext.close();
+        if (nextRowGroupMemoryContext != null) {
+            nextRowGroupMemoryContext.close();
+        }
         dataSource.close();
     }
 
+    /**
+     * Returns a future that completes once the column chunks of the row group read by the next
+     * batch are loaded. When the current row group is exhausted, this issues the reads for the
+     * next row group, so they can proceed while the driver is blocked.
+     */
+    public CompletableFuture<?> isBlocked()
+    {
+        if (nextRowInGroup < currentGroupRowCount || currentBlock == blocks.size()) {
+            return NOT_BLOCKED;
+        }
+        if (nextColumnChunks == null) {
+            nextRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+            nextColumnChunks = readColumnChunks(blocks.get(currentBlock), nextRowGroupMemoryContext);
+        }
+        return nextColumnChunks;
+    }
+
     public long getPosition()
     {
         return currentPosition;
@@ -133,7 +180,17 @@ public class ParquetReader
     private boolean advanceToNextRowGroup()
     {
         currentRowGroupMemoryContext.close();
-        currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+        if (nextColumnChunks != null) {
+            // reads for this row group were already issued by isBlocked
+            currentRowGroupMemoryContext = nextRowGroupMemoryContext;
+            columnChunks = nextColumnChunks;
+            nextRowGroupMemoryContext = null;
+            nextColumnChunks = null;
+        }
+        else {
+            currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+            columnChunks = null;
+        }
 
         if (currentBlock == blocks.size()) {
             return false;
@@ -252,35 +309,109 @@ public class ParquetReader
         ParquetColumnReader columnReader = columnReadersMap.get(columnDescriptor);
         if (columnReader.getPageReader() == null) {
             validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
-            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
-            long startingPosition = metadata.getStartingPos();
-            int totalSize = toIntExact(metadata.getTotalSize());
-            byte[] buffer = allocateBlock(totalSize);
-            dataSource.readFully(startingPosition, buffer);
-            ParquetColumnChunkDescriptor descriptor = new ParquetColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
-            ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
+            if (columnChunks == null) {
+                columnChunks = readColumnChunks(currentBlockMetadata, currentRowGroupMemoryContext);
+            }
+            ParquetColumnChunk columnChunk = getColumnChunks().get(ColumnPath.get(columnDescriptor.getPath()));
+            if (columnChunk == null) {
+                throw new ParquetCorruptionException("Metadata is missing for column: %s", columnDescriptor);
+            }
             columnReader.setPageReader(columnChunk.readAllPages());
         }
         return columnReader.readPrimitive(type, offsets);
     }
 
-    private byte[] allocateBlock(int length)
+    private Map<ColumnPath, ParquetColumnChunk> getColumnChunks()
+            throws IOException
     {
-        byte[] buffer = new byte[length];
-        LocalMemoryContext blockMemoryContext = currentRowGroupMemoryContext.newLocalMemoryContext();
-        blockMemoryContext.setBytes(buffer.length);
-        return buffer;
+        try {
+            // only blocks when the caller did not wait for isBlocked
+            return columnChunks.join();
+        }
+        catch (CompletionException e) {
+            throwIfUnchecked(e.getCause());
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throw new IOException(e.getCause());
+        }
     }
 
-    private ColumnChunkMetaData getColumnChunkMetaData(ColumnDescriptor columnDescriptor)
-            throws IOException
+    /**
+     * Reads the chunks of all requested columns of a row group at once. Chunks that are close
+     * to each other are merged into a single read, and the resulting reads are handed to the
+     * data source together so they can be issued concurrently. Columns without metadata in the
+     * row group are left out of the result and reported when they are read.
+     */
+    private CompletableFuture<Map<ColumnPath, ParquetColumnChunk>> readColumnChunks(BlockMetaData block, AggregatedMemoryContext memoryContext)
+    {
+        Map<ColumnPath, ParquetColumnChunkDescriptor> descriptors = new HashMap<>();
+        Map<ColumnPath, DiskRange> diskRanges = new HashMap<>();
+        for (ColumnDescriptor columnDescriptor : columnReadersMap.keySet()) {
+            Optional<ColumnChunkMetaData> metadata = getColumnChunkMetaData(block, columnDescriptor);
+            if (!metadata.isPresent()) {
+                continue;
+            }
+            int totalSize = toIntExact(metadata.get().getTotalSize());
+            descriptors.put(metadata.get().getPath(), new ParquetColumnChunkDescriptor(columnDescriptor, metadata.get(), totalSize));
+            diskRanges.put(metadata.get().getPath(), new DiskRange(metadata.get().getStartingPos(), totalSize));
+        }
+        if (diskRanges.isEmpty()) {
+            return completedFuture(ImmutableMap.of());
+        }
+
+        List<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxBufferSize);
+        long readBytes = 0;
+        for (DiskRange mergedRange : mergedRanges) {
+            readBytes += mergedRange.getLength();
+        }
+        LocalMemoryContext buffersMemoryContext = memoryContext.newLocalMemoryContext();
+        buffersMemoryContext.setBytes(readBytes);
+
+        long usedBytes = 0;
+        for (DiskRange diskRange : diskRanges.values()) {
+            usedBytes += diskRange.getLength();
+        }
+        stats.addCoalescedRead(readBytes, usedBytes);
+
+        return dataSource.readFullyAsync(mergedRanges).thenApply(buffers -> {
+            ImmutableMap.Builder<ColumnPath, ParquetColumnChunk> chunks = ImmutableMap.builder();
+            for (Map.Entry<ColumnPath, DiskRange> entry : diskRanges.entrySet()) {
+                chunks.put(entry.getKey(), createColumnChunk(descriptors.get(entry.getKey()), entry.getValue(), buffers));
+            }
+            return chunks.build();
+        });
+    }
+
+    private static ParquetColumnChunk createColumnChunk(ParquetColumnChunkDescriptor descriptor, DiskRange diskRange, Map<DiskRange, byte[]> buffers)
     {
-        for (ColumnChunkMetaData metadata : currentBlockMetadata.getColumns()) {
+        for (Map.Entry<DiskRange, byte[]> buffer : buffers.entrySet()) {
+            DiskRange bufferRange = buffer.getKey();
+            if (bufferRange.contains(diskRange)) {
+                return new ParquetColumnChunk(descriptor, buffer.getValue(), toIntExact(diskRange.getOffset() - bufferRange.getOffset()));
+            }
+        }
+        throw new IllegalStateException("No matching buffer for disk range");
+    }
+
+    private static Optional<ColumnChunkMetaData> getColumnChunkMetaData(BlockMetaData block, ColumnDescriptor columnDescriptor)
+    {
+        for (ColumnChunkMetaData metadata : block.getColumns()) {
             if (metadata.getPath().equals(ColumnPath.get(columnDescriptor.getPath()))) {
-                return metadata;
+                return Optional.of(metadata);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static void awaitQuietly(CompletableFuture<?> future)
+    {
+        if (future != null) {
+            try {
+                future.join();
+            }
+            catch (CompletionException | CancellationException ignored) {
+                // failures are reported to the reader of the row group
             }
         }
-        throw new ParquetCorruptionException("Metadata is missing for column: %s", columnDescriptor);
     }
 
     private void initializeColumnReaders()
@@ -71,6 +71,7 @@ import org.apache.hadoop.util.Progressable;
 
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -854,6 +855,81 @@ public class PrestoS3FileSystem
             }
         }
 
+        @Override
+        public int read(long position, byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            checkState(!closed, "already closed");
+            checkArgument(position >= 0, "position is negative: %s", position);
+            if (length == 0) {
+                return 0;
+            }
+
+            // positioned reads do not touch the sequential stream state, so each
+            // one is a self-contained ranged GET and concurrent callers do not serialize
+            try {
+                return retry()
+                        .maxAttempts(maxAttempts)
+                        .exponentialBackoff(BACKOFF_MIN_SLEEP, maxBackoffTime, maxRetryTime, 2.0)
+                        .stopOn(InterruptedException.class, UnrecoverableS3OperationException.class, EOFException.class)
+                        .onRetry(STATS::newGetObjectRetry)
+                        .run("getS3ObjectRange", () -> {
+                            InputStream stream;
+                            try {
+                                GetObjectRequest request = new GetObjectRequest(host, keyFromPath(path)).withRange(position, (position + length) - 1);
+                                stream = s3.getObject(request).getObjectContent();
+                            }
+                            catch (RuntimeException e) {
+                                STATS.newGetObjectError();
+                                if (e instanceof AmazonS3Exception) {
+                                    switch (((AmazonS3Exception) e).getStatusCode()) {
+                                        case SC_REQUESTED_RANGE_NOT_SATISFIABLE:
+                                            throw new EOFException(format("Cannot read at position %s past the end of %s", position, path));
+                                        case SC_FORBIDDEN:
+                                        case SC_NOT_FOUND:
+                                        case SC_BAD_REQUEST:
+                                            throw new UnrecoverableS3OperationException(path, e);
+                                    }
+                                }
+                                throw e;
+                            }
+
+                            STATS.connectionOpened();
+                            try {
+                                int bytesRead = 0;
+                                while (bytesRead < length) {
+                                    int count = stream.read(buffer, offset + bytesRead, length - bytesRead);
+                                    if (count < 0) {
+                                        break;
+                                    }
+                                    bytesRead += count;
+                                }
+                                return bytesRead == 0 ? -1 : bytesRead;
+                            }
+                            catch (Exception e) {
+                                STATS.newReadError(e);
+                                if (stream instanceof S3ObjectInputStream) {
+                                    ((S3ObjectInputStream) stream).abort();
+                                }
+                                throw e;
+                            }
+                            finally {
+                                stream.close();
+                                STATS.connectionReleased();
+                            }
+                        });
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            catch (Exception e) {
+                throwIfInstanceOf(e, IOException.class);
+                throwIfUnchecked(e);
+                throw new RuntimeException(e);
+            }
+        }
+
         @Override
         public boolean seekToNewSource(long targetPos)
         {
@@ -100,6 +100,7 @@ public class InternalHiveSplitFactory
                 0,
                 status.getLen(),
                 status.getLen(),
+                status.getModificationTime(),
                 bucketNumber,
                 isSplittable(inputFormat, fileSystem, status.getPath()));
     }
@@ -114,6 +115,7 @@ public class InternalHiveSplitFactory
                 split.getStart(),
                 split.getLength(),
                 file.getLen(),
+                file.getModificationTime(),
                 OptionalInt.empty(),
                 false);
     }
@@ -124,6 +126,7 @@ public class InternalHiveSplitFactory
             long start,
             long length,
             long fileSize,
+            long fileModifiedTime,
             OptionalInt bucketNumber,
             boolean splittable)
     {
@@ -172,6 +175,7 @@ public class InternalHiveSplitFactory
                 start,
                 start + length,
                 fileSize,
+                fileModifiedTime,
                 schema,
                 partitionKeys,
                 blocks,
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.InternalHiveSplit.InternalHiveBlock;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.testing.TestingTicker;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.util.OptionalInt;
+import java.util.Properties;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestAdaptiveSplitSizer
+{
+    private static final long MB = new DataSize(1, MEGABYTE).toBytes();
+
+    @Test
+    public void testGrowsWhenSplitsAreConsumedQuickly()
+    {
+        TestingTicker ticker = new TestingTicker();
+        AdaptiveSplitSizer sizer = new AdaptiveSplitSizer(new DataSize(64, MEGABYTE), new DataSize(32, MEGABYTE), new DataSize(256, MEGABYTE), 10, ticker);
+
+        // the first interval is ignored
+        recordInterval(sizer, ticker, 100);
+        assertEquals(sizer.getSplitBytes(), 64 * MB);
+
+        recordInterval(sizer, ticker, 100);
+        assertEquals(sizer.getSplitBytes(), 128 * MB);
+        recordInterval(sizer, ticker, 100);
+        assertEquals(sizer.getSplitBytes(), 256 * MB);
+        recordInterval(sizer, ticker, 100);
+        assertEquals(sizer.getSplitBytes(), 256 * MB);
+
+        // within the target band the size is kept
+        recordInterval(sizer, ticker, 5);
+        assertEquals(sizer.getSplitBytes(), 256 * MB);
+    }
+
+    @Test
+    public void testShrinksWhenSplitsAreConsumedSlowly()
+    {
+        TestingTicker ticker = new TestingTicker();
+        AdaptiveSplitSizer sizer = new AdaptiveSplitSizer(new DataSize(64, MEGABYTE), new DataSize(32, MEGABYTE), new DataSize(256, MEGABYTE), 10, ticker);
+
+        recordInterval(sizer, ticker, 1);
+        recordInterval(sizer, ticker, 1);
+        assertEquals(sizer.getSplitBytes(), 32 * MB);
+        recordInterval(sizer, ticker, 1);
+        assertEquals(sizer.getSplitBytes(), 32 * MB);
+    }
+
+    @Test
+    public void testSpanningSplits()
+    {
+        InternalHiveSplit split = new InternalHiveSplit(
+                "partition-name",
+                "path",
+                0,
+                100,
+                100,
+                0,
+                new Properties(),
+                ImmutableList.of(),
+                ImmutableList.of(
+                        new InternalHiveBlock(0, 30, ImmutableList.of()),
+                        new InternalHiveBlock(30, 60, ImmutableList.of()),
+                        new InternalHiveBlock(60, 100, ImmutableList.of())),
+                OptionalInt.empty(),
+                true,
+                false,
+                ImmutableMap.of());
+
+        // ends at the last block boundary that fits
+        assertEquals(split.getSpanningSplitBytes(70), 60);
+        // a block larger than the split size is cut
+        assertEquals(split.getSpanningSplitBytes(20), 20);
+
+        split.increaseStart(60);
+        assertEquals(split.getStart(), 60);
+        assertEquals(split.currentBlock().getStart(), 60);
+        assertEquals(split.getSpanningSplitBytes(1000), 40);
+
+        split.increaseStart(40);
+        assertTrue(split.isDone());
+    }
+
+    private static void recordInterval(AdaptiveSplitSizer sizer, TestingTicker ticker, int splitCount)
+    {
+        sizer.recordSplits(0);
+        ticker.increment(1000, MILLISECONDS);
+        sizer.recordSplits(splitCount);
+    }
+}
@@ -78,6 +78,8 @@ public class TestHiveClientConfig
                 .setUseOrcColumnNames(false)
                 .setParquetPredicatePushdownEnabled(false)
                 .setParquetOptimizedReaderEnabled(false)
+                .setParquetMaxMergeDistance(new DataSize(1, Unit.MEGABYTE))
+                .setParquetMaxBufferSize(new DataSize(8, Unit.MEGABYTE))
                 .setAssumeCanonicalPartitionKeys(false)
                 .setOrcBloomFiltersEnabled(false)
                 .setOrcDefaultBloomFilterFpp(0.05)
@@ -86,6 +88,10 @@ public class TestHiveClientConfig
                 .setOrcStreamBufferSize(new DataSize(8, Unit.MEGABYTE))
                 .setOrcMaxReadBlockSize(new DataSize(16, Unit.MEGABYTE))
                 .setOrcLazyReadSmallRanges(true)
+                .setOrcStripePrefetchEnabled(false)
+                .setAdaptiveSplitSizingEnabled(false)
+                .setAdaptiveMaxSplitSize(new DataSize(512, Unit.MEGABYTE))
+                .setAdaptiveSplitSizingTargetSplitsPerSecond(100)
                 .setRcfileOptimizedWriterEnabled(true)
                 .setRcfileWriterValidate(false)
                 .setOrcOptimizedWriterEnabled(false)
@@ -147,6 +153,8 @@ public class TestHiveClientConfig
                 .put("hive.orc.use-column-names", "true")
                 .put("hive.parquet-predicate-pushdown.enabled", "true")
                 .put("hive.parquet-optimized-reader.enabled", "true")
+                .put("hive.parquet.max-merge-distance", "33kB")
+                .put("hive.parquet.max-buffer-size", "77kB")
                 .put("hive.orc.bloom-filters.enabled", "true")
                 .put("hive.orc.default-bloom-filter-fpp", "0.96")
                 .put("hive.orc.max-merge-distance", "22kB")
@@ -154,6 +162,10 @@ public class TestHiveClientConfig
                 .put("hive.orc.stream-buffer-size", "55kB")
                 .put("hive.orc.max-read-block-size", "66kB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
+                .put("hive.orc.stripe-prefetch.enabled", "true")
+                .put("hive.adaptive-split-sizing.enabled", "true")
+                .put("hive.adaptive-split-sizing.max-split-size", "1GB")
+                .put("hive.adaptive-split-sizing.target-splits-per-second", "20")
                 .put("hive.rcfile-optimized-writer.enabled", "false")
                 .put("hive.rcfile.writer.validate", "true")
                 .put("hive.orc.optimized-writer.enabled", "true")
@@ -211,6 +223,8 @@ public class TestHiveClientConfig
                 .setUseOrcColumnNames(true)
                 .setParquetPredicatePushdownEnabled(true)
                 .setParquetOptimizedReaderEnabled(true)
+                .setParquetMaxMergeDistance(new DataSize(33, Unit.KILOBYTE))
+                .setParquetMaxBufferSize(new DataSize(77, Unit.KILOBYTE))
                 .setAssumeCanonicalPartitionKeys(true)
                 .setOrcBloomFiltersEnabled(true)
                 .setOrcDefaultBloomFilterFpp(0.96)
@@ -219,6 +233,10 @@ public class TestHiveClientConfig
                 .setOrcStreamBufferSize(new DataSize(55, Unit.KILOBYTE))
                 .setOrcMaxReadBlockSize(new DataSize(66, Unit.KILOBYTE))
                 .setOrcLazyReadSmallRanges(false)
+                .setOrcStripePrefetchEnabled(true)
+                .setAdaptiveSplitSizingEnabled(true)
+                .setAdaptiveMaxSplitSize(new DataSize(1, Unit.GIGABYTE))
+                .setAdaptiveSplitSizingTargetSplitsPerSecond(20)
                 .setRcfileOptimizedWriterEnabled(false)
                 .setRcfileWriterValidate(true)
                 .setOrcOptimizedWriterEnabled(true)
@@ -47,6 +47,7 @@ import java.util.function.Function;
 
 import static com.facebook.presto.SystemSessionProperties.COLOCATED_JOIN;
 import static com.facebook.presto.SystemSessionProperties.CONCURRENT_LIFESPANS_PER_NODE;
+import static com.facebook.presto.SystemSessionProperties.GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS;
 import static com.facebook.presto.hive.HiveColumnHandle.BUCKET_COLUMN_NAME;
 import static com.facebook.presto.hive.HiveColumnHandle.PATH_COLUMN_NAME;
 import static com.facebook.presto.hive.HiveQueryRunner.HIVE_CATALOG;
@@ -60,6 +61,7 @@ import static com.facebook.presto.hive.HiveTableProperties.PARTITIONED_BY_PROPER
 import static com.facebook.presto.hive.HiveTableProperties.STORAGE_FORMAT_PROPERTY;
 import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
 import static com.facebook.presto.hive.HiveUtil.columnExtraInfo;
+import static com.facebook.presto.operator.PipelineExecutionStrategy.GROUPED_EXECUTION;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.CharType.createCharType;
 import static com.facebook.presto.spi.type.DecimalType.createDecimalType;
@@ -2043,6 +2045,103 @@ public class TestHiveIntegrationSmokeTest
         }
     }
 
+    @Test
+    public void testGroupedStatefulOperators()
+    {
+        try {
+            assertUpdate(
+                    "CREATE TABLE test_grouped_stateful1\n" +
+                            "WITH (bucket_count = 13, bucketed_by = ARRAY['key1']) AS\n" +
+                            "SELECT orderkey key1, custkey value1 FROM orders",
+                    15000);
+            assertUpdate(
+                    "CREATE TABLE test_grouped_stateful2\n" +
+                            "WITH (bucket_count = 13, bucketed_by = ARRAY['key2']) AS\n" +
+                            "SELECT orderkey key2 FROM orders WHERE orderkey % 3 = 0",
+                    5000);
+            assertUpdate(
+                    "CREATE TABLE test_grouped_stateful_target (key1 bigint, value1 bigint, part varchar)\n" +
+                            "WITH (bucket_count = 13, bucketed_by = ARRAY['key1'], partitioned_by = ARRAY['part'])");
+
+            @Language("SQL") String aggregation = "SELECT key1, count(*), sum(value1) FROM test_grouped_stateful1 GROUP BY key1";
+            @Language("SQL") String expectedAggregation = "SELECT orderkey, 1, custkey FROM orders";
+            @Language("SQL") String window = "SELECT key1, row_number() OVER (PARTITION BY key1 ORDER BY value1) FROM test_grouped_stateful1";
+            @Language("SQL") String expectedWindow = "SELECT orderkey, 1 FROM orders";
+            @Language("SQL") String semiJoin = "SELECT key1 FROM test_grouped_stateful1 WHERE key1 IN (SELECT key2 FROM test_grouped_stateful2)";
+            @Language("SQL") String expectedSemiJoin = "SELECT orderkey FROM orders WHERE orderkey % 3 = 0";
+            @Language("SQL") String distinctAggregation = "SELECT key1, count(DISTINCT value1), count(*) FROM test_grouped_stateful1 GROUP BY key1";
+            @Language("SQL") String expectedDistinctAggregation = "SELECT orderkey, 1, 1 FROM orders";
+
+            Session notGrouped = Session.builder(getSession())
+                    .setSystemProperty(COLOCATED_JOIN, "true")
+                    .setSystemProperty(GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS, "false")
+                    .build();
+            Session groupedAllGroupsAtOnce = Session.builder(getSession())
+                    .setSystemProperty(COLOCATED_JOIN, "true")
+                    .setSystemProperty(GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS, "true")
+                    .setSystemProperty(CONCURRENT_LIFESPANS_PER_NODE, "-1")
+                    .build();
+            Session groupedOneGroupAtATime = Session.builder(getSession())
+                    .setSystemProperty(COLOCATED_JOIN, "true")
+                    .setSystemProperty(GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS, "true")
+                    .setSystemProperty(CONCURRENT_LIFESPANS_PER_NODE, "1")
+                    .build();
+
+            for (Session session : ImmutableList.of(notGrouped, groupedAllGroupsAtOnce, groupedOneGroupAtATime)) {
+                assertQuery(session, aggregation, expectedAggregation);
+                assertQuery(session, window, expectedWindow);
+                assertQuery(session, semiJoin, expectedSemiJoin);
+                assertQuery(session, distinctAggregation, expectedDistinctAggregation);
+            }
+
+            assertUpdate(groupedOneGroupAtATime, "INSERT INTO test_grouped_stateful_target SELECT key1, value1, 'p1' FROM test_grouped_stateful1", 15000);
+            assertQuery("SELECT key1, value1 FROM test_grouped_stateful_target", "SELECT orderkey, custkey FROM orders");
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_grouped_stateful1");
+            assertUpdate("DROP TABLE IF EXISTS test_grouped_stateful2");
+            assertUpdate("DROP TABLE IF EXISTS test_grouped_stateful_target");
+        }
+    }
+
+    @Test
+    public void testGroupedStatefulOperatorsTagging()
+    {
+        try {
+            assertUpdate(
+                    "CREATE TABLE test_grouped_stateful_tagging\n" +
+                            "WITH (bucket_count = 13, bucketed_by = ARRAY['key']) AS\n" +
+                            "SELECT orderkey key, custkey value FROM orders",
+                    15000);
+
+            Session notGrouped = Session.builder(getSession())
+                    .setSystemProperty(GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS, "false")
+                    .build();
+            Session grouped = Session.builder(getSession())
+                    .setSystemProperty(GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS, "true")
+                    .build();
+
+            @Language("SQL") String aggregation = "SELECT key, sum(value) FROM test_grouped_stateful_tagging GROUP BY key";
+            assertGroupedExecution(notGrouped, aggregation, false);
+            assertGroupedExecution(grouped, aggregation, true);
+
+            // the partial aggregation produces a row for every bucket, which the final aggregation combines
+            @Language("SQL") String globalAggregation = "SELECT count(*), sum(value) FROM test_grouped_stateful_tagging";
+            assertGroupedExecution(notGrouped, globalAggregation, false);
+            assertGroupedExecution(grouped, globalAggregation, true);
+            assertQuery(grouped, globalAggregation, "SELECT count(*), sum(custkey) FROM orders");
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_grouped_stateful_tagging");
+        }
+    }
+
+    private void assertGroupedExecution(Session session, @Language("SQL") String sql, boolean grouped)
+    {
+        String plan = (String) computeActual(session, "EXPLAIN (TYPE DISTRIBUTED) " + sql).getOnlyValue();
+        assertEquals(plan.contains("Execution Flow: " + GROUPED_EXECUTION), grouped, plan);
+    }
+
     @Test
     public void testRcTextCharDecoding()
     {
@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.hive.HiveConnectorId;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.nio.file.Files.write;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestFileChunkCache
+{
+    private File tempDirectory;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        tempDirectory = createTempDir();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadAfterPut()
+    {
+        FileChunkCache cache = createCache(new DataSize(1, KILOBYTE));
+        FileChunkKey key = new FileChunkKey("hdfs://test/file", 1, 0);
+
+        assertFalse(cache.read(key, 0, new byte[4], 0, 4));
+
+        cache.put(key, new byte[] {1, 2, 3, 4, 5});
+        byte[] buffer = new byte[3];
+        assertTrue(cache.read(key, 1, buffer, 0, 3));
+        assertEquals(buffer, new byte[] {2, 3, 4});
+
+        // a newer version of the file is not served from the cache
+        assertFalse(cache.read(new FileChunkKey("hdfs://test/file", 2, 0), 0, buffer, 0, 3));
+
+        assertEquals(cache.getHits().getTotalCount(), 1);
+        assertEquals(cache.getMisses().getTotalCount(), 2);
+        assertEquals(cache.getHitBytes().getTotalCount(), 3);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        FileChunkCache cache = createCache(new DataSize(20, BYTE));
+        FileChunkKey first = new FileChunkKey("file", 1, 0);
+        FileChunkKey second = new FileChunkKey("file", 1, 10);
+        FileChunkKey third = new FileChunkKey("file", 1, 20);
+
+        cache.put(first, new byte[10]);
+        cache.put(second, new byte[10]);
+        assertTrue(cache.read(first, 0, new byte[10], 0, 10));
+
+        cache.put(third, new byte[10]);
+        assertTrue(cache.read(first, 0, new byte[10], 0, 10));
+        assertFalse(cache.read(second, 0, new byte[10], 0, 10));
+        assertTrue(cache.read(third, 0, new byte[10], 0, 10));
+        assertEquals(cache.getCacheSizeInBytes(), 20);
+        assertEquals(cache.getEvictedBytes().getTotalCount(), 10);
+        assertEquals(new File(tempDirectory, "hive").listFiles().length, 2);
+    }
+
+    @Test
+    public void testCachingInputStream()
+            throws IOException
+    {
+        byte[] data = new byte[2500];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        File file = new File(tempDirectory, "data");
+        write(file.toPath(), data);
+
+        FileChunkCache cache = createCache(new DataSize(1, MEGABYTE));
+        FileSystem fileSystem = FileSystem.getLocal(new Configuration());
+        String path = file.getAbsolutePath();
+
+        for (int i = 0; i < 2; i++) {
+            try (FSDataInputStream inputStream = cache.wrap(path, data.length, 1, fileSystem.open(new Path(path)))) {
+                byte[] buffer = new byte[1600];
+                inputStream.readFully(700, buffer);
+                assertEquals(buffer, Arrays.copyOfRange(data, 700, 2300));
+            }
+        }
+        // the first read populates the three chunks overlapping the range, the second is served from them
+        assertEquals(cache.getMisses().getTotalCount(), 3);
+        assertEquals(cache.getHits().getTotalCount(), 3);
+        assertEquals(cache.getHitBytes().getTotalCount(), 1600);
+        assertEquals(cache.getPopulatedBytes().getTotalCount(), data.length);
+    }
+
+    @Test
+    public void testCatalogsSharingBaseDirectory()
+    {
+        FileChunkKey key = new FileChunkKey("file", 1, 0);
+        FileChunkCache first = createCache("first", new DataSize(1, KILOBYTE));
+        first.put(key, new byte[] {1, 2, 3});
+
+        // starting another catalog on the same directory leaves the chunks of the first one alone
+        FileChunkCache second = createCache("second", new DataSize(1, KILOBYTE));
+        second.put(key, new byte[] {4, 5, 6});
+
+        byte[] buffer = new byte[3];
+        assertTrue(first.read(key, 0, buffer, 0, 3));
+        assertEquals(buffer, new byte[] {1, 2, 3});
+        assertTrue(second.read(key, 0, buffer, 0, 3));
+        assertEquals(buffer, new byte[] {4, 5, 6});
+        assertEquals(new File(tempDirectory, "first").listFiles().length, 1);
+        assertEquals(new File(tempDirectory, "second").listFiles().length, 1);
+    }
+
+    @Test
+    public void testDisabled()
+            throws IOException
+    {
+        FileChunkCache cache = FileChunkCache.disabled();
+        assertFalse(cache.isEnabled());
+
+        FileSystem fileSystem = FileSystem.getLocal(new Configuration());
+        File file = new File(tempDirectory, "data");
+        assertTrue(file.createNewFile());
+        try (FSDataInputStream inputStream = fileSystem.open(new Path(file.getAbsolutePath()))) {
+            assertSame(cache.wrap(file.getAbsolutePath(), 0, 1, inputStream), inputStream);
+        }
+    }
+
+    private FileChunkCache createCache(DataSize maxSize)
+    {
+        return createCache("hive", maxSize);
+    }
+
+    private FileChunkCache createCache(String connectorId, DataSize maxSize)
+    {
+        HiveCacheConfig config = new HiveCacheConfig()
+                .setEnabled(true)
+                .setBaseDirectory(tempDirectory.getAbsolutePath())
+                .setMaxSize(maxSize)
+                .setChunkSize(new DataSize(1, KILOBYTE));
+        return new FileChunkCache(new HiveConnectorId(connectorId), config, newDirectExecutorService());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestHiveCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(HiveCacheConfig.class)
+                .setEnabled(false)
+                .setBaseDirectory(null)
+                .setMaxSize(new DataSize(100, GIGABYTE))
+                .setChunkSize(new DataSize(1, MEGABYTE))
+                .setSoftAffinitySchedulingEnabled(true));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("hive.cache.enabled", "true")
+                .put("hive.cache.base-directory", "/mnt/ssd/presto-cache")
+                .put("hive.cache.max-size", "20GB")
+                .put("hive.cache.chunk-size", "256kB")
+                .put("hive.cache.soft-affinity-scheduling-enabled", "false")
+                .build();
+
+        HiveCacheConfig expected = new HiveCacheConfig()
+                .setEnabled(true)
+                .setBaseDirectory("/mnt/ssd/presto-cache")
+                .setMaxSize(new DataSize(20, GIGABYTE))
+                .setChunkSize(new DataSize(256, KILOBYTE))
+                .setSoftAffinitySchedulingEnabled(false);
+
+        assertFullMapping(properties, expected);
+    }
+}
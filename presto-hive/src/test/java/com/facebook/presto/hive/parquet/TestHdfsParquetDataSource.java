@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.orc.DiskRange;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.fs.Seekable;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestHdfsParquetDataSource
+{
+    private static final byte[] DATA = createData(1000);
+
+    @Test
+    public void testReadFullyAsync()
+            throws Exception
+    {
+        QueuedExecutor executor = new QueuedExecutor();
+        RecordingInputStream inputStream = new RecordingInputStream(DATA);
+        HdfsParquetDataSource dataSource = createDataSource(inputStream, new DataSize(1000, BYTE), executor);
+
+        CompletableFuture<Map<DiskRange, byte[]>> future = dataSource.readFullyAsync(ImmutableList.of(new DiskRange(100, 50), new DiskRange(500, 200)));
+        // the reads are issued on the executor, so the caller is not blocked
+        assertFalse(future.isDone());
+        assertEquals(dataSource.getReadBytes(), 250);
+
+        executor.runAll();
+        assertTrue(future.isDone());
+        Map<DiskRange, byte[]> buffers = future.get();
+        assertEquals(buffers.get(new DiskRange(100, 50)), Arrays.copyOfRange(DATA, 100, 150));
+        assertEquals(buffers.get(new DiskRange(500, 200)), Arrays.copyOfRange(DATA, 500, 700));
+        assertEquals(inputStream.getReads(), ImmutableList.of(new DiskRange(100, 50), new DiskRange(500, 200)));
+    }
+
+    @Test
+    public void testSplitLargeRanges()
+            throws Exception
+    {
+        QueuedExecutor executor = new QueuedExecutor();
+        RecordingInputStream inputStream = new RecordingInputStream(DATA);
+        HdfsParquetDataSource dataSource = createDataSource(inputStream, new DataSize(100, BYTE), executor);
+
+        CompletableFuture<Map<DiskRange, byte[]>> future = dataSource.readFullyAsync(ImmutableList.of(new DiskRange(0, 100), new DiskRange(250, 250)));
+        executor.runAll();
+
+        Map<DiskRange, byte[]> buffers = future.get();
+        assertEquals(buffers.get(new DiskRange(0, 100)), Arrays.copyOfRange(DATA, 0, 100));
+        assertEquals(buffers.get(new DiskRange(250, 250)), Arrays.copyOfRange(DATA, 250, 500));
+        assertEquals(inputStream.getReads(), ImmutableList.of(
+                new DiskRange(0, 100),
+                new DiskRange(250, 100),
+                new DiskRange(350, 100),
+                new DiskRange(450, 50)));
+    }
+
+    @Test
+    public void testReadFailure()
+    {
+        QueuedExecutor executor = new QueuedExecutor();
+        HdfsParquetDataSource dataSource = createDataSource(new RecordingInputStream(DATA), new DataSize(100, BYTE), executor);
+
+        CompletableFuture<Map<DiskRange, byte[]>> future = dataSource.readFullyAsync(ImmutableList.of(new DiskRange(900, 200)));
+        executor.runAll();
+        try {
+            future.join();
+            fail("expected exception");
+        }
+        catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof PrestoException);
+            assertEquals(((PrestoException) e.getCause()).getErrorCode(), HIVE_FILESYSTEM_ERROR.toErrorCode());
+        }
+    }
+
+    private static HdfsParquetDataSource createDataSource(RecordingInputStream inputStream, DataSize maxReadSize, QueuedExecutor executor)
+    {
+        return new HdfsParquetDataSource(new Path("test"), DATA.length, new FSDataInputStream(inputStream), maxReadSize, executor, new FileFormatDataSourceStats());
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    private static class QueuedExecutor
+            implements Executor
+    {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command)
+        {
+            tasks.add(command);
+        }
+
+        public void runAll()
+        {
+            List<Runnable> queued = new ArrayList<>(tasks);
+            tasks.clear();
+            queued.forEach(Runnable::run);
+        }
+    }
+
+    private static class RecordingInputStream
+            extends ByteArrayInputStream
+            implements Seekable, PositionedReadable
+    {
+        private final List<DiskRange> reads = new ArrayList<>();
+
+        public RecordingInputStream(byte[] data)
+        {
+            super(data);
+        }
+
+        public synchronized List<DiskRange> getReads()
+        {
+            return ImmutableList.copyOf(reads);
+        }
+
+        @Override
+        public synchronized int read(long position, byte[] buffer, int offset, int length)
+        {
+            int bytes = Math.min(length, count - (int) position);
+            System.arraycopy(buf, (int) position, buffer, offset, bytes);
+            return bytes;
+        }
+
+        @Override
+        public synchronized void readFully(long position, byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            if (position + length > count) {
+                throw new IOException("Reached end of stream");
+            }
+            reads.add(new DiskRange(position, length));
+            System.arraycopy(buf, (int) position, buffer, offset, length);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer)
+                throws IOException
+        {
+            readFully(position, buffer, 0, buffer.length);
+        }
+
+        @Override
+        public synchronized void seek(long position)
+        {
+            pos = (int) position;
+        }
+
+        @Override
+        public synchronized long getPos()
+        {
+            return pos;
+        }
+
+        @Override
+        public boolean seekToNewSource(long targetPosition)
+        {
+            return false;
+        }
+    }
+}
@@ -59,8 +59,12 @@ public final class SystemSessionProperties
     public static final String PUSH_TABLE_WRITE_THROUGH_UNION = "push_table_write_through_union";
     public static final String EXECUTION_POLICY = "execution_policy";
     public static final String DICTIONARY_AGGREGATION = "dictionary_aggregation";
+    public static final String STREAMING_AGGREGATION = "streaming_aggregation";
+    public static final String MERGE_JOIN = "merge_join";
+    public static final String OPTIMIZE_COMMON_SUB_EXPRESSIONS = "optimize_common_sub_expressions";
     public static final String PLAN_WITH_TABLE_NODE_PARTITIONING = "plan_with_table_node_partitioning";
     public static final String COLOCATED_JOIN = "colocated_join";
+    public static final String GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS = "grouped_execution_for_stateful_operators";
     public static final String CONCURRENT_LIFESPANS_PER_NODE = "concurrent_lifespans_per_task";
     public static final String REORDER_JOINS = "reorder_joins";
     public static final String INITIAL_SPLITS_PER_NODE = "initial_splits_per_node";
@@ -84,6 +88,7 @@ public final class SystemSessionProperties
     public static final String FORCE_SINGLE_NODE_OUTPUT = "force_single_node_output";
     public static final String FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_SIZE = "filter_and_project_min_output_page_size";
     public static final String FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT = "filter_and_project_min_output_page_row_count";
+    public static final String STRAGGLER_AVOIDANCE_ENABLED = "straggler_avoidance_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -239,6 +244,21 @@ public final class SystemSessionProperties
                         "Enable optimization for aggregations on dictionaries",
                         featuresConfig.isDictionaryAggregation(),
                         false),
+                booleanSessionProperty(
+                        STREAMING_AGGREGATION,
+                        "Aggregate input that is already grouped on the grouping keys without a full hash table",
+                        featuresConfig.isStreamingAggregation(),
+                        false),
+                booleanSessionProperty(
+                        MERGE_JOIN,
+                        "Join inputs that are both sorted on the join keys by merging them",
+                        featuresConfig.isMergeJoin(),
+                        false),
+                booleanSessionProperty(
+                        OPTIMIZE_COMMON_SUB_EXPRESSIONS,
+                        "Evaluate subexpressions shared by the filter and projections of a page processor once",
+                        featuresConfig.isOptimizeCommonSubExpressions(),
+                        false),
                 integerSessionProperty(
                         INITIAL_SPLITS_PER_NODE,
                         "The number of splits each node will run per task, initially",
@@ -283,9 +303,14 @@ public final class SystemSessionProperties
                         "Experimental: Use a colocated join when possible",
                         featuresConfig.isColocatedJoinsEnabled(),
                         false),
+                booleanSessionProperty(
+                        GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS,
+                        "Experimental: Use grouped execution for aggregations, windows, semi joins and table writers over bucketed tables when possible",
+                        featuresConfig.isGroupedExecutionForStatefulOperatorsEnabled(),
+                        false),
                 integerSessionProperty(
                         CONCURRENT_LIFESPANS_PER_NODE,
-                        "Experimental: Run a fixed number of groups concurrently for eligible JOINs",
+                        "Experimental: Run a fixed number of groups concurrently for eligible JOINs and stateful operators",
                         -1,
                         false),
                 new PropertyMetadata<>(
@@ -391,6 +416,11 @@ public final class SystemSessionProperties
                         FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT,
                         "Experimental: Minimum output page row count for filter and project operators",
                         featuresConfig.getFilterAndProjectMinOutputPageRowCount(),
+                        false),
+                booleanSessionProperty(
+                        STRAGGLER_AVOIDANCE_ENABLED,
+                        "Stop queueing splits of source stages on tasks that complete splits much slower than the other tasks of the stage",
+                        queryManagerConfig.isStragglerAvoidanceEnabled(),
                         false));
     }
 
@@ -469,6 +499,21 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DICTIONARY_AGGREGATION, Boolean.class);
     }
 
+    public static boolean isStreamingAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(STREAMING_AGGREGATION, Boolean.class);
+    }
+
+    public static boolean isMergeJoinEnabled(Session session)
+    {
+        return session.getSystemProperty(MERGE_JOIN, Boolean.class);
+    }
+
+    public static boolean isOptimizeCommonSubExpressions(Session session)
+    {
+        return session.getSystemProperty(OPTIMIZE_COMMON_SUB_EXPRESSIONS, Boolean.class);
+    }
+
     public static boolean isOptimizeMetadataQueries(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_METADATA_QUERIES, Boolean.class);
@@ -514,6 +559,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(COLOCATED_JOIN, Boolean.class);
     }
 
+    public static boolean isGroupedExecutionForStatefulOperatorsEnabled(Session session)
+    {
+        return session.getSystemProperty(GROUPED_EXECUTION_FOR_STATEFUL_OPERATORS, Boolean.class);
+    }
+
     public static OptionalInt getConcurrentLifespansPerNode(Session session)
     {
         Integer result = session.getSystemProperty(CONCURRENT_LIFESPANS_PER_NODE, Integer.class);
@@ -630,4 +680,9 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(FILTER_AND_PROJECT_MIN_OUTPUT_PAGE_ROW_COUNT, Integer.class);
     }
+
+    public static boolean isStragglerAvoidanceEnabled(Session session)
+    {
+        return session.getSystemProperty(STRAGGLER_AVOIDANCE_ENABLED, Boolean.class);
+    }
 }
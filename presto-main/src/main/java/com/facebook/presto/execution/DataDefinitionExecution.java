@@ -194,6 +194,12 @@ public class DataDefinitionExecution<T extends Statement>
         stateMachine.recordHeartbeat();
     }
 
+    @Override
+    public void recordStatementCacheUsage(int hits, int misses)
+    {
+        stateMachine.recordStatementCacheUsage(hits, misses);
+    }
+
     @Override
     public void pruneInfo()
     {
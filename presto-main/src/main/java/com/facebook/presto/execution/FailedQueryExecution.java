@@ -167,6 +167,12 @@ public class FailedQueryExecution
         // no-op
     }
 
+    @Override
+    public void recordStatementCacheUsage(int hits, int misses)
+    {
+        // no-op
+    }
+
     @Override
     public void pruneInfo()
     {
@@ -74,6 +74,8 @@ public interface QueryExecution
 
     void recordHeartbeat();
 
+    void recordStatementCacheUsage(int hits, int misses);
+
     // XXX: This should be removed when the client protocol is improved, so that we don't need to hold onto so much query history
     void pruneInfo();
 
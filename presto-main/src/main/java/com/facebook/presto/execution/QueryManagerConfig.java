@@ -17,6 +17,7 @@ import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
@@ -26,6 +27,8 @@ import javax.validation.constraints.NotNull;
 
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.BYTE;
+
 @DefunctConfig({
         "query.max-pending-splits-per-node",
         "experimental.big-query-initial-hash-partitions",
@@ -60,6 +63,9 @@ public class QueryManagerConfig
     private int initializationRequiredWorkers = 1;
     private Duration initializationTimeout = new Duration(5, TimeUnit.MINUTES);
 
+    private boolean stragglerAvoidanceEnabled;
+    private DataSize statementCacheMaxSize = new DataSize(0, BYTE);
+
     @Deprecated
     public String getQueueConfigFile()
     {
@@ -332,4 +338,31 @@ public class QueryManagerConfig
         this.initializationTimeout = initializationTimeout;
         return this;
     }
+
+    public boolean isStragglerAvoidanceEnabled()
+    {
+        return stragglerAvoidanceEnabled;
+    }
+
+    @Config("query.straggler-avoidance-enabled")
+    @ConfigDescription("Stop queueing splits of source stages on tasks that complete splits much slower than the other tasks of the stage")
+    public QueryManagerConfig setStragglerAvoidanceEnabled(boolean stragglerAvoidanceEnabled)
+    {
+        this.stragglerAvoidanceEnabled = stragglerAvoidanceEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getStatementCacheMaxSize()
+    {
+        return statementCacheMaxSize;
+    }
+
+    @Config("query.statement-cache-max-size")
+    @ConfigDescription("Maximum total size of the query text whose parsed statements the coordinator keeps for reuse by queries with the same text")
+    public QueryManagerConfig setStatementCacheMaxSize(DataSize statementCacheMaxSize)
+    {
+        this.statementCacheMaxSize = statementCacheMaxSize;
+        return this;
+    }
 }
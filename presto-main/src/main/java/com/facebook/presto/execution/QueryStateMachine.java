@@ -58,6 +58,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -121,6 +122,9 @@ public class QueryStateMachine
     private final AtomicReference<Long> totalPlanningStartNanos = new AtomicReference<>();
     private final AtomicReference<Duration> totalPlanningTime = new AtomicReference<>();
 
+    private final AtomicInteger statementCacheHits = new AtomicInteger();
+    private final AtomicInteger statementCacheMisses = new AtomicInteger();
+
     private final StateMachine<QueryState> queryState;
 
     private final AtomicReference<String> setCatalog = new AtomicReference<>();
@@ -413,6 +417,9 @@ public class QueryStateMachine
                 totalPlanningTime.get(),
                 finishingTime.get(),
 
+                statementCacheHits.get(),
+                statementCacheMisses.get(),
+
                 totalTasks,
                 runningTasks,
                 completedTasks,
@@ -767,6 +774,12 @@ public class QueryStateMachine
         this.lastHeartbeat.set(DateTime.now());
     }
 
+    public void recordStatementCacheUsage(int hits, int misses)
+    {
+        statementCacheHits.set(hits);
+        statementCacheMisses.set(misses);
+    }
+
     public void recordAnalysisTime(long analysisStart)
     {
         analysisTime.compareAndSet(null, nanosSince(analysisStart).convertToMostSuccinctTimeUnit());
@@ -864,6 +877,8 @@ public class QueryStateMachine
                 queryStats.getDistributedPlanningTime(),
                 queryStats.getTotalPlanningTime(),
                 queryStats.getFinishingTime(),
+                queryStats.getStatementCacheHits(),
+                queryStats.getStatementCacheMisses(),
                 queryStats.getTotalTasks(),
                 queryStats.getRunningTasks(),
                 queryStats.getCompletedTasks(),
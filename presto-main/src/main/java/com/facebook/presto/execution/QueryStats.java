@@ -51,6 +51,9 @@ public class QueryStats
     private final Duration totalPlanningTime;
     private final Duration finishingTime;
 
+    private final int statementCacheHits;
+    private final int statementCacheMisses;
+
     private final int totalTasks;
     private final int runningTasks;
     private final int completedTasks;
@@ -100,6 +103,8 @@ public class QueryStats
         this.distributedPlanningTime = null;
         this.totalPlanningTime = null;
         this.finishingTime = null;
+        this.statementCacheHits = 0;
+        this.statementCacheMisses = 0;
         this.totalTasks = 0;
         this.runningTasks = 0;
         this.blockedDrivers = 0;
@@ -143,6 +148,9 @@ public class QueryStats
             @JsonProperty("totalPlanningTime") Duration totalPlanningTime,
             @JsonProperty("finishingTime") Duration finishingTime,
 
+            @JsonProperty("statementCacheHits") int statementCacheHits,
+            @JsonProperty("statementCacheMisses") int statementCacheMisses,
+
             @JsonProperty("totalTasks") int totalTasks,
             @JsonProperty("runningTasks") int runningTasks,
             @JsonProperty("completedTasks") int completedTasks,
@@ -191,6 +199,11 @@ public class QueryStats
         this.totalPlanningTime = totalPlanningTime;
         this.finishingTime = finishingTime;
 
+        checkArgument(statementCacheHits >= 0, "statementCacheHits is negative");
+        this.statementCacheHits = statementCacheHits;
+        checkArgument(statementCacheMisses >= 0, "statementCacheMisses is negative");
+        this.statementCacheMisses = statementCacheMisses;
+
         checkArgument(totalTasks >= 0, "totalTasks is negative");
         this.totalTasks = totalTasks;
         checkArgument(runningTasks >= 0, "runningTasks is negative");
@@ -313,6 +326,18 @@ public class QueryStats
         return finishingTime;
     }
 
+    @JsonProperty
+    public int getStatementCacheHits()
+    {
+        return statementCacheHits;
+    }
+
+    @JsonProperty
+    public int getStatementCacheMisses()
+    {
+        return statementCacheMisses;
+    }
+
     @JsonProperty
     public int getTotalTasks()
     {
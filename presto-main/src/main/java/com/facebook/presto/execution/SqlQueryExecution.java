@@ -519,6 +519,12 @@ public final class SqlQueryExecution
         stateMachine.recordHeartbeat();
     }
 
+    @Override
+    public void recordStatementCacheUsage(int hits, int misses)
+    {
+        stateMachine.recordStatementCacheUsage(hits, misses);
+    }
+
     @Override
     public void pruneInfo()
     {
@@ -33,6 +33,7 @@ import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.spi.resourceGroups.ResourceGroupId;
 import com.facebook.presto.sql.analyzer.SemanticException;
 import com.facebook.presto.sql.parser.ParsingException;
+import com.facebook.presto.sql.parser.ParsingOptions;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.planner.Plan;
 import com.facebook.presto.sql.tree.Execute;
@@ -71,6 +72,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.SystemSessionProperties.getQueryMaxCpuTime;
@@ -103,7 +105,7 @@ public class SqlQueryManager
 {
     private static final Logger log = Logger.get(SqlQueryManager.class);
 
-    private final SqlParser sqlParser;
+    private final StatementCache statementCache;
 
     private final ExecutorService queryExecutor;
     private final ThreadPoolExecutorMBean queryExecutorMBean;
@@ -161,8 +163,6 @@ public class SqlQueryManager
             Map<Class<? extends Statement>, QueryExecutionFactory<?>> executionFactories,
             Metadata metadata)
     {
-        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
-
         this.executionFactories = requireNonNull(executionFactories, "executionFactories is null");
 
         this.queryExecutor = newCachedThreadPool(threadsNamed("query-scheduler-%s"));
@@ -170,6 +170,7 @@ public class SqlQueryManager
 
         requireNonNull(nodeSchedulerConfig, "nodeSchedulerConfig is null");
         requireNonNull(queryManagerConfig, "queryManagerConfig is null");
+        this.statementCache = new StatementCache(sqlParser, queryManagerConfig.getStatementCacheMaxSize());
         this.queueManager = requireNonNull(queueManager, "queueManager is null");
         this.memoryManager = requireNonNull(memoryManager, "memoryManager is null");
 
@@ -413,8 +414,9 @@ public class SqlQueryManager
                 query = query.substring(0, maxQueryLength);
                 throw new PrestoException(QUERY_TEXT_TOO_LARGE, format("Query text length (%s) exceeds the maximum length (%s)", queryLength, maxQueryLength));
             }
-            Statement wrappedStatement = sqlParser.createStatement(query, createParsingOptions(session));
-            statement = unwrapExecuteStatement(wrappedStatement, sqlParser, session);
+            StatementCache.Usage statementCacheUsage = new StatementCache.Usage();
+            Statement wrappedStatement = statementCache.createStatement(query, createParsingOptions(session), statementCacheUsage);
+            statement = unwrapExecuteStatement(wrappedStatement, statementCache, statementCacheUsage, session);
             List<Expression> parameters = wrappedStatement instanceof Execute ? ((Execute) wrappedStatement).getParameters() : emptyList();
             validateParameters(statement, parameters);
             QueryExecutionFactory<?> queryExecutionFactory = executionFactories.get(statement.getClass());
@@ -428,6 +430,7 @@ public class SqlQueryManager
                 }
             }
             queryExecution = queryExecutionFactory.createQueryExecution(queryId, query, session, statement, parameters);
+            queryExecution.recordStatementCacheUsage(statementCacheUsage.getHits(), statementCacheUsage.getMisses());
         }
         catch (ParsingException | PrestoException | SemanticException e) {
             // This is intentionally not a method, since after the state change listener is registered
@@ -492,13 +495,23 @@ public class SqlQueryManager
     }
 
     public static Statement unwrapExecuteStatement(Statement statement, SqlParser sqlParser, Session session)
+    {
+        return unwrapExecuteStatement(statement, sqlParser::createStatement, session);
+    }
+
+    public static Statement unwrapExecuteStatement(Statement statement, StatementCache statementCache, StatementCache.Usage statementCacheUsage, Session session)
+    {
+        return unwrapExecuteStatement(statement, (sql, parsingOptions) -> statementCache.createStatement(sql, parsingOptions, statementCacheUsage), session);
+    }
+
+    private static Statement unwrapExecuteStatement(Statement statement, BiFunction<String, ParsingOptions, Statement> parser, Session session)
     {
         if ((!(statement instanceof Execute))) {
             return statement;
         }
 
         String sql = session.getPreparedStatementFromExecute((Execute) statement);
-        return sqlParser.createStatement(sql, createParsingOptions(session));
+        return parser.apply(sql, createParsingOptions(session));
     }
 
     public static void validateParameters(Statement node, List<Expression> parameterValues)
@@ -558,6 +571,13 @@ public class SqlQueryManager
         return stats;
     }
 
+    @Managed(description = "Parsed statement cache")
+    @Nested
+    public StatementCache getStatementCache()
+    {
+        return statementCache;
+    }
+
     @Managed(description = "Query scheduler executor")
     @Nested
     public ThreadPoolExecutorMBean getExecutor()
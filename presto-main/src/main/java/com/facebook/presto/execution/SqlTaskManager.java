@@ -142,7 +142,8 @@ public class SqlTaskManager
                         taskNotificationExecutor,
                         driverYieldExecutor,
                         maxQuerySpillPerNode,
-                        localSpillManager.getSpillSpaceTracker())));
+                        localSpillManager.getSpillSpaceTracker(),
+                        nodeMemoryConfig.getReservationBatchSize())));
 
         tasks = CacheBuilder.newBuilder().build(CacheLoader.from(
                 taskId -> new SqlTask(
@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.sql.parser.ParsingOptions;
+import com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.Statement;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches parsed statements by their text, so that clients repeatedly submitting the same
+ * query or executing the same prepared statement do not pay for parsing every time.
+ * Only identical text is a hit: literals are not normalized into parameters, because the
+ * analyzer treats some of them, like LIMIT counts and GROUP BY ordinals, as part of the
+ * query shape. Clients that vary only in literals should use prepared statements instead.
+ * Statement trees are immutable, so a cached statement can be shared by concurrent queries.
+ * <p>
+ * The cache is bounded by the size of the cached text, which parsed trees grow with, so a
+ * few very large generated queries cannot pin an unbounded amount of coordinator memory.
+ */
+@ThreadSafe
+public class StatementCache
+{
+    private final SqlParser sqlParser;
+    private final Cache<CacheKey, Statement> cache;
+
+    public StatementCache(SqlParser sqlParser, DataSize maxSize)
+    {
+        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((CacheKey key, Statement statement) -> key.getSql().length() * Character.BYTES)
+                .recordStats()
+                .build();
+    }
+
+    public Statement createStatement(String sql, ParsingOptions parsingOptions)
+    {
+        return createStatement(sql, parsingOptions, new Usage());
+    }
+
+    /**
+     * Parses the statement through the cache, and records whether it was a hit in {@code usage}.
+     */
+    public Statement createStatement(String sql, ParsingOptions parsingOptions, Usage usage)
+    {
+        CacheKey key = new CacheKey(sql, parsingOptions.getDecimalLiteralTreatment());
+        Statement statement = cache.getIfPresent(key);
+        if (statement != null) {
+            usage.recordHit();
+            return statement;
+        }
+        usage.recordMiss();
+        // parse outside of the cache loader, so parsing errors are not wrapped
+        statement = sqlParser.createStatement(sql, parsingOptions);
+        cache.put(key, statement);
+        return statement;
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    /**
+     * Cache hits and misses of the statements parsed for a single query.
+     */
+    @NotThreadSafe
+    public static class Usage
+    {
+        private int hits;
+        private int misses;
+
+        private void recordHit()
+        {
+            hits++;
+        }
+
+        private void recordMiss()
+        {
+            misses++;
+        }
+
+        public int getHits()
+        {
+            return hits;
+        }
+
+        public int getMisses()
+        {
+            return misses;
+        }
+    }
+
+    private static final class CacheKey
+    {
+        private final String sql;
+        private final DecimalLiteralTreatment decimalLiteralTreatment;
+
+        public CacheKey(String sql, DecimalLiteralTreatment decimalLiteralTreatment)
+        {
+            this.sql = requireNonNull(sql, "sql is null");
+            this.decimalLiteralTreatment = requireNonNull(decimalLiteralTreatment, "decimalLiteralTreatment is null");
+        }
+
+        public String getSql()
+        {
+            return sql;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return sql.equals(other.sql) &&
+                    decimalLiteralTreatment == other.decimalLiteralTreatment;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, decimalLiteralTreatment);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("sql", sql)
+                    .add("decimalLiteralTreatment", decimalLiteralTreatment)
+                    .toString();
+        }
+    }
+}
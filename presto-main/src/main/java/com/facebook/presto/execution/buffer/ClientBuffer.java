@@ -23,11 +23,13 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -40,6 +42,12 @@ import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Pages are added without locking into a concurrent queue, so that the drivers of
+ * a task do not contend with each other or with the readers. Readers move the
+ * added pages into the read queue under the buffer lock, and acknowledge and
+ * release pages in batches.
+ */
 @ThreadSafe
 class ClientBuffer
 {
@@ -54,19 +62,22 @@ class ClientBuffer
     @GuardedBy("this")
     private final AtomicLong currentSequenceId = new AtomicLong();
 
-    @GuardedBy("this")
-    private final LinkedList<SerializedPageReference> pages = new LinkedList<>();
+    // pages added by the producers, which have not been moved to the read queue yet
+    private final Queue<SerializedPageReference> enqueuedPages = new ConcurrentLinkedQueue<>();
 
     @GuardedBy("this")
-    private boolean noMorePages;
+    private final ArrayDeque<SerializedPageReference> pages = new ArrayDeque<>();
+
+    // written while holding the lock, read without the lock by producers
+    private volatile boolean noMorePages;
 
     // destroyed is set when the client sends a DELETE to the buffer
     // this is an acknowledgement that the client has observed the end of the buffer
     @GuardedBy("this")
     private final AtomicBoolean destroyed = new AtomicBoolean();
 
-    @GuardedBy("this")
-    private PendingRead pendingRead;
+    // written while holding the lock, read without the lock by producers
+    private volatile PendingRead pendingRead;
 
     public ClientBuffer(String taskInstanceId, OutputBufferId bufferId)
     {
@@ -108,13 +119,15 @@ class ClientBuffer
         List<SerializedPageReference> removedPages;
         PendingRead pendingRead;
         synchronized (this) {
+            noMorePages = true;
+            destroyed.set(true);
+
+            drainEnqueuedPages();
             removedPages = ImmutableList.copyOf(pages);
             pages.clear();
 
-            bufferedBytes.getAndSet(0);
-
-            noMorePages = true;
-            destroyed.set(true);
+            long bytesRemoved = removedPages.stream().mapToLong(SerializedPageReference::getRetainedSizeInBytes).sum();
+            bufferedBytes.addAndGet(-bytesRemoved);
 
             pendingRead = this.pendingRead;
             this.pendingRead = null;
@@ -129,37 +142,78 @@ class ClientBuffer
 
     public void enqueuePages(Collection<SerializedPageReference> pages)
     {
-        PendingRead pendingRead;
-        synchronized (this) {
-            // ignore pages after no more pages is set
-            // this can happen with limit queries
-            if (noMorePages) {
-                return;
-            }
+        // ignore pages after no more pages is set
+        // this can happen with limit queries
+        if (noMorePages) {
+            return;
+        }
 
-            addPages(pages);
+        addPages(pages);
 
-            pendingRead = this.pendingRead;
-            this.pendingRead = null;
+        // the buffer may have been destroyed after the check above, and the
+        // destroy may have missed the pages, so release them here
+        if (destroyed.get()) {
+            releaseEnqueuedPages();
+            return;
         }
 
         // we just added a page, so process the pending read
-        if (pendingRead != null) {
-            processRead(pendingRead);
+        // a read that is registered after this check sees the added pages
+        if (this.pendingRead != null) {
+            PendingRead pendingRead;
+            synchronized (this) {
+                pendingRead = this.pendingRead;
+                this.pendingRead = null;
+            }
+            if (pendingRead != null) {
+                processRead(pendingRead);
+            }
         }
     }
 
-    private synchronized void addPages(Collection<SerializedPageReference> pages)
+    private void addPages(Collection<SerializedPageReference> pages)
     {
         pages.forEach(SerializedPageReference::addReference);
-        this.pages.addAll(pages);
 
+        // update the counters before the pages are visible, so that a reader never acknowledges pages that are not counted
         long rowCount = pages.stream().mapToLong(SerializedPageReference::getPositionCount).sum();
         rowsAdded.addAndGet(rowCount);
         pagesAdded.addAndGet(pages.size());
 
         long bytesAdded = pages.stream().mapToLong(SerializedPageReference::getRetainedSizeInBytes).sum();
         bufferedBytes.addAndGet(bytesAdded);
+
+        enqueuedPages.addAll(pages);
+    }
+
+    /**
+     * Moves the pages added by the producers to the read queue. Must be called while holding the lock.
+     */
+    private void drainEnqueuedPages()
+    {
+        SerializedPageReference page = enqueuedPages.poll();
+        while (page != null) {
+            pages.add(page);
+            page = enqueuedPages.poll();
+        }
+    }
+
+    private void releaseEnqueuedPages()
+    {
+        checkState(!Thread.holdsLock(this), "Can not release pages while holding a lock on this");
+
+        List<SerializedPageReference> removedPages = new ArrayList<>();
+        synchronized (this) {
+            SerializedPageReference page = enqueuedPages.poll();
+            while (page != null) {
+                removedPages.add(page);
+                page = enqueuedPages.poll();
+            }
+        }
+
+        long bytesRemoved = removedPages.stream().mapToLong(SerializedPageReference::getRetainedSizeInBytes).sum();
+        bufferedBytes.addAndGet(-bytesRemoved);
+        removedPages.forEach(SerializedPageReference::dereferencePage);
     }
 
     public ListenableFuture<BufferResult> getPages(long sequenceId, DataSize maxSize)
@@ -186,12 +240,20 @@ class ClientBuffer
 
                 // Return results immediately if we have data, there will be no more data, or this is
                 // an out of order request
+                drainEnqueuedPages();
                 if (!pages.isEmpty() || noMorePages || sequenceId != currentSequenceId.get()) {
                     return immediateFuture(processRead(sequenceId, maxSize));
                 }
 
                 // otherwise, wait for more data to arrive
-                pendingRead = new PendingRead(taskInstanceId, sequenceId, maxSize);
+                PendingRead pendingRead = new PendingRead(taskInstanceId, sequenceId, maxSize);
+                this.pendingRead = pendingRead;
+
+                // a producer that added pages before the pending read was published did not see it
+                if (!enqueuedPages.isEmpty()) {
+                    this.pendingRead = null;
+                    return immediateFuture(processRead(sequenceId, maxSize));
+                }
                 return pendingRead.getResultFuture();
             }
         }
@@ -267,6 +329,7 @@ class ClientBuffer
                 return false;
             }
 
+            drainEnqueuedPages();
             if (!pages.isEmpty()) {
                 return false;
             }
@@ -278,6 +341,7 @@ class ClientBuffer
 
             // add the pages to this buffer, which will increase the reference count
             addPages(pageReferences);
+            drainEnqueuedPages();
 
             // check for no more pages
             if (!pagesSupplier.mayHaveMorePages()) {
@@ -337,9 +401,13 @@ class ClientBuffer
             return emptyResults(taskInstanceId, sequenceId, false);
         }
 
+        // read the flag before draining, so pages added before no more pages was set are not missed
+        boolean finished = noMorePages;
+        drainEnqueuedPages();
+
         // if this buffer is finished, notify the client of this, so the client
         // will destroy this buffer
-        if (pages.isEmpty() && noMorePages) {
+        if (pages.isEmpty() && finished) {
             return emptyResults(taskInstanceId, currentSequenceId.get(), true);
         }
 
@@ -386,6 +454,7 @@ class ClientBuffer
             }
 
             int pagesToRemove = toIntExact(sequenceId - oldCurrentSequenceId);
+            drainEnqueuedPages();
             checkArgument(pagesToRemove <= pages.size(), "Invalid sequence id");
 
             long bytesRemoved = 0;
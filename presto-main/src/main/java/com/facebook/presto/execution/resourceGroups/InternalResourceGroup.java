@@ -106,6 +106,12 @@ public class InternalResourceGroup
     private long cpuUsageMillis;
     @GuardedBy("root")
     private long cpuQuotaGenerationMillisPerSecond = Long.MAX_VALUE;
+    // CPU time charged for the running queries of this group and its descendants, and the part
+    // of that charge still included in cpuUsageMillis after quota was regenerated
+    @GuardedBy("root")
+    private long runningCpuChargedMillis;
+    @GuardedBy("root")
+    private long runningCpuHeldMillis;
     @GuardedBy("root")
     private int descendantRunningQueries;
     @GuardedBy("root")
@@ -119,6 +125,9 @@ public class InternalResourceGroup
     private UpdateablePriorityQueue<QueryExecution> queuedQueries = new FifoQueue<>();
     @GuardedBy("root")
     private final Set<QueryExecution> runningQueries = new HashSet<>();
+    // CPU time of running queries already added to cpuUsageMillis
+    @GuardedBy("root")
+    private final Map<QueryExecution, Long> chargedCpuMillis = new HashMap<>();
     @GuardedBy("root")
     private SchedulingPolicy schedulingPolicy = FAIR;
     @GuardedBy("root")
@@ -665,17 +674,15 @@ public class InternalResourceGroup
                 return;
             }
             // Only count the CPU time if the query succeeded, or the failure was the fault of the user
+            long chargedMillis = chargedCpuMillis.getOrDefault(query, 0L);
+            chargedCpuMillis.remove(query);
             if (query.getState() == QueryState.FINISHED || query.getQueryInfo().getErrorType() == USER_ERROR) {
-                InternalResourceGroup group = this;
-                while (group != null) {
-                    try {
-                        group.cpuUsageMillis = Math.addExact(group.cpuUsageMillis, query.getTotalCpuTime().toMillis());
-                    }
-                    catch (ArithmeticException e) {
-                        group.cpuUsageMillis = Long.MAX_VALUE;
-                    }
-                    group = group.parent.orElse(null);
-                }
+                releaseRunningCpu(chargedMillis, false);
+                chargeCpu(query.getTotalCpuTime().toMillis() - chargedMillis);
+            }
+            else {
+                // give back what is left of the charge made while the query was running
+                releaseRunningCpu(chargedMillis, true);
             }
             if (runningQueries.contains(query)) {
                 runningQueries.remove(query);
@@ -706,19 +713,29 @@ public class InternalResourceGroup
                 cachedMemoryUsageBytes = 0;
                 for (QueryExecution query : runningQueries) {
                     cachedMemoryUsageBytes += query.getTotalMemoryReservation();
+
+                    // Charge CPU time as it is used, so that a group running expensive queries
+                    // is throttled by its CPU limits before those queries finish
+                    long cpuMillis = query.getTotalCpuTime().toMillis();
+                    long chargedMillis = chargedCpuMillis.getOrDefault(query, 0L);
+                    if (cpuMillis > chargedMillis) {
+                        chargeRunningCpu(cpuMillis - chargedMillis);
+                        chargedCpuMillis.put(query, cpuMillis);
+                    }
                 }
             }
             else {
                 for (Iterator<InternalResourceGroup> iterator = dirtySubGroups.iterator(); iterator.hasNext(); ) {
                     InternalResourceGroup subGroup = iterator.next();
                     long oldMemoryUsageBytes = subGroup.cachedMemoryUsageBytes;
+                    long oldCpuUsageMillis = subGroup.cpuUsageMillis;
                     cachedMemoryUsageBytes -= oldMemoryUsageBytes;
                     subGroup.internalRefreshStats();
                     cachedMemoryUsageBytes += subGroup.cachedMemoryUsageBytes;
                     if (!subGroup.isDirty()) {
                         iterator.remove();
                     }
-                    if (oldMemoryUsageBytes != subGroup.cachedMemoryUsageBytes) {
+                    if (oldMemoryUsageBytes != subGroup.cachedMemoryUsageBytes || oldCpuUsageMillis != subGroup.cpuUsageMillis) {
                         subGroup.updateEligibility();
                     }
                 }
@@ -726,6 +743,56 @@ public class InternalResourceGroup
         }
     }
 
+    // Adds CPU usage to this group and all of its ancestors
+    private void chargeCpu(long millis)
+    {
+        checkState(Thread.holdsLock(root), "Must hold lock to charge cpu");
+        InternalResourceGroup group = this;
+        while (group != null) {
+            try {
+                group.cpuUsageMillis = Math.max(0, Math.addExact(group.cpuUsageMillis, millis));
+            }
+            catch (ArithmeticException e) {
+                group.cpuUsageMillis = Long.MAX_VALUE;
+            }
+            group = group.parent.orElse(null);
+        }
+    }
+
+    // Adds CPU usage of a running query to this group and all of its ancestors, so it can be refunded if the query fails
+    private void chargeRunningCpu(long millis)
+    {
+        checkState(Thread.holdsLock(root), "Must hold lock to charge cpu");
+        chargeCpu(millis);
+        InternalResourceGroup group = this;
+        while (group != null) {
+            group.runningCpuChargedMillis += millis;
+            group.runningCpuHeldMillis += millis;
+            group = group.parent.orElse(null);
+        }
+    }
+
+    // Releases the charge of a running query from this group and all of its ancestors. Regenerated quota
+    // pays down all usage of a group alike, so the query only holds its share of what the group has left.
+    private void releaseRunningCpu(long chargedMillis, boolean refund)
+    {
+        checkState(Thread.holdsLock(root), "Must hold lock to charge cpu");
+        InternalResourceGroup group = this;
+        while (group != null) {
+            long heldMillis = 0;
+            if (group.runningCpuChargedMillis > 0) {
+                heldMillis = (long) (group.runningCpuHeldMillis * ((double) chargedMillis / group.runningCpuChargedMillis));
+                heldMillis = Math.min(heldMillis, group.runningCpuHeldMillis);
+            }
+            group.runningCpuChargedMillis -= chargedMillis;
+            group.runningCpuHeldMillis -= heldMillis;
+            if (refund) {
+                group.cpuUsageMillis = Math.max(0, group.cpuUsageMillis - heldMillis);
+            }
+            group = group.parent.orElse(null);
+        }
+    }
+
     protected void internalGenerateCpuQuota(long elapsedSeconds)
     {
         checkState(Thread.holdsLock(root), "Must hold lock to generate cpu quota");
@@ -737,6 +804,7 @@ public class InternalResourceGroup
             catch (ArithmeticException e) {
                 newQuota = Long.MAX_VALUE;
             }
+            long oldCpuUsageMillis = cpuUsageMillis;
             try {
                 cpuUsageMillis = Math.subtractExact(cpuUsageMillis, newQuota);
             }
@@ -744,6 +812,9 @@ public class InternalResourceGroup
                 cpuUsageMillis = 0;
             }
             cpuUsageMillis = Math.max(0, cpuUsageMillis);
+            if (oldCpuUsageMillis > 0) {
+                runningCpuHeldMillis = (long) (runningCpuHeldMillis * ((double) cpuUsageMillis / oldCpuUsageMillis));
+            }
             for (InternalResourceGroup group : subGroups.values()) {
                 group.internalGenerateCpuQuota(elapsedSeconds);
             }
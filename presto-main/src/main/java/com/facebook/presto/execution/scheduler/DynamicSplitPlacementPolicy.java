@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
 
+import static com.facebook.presto.execution.scheduler.StragglerDetector.findStragglerNodes;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.util.Objects.requireNonNull;
 
 public class DynamicSplitPlacementPolicy
@@ -28,17 +30,35 @@ public class DynamicSplitPlacementPolicy
 {
     private final NodeSelector nodeSelector;
     private final Supplier<? extends List<RemoteTask>> remoteTasks;
+    private final boolean avoidStragglers;
 
     public DynamicSplitPlacementPolicy(NodeSelector nodeSelector, Supplier<? extends List<RemoteTask>> remoteTasks)
+    {
+        this(nodeSelector, remoteTasks, false);
+    }
+
+    public DynamicSplitPlacementPolicy(NodeSelector nodeSelector, Supplier<? extends List<RemoteTask>> remoteTasks, boolean avoidStragglers)
     {
         this.nodeSelector = requireNonNull(nodeSelector, "nodeSelector is null");
         this.remoteTasks = requireNonNull(remoteTasks, "remoteTasks is null");
+        this.avoidStragglers = avoidStragglers;
     }
 
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits)
     {
-        return nodeSelector.computeAssignments(splits, remoteTasks.get());
+        List<RemoteTask> tasks = remoteTasks.get();
+        if (avoidStragglers) {
+            // queue the remaining splits on the other nodes, so that a straggler only has to finish the splits it already has
+            Set<String> stragglerNodeIds = findStragglerNodes(tasks);
+            if (!stragglerNodeIds.isEmpty()) {
+                Set<Node> stragglerNodes = nodeSelector.allNodes().stream()
+                        .filter(node -> stragglerNodeIds.contains(node.getNodeIdentifier()))
+                        .collect(toImmutableSet());
+                return nodeSelector.computeAssignments(splits, tasks, stragglerNodes);
+            }
+        }
+        return nodeSelector.computeAssignments(splits, tasks);
     }
 
     @Override
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Load of a worker as reported to the coordinator with its memory info.
+ */
+public class NodeLoad
+{
+    private final double processCpuLoad;
+    private final int runnerThreads;
+    private final int waitingSplits;
+    private final int runningSplits;
+
+    @JsonCreator
+    public NodeLoad(
+            @JsonProperty("processCpuLoad") double processCpuLoad,
+            @JsonProperty("runnerThreads") int runnerThreads,
+            @JsonProperty("waitingSplits") int waitingSplits,
+            @JsonProperty("runningSplits") int runningSplits)
+    {
+        checkArgument(runnerThreads >= 0, "runnerThreads is negative");
+        checkArgument(waitingSplits >= 0, "waitingSplits is negative");
+        checkArgument(runningSplits >= 0, "runningSplits is negative");
+        this.processCpuLoad = processCpuLoad;
+        this.runnerThreads = runnerThreads;
+        this.waitingSplits = waitingSplits;
+        this.runningSplits = runningSplits;
+    }
+
+    /**
+     * Recent CPU usage of the worker process between 0 and 1, or a negative value if not available.
+     */
+    @JsonProperty
+    public double getProcessCpuLoad()
+    {
+        return processCpuLoad;
+    }
+
+    @JsonProperty
+    public int getRunnerThreads()
+    {
+        return runnerThreads;
+    }
+
+    @JsonProperty
+    public int getWaitingSplits()
+    {
+        return waitingSplits;
+    }
+
+    @JsonProperty
+    public int getRunningSplits()
+    {
+        return runningSplits;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("processCpuLoad", processCpuLoad)
+                .add("runnerThreads", runnerThreads)
+                .add("waitingSplits", waitingSplits)
+                .add("runningSplits", runningSplits)
+                .toString();
+    }
+}
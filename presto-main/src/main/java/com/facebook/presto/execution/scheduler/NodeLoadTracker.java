@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Latest load reported by each worker. The coordinator updates it from the
+ * periodic memory info requests, so it is empty on workers.
+ */
+@ThreadSafe
+public class NodeLoadTracker
+{
+    private static final Duration MAX_LOAD_AGE = new Duration(10, SECONDS);
+    private static final double MAX_QUEUE_PENALTY = 2.0;
+    private static final double LOW_MEMORY_FRACTION = 0.1;
+    private static final double LOW_MEMORY_PENALTY = 1.0;
+
+    private final Ticker ticker;
+    private final Map<String, LoadSample> loads = new ConcurrentHashMap<>();
+
+    public NodeLoadTracker()
+    {
+        this(Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    public NodeLoadTracker(Ticker ticker)
+    {
+        this.ticker = requireNonNull(ticker, "ticker is null");
+    }
+
+    public void update(String nodeId, NodeLoad load, Optional<MemoryPoolInfo> generalPool)
+    {
+        requireNonNull(nodeId, "nodeId is null");
+        requireNonNull(load, "load is null");
+        requireNonNull(generalPool, "generalPool is null");
+
+        double freeMemoryFraction = generalPool
+                .filter(pool -> pool.getMaxBytes() > 0)
+                .map(pool -> (double) pool.getFreeBytes() / pool.getMaxBytes())
+                .orElse(1.0);
+        loads.put(nodeId, new LoadSample(load, freeMemoryFraction, ticker.read()));
+    }
+
+    public void retainNodes(Set<String> nodeIds)
+    {
+        loads.keySet().retainAll(nodeIds);
+    }
+
+    /**
+     * Returns a factor between 1 and 5 by which the number of splits assigned to the node
+     * is scaled when comparing nodes. Nodes without a recent load report are not penalized.
+     * The factor is bounded so that busy nodes keep receiving splits once the other nodes
+     * have a proportionally larger backlog.
+     */
+    public double getLoadFactor(Node node)
+    {
+        LoadSample sample = loads.get(node.getNodeIdentifier());
+        if (sample == null || ticker.read() - sample.getTimestampNanos() > MAX_LOAD_AGE.roundTo(NANOSECONDS)) {
+            return 1.0;
+        }
+
+        NodeLoad load = sample.getLoad();
+        double factor = 1.0;
+        if (load.getProcessCpuLoad() >= 0) {
+            factor += min(load.getProcessCpuLoad(), 1.0);
+        }
+        factor += min((double) load.getWaitingSplits() / max(load.getRunnerThreads(), 1), MAX_QUEUE_PENALTY);
+        if (sample.getFreeMemoryFraction() < LOW_MEMORY_FRACTION) {
+            factor += LOW_MEMORY_PENALTY;
+        }
+        return factor;
+    }
+
+    private static class LoadSample
+    {
+        private final NodeLoad load;
+        private final double freeMemoryFraction;
+        private final long timestampNanos;
+
+        public LoadSample(NodeLoad load, double freeMemoryFraction, long timestampNanos)
+        {
+            this.load = requireNonNull(load, "load is null");
+            this.freeMemoryFraction = freeMemoryFraction;
+            this.timestampNanos = timestampNanos;
+        }
+
+        public NodeLoad getLoad()
+        {
+            return load;
+        }
+
+        public double getFreeMemoryFraction()
+        {
+            return freeMemoryFraction;
+        }
+
+        public long getTimestampNanos()
+        {
+            return timestampNanos;
+        }
+    }
+}
@@ -45,6 +45,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -69,11 +70,18 @@ public class NodeScheduler
     private final int maxPendingSplitsPerTask;
     private final NodeTaskMap nodeTaskMap;
     private final boolean useNetworkTopology;
+    private final boolean preferSplitAddresses;
+    private final Optional<NodeLoadTracker> nodeLoadTracker;
 
-    @Inject
     public NodeScheduler(NetworkTopology networkTopology, InternalNodeManager nodeManager, NodeSchedulerConfig config, NodeTaskMap nodeTaskMap)
     {
-        this(new NetworkLocationCache(networkTopology), networkTopology, nodeManager, config, nodeTaskMap);
+        this(networkTopology, nodeManager, config, nodeTaskMap, new NodeLoadTracker());
+    }
+
+    @Inject
+    public NodeScheduler(NetworkTopology networkTopology, InternalNodeManager nodeManager, NodeSchedulerConfig config, NodeTaskMap nodeTaskMap, NodeLoadTracker nodeLoadTracker)
+    {
+        this(new NetworkLocationCache(networkTopology), networkTopology, nodeManager, config, nodeTaskMap, nodeLoadTracker);
     }
 
     public NodeScheduler(
@@ -82,6 +90,17 @@ public class NodeScheduler
             InternalNodeManager nodeManager,
             NodeSchedulerConfig config,
             NodeTaskMap nodeTaskMap)
+    {
+        this(networkLocationCache, networkTopology, nodeManager, config, nodeTaskMap, new NodeLoadTracker());
+    }
+
+    public NodeScheduler(
+            NetworkLocationCache networkLocationCache,
+            NetworkTopology networkTopology,
+            InternalNodeManager nodeManager,
+            NodeSchedulerConfig config,
+            NodeTaskMap nodeTaskMap,
+            NodeLoadTracker nodeLoadTracker)
     {
         this.networkLocationCache = networkLocationCache;
         this.nodeManager = nodeManager;
@@ -92,6 +111,9 @@ public class NodeScheduler
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
         checkArgument(maxSplitsPerNode > maxPendingSplitsPerTask, "maxSplitsPerNode must be > maxPendingSplitsPerTask");
         this.useNetworkTopology = !config.getNetworkTopology().equals(NetworkTopologyType.LEGACY);
+        this.preferSplitAddresses = config.isPreferSplitAddresses();
+        requireNonNull(nodeLoadTracker, "nodeLoadTracker is null");
+        this.nodeLoadTracker = config.isLoadAwarePlacementEnabled() ? Optional.of(nodeLoadTracker) : Optional.empty();
 
         ImmutableList.Builder<CounterStat> builder = ImmutableList.builder();
         if (useNetworkTopology) {
@@ -177,7 +199,7 @@ public class NodeScheduler
                     networkLocationCache);
         }
         else {
-            return new SimpleNodeSelector(nodeManager, nodeTaskMap, includeCoordinator, nodeMap, minCandidates, maxSplitsPerNode, maxPendingSplitsPerTask);
+            return new SimpleNodeSelector(nodeManager, nodeTaskMap, includeCoordinator, nodeMap, minCandidates, maxSplitsPerNode, maxPendingSplitsPerTask, preferSplitAddresses, nodeLoadTracker);
         }
     }
 
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution.scheduler;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
 
@@ -35,6 +36,8 @@ public class NodeSchedulerConfig
     private int maxSplitsPerNode = 100;
     private int maxPendingSplitsPerTask = 10;
     private String networkTopology = NetworkTopologyType.LEGACY;
+    private boolean preferSplitAddresses;
+    private boolean loadAwarePlacementEnabled;
 
     @NotNull
     public String getNetworkTopology()
@@ -98,4 +101,30 @@ public class NodeSchedulerConfig
         this.maxSplitsPerNode = maxSplitsPerNode;
         return this;
     }
+
+    public boolean isPreferSplitAddresses()
+    {
+        return preferSplitAddresses;
+    }
+
+    @Config("node-scheduler.prefer-split-addresses")
+    @ConfigDescription("Prefer the addresses of remotely accessible splits, when those nodes have capacity")
+    public NodeSchedulerConfig setPreferSplitAddresses(boolean preferSplitAddresses)
+    {
+        this.preferSplitAddresses = preferSplitAddresses;
+        return this;
+    }
+
+    public boolean isLoadAwarePlacementEnabled()
+    {
+        return loadAwarePlacementEnabled;
+    }
+
+    @Config("node-scheduler.load-aware-placement-enabled")
+    @ConfigDescription("Place splits on the less loaded of two random nodes, based on the CPU, split queue and memory reported by the workers")
+    public NodeSchedulerConfig setLoadAwarePlacementEnabled(boolean loadAwarePlacementEnabled)
+    {
+        this.loadAwarePlacementEnabled = loadAwarePlacementEnabled;
+        return this;
+    }
 }
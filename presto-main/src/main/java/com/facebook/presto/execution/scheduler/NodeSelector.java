@@ -47,6 +47,16 @@ public interface NodeSelector
      */
     SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks);
 
+    /**
+     * Identifies the nodes for running the specified splits, avoiding the excluded nodes for
+     * splits that can run anywhere. The exclusion is only a hint, and selectors that cannot
+     * honor it assign the splits as usual.
+     */
+    default SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, Set<Node> excludedNodes)
+    {
+        return computeAssignments(splits, existingTasks);
+    }
+
     /**
      * Identifies the nodes for running the specified splits based on a precomputed fixed partitioning.
      *
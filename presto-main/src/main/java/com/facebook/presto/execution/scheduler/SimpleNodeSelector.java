@@ -31,6 +31,7 @@ import io.airlift.log.Logger;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -41,6 +42,8 @@ import static com.facebook.presto.execution.scheduler.NodeScheduler.selectExactN
 import static com.facebook.presto.execution.scheduler.NodeScheduler.selectNodes;
 import static com.facebook.presto.execution.scheduler.NodeScheduler.toWhenHasSplitQueueSpaceFuture;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.util.Objects.requireNonNull;
 
 public class SimpleNodeSelector
@@ -55,6 +58,8 @@ public class SimpleNodeSelector
     private final int minCandidates;
     private final int maxSplitsPerNode;
     private final int maxPendingSplitsPerTask;
+    private final boolean preferSplitAddresses;
+    private final Optional<NodeLoadTracker> nodeLoadTracker;
 
     public SimpleNodeSelector(
             InternalNodeManager nodeManager,
@@ -63,7 +68,9 @@ public class SimpleNodeSelector
             Supplier<NodeMap> nodeMap,
             int minCandidates,
             int maxSplitsPerNode,
-            int maxPendingSplitsPerTask)
+            int maxPendingSplitsPerTask,
+            boolean preferSplitAddresses,
+            Optional<NodeLoadTracker> nodeLoadTracker)
     {
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
@@ -72,6 +79,8 @@ public class SimpleNodeSelector
         this.minCandidates = minCandidates;
         this.maxSplitsPerNode = maxSplitsPerNode;
         this.maxPendingSplitsPerTask = maxPendingSplitsPerTask;
+        this.preferSplitAddresses = preferSplitAddresses;
+        this.nodeLoadTracker = requireNonNull(nodeLoadTracker, "nodeLoadTracker is null");
     }
 
     @Override
@@ -101,12 +110,24 @@ public class SimpleNodeSelector
 
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks)
+    {
+        return computeAssignments(splits, existingTasks, ImmutableSet.of());
+    }
+
+    @Override
+    public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, Set<Node> excludedNodes)
     {
         Multimap<Node, Split> assignment = HashMultimap.create();
         NodeMap nodeMap = this.nodeMap.get().get();
         NodeAssignmentStats assignmentStats = new NodeAssignmentStats(nodeTaskMap, nodeMap, existingTasks);
 
-        ResettableRandomizedIterator<Node> randomCandidates = randomizedNodes(nodeMap, includeCoordinator, ImmutableSet.of());
+        ResettableRandomizedIterator<Node> randomCandidates = randomizedNodes(nodeMap, includeCoordinator, excludedNodes);
+        if (!randomCandidates.hasNext()) {
+            // never exclude all nodes
+            excludedNodes = ImmutableSet.of();
+            randomCandidates = randomizedNodes(nodeMap, includeCoordinator, excludedNodes);
+        }
+        Set<Node> avoidedNodes = excludedNodes;
         Set<Node> blockedExactNodes = new HashSet<>();
         boolean splitWaitingForAnyNode = false;
         for (Split split : splits) {
@@ -117,25 +138,31 @@ public class SimpleNodeSelector
                 candidateNodes = selectExactNodes(nodeMap, split.getAddresses(), includeCoordinator);
             }
             else {
-                candidateNodes = selectNodes(minCandidates, randomCandidates);
+                candidateNodes = ImmutableList.of();
+                if (preferSplitAddresses) {
+                    // the addresses are only a hint, so busy preferred nodes fall back to random placement
+                    candidateNodes = selectExactNodes(nodeMap, split.getAddresses(), includeCoordinator).stream()
+                            .filter(node -> !avoidedNodes.contains(node) && assignmentStats.getTotalSplitCount(node) < maxSplitsPerNode)
+                            .collect(toImmutableList());
+                }
+                if (candidateNodes.isEmpty()) {
+                    candidateNodes = selectNodes(minCandidates, randomCandidates);
+                }
             }
             if (candidateNodes.isEmpty()) {
                 log.debug("No nodes available to schedule %s. Available nodes %s", split, nodeMap.getNodesByHost().keys());
                 throw new PrestoException(NO_NODES_AVAILABLE, "No nodes available to run query");
             }
 
-            Node chosenNode = null;
-            int min = Integer.MAX_VALUE;
-
-            for (Node node : candidateNodes) {
-                int totalSplitCount = assignmentStats.getTotalSplitCount(node);
-                if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode) {
-                    chosenNode = node;
-                    min = totalSplitCount;
-                }
+            Node chosenNode;
+            if (nodeLoadTracker.isPresent() && split.isRemotelyAccessible()) {
+                chosenNode = chooseLessLoadedNode(candidateNodes, assignmentStats, nodeLoadTracker.get());
+            }
+            else {
+                chosenNode = chooseLeastAssignedNode(candidateNodes, assignmentStats);
             }
             if (chosenNode == null) {
-                // min is guaranteed to be MAX_VALUE at this line
+                int min = Integer.MAX_VALUE;
                 for (Node node : candidateNodes) {
                     int totalSplitCount = assignmentStats.getQueuedSplitCountForStage(node);
                     if (totalSplitCount < min && totalSplitCount < maxPendingSplitsPerTask) {
@@ -161,7 +188,17 @@ public class SimpleNodeSelector
 
         ListenableFuture<?> blocked;
         if (splitWaitingForAnyNode) {
-            blocked = toWhenHasSplitQueueSpaceFuture(existingTasks, calculateLowWatermark(maxPendingSplitsPerTask));
+            // tasks on excluded nodes do not receive these splits, so they must not unblock the scheduler
+            List<RemoteTask> candidateTasks = existingTasks;
+            if (!avoidedNodes.isEmpty()) {
+                Set<String> excludedNodeIds = avoidedNodes.stream()
+                        .map(Node::getNodeIdentifier)
+                        .collect(toImmutableSet());
+                candidateTasks = existingTasks.stream()
+                        .filter(task -> !excludedNodeIds.contains(task.getNodeId()))
+                        .collect(toImmutableList());
+            }
+            blocked = toWhenHasSplitQueueSpaceFuture(candidateTasks, calculateLowWatermark(maxPendingSplitsPerTask));
         }
         else {
             blocked = toWhenHasSplitQueueSpaceFuture(blockedExactNodes, existingTasks, calculateLowWatermark(maxPendingSplitsPerTask));
@@ -169,6 +206,48 @@ public class SimpleNodeSelector
         return new SplitPlacementResult(blocked, assignment);
     }
 
+    private Node chooseLeastAssignedNode(List<Node> candidateNodes, NodeAssignmentStats assignmentStats)
+    {
+        Node chosenNode = null;
+        int min = Integer.MAX_VALUE;
+        for (Node node : candidateNodes) {
+            int totalSplitCount = assignmentStats.getTotalSplitCount(node);
+            if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode) {
+                chosenNode = node;
+                min = totalSplitCount;
+            }
+        }
+        return chosenNode;
+    }
+
+    /**
+     * Compares the first two candidates that have room for another split, and returns the one
+     * with the lower split count scaled by its reported load. Splits still go to busy nodes,
+     * because the load factor is bounded and nodes at the split limit are never chosen.
+     */
+    private Node chooseLessLoadedNode(List<Node> candidateNodes, NodeAssignmentStats assignmentStats, NodeLoadTracker nodeLoadTracker)
+    {
+        Node first = null;
+        Node second = null;
+        for (Node node : candidateNodes) {
+            if (assignmentStats.getTotalSplitCount(node) < maxSplitsPerNode) {
+                if (first == null) {
+                    first = node;
+                }
+                else {
+                    second = node;
+                    break;
+                }
+            }
+        }
+        if (second == null) {
+            return first;
+        }
+        double firstScore = (assignmentStats.getTotalSplitCount(first) + 1) * nodeLoadTracker.getLoadFactor(first);
+        double secondScore = (assignmentStats.getTotalSplitCount(second) + 1) * nodeLoadTracker.getLoadFactor(second);
+        return firstScore <= secondScore ? first : second;
+    }
+
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, NodePartitionMap partitioning)
     {
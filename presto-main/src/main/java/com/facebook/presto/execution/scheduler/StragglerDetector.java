@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.execution.RemoteTask;
+import com.facebook.presto.execution.TaskInfo;
+import com.facebook.presto.execution.TaskStatus;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.Duration;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.execution.TaskState.RUNNING;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Finds the tasks of a source partitioned stage that complete splits much slower
+ * than the other tasks of the stage, e.g. because of a degraded node or slow reads
+ * from remote storage.
+ */
+public final class StragglerDetector
+{
+    private static final int MIN_TASKS = 3;
+    private static final Duration MIN_ELAPSED_TIME = new Duration(5, SECONDS);
+    private static final double MAX_STRAGGLER_RATE_RATIO = 0.25;
+
+    private StragglerDetector() {}
+
+    /**
+     * Returns the ids of the nodes running a task whose split completion rate is
+     * below a quarter of the median rate of the stage, while it still has splits to run.
+     */
+    public static Set<String> findStragglerNodes(List<RemoteTask> tasks)
+    {
+        if (tasks.size() < MIN_TASKS) {
+            return ImmutableSet.of();
+        }
+        return findStragglers(tasks.stream()
+                .map(RemoteTask::getTaskInfo)
+                .filter(taskInfo -> taskInfo.getTaskStatus().getState() == RUNNING)
+                .map(StragglerDetector::toTaskProgress)
+                .collect(toImmutableList()));
+    }
+
+    @VisibleForTesting
+    static Set<String> findStragglers(List<TaskProgress> tasks)
+    {
+        List<TaskProgress> startedTasks = tasks.stream()
+                .filter(task -> task.getElapsedTime().compareTo(MIN_ELAPSED_TIME) >= 0)
+                .collect(toImmutableList());
+        if (startedTasks.size() < MIN_TASKS) {
+            return ImmutableSet.of();
+        }
+
+        double[] rates = startedTasks.stream()
+                .mapToDouble(TaskProgress::getCompletionRate)
+                .sorted()
+                .toArray();
+        double medianRate = rates[rates.length / 2];
+        if (medianRate == 0) {
+            return ImmutableSet.of();
+        }
+
+        return startedTasks.stream()
+                .filter(task -> task.getPendingSplits() > 0)
+                .filter(task -> task.getCompletionRate() < medianRate * MAX_STRAGGLER_RATE_RATIO)
+                .map(TaskProgress::getNodeId)
+                .collect(toImmutableSet());
+    }
+
+    private static TaskProgress toTaskProgress(TaskInfo taskInfo)
+    {
+        TaskStatus taskStatus = taskInfo.getTaskStatus();
+        return new TaskProgress(
+                taskStatus.getNodeId(),
+                taskInfo.getStats().getElapsedTime(),
+                taskInfo.getStats().getCompletedDrivers(),
+                taskStatus.getQueuedPartitionedDrivers() + taskStatus.getRunningPartitionedDrivers());
+    }
+
+    @VisibleForTesting
+    static class TaskProgress
+    {
+        private final String nodeId;
+        private final Duration elapsedTime;
+        private final int completedSplits;
+        private final int pendingSplits;
+
+        public TaskProgress(String nodeId, Duration elapsedTime, int completedSplits, int pendingSplits)
+        {
+            this.nodeId = requireNonNull(nodeId, "nodeId is null");
+            this.elapsedTime = requireNonNull(elapsedTime, "elapsedTime is null");
+            this.completedSplits = completedSplits;
+            this.pendingSplits = pendingSplits;
+        }
+
+        public String getNodeId()
+        {
+            return nodeId;
+        }
+
+        public Duration getElapsedTime()
+        {
+            return elapsedTime;
+        }
+
+        public int getPendingSplits()
+        {
+            return pendingSplits;
+        }
+
+        public double getCompletionRate()
+        {
+            return completedSplits / elapsedTime.getValue(SECONDS);
+        }
+    }
+}
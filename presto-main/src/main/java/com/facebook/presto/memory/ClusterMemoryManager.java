@@ -16,6 +16,7 @@ package com.facebook.presto.memory;
 import com.facebook.presto.execution.LocationFactory;
 import com.facebook.presto.execution.QueryExecution;
 import com.facebook.presto.execution.QueryIdGenerator;
+import com.facebook.presto.execution.scheduler.NodeLoadTracker;
 import com.facebook.presto.memory.LowMemoryKiller.QueryMemoryInfo;
 import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.server.ServerConfig;
@@ -95,6 +96,7 @@ public class ClusterMemoryManager
     private final AtomicLong clusterMemoryBytes = new AtomicLong();
     private final AtomicLong queriesKilledDueToOutOfMemory = new AtomicLong();
     private final Map<String, RemoteNodeMemory> nodes = new HashMap<>();
+    private final NodeLoadTracker nodeLoadTracker;
 
     @GuardedBy("this")
     private final Map<MemoryPoolId, List<Consumer<MemoryPoolInfo>>> changeListeners = new HashMap<>();
@@ -119,7 +121,8 @@ public class ClusterMemoryManager
             QueryIdGenerator queryIdGenerator,
             LowMemoryKiller lowMemoryKiller,
             ServerConfig serverConfig,
-            MemoryManagerConfig config)
+            MemoryManagerConfig config,
+            NodeLoadTracker nodeLoadTracker)
     {
         requireNonNull(config, "config is null");
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
@@ -129,6 +132,7 @@ public class ClusterMemoryManager
         this.memoryInfoCodec = requireNonNull(memoryInfoCodec, "memoryInfoCodec is null");
         this.assignmentsRequestJsonCodec = requireNonNull(assignmentsRequestJsonCodec, "assignmentsRequestJsonCodec is null");
         this.lowMemoryKiller = requireNonNull(lowMemoryKiller, "lowMemoryKiller is null");
+        this.nodeLoadTracker = requireNonNull(nodeLoadTracker, "nodeLoadTracker is null");
         this.maxQueryMemory = config.getMaxQueryMemory();
         this.coordinatorId = queryIdGenerator.getCoordinatorId();
         this.enabled = serverConfig.isCoordinator();
@@ -335,6 +339,7 @@ public class ClusterMemoryManager
         // Make a copy to materialize the set difference
         Set<String> deadNodes = ImmutableSet.copyOf(difference(nodes.keySet(), aliveNodeIds));
         nodes.keySet().removeAll(deadNodes);
+        nodeLoadTracker.retainNodes(aliveNodeIds);
 
         // Add new nodes
         for (Node node : aliveNodes) {
@@ -364,6 +369,13 @@ public class ClusterMemoryManager
                 .sum();
         clusterMemoryBytes.set(totalClusterMemory);
 
+        for (Map.Entry<String, RemoteNodeMemory> entry : nodes.entrySet()) {
+            Optional<MemoryInfo> info = entry.getValue().getInfo();
+            if (info.isPresent() && info.get().getNodeLoad().isPresent()) {
+                nodeLoadTracker.update(entry.getKey(), info.get().getNodeLoad().get(), Optional.ofNullable(info.get().getPools().get(GENERAL_POOL)));
+            }
+        }
+
         Set<MemoryPoolId> activePoolIds = nodeMemoryInfos.stream()
                 .flatMap(info -> info.getPools().keySet().stream())
                 .collect(toImmutableSet());
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.execution.scheduler.NodeLoad;
 import com.facebook.presto.spi.memory.MemoryPoolId;
 import com.facebook.presto.spi.memory.MemoryPoolInfo;
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -21,6 +22,7 @@ import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
 
 import java.util.Map;
+import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -29,12 +31,27 @@ public class MemoryInfo
 {
     private final DataSize totalNodeMemory;
     private final Map<MemoryPoolId, MemoryPoolInfo> pools;
+    private final Optional<NodeLoad> nodeLoad;
+
+    public MemoryInfo(DataSize totalNodeMemory, Map<MemoryPoolId, MemoryPoolInfo> pools)
+    {
+        this(totalNodeMemory, pools, Optional.empty());
+    }
 
     @JsonCreator
-    public MemoryInfo(@JsonProperty("totalNodeMemory") DataSize totalNodeMemory, @JsonProperty("pools") Map<MemoryPoolId, MemoryPoolInfo> pools)
+    public MemoryInfo(
+            @JsonProperty("totalNodeMemory") DataSize totalNodeMemory,
+            @JsonProperty("pools") Map<MemoryPoolId, MemoryPoolInfo> pools,
+            @JsonProperty("nodeLoad") Optional<NodeLoad> nodeLoad)
     {
         this.totalNodeMemory = requireNonNull(totalNodeMemory, "totalNodeMemory is null");
         this.pools = ImmutableMap.copyOf(requireNonNull(pools, "pools is null"));
+        this.nodeLoad = requireNonNull(nodeLoad, "nodeLoad is null");
+    }
+
+    public MemoryInfo withNodeLoad(NodeLoad nodeLoad)
+    {
+        return new MemoryInfo(totalNodeMemory, pools, Optional.of(nodeLoad));
     }
 
     @JsonProperty
@@ -49,12 +66,19 @@ public class MemoryInfo
         return pools;
     }
 
+    @JsonProperty
+    public Optional<NodeLoad> getNodeLoad()
+    {
+        return nodeLoad;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("totalNodeMemory", totalNodeMemory)
                 .add("pools", pools)
+                .add("nodeLoad", nodeLoad)
                 .toString();
     }
 }
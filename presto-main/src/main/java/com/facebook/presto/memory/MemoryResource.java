@@ -14,6 +14,9 @@
 package com.facebook.presto.memory;
 
 import com.facebook.presto.execution.TaskManager;
+import com.facebook.presto.execution.executor.TaskExecutor;
+import com.facebook.presto.execution.scheduler.NodeLoad;
+import com.sun.management.OperatingSystemMXBean;
 
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
@@ -22,6 +25,8 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 
+import java.lang.management.ManagementFactory;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -32,12 +37,19 @@ public class MemoryResource
 {
     private final LocalMemoryManager memoryManager;
     private final TaskManager taskManager;
+    private final TaskExecutor taskExecutor;
+    private OperatingSystemMXBean operatingSystemMXBean;
 
     @Inject
-    public MemoryResource(LocalMemoryManager memoryManager, TaskManager taskManager)
+    public MemoryResource(LocalMemoryManager memoryManager, TaskManager taskManager, TaskExecutor taskExecutor)
     {
         this.memoryManager = requireNonNull(memoryManager, "memoryManager is null");
         this.taskManager = requireNonNull(taskManager, "taskManager is null");
+        this.taskExecutor = requireNonNull(taskExecutor, "taskExecutor is null");
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof OperatingSystemMXBean) {
+            // we want the com.sun.management sub-interface of java.lang.management.OperatingSystemMXBean
+            this.operatingSystemMXBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        }
     }
 
     @POST
@@ -46,6 +58,11 @@ public class MemoryResource
     public MemoryInfo getMemoryInfo(MemoryPoolAssignmentsRequest request)
     {
         taskManager.updateMemoryPoolAssignments(request);
-        return memoryManager.getInfo();
+        // the coordinator polls this resource periodically, so the load of the node is reported along with the memory info
+        return memoryManager.getInfo().withNodeLoad(new NodeLoad(
+                operatingSystemMXBean == null ? -1 : operatingSystemMXBean.getProcessCpuLoad(),
+                taskExecutor.getRunnerThreads(),
+                taskExecutor.getWaitingSplits(),
+                taskExecutor.getRunningSplits()));
     }
 }
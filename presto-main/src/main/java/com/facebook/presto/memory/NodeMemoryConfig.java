@@ -14,6 +14,7 @@
 package com.facebook.presto.memory;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
 
 import javax.validation.constraints.NotNull;
@@ -26,6 +27,7 @@ public class NodeMemoryConfig
     public static final String QUERY_MAX_MEMORY_PER_NODE_CONFIG = "query.max-memory-per-node";
 
     private DataSize maxQueryMemoryPerNode = new DataSize(Runtime.getRuntime().maxMemory() * 0.1, BYTE);
+    private DataSize reservationBatchSize = new DataSize(0, BYTE);
 
     @NotNull
     public DataSize getMaxQueryMemoryPerNode()
@@ -39,4 +41,18 @@ public class NodeMemoryConfig
         this.maxQueryMemoryPerNode = maxQueryMemoryPerNode;
         return this;
     }
+
+    @NotNull
+    public DataSize getReservationBatchSize()
+    {
+        return reservationBatchSize;
+    }
+
+    @Config("query.memory-reservation-batch-size")
+    @ConfigDescription("Granularity of the per-query reservations in the local memory pools (0B reserves exact amounts)")
+    public NodeMemoryConfig setReservationBatchSize(DataSize reservationBatchSize)
+    {
+        this.reservationBatchSize = reservationBatchSize;
+        return this;
+    }
 }
@@ -43,6 +43,7 @@ import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.airlift.units.DataSize.succinctBytes;
 import static java.util.Objects.requireNonNull;
@@ -60,6 +61,7 @@ public class QueryContext
     private final SpillSpaceTracker spillSpaceTracker;
     private final Map<TaskId, TaskContext> taskContexts = new ConcurrentHashMap();
     private final MemoryPool systemMemoryPool;
+    private final long reservationBatchSize;
 
     // TODO: This field should be final. However, due to the way QueryContext is constructed the memory limit is not known in advance
     @GuardedBy("this")
@@ -73,6 +75,18 @@ public class QueryContext
     @GuardedBy("this")
     private long spillUsed;
 
+    // Memory used by the query, and the (possibly larger) amount reserved for it in the pools.
+    // Reservations are taken from the pools in multiples of reservationBatchSize, so most
+    // changes in usage are satisfied locally without entering the pool monitors.
+    @GuardedBy("this")
+    private long userMemoryUsed;
+    @GuardedBy("this")
+    private long userMemoryReserved;
+    @GuardedBy("this")
+    private long systemMemoryUsed;
+    @GuardedBy("this")
+    private long systemMemoryReserved;
+
     public QueryContext(
             QueryId queryId,
             DataSize maxMemory,
@@ -82,6 +96,24 @@ public class QueryContext
             ScheduledExecutorService yieldExecutor,
             DataSize maxSpill,
             SpillSpaceTracker spillSpaceTracker)
+    {
+        this(queryId, maxMemory, memoryPool, systemMemoryPool, notificationExecutor, yieldExecutor, maxSpill, spillSpaceTracker, new DataSize(0, BYTE));
+    }
+
+    /**
+     * @param reservationBatchSize granularity of the reservations made in the user and system
+     * memory pools; the pools over-report the memory of the query by at most this amount
+     */
+    public QueryContext(
+            QueryId queryId,
+            DataSize maxMemory,
+            MemoryPool memoryPool,
+            MemoryPool systemMemoryPool,
+            Executor notificationExecutor,
+            ScheduledExecutorService yieldExecutor,
+            DataSize maxSpill,
+            SpillSpaceTracker spillSpaceTracker,
+            DataSize reservationBatchSize)
     {
         this.queryId = requireNonNull(queryId, "queryId is null");
         this.maxMemory = requireNonNull(maxMemory, "maxMemory is null").toBytes();
@@ -91,6 +123,7 @@ public class QueryContext
         this.yieldExecutor = requireNonNull(yieldExecutor, "yieldExecutor is null");
         this.maxSpill = requireNonNull(maxSpill, "maxSpill is null").toBytes();
         this.spillSpaceTracker = requireNonNull(spillSpaceTracker, "spillSpaceTracker is null");
+        this.reservationBatchSize = requireNonNull(reservationBatchSize, "reservationBatchSize is null").toBytes();
         this.queryMemoryContext = new MemoryTrackingContext(
                 newRootAggregatedMemoryContext(new QueryMemoryReservationHandler(this::updateUserMemory, this::tryUpdateUserMemory), GUARANTEED_MEMORY),
                 newRootAggregatedMemoryContext(new QueryMemoryReservationHandler(this::updateRevocableMemory, this::tryReserveMemoryNotSupported), 0L),
@@ -117,9 +150,19 @@ public class QueryContext
             if (queryMemoryContext.getUserMemory() + delta > maxMemory) {
                 throw exceededLocalLimit(succinctBytes(maxMemory));
             }
-            return memoryPool.reserve(queryId, delta);
+            userMemoryUsed += delta;
+            long reserved = growReservation(userMemoryUsed, userMemoryReserved);
+            if (reserved == userMemoryReserved) {
+                return NOT_BLOCKED;
+            }
+            ListenableFuture<?> future = memoryPool.reserve(queryId, reserved - userMemoryReserved);
+            userMemoryReserved = reserved;
+            return future;
         }
-        memoryPool.free(queryId, -delta);
+        userMemoryUsed += delta;
+        long reserved = shrinkReservation(userMemoryUsed, userMemoryReserved);
+        memoryPool.free(queryId, userMemoryReserved - reserved);
+        userMemoryReserved = reserved;
         return NOT_BLOCKED;
     }
 
@@ -134,13 +177,48 @@ public class QueryContext
 
     private synchronized ListenableFuture<?> updateSystemMemory(long delta)
     {
+        systemMemoryUsed += delta;
         if (delta >= 0) {
-            return systemMemoryPool.reserve(queryId, delta);
+            long reserved = growReservation(systemMemoryUsed, systemMemoryReserved);
+            if (reserved == systemMemoryReserved) {
+                return NOT_BLOCKED;
+            }
+            ListenableFuture<?> future = systemMemoryPool.reserve(queryId, reserved - systemMemoryReserved);
+            systemMemoryReserved = reserved;
+            return future;
         }
-        systemMemoryPool.free(queryId, -delta);
+        long reserved = shrinkReservation(systemMemoryUsed, systemMemoryReserved);
+        systemMemoryPool.free(queryId, systemMemoryReserved - reserved);
+        systemMemoryReserved = reserved;
         return NOT_BLOCKED;
     }
 
+    private long growReservation(long used, long reserved)
+    {
+        if (used <= reserved) {
+            return reserved;
+        }
+        return roundUpToBatch(used);
+    }
+
+    private long shrinkReservation(long used, long reserved)
+    {
+        // keep up to one batch of slack, so that usage oscillating around a
+        // batch boundary does not reserve and free in the pool on every change
+        if (reserved - used <= reservationBatchSize && used > 0) {
+            return reserved;
+        }
+        return roundUpToBatch(used);
+    }
+
+    private long roundUpToBatch(long bytes)
+    {
+        if (reservationBatchSize <= 1) {
+            return bytes;
+        }
+        return ((bytes + reservationBatchSize - 1) / reservationBatchSize) * reservationBatchSize;
+    }
+
     //TODO move spill tracking to the new memory tracking framework
     public synchronized ListenableFuture<?> reserveSpill(long bytes)
     {
@@ -163,7 +241,20 @@ public class QueryContext
         if (queryMemoryContext.getUserMemory() + delta > maxMemory) {
             return false;
         }
-        return memoryPool.tryReserve(queryId, delta);
+        long used = userMemoryUsed + delta;
+        long reserved = growReservation(used, userMemoryReserved);
+        if (reserved != userMemoryReserved) {
+            // fall back to the exact amount if the pool cannot fit a whole batch
+            if (!memoryPool.tryReserve(queryId, reserved - userMemoryReserved)) {
+                reserved = used;
+                if (!memoryPool.tryReserve(queryId, reserved - userMemoryReserved)) {
+                    return false;
+                }
+            }
+            userMemoryReserved = reserved;
+        }
+        userMemoryUsed = used;
+        return true;
     }
 
     public synchronized void freeSpill(long bytes)
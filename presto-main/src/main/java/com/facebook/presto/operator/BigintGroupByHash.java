@@ -20,6 +20,7 @@ import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.BigintType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.type.BigintOperators;
@@ -161,14 +162,22 @@ public class BigintGroupByHash
     public Work<?> addPage(Page page)
     {
         currentPageSizeInBytes = page.getRetainedSizeInBytes();
-        return new AddPageWork(page.getBlock(hashChannel));
+        Block block = page.getBlock(hashChannel);
+        if (block instanceof RunLengthEncodedBlock && block.getPositionCount() > 0) {
+            return new AddRunLengthEncodedPageWork((RunLengthEncodedBlock) block);
+        }
+        return new AddPageWork(block);
     }
 
     @Override
     public Work<GroupByIdBlock> getGroupIds(Page page)
     {
         currentPageSizeInBytes = page.getRetainedSizeInBytes();
-        return new GetGroupIdsWork(page.getBlock(hashChannel));
+        Block block = page.getBlock(hashChannel);
+        if (block instanceof RunLengthEncodedBlock && block.getPositionCount() > 0) {
+            return new GetRunLengthEncodedGroupIdsWork((RunLengthEncodedBlock) block);
+        }
+        return new GetGroupIdsWork(block);
     }
 
     @Override
@@ -422,4 +431,83 @@ public class BigintGroupByHash
             return new GroupByIdBlock(nextGroupId, blockBuilder.build());
         }
     }
+
+    private class AddRunLengthEncodedPageWork
+            implements Work<Void>
+    {
+        private final RunLengthEncodedBlock block;
+
+        private boolean finished;
+
+        public AddRunLengthEncodedPageWork(RunLengthEncodedBlock block)
+        {
+            this.block = requireNonNull(block, "block is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // all positions have the same value, so a single lookup is enough
+            putIfAbsent(0, block.getValue());
+            finished = true;
+            return true;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetRunLengthEncodedGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final RunLengthEncodedBlock block;
+
+        private int groupId = -1;
+        private boolean processFinished;
+        private boolean resultProduced;
+
+        public GetRunLengthEncodedGroupIdsWork(RunLengthEncodedBlock block)
+        {
+            this.block = requireNonNull(block, "block is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!processFinished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // all positions have the same value, so a single lookup is enough
+            groupId = putIfAbsent(0, block.getValue());
+            processFinished = true;
+            return true;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(processFinished, "process has not yet finished");
+            checkState(!resultProduced, "result has produced");
+            resultProduced = true;
+            BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(1);
+            BIGINT.writeLong(blockBuilder, groupId);
+            return new GroupByIdBlock(nextGroupId, new RunLengthEncodedBlock(blockBuilder.build(), block.getPositionCount()));
+        }
+    }
 }
@@ -192,13 +192,12 @@ public class DistinctLimitOperator
 
         verify(pageBuilder.getPositionCount() == 0);
         verify(inputPage != null);
+        int[] distinctPositions = new int[groupByIds.getPositionCount()];
+        int distinctCount = 0;
         for (int position = 0; position < groupByIds.getPositionCount(); position++) {
             if (groupByIds.getGroupId(position) == nextDistinctId) {
-                pageBuilder.declarePosition();
-                for (int channel = 0; channel < types.size(); channel++) {
-                    Type type = types.get(channel);
-                    type.appendTo(inputPage.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
-                }
+                distinctPositions[distinctCount] = position;
+                distinctCount++;
                 remainingLimit--;
                 nextDistinctId++;
                 if (remainingLimit == 0) {
@@ -206,6 +205,12 @@ public class DistinctLimitOperator
                 }
             }
         }
+        if (distinctCount > 0) {
+            pageBuilder.declarePositions(distinctCount);
+            for (int channel = 0; channel < types.size(); channel++) {
+                pageBuilder.getBlockBuilder(channel).appendPositions(inputPage.getBlock(channel), distinctPositions, 0, distinctCount);
+            }
+        }
         groupByIds = null;
         inputPage = null;
 
@@ -63,6 +63,7 @@ public class ExchangeClient
     private final Duration maxErrorDuration;
     private final HttpClient httpClient;
     private final ScheduledExecutorService scheduler;
+    private final boolean eagerCompletionEnabled;
 
     @GuardedBy("this")
     private boolean noMoreLocations;
@@ -105,6 +106,31 @@ public class ExchangeClient
             ScheduledExecutorService scheduler,
             LocalMemoryContext systemMemoryContext,
             Executor pageBufferClientCallbackExecutor)
+    {
+        this(
+                bufferCapacity,
+                maxResponseSize,
+                concurrentRequestMultiplier,
+                minErrorDuration,
+                maxErrorDuration,
+                httpClient,
+                scheduler,
+                systemMemoryContext,
+                pageBufferClientCallbackExecutor,
+                false);
+    }
+
+    public ExchangeClient(
+            DataSize bufferCapacity,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration minErrorDuration,
+            Duration maxErrorDuration,
+            HttpClient httpClient,
+            ScheduledExecutorService scheduler,
+            LocalMemoryContext systemMemoryContext,
+            Executor pageBufferClientCallbackExecutor,
+            boolean eagerCompletionEnabled)
     {
         this.bufferCapacity = bufferCapacity.toBytes();
         this.maxResponseSize = maxResponseSize;
@@ -116,6 +142,7 @@ public class ExchangeClient
         this.systemMemoryContext = systemMemoryContext;
         this.maxBufferBytes = Long.MIN_VALUE;
         this.pageBufferClientCallbackExecutor = requireNonNull(pageBufferClientCallbackExecutor, "pageBufferClientCallbackExecutor is null");
+        this.eagerCompletionEnabled = eagerCompletionEnabled;
     }
 
     public ExchangeClientStatus getStatus()
@@ -162,7 +189,8 @@ public class ExchangeClient
                 location,
                 new ExchangeClientCallback(),
                 scheduler,
-                pageBufferClientCallbackExecutor);
+                pageBufferClientCallbackExecutor,
+                eagerCompletionEnabled);
         allClients.put(location, client);
         queuedClients.add(client);
 
@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.http.client.HttpClientConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
@@ -35,6 +36,7 @@ public class ExchangeClientConfig
     private DataSize maxResponseSize = new HttpClientConfig().getMaxContentLength();
     private int clientThreads = 25;
     private int pageBufferClientMaxCallbackThreads = 25;
+    private boolean eagerCompletionEnabled;
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -129,4 +131,17 @@ public class ExchangeClientConfig
         this.pageBufferClientMaxCallbackThreads = pageBufferClientMaxCallbackThreads;
         return this;
     }
+
+    public boolean isEagerCompletionEnabled()
+    {
+        return eagerCompletionEnabled;
+    }
+
+    @Config("exchange.eager-completion-enabled")
+    @ConfigDescription("Report a remote buffer as finished as soon as its last pages arrive, instead of after the buffer is deleted")
+    public ExchangeClientConfig setEagerCompletionEnabled(boolean eagerCompletionEnabled)
+    {
+        this.eagerCompletionEnabled = eagerCompletionEnabled;
+        return this;
+    }
 }
@@ -46,6 +46,7 @@ public class ExchangeClientFactory
     private final ScheduledExecutorService scheduler;
     private final ThreadPoolExecutorMBean executorMBean;
     private final ExecutorService pageBufferClientCallbackExecutor;
+    private final boolean eagerCompletionEnabled;
 
     @Inject
     public ExchangeClientFactory(
@@ -60,6 +61,7 @@ public class ExchangeClientFactory
                 config.getMinErrorDuration(),
                 config.getMaxErrorDuration(),
                 config.getPageBufferClientMaxCallbackThreads(),
+                config.isEagerCompletionEnabled(),
                 httpClient,
                 scheduler);
     }
@@ -71,6 +73,7 @@ public class ExchangeClientFactory
             Duration minErrorDuration,
             Duration maxErrorDuration,
             int pageBufferClientMaxCallbackThreads,
+            boolean eagerCompletionEnabled,
             HttpClient httpClient,
             ScheduledExecutorService scheduler)
     {
@@ -87,6 +90,7 @@ public class ExchangeClientFactory
         this.maxResponseSize = new DataSize(maxResponseSizeBytes, BYTE);
 
         this.scheduler = requireNonNull(scheduler, "scheduler is null");
+        this.eagerCompletionEnabled = eagerCompletionEnabled;
 
         this.pageBufferClientCallbackExecutor = newFixedThreadPool(pageBufferClientMaxCallbackThreads, daemonThreadsNamed("page-buffer-client-callback-%s"));
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) pageBufferClientCallbackExecutor);
@@ -121,6 +125,7 @@ public class ExchangeClientFactory
                 httpClient,
                 scheduler,
                 systemMemoryContext,
-                pageBufferClientCallbackExecutor);
+                pageBufferClientCallbackExecutor,
+                eagerCompletionEnabled);
     }
 }
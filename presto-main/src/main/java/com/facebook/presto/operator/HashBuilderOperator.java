@@ -499,6 +499,7 @@ public class HashBuilderOperator
             return;
         }
 
+        consolidateIndex();
         LookupSourceSupplier partition = buildLookupSource();
         if (spillEnabled) {
             localRevocableMemoryContext.setBytes(partition.get().getInMemorySizeInBytes());
@@ -511,6 +512,21 @@ public class HashBuilderOperator
         state = State.LOOKUP_SOURCE_BUILT;
     }
 
+    private void consolidateIndex()
+    {
+        long consolidationBytes = index.getConsolidationMemoryInBytes();
+        if (consolidationBytes == 0) {
+            return;
+        }
+        // consolidation is an optimization, so skip it rather than wait for memory to copy the pages
+        LocalMemoryContext memoryContext = spillEnabled ? localRevocableMemoryContext : localUserMemoryContext;
+        if (!memoryContext.trySetBytes(index.getEstimatedSize().toBytes() + consolidationBytes)) {
+            return;
+        }
+        index.consolidatePages();
+        memoryContext.setBytes(index.getEstimatedSize().toBytes());
+    }
+
     private void disposeLookupSourceIfRequested()
     {
         checkState(state == State.LOOKUP_SOURCE_BUILT);
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.execution.Lifespan;
 import com.facebook.presto.operator.SetBuilderOperator.SetSupplier;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
@@ -72,7 +73,13 @@ public class HashSemiJoinOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, HashSemiJoinOperator.class.getSimpleName());
-            return new HashSemiJoinOperator(operatorContext, setSupplier, probeTypes, probeJoinChannel);
+            return new HashSemiJoinOperator(operatorContext, setSupplier.getChannelSet(driverContext.getLifespan()), probeTypes, probeJoinChannel);
+        }
+
+        @Override
+        public void noMoreOperators(Lifespan lifespan)
+        {
+            setSupplier.release(lifespan);
         }
 
         @Override
@@ -96,16 +103,16 @@ public class HashSemiJoinOperator
     private Page outputPage;
     private boolean finishing;
 
-    public HashSemiJoinOperator(OperatorContext operatorContext, SetSupplier channelSetFuture, List<Type> probeTypes, int probeJoinChannel)
+    public HashSemiJoinOperator(OperatorContext operatorContext, ListenableFuture<ChannelSet> channelSetFuture, List<Type> probeTypes, int probeJoinChannel)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
         // todo pass in desired projection
-        requireNonNull(channelSetFuture, "hashProvider is null");
+        requireNonNull(channelSetFuture, "channelSetFuture is null");
         requireNonNull(probeTypes, "probeTypes is null");
         checkArgument(probeJoinChannel >= 0, "probeJoinChannel is negative");
 
-        this.channelSetFuture = channelSetFuture.getChannelSet();
+        this.channelSetFuture = channelSetFuture;
         this.probeJoinChannel = probeJoinChannel;
 
         this.types = ImmutableList.<Type>builder()
@@ -115,6 +115,7 @@ public final class HttpPageBufferClient
     private final ClientCallback clientCallback;
     private final ScheduledExecutorService scheduler;
     private final Backoff backoff;
+    private final boolean eagerCompletionEnabled;
 
     @GuardedBy("this")
     private boolean closed;
@@ -129,6 +130,8 @@ public final class HttpPageBufferClient
     @GuardedBy("this")
     private boolean completed;
     @GuardedBy("this")
+    private boolean finishReported;
+    @GuardedBy("this")
     private String taskInstanceId;
 
     private final AtomicLong rowsReceived = new AtomicLong();
@@ -153,7 +156,21 @@ public final class HttpPageBufferClient
             ScheduledExecutorService scheduler,
             Executor pageBufferClientCallbackExecutor)
     {
-        this(httpClient, maxResponseSize, minErrorDuration, maxErrorDuration, location, clientCallback, scheduler, Ticker.systemTicker(), pageBufferClientCallbackExecutor);
+        this(httpClient, maxResponseSize, minErrorDuration, maxErrorDuration, location, clientCallback, scheduler, pageBufferClientCallbackExecutor, false);
+    }
+
+    public HttpPageBufferClient(
+            HttpClient httpClient,
+            DataSize maxResponseSize,
+            Duration minErrorDuration,
+            Duration maxErrorDuration,
+            URI location,
+            ClientCallback clientCallback,
+            ScheduledExecutorService scheduler,
+            Executor pageBufferClientCallbackExecutor,
+            boolean eagerCompletionEnabled)
+    {
+        this(httpClient, maxResponseSize, minErrorDuration, maxErrorDuration, location, clientCallback, scheduler, Ticker.systemTicker(), pageBufferClientCallbackExecutor, eagerCompletionEnabled);
     }
 
     public HttpPageBufferClient(
@@ -166,6 +183,26 @@ public final class HttpPageBufferClient
             ScheduledExecutorService scheduler,
             Ticker ticker,
             Executor pageBufferClientCallbackExecutor)
+    {
+        this(httpClient, maxResponseSize, minErrorDuration, maxErrorDuration, location, clientCallback, scheduler, ticker, pageBufferClientCallbackExecutor, false);
+    }
+
+    /**
+     * @param eagerCompletionEnabled report the client as finished as soon as the response
+     * carrying the last pages arrives, and acknowledge the remote buffer with a delete
+     * in the background, instead of waiting for the delete before reporting
+     */
+    public HttpPageBufferClient(
+            HttpClient httpClient,
+            DataSize maxResponseSize,
+            Duration minErrorDuration,
+            Duration maxErrorDuration,
+            URI location,
+            ClientCallback clientCallback,
+            ScheduledExecutorService scheduler,
+            Ticker ticker,
+            Executor pageBufferClientCallbackExecutor,
+            boolean eagerCompletionEnabled)
     {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.maxResponseSize = requireNonNull(maxResponseSize, "maxResponseSize is null");
@@ -176,6 +213,7 @@ public final class HttpPageBufferClient
         requireNonNull(minErrorDuration, "minErrorDuration is null");
         requireNonNull(maxErrorDuration, "maxErrorDuration is null");
         requireNonNull(ticker, "ticker is null");
+        this.eagerCompletionEnabled = eagerCompletionEnabled;
         this.backoff = new Backoff(
                 minErrorDuration,
                 maxErrorDuration,
@@ -360,10 +398,13 @@ public final class HttpPageBufferClient
                     rowsRejected.addAndGet(pages.stream().mapToLong(SerializedPage::getPositionCount).sum());
                 }
 
+                boolean finished = false;
                 synchronized (HttpPageBufferClient.this) {
                     // client is complete, acknowledge it by sending it a delete in the next request
                     if (result.isClientComplete()) {
                         completed = true;
+                        finished = eagerCompletionEnabled;
+                        finishReported = finished;
                     }
                     if (future == resultFuture) {
                         future = null;
@@ -371,6 +412,14 @@ public final class HttpPageBufferClient
                     lastUpdate = DateTime.now();
                 }
                 requestsCompleted.incrementAndGet();
+
+                if (finished) {
+                    // all pages have been received, so the delete only releases the remote
+                    // buffer and does not have to wait for space in the exchange
+                    clientCallback.clientFinished(HttpPageBufferClient.this);
+                    scheduleRequest();
+                    return;
+                }
                 clientCallback.requestComplete(HttpPageBufferClient.this);
             }
 
@@ -405,15 +454,19 @@ public final class HttpPageBufferClient
             {
                 checkNotHoldsLock(this);
                 backoff.success();
+                boolean alreadyFinished;
                 synchronized (HttpPageBufferClient.this) {
                     closed = true;
                     if (future == resultFuture) {
                         future = null;
                     }
+                    alreadyFinished = finishReported;
                     lastUpdate = DateTime.now();
                 }
                 requestsCompleted.incrementAndGet();
-                clientCallback.clientFinished(HttpPageBufferClient.this);
+                if (!alreadyFinished) {
+                    clientCallback.clientFinished(HttpPageBufferClient.this);
+                }
             }
 
             @Override
@@ -421,6 +474,26 @@ public final class HttpPageBufferClient
             {
                 checkNotHoldsLock(this);
 
+                boolean alreadyFinished;
+                synchronized (HttpPageBufferClient.this) {
+                    alreadyFinished = finishReported;
+                    if (alreadyFinished) {
+                        // the exchange already has all pages from this buffer, and the remote task
+                        // releases the buffer when it is cleaned up, so there is nothing left to fail
+                        requestsFailed.incrementAndGet();
+                        requestsCompleted.incrementAndGet();
+                        closed = true;
+                        if (future == resultFuture) {
+                            future = null;
+                        }
+                        lastUpdate = DateTime.now();
+                    }
+                }
+                if (alreadyFinished) {
+                    log.warn("Request to delete %s failed after the client finished %s", location, t);
+                    return;
+                }
+
                 log.error("Request to delete %s failed %s", location, t);
                 if (!(t instanceof PrestoException) && backoff.failure()) {
                     String message = format("Error closing remote buffer (%s - %s failures, time since last success %s)",
@@ -0,0 +1,545 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.operator.LookupJoinOperators.JoinType;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.operator.LookupJoinOperators.JoinType.FULL_OUTER;
+import static com.facebook.presto.operator.LookupJoinOperators.JoinType.LOOKUP_OUTER;
+import static com.facebook.presto.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Float.intBitsToFloat;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Joins a probe side and a build side that are both sorted on the join keys in the same
+ * order. The build side is read from a {@link MergeJoinSource}, and only the build rows
+ * sharing the key of the current probe row are retained, so memory use is bounded by the
+ * largest run of duplicate build keys instead of by the size of the build side.
+ * <p>
+ * Rows with a null or NaN key never match, and are produced as unmatched rows for the outer sides.
+ */
+public class MergeJoinOperator
+        implements Operator
+{
+    public static class MergeJoinOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final JoinType joinType;
+        private final List<Type> probeTypes;
+        private final List<Integer> probeKeyChannels;
+        private final List<Integer> probeOutputChannels;
+        private final List<Type> buildTypes;
+        private final List<Integer> buildKeyChannels;
+        private final List<Integer> buildOutputChannels;
+        private final List<SortOrder> sortOrders;
+        private final MergeJoinSource source;
+        private final List<Type> types;
+        private boolean operatorCreated;
+        private boolean closed;
+
+        public MergeJoinOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                JoinType joinType,
+                List<? extends Type> probeTypes,
+                List<Integer> probeKeyChannels,
+                List<Integer> probeOutputChannels,
+                List<? extends Type> buildTypes,
+                List<Integer> buildKeyChannels,
+                List<Integer> buildOutputChannels,
+                List<SortOrder> sortOrders,
+                MergeJoinSource source)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.joinType = requireNonNull(joinType, "joinType is null");
+            this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
+            this.probeKeyChannels = ImmutableList.copyOf(requireNonNull(probeKeyChannels, "probeKeyChannels is null"));
+            this.probeOutputChannels = ImmutableList.copyOf(requireNonNull(probeOutputChannels, "probeOutputChannels is null"));
+            this.buildTypes = ImmutableList.copyOf(requireNonNull(buildTypes, "buildTypes is null"));
+            this.buildKeyChannels = ImmutableList.copyOf(requireNonNull(buildKeyChannels, "buildKeyChannels is null"));
+            this.buildOutputChannels = ImmutableList.copyOf(requireNonNull(buildOutputChannels, "buildOutputChannels is null"));
+            this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
+            this.source = requireNonNull(source, "source is null");
+            checkArgument(!probeKeyChannels.isEmpty(), "probeKeyChannels is empty");
+            checkArgument(probeKeyChannels.size() == buildKeyChannels.size(), "probe and build key channels do not match");
+            checkArgument(probeKeyChannels.size() == sortOrders.size(), "key channels and sort orders do not match");
+
+            this.types = ImmutableList.<Type>builder()
+                    .addAll(probeOutputChannels.stream()
+                            .map(this.probeTypes::get)
+                            .collect(toImmutableList()))
+                    .addAll(buildOutputChannels.stream()
+                            .map(this.buildTypes::get)
+                            .collect(toImmutableList()))
+                    .build();
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            checkState(!operatorCreated, "A merge join accepts a single probe stream");
+            operatorCreated = true;
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinOperator.class.getSimpleName());
+            return new MergeJoinOperator(
+                    operatorContext,
+                    types,
+                    joinType,
+                    probeTypes,
+                    probeKeyChannels,
+                    probeOutputChannels,
+                    buildTypes,
+                    buildKeyChannels,
+                    buildOutputChannels,
+                    sortOrders,
+                    source);
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            closed = true;
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            throw new UnsupportedOperationException("A merge join accepts a single probe stream");
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final List<Type> types;
+    private final boolean probeOuter;
+    private final boolean buildOuter;
+    private final List<Type> keyTypes;
+    private final int[] probeKeyChannels;
+    private final int[] probeOutputChannels;
+    private final List<Type> probeOutputTypes;
+    private final int[] buildKeyChannels;
+    private final int[] buildOutputChannels;
+    private final List<Type> buildOutputTypes;
+    private final List<SortOrder> sortOrders;
+    private final MergeJoinSource source;
+    private final LocalMemoryContext memoryContext;
+    private final PageBuilder pageBuilder;
+
+    private Page probePage;
+    private int probePosition;
+
+    private Page buildPage;
+    private int buildPosition;
+
+    // build rows with the same key, which is the key of the first row
+    private final List<Page> runPages = new ArrayList<>();
+    private final IntArrayList runPositions = new IntArrayList();
+    private long runRetainedSizeInBytes;
+    private boolean runComplete;
+    private boolean runMatched;
+    // next run row to produce, for the current probe row or for the unmatched run rows
+    private int runIndex;
+
+    private ListenableFuture<?> blocked = NOT_BLOCKED;
+    private boolean finishing;
+    private boolean finished;
+
+    public MergeJoinOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            JoinType joinType,
+            List<Type> probeTypes,
+            List<Integer> probeKeyChannels,
+            List<Integer> probeOutputChannels,
+            List<Type> buildTypes,
+            List<Integer> buildKeyChannels,
+            List<Integer> buildOutputChannels,
+            List<SortOrder> sortOrders,
+            MergeJoinSource source)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        requireNonNull(joinType, "joinType is null");
+        this.probeOuter = joinType == PROBE_OUTER || joinType == FULL_OUTER;
+        this.buildOuter = joinType == LOOKUP_OUTER || joinType == FULL_OUTER;
+        this.keyTypes = probeKeyChannels.stream()
+                .map(probeTypes::get)
+                .collect(toImmutableList());
+        this.probeKeyChannels = Ints.toArray(probeKeyChannels);
+        this.probeOutputChannels = Ints.toArray(probeOutputChannels);
+        this.probeOutputTypes = probeOutputChannels.stream()
+                .map(probeTypes::get)
+                .collect(toImmutableList());
+        this.buildKeyChannels = Ints.toArray(buildKeyChannels);
+        this.buildOutputChannels = Ints.toArray(buildOutputChannels);
+        this.buildOutputTypes = buildOutputChannels.stream()
+                .map(buildTypes::get)
+                .collect(toImmutableList());
+        this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
+        this.source = requireNonNull(source, "source is null");
+        this.memoryContext = operatorContext.localUserMemoryContext();
+        this.pageBuilder = new PageBuilder(this.types);
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return blocked.isDone() ? NOT_BLOCKED : blocked;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && !finished && probePage == null;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(needsInput(), "Operator does not need input");
+        probePage = page;
+        probePosition = 0;
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        while (!pageBuilder.isFull() && !finished && processRow()) {
+            // continue
+        }
+
+        if (pageBuilder.isFull() || (finished && !pageBuilder.isEmpty())) {
+            Page page = pageBuilder.build();
+            pageBuilder.reset();
+            return page;
+        }
+        return null;
+    }
+
+    @Override
+    public void finish()
+    {
+        finishing = true;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finished && pageBuilder.isEmpty();
+    }
+
+    @Override
+    public void close()
+    {
+        probePage = null;
+        buildPage = null;
+        clearRun();
+        source.close();
+        memoryContext.setBytes(0);
+    }
+
+    /**
+     * Produces at most one output row and advances the inputs. Returns false if no progress
+     * can be made until more input is available.
+     */
+    private boolean processRow()
+    {
+        if (probePage == null) {
+            return finishing && processRemainingBuildRow();
+        }
+        if (probePosition == probePage.getPositionCount()) {
+            probePage = null;
+            return true;
+        }
+        if (hasUnmatchableKey(probePage, probeKeyChannels, probePosition)) {
+            appendUnmatchedProbeRow();
+            return true;
+        }
+
+        if (!runPages.isEmpty()) {
+            if (!runComplete) {
+                return loadRun();
+            }
+            int comparison = compareKeys(probePage, probeKeyChannels, probePosition, runPages.get(0), buildKeyChannels, runPositions.getInt(0));
+            if (comparison == 0) {
+                runMatched = true;
+                appendRow(probePage, probePosition, runPages.get(runIndex), runPositions.getInt(runIndex));
+                runIndex++;
+                if (runIndex == runPages.size()) {
+                    runIndex = 0;
+                    probePosition++;
+                }
+                return true;
+            }
+            if (comparison < 0) {
+                appendUnmatchedProbeRow();
+                return true;
+            }
+            // the probe side moved past the run
+            return dropRun();
+        }
+
+        if (!hasBuildRow()) {
+            if (!source.isFinished()) {
+                blocked = source.waitForPage();
+                return false;
+            }
+            if (!probeOuter) {
+                // nothing else can be produced
+                finished = true;
+                return false;
+            }
+            appendUnmatchedProbeRow();
+            return true;
+        }
+        if (hasUnmatchableKey(buildPage, buildKeyChannels, buildPosition)) {
+            appendUnmatchedBuildRow();
+            return true;
+        }
+
+        int comparison = compareKeys(probePage, probeKeyChannels, probePosition, buildPage, buildKeyChannels, buildPosition);
+        if (comparison < 0) {
+            appendUnmatchedProbeRow();
+        }
+        else if (comparison > 0) {
+            appendUnmatchedBuildRow();
+        }
+        else {
+            addToRun(buildPage, buildPosition);
+            buildPosition++;
+            runComplete = false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the build rows with the key of the current run.
+     */
+    private boolean loadRun()
+    {
+        while (hasBuildRow()) {
+            if (hasUnmatchableKey(buildPage, buildKeyChannels, buildPosition) ||
+                    compareKeys(runPages.get(0), buildKeyChannels, runPositions.getInt(0), buildPage, buildKeyChannels, buildPosition) != 0) {
+                runComplete = true;
+                return true;
+            }
+            addToRun(buildPage, buildPosition);
+            buildPosition++;
+        }
+        if (!source.isFinished()) {
+            blocked = source.waitForPage();
+            return false;
+        }
+        runComplete = true;
+        return true;
+    }
+
+    /**
+     * Produces the next row of a run that did not match any probe row, and discards the
+     * run once all of its rows are produced.
+     */
+    private boolean dropRun()
+    {
+        if (buildOuter && !runMatched && runIndex < runPages.size()) {
+            appendRow(null, -1, runPages.get(runIndex), runPositions.getInt(runIndex));
+            runIndex++;
+            return true;
+        }
+        clearRun();
+        return true;
+    }
+
+    /**
+     * Called once the probe side is exhausted.
+     */
+    private boolean processRemainingBuildRow()
+    {
+        if (!buildOuter) {
+            clearRun();
+            buildPage = null;
+            source.close();
+            finished = true;
+            return false;
+        }
+        if (!runPages.isEmpty()) {
+            return dropRun();
+        }
+        if (!hasBuildRow()) {
+            if (!source.isFinished()) {
+                blocked = source.waitForPage();
+                return false;
+            }
+            finished = true;
+            return false;
+        }
+        appendUnmatchedBuildRow();
+        return true;
+    }
+
+    private boolean hasBuildRow()
+    {
+        while (buildPage == null || buildPosition == buildPage.getPositionCount()) {
+            buildPage = source.pollPage();
+            buildPosition = 0;
+            updateMemoryUsage();
+            if (buildPage == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addToRun(Page page, int position)
+    {
+        if (runPages.isEmpty() || runPages.get(runPages.size() - 1) != page) {
+            runRetainedSizeInBytes += page.getRetainedSizeInBytes();
+            updateMemoryUsage();
+        }
+        runPages.add(page);
+        runPositions.add(position);
+    }
+
+    private void clearRun()
+    {
+        runPages.clear();
+        runPositions.clear();
+        runRetainedSizeInBytes = 0;
+        runComplete = false;
+        runMatched = false;
+        runIndex = 0;
+        updateMemoryUsage();
+    }
+
+    private void updateMemoryUsage()
+    {
+        long bytes = runRetainedSizeInBytes;
+        if (buildPage != null) {
+            bytes += buildPage.getRetainedSizeInBytes();
+        }
+        memoryContext.setBytes(bytes);
+    }
+
+    private void appendUnmatchedProbeRow()
+    {
+        if (probeOuter) {
+            appendRow(probePage, probePosition, null, -1);
+        }
+        probePosition++;
+    }
+
+    private void appendUnmatchedBuildRow()
+    {
+        if (buildOuter) {
+            appendRow(null, -1, buildPage, buildPosition);
+        }
+        buildPosition++;
+    }
+
+    private void appendRow(Page probe, int probeRow, Page build, int buildRow)
+    {
+        pageBuilder.declarePosition();
+        for (int i = 0; i < probeOutputChannels.length; i++) {
+            if (probe == null) {
+                pageBuilder.getBlockBuilder(i).appendNull();
+            }
+            else {
+                probeOutputTypes.get(i).appendTo(probe.getBlock(probeOutputChannels[i]), probeRow, pageBuilder.getBlockBuilder(i));
+            }
+        }
+        for (int i = 0; i < buildOutputChannels.length; i++) {
+            int outputChannel = probeOutputChannels.length + i;
+            if (build == null) {
+                pageBuilder.getBlockBuilder(outputChannel).appendNull();
+            }
+            else {
+                buildOutputTypes.get(i).appendTo(build.getBlock(buildOutputChannels[i]), buildRow, pageBuilder.getBlockBuilder(outputChannel));
+            }
+        }
+    }
+
+    private int compareKeys(Page left, int[] leftChannels, int leftPosition, Page right, int[] rightChannels, int rightPosition)
+    {
+        for (int i = 0; i < leftChannels.length; i++) {
+            Block leftBlock = left.getBlock(leftChannels[i]);
+            Block rightBlock = right.getBlock(rightChannels[i]);
+            int comparison = sortOrders.get(i).compareBlockValue(keyTypes.get(i), leftBlock, leftPosition, rightBlock, rightPosition);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns true if a key is null or NaN. Such keys never match, as in the hash join,
+     * although NaN is equal to itself in the sort order of the key types.
+     */
+    private boolean hasUnmatchableKey(Page page, int[] keyChannels, int position)
+    {
+        for (int i = 0; i < keyChannels.length; i++) {
+            Block block = page.getBlock(keyChannels[i]);
+            if (block.isNull(position)) {
+                return true;
+            }
+            Type type = keyTypes.get(i);
+            if (type.equals(DOUBLE) && Double.isNaN(DOUBLE.getDouble(block, position))) {
+                return true;
+            }
+            if (type.equals(REAL) && Float.isNaN(intBitsToFloat((int) REAL.getLong(block, position)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
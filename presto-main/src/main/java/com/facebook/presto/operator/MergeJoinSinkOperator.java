@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Last operator of the pipeline producing the build side of a merge join. Pages are
+ * handed to the {@link MergeJoinSource} shared with the {@link MergeJoinOperator}.
+ */
+public class MergeJoinSinkOperator
+        implements Operator
+{
+    public static class MergeJoinSinkOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final MergeJoinSource source;
+        private boolean operatorCreated;
+        private boolean closed;
+
+        public MergeJoinSinkOperatorFactory(int operatorId, PlanNodeId planNodeId, MergeJoinSource source)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.source = requireNonNull(source, "source is null");
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            checkState(!operatorCreated, "A merge join accepts a single build stream");
+            operatorCreated = true;
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinSinkOperator.class.getSimpleName());
+            return new MergeJoinSinkOperator(operatorContext, source);
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            closed = true;
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            throw new UnsupportedOperationException("A merge join accepts a single build stream");
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final MergeJoinSource source;
+    private boolean finishing;
+
+    public MergeJoinSinkOperator(OperatorContext operatorContext, MergeJoinSource source)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.source = requireNonNull(source, "source is null");
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return ImmutableList.of();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return source.waitForSpace();
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !isFinished() && isBlocked().isDone();
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(needsInput(), "Operator does not need input");
+        source.addPage(page);
+        operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        return null;
+    }
+
+    @Override
+    public void finish()
+    {
+        if (!finishing) {
+            finishing = true;
+            source.finish();
+        }
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        // once the join is done with the build side, the rest of the pipeline can stop
+        return finishing || source.isClosed();
+    }
+
+    @Override
+    public void close()
+    {
+        finish();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+/**
+ * Bounded page buffer between the pipeline producing the sorted build side of a merge
+ * join and the {@link MergeJoinOperator} consuming it. Once the buffer is full the build
+ * pipeline is blocked until the join consumes a page, so only a few pages of the build
+ * side are held in memory at any time.
+ */
+@ThreadSafe
+public class MergeJoinSource
+{
+    private static final ListenableFuture<?> NOT_BLOCKED = immediateFuture(null);
+
+    private final int maxBufferedPages;
+
+    private final Object lock = new Object();
+
+    @GuardedBy("lock")
+    private final Queue<Page> pages = new ArrayDeque<>();
+
+    @GuardedBy("lock")
+    private boolean finishing;
+
+    @GuardedBy("lock")
+    private boolean closed;
+
+    @GuardedBy("lock")
+    private SettableFuture<?> notFullFuture;
+
+    @GuardedBy("lock")
+    private SettableFuture<?> notEmptyFuture;
+
+    public MergeJoinSource(int maxBufferedPages)
+    {
+        checkArgument(maxBufferedPages > 0, "maxBufferedPages must be positive");
+        this.maxBufferedPages = maxBufferedPages;
+    }
+
+    public ListenableFuture<?> waitForSpace()
+    {
+        synchronized (lock) {
+            if (closed || finishing || pages.size() < maxBufferedPages) {
+                return NOT_BLOCKED;
+            }
+            if (notFullFuture == null) {
+                notFullFuture = SettableFuture.create();
+            }
+            return notFullFuture;
+        }
+    }
+
+    public void addPage(Page page)
+    {
+        SettableFuture<?> future;
+        synchronized (lock) {
+            checkState(!finishing, "source is finishing");
+            if (closed) {
+                // the join does not need the rest of the build side
+                return;
+            }
+            pages.add(page);
+            future = notEmptyFuture;
+            notEmptyFuture = null;
+        }
+        if (future != null) {
+            future.set(null);
+        }
+    }
+
+    /**
+     * Called when no more pages will be added.
+     */
+    public void finish()
+    {
+        SettableFuture<?> future;
+        synchronized (lock) {
+            finishing = true;
+            future = notEmptyFuture;
+            notEmptyFuture = null;
+        }
+        if (future != null) {
+            future.set(null);
+        }
+    }
+
+    /**
+     * Returns true if the join does not need any more pages.
+     */
+    public boolean isClosed()
+    {
+        synchronized (lock) {
+            return closed;
+        }
+    }
+
+    public ListenableFuture<?> waitForPage()
+    {
+        synchronized (lock) {
+            if (closed || finishing || !pages.isEmpty()) {
+                return NOT_BLOCKED;
+            }
+            if (notEmptyFuture == null) {
+                notEmptyFuture = SettableFuture.create();
+            }
+            return notEmptyFuture;
+        }
+    }
+
+    /**
+     * Returns the next page, or null if no page is buffered.
+     */
+    public Page pollPage()
+    {
+        SettableFuture<?> future;
+        Page page;
+        synchronized (lock) {
+            page = pages.poll();
+            future = notFullFuture;
+            notFullFuture = null;
+        }
+        if (future != null) {
+            future.set(null);
+        }
+        return page;
+    }
+
+    /**
+     * Returns true when all pages have been added and consumed.
+     */
+    public boolean isFinished()
+    {
+        synchronized (lock) {
+            return closed || (finishing && pages.isEmpty());
+        }
+    }
+
+    /**
+     * Called by the join when it does not need any more pages. The buffered pages are
+     * dropped and the build pipeline is allowed to run to completion without buffering.
+     */
+    public void close()
+    {
+        SettableFuture<?> future;
+        synchronized (lock) {
+            closed = true;
+            pages.clear();
+            future = notFullFuture;
+            notFullFuture = null;
+        }
+        if (future != null) {
+            future.set(null);
+        }
+    }
+}
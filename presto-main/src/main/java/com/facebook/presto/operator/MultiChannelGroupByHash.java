@@ -20,6 +20,7 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
@@ -55,6 +56,8 @@ public class MultiChannelGroupByHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(MultiChannelGroupByHash.class).instanceSize();
     private static final float FILL_RATIO = 0.75f;
+    // the group ids of at most this many combinations of dictionary positions are remembered
+    private static final int MAX_DICTIONARY_COMBINATIONS = 1 << 16;
     private final List<Type> types;
     private final List<Type> hashTypes;
     private final int[] channels;
@@ -80,6 +83,7 @@ public class MultiChannelGroupByHash
 
     private int nextGroupId;
     private DictionaryLookBack dictionaryLookBack;
+    private MultiChannelDictionaryLookBack multiChannelDictionaryLookBack;
     private long hashCollisions;
     private double expectedHashCollisions;
 
@@ -173,6 +177,7 @@ public class MultiChannelGroupByHash
                 sizeOf(groupIdsByHash) +
                 groupAddressByGroupId.sizeOf() +
                 sizeOf(rawHashByHashPosition) +
+                (multiChannelDictionaryLookBack == null ? 0 : multiChannelDictionaryLookBack.getRetainedSizeInBytes()) +
                 preallocatedMemoryInBytes;
     }
 
@@ -213,6 +218,12 @@ public class MultiChannelGroupByHash
     public Work<?> addPage(Page page)
     {
         currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        if (isRunLengthEncoded(page)) {
+            return new AddRunLengthEncodedPageWork(page);
+        }
+        if (canProcessMultiChannelDictionary(page)) {
+            return new AddMultiChannelDictionaryPageWork(page);
+        }
         return canProcessDictionary(page) ? new AddDictionaryPageWork(page) : new AddNonDictionaryPageWork(page);
     }
 
@@ -220,6 +231,12 @@ public class MultiChannelGroupByHash
     public Work<GroupByIdBlock> getGroupIds(Page page)
     {
         currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        if (isRunLengthEncoded(page)) {
+            return new GetRunLengthEncodedGroupIdsWork(page);
+        }
+        if (canProcessMultiChannelDictionary(page)) {
+            return new GetMultiChannelDictionaryGroupIdsWork(page);
+        }
         return canProcessDictionary(page) ? new GetDictionaryGroupIdsWork(page) : new GetNonDictionaryGroupIdsWork(page);
     }
 
@@ -480,6 +497,90 @@ public class MultiChannelGroupByHash
         return processDictionary;
     }
 
+    // A page in which every group by channel is a DictionaryBlock or RunLengthEncodedBlock has at most
+    // as many distinct rows as there are combinations of dictionary positions, so the group id of
+    // each combination is looked up once for as long as the dictionaries stay the same
+    private boolean canProcessMultiChannelDictionary(Page page)
+    {
+        if (!processDictionary || channels.length < 2) {
+            return false;
+        }
+
+        boolean hasDictionary = false;
+        long combinations = 1;
+        for (int channel : channels) {
+            Block block = page.getBlock(channel);
+            if (block instanceof DictionaryBlock) {
+                hasDictionary = true;
+                combinations *= ((DictionaryBlock) block).getDictionary().getPositionCount();
+            }
+            else if (!(block instanceof RunLengthEncodedBlock)) {
+                return false;
+            }
+            if (combinations > MAX_DICTIONARY_COMBINATIONS) {
+                return false;
+            }
+        }
+        return hasDictionary;
+    }
+
+    private Block[] getDictionaries(Page page)
+    {
+        Block[] dictionaries = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            Block block = page.getBlock(channels[i]);
+            if (block instanceof DictionaryBlock) {
+                dictionaries[i] = ((DictionaryBlock) block).getDictionary();
+            }
+            else {
+                dictionaries[i] = ((RunLengthEncodedBlock) block).getValue();
+            }
+        }
+        return dictionaries;
+    }
+
+    private DictionaryBlock[] getDictionaryBlocks(Page page)
+    {
+        DictionaryBlock[] dictionaryBlocks = new DictionaryBlock[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            Block block = page.getBlock(channels[i]);
+            if (block instanceof DictionaryBlock) {
+                dictionaryBlocks[i] = (DictionaryBlock) block;
+            }
+        }
+        return dictionaryBlocks;
+    }
+
+    private void updateMultiChannelDictionaryLookBack(Block[] dictionaries)
+    {
+        if (multiChannelDictionaryLookBack == null || !multiChannelDictionaryLookBack.hasDictionaries(dictionaries)) {
+            multiChannelDictionaryLookBack = new MultiChannelDictionaryLookBack(dictionaries);
+        }
+    }
+
+    private int getMultiChannelDictionaryGroupId(Page page, DictionaryBlock[] dictionaryBlocks, int position)
+    {
+        int key = multiChannelDictionaryLookBack.getKey(dictionaryBlocks, position);
+        if (multiChannelDictionaryLookBack.isProcessed(key)) {
+            return multiChannelDictionaryLookBack.getGroupId(key);
+        }
+
+        int groupId = putIfAbsent(position, page);
+        multiChannelDictionaryLookBack.setProcessed(key, groupId);
+        return groupId;
+    }
+
+    // All positions of a page with run-length encoded group by channels belong to the same group
+    private boolean isRunLengthEncoded(Page page)
+    {
+        for (int channel : channels) {
+            if (!(page.getBlock(channel) instanceof RunLengthEncodedBlock)) {
+                return false;
+            }
+        }
+        return page.getPositionCount() > 0;
+    }
+
     private int getGroupId(HashGenerator hashGenerator, Page page, int positionInDictionary)
     {
         if (dictionaryLookBack.isProcessed(positionInDictionary)) {
@@ -524,6 +625,66 @@ public class MultiChannelGroupByHash
         }
     }
 
+    private static final class MultiChannelDictionaryLookBack
+    {
+        private final Block[] dictionaries;
+        private final int[] processed;
+
+        public MultiChannelDictionaryLookBack(Block[] dictionaries)
+        {
+            this.dictionaries = dictionaries;
+            int combinations = 1;
+            for (Block dictionary : dictionaries) {
+                combinations *= dictionary.getPositionCount();
+            }
+            this.processed = new int[combinations];
+            Arrays.fill(processed, -1);
+        }
+
+        public boolean hasDictionaries(Block[] dictionaries)
+        {
+            for (int i = 0; i < dictionaries.length; i++) {
+                if (this.dictionaries[i] != dictionaries[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // run-length encoded channels have a null dictionary block and are always at position 0 of their value
+        public int getKey(DictionaryBlock[] dictionaryBlocks, int position)
+        {
+            int key = 0;
+            for (int i = 0; i < dictionaries.length; i++) {
+                key *= dictionaries[i].getPositionCount();
+                if (dictionaryBlocks[i] != null) {
+                    key += dictionaryBlocks[i].getId(position);
+                }
+            }
+            return key;
+        }
+
+        public int getGroupId(int key)
+        {
+            return processed[key];
+        }
+
+        public boolean isProcessed(int key)
+        {
+            return processed[key] != -1;
+        }
+
+        public void setProcessed(int key, int groupId)
+        {
+            processed[key] = groupId;
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return sizeOf(processed);
+        }
+    }
+
     private class AddNonDictionaryPageWork
             implements Work<Void>
     {
@@ -718,4 +879,181 @@ public class MultiChannelGroupByHash
             return new GroupByIdBlock(nextGroupId, blockBuilder.build());
         }
     }
+
+    private class AddRunLengthEncodedPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+
+        private boolean finished;
+
+        public AddRunLengthEncodedPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // the first position stands for the whole page
+            putIfAbsent(0, page);
+            finished = true;
+            return true;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetRunLengthEncodedGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final Page page;
+
+        private int groupId = -1;
+        private boolean processFinished;
+        private boolean resultProduced;
+
+        public GetRunLengthEncodedGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(!processFinished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // the first position stands for the whole page
+            groupId = putIfAbsent(0, page);
+            processFinished = true;
+            return true;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(processFinished, "process has not yet finished");
+            checkState(!resultProduced, "result has produced");
+            resultProduced = true;
+            BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(1);
+            BIGINT.writeLong(blockBuilder, groupId);
+            return new GroupByIdBlock(nextGroupId, new RunLengthEncodedBlock(blockBuilder.build(), page.getPositionCount()));
+        }
+    }
+
+    private class AddMultiChannelDictionaryPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+        private final DictionaryBlock[] dictionaryBlocks;
+
+        private int lastPosition;
+
+        public AddMultiChannelDictionaryPageWork(Page page)
+        {
+            verify(canProcessMultiChannelDictionary(page), "invalid call to addMultiChannelDictionaryPage");
+            this.page = requireNonNull(page, "page is null");
+            this.dictionaryBlocks = getDictionaryBlocks(page);
+            updateMultiChannelDictionaryLookBack(getDictionaries(page));
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                getMultiChannelDictionaryGroupId(page, dictionaryBlocks, lastPosition);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetMultiChannelDictionaryGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Page page;
+        private final DictionaryBlock[] dictionaryBlocks;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetMultiChannelDictionaryGroupIdsWork(Page page)
+        {
+            verify(canProcessMultiChannelDictionary(page), "invalid call to getMultiChannelDictionaryGroupIds");
+            this.page = requireNonNull(page, "page is null");
+            this.dictionaryBlocks = getDictionaryBlocks(page);
+            updateMultiChannelDictionaryLookBack(getDictionaries(page));
+
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(page.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                int groupId = getMultiChannelDictionaryGroupId(page, dictionaryBlocks, lastPosition);
+                BIGINT.writeLong(blockBuilder, groupId);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == page.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
 }
@@ -163,6 +163,13 @@ public class OrderByOperator
         if (state == State.NEEDS_INPUT) {
             state = State.HAS_OUTPUT;
 
+            // consolidate before sorting, which reorders the addresses, but only if the copy fits in memory
+            long consolidationBytes = pageIndex.getConsolidationMemoryInBytes();
+            if (consolidationBytes > 0 && localUserMemoryContext.trySetBytes(pageIndex.getEstimatedSize().toBytes() + consolidationBytes)) {
+                pageIndex.consolidatePages();
+                localUserMemoryContext.setBytes(pageIndex.getEstimatedSize().toBytes());
+            }
+
             // sort the index
             pageIndex.sort(sortChannels, sortOrder);
         }
@@ -18,6 +18,7 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
@@ -37,6 +38,7 @@ import org.openjdk.jol.info.ClassLayout;
 
 import javax.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -54,6 +56,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -70,6 +73,8 @@ public class PagesIndex
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesIndex.class).instanceSize();
     private static final Logger log = Logger.get(PagesIndex.class);
+    // pages are consolidated into blocks of about this size, across all channels
+    private static final long CONSOLIDATED_PAGE_SIZE_IN_BYTES = 16 * 1024 * 1024;
 
     private final OrderingCompiler orderingCompiler;
     private final JoinCompiler joinCompiler;
@@ -78,8 +83,11 @@ public class PagesIndex
     private final LongArrayList valueAddresses;
     private final ObjectArrayList<Block>[] channels;
     private final boolean eagerCompact;
+    private final boolean consolidatePages;
 
     private int nextBlockToCompact;
+    private int nextPositionToCompact;
+    private boolean valueAddressesInInsertionOrder = true;
     private int positionCount;
     private long pagesMemorySize;
     private long estimatedSize;
@@ -89,13 +97,15 @@ public class PagesIndex
             JoinCompiler joinCompiler,
             List<Type> types,
             int expectedPositions,
-            boolean eagerCompact)
+            boolean eagerCompact,
+            boolean consolidatePages)
     {
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.valueAddresses = new LongArrayList(expectedPositions);
         this.eagerCompact = eagerCompact;
+        this.consolidatePages = consolidatePages;
 
         //noinspection rawtypes
         channels = (ObjectArrayList<Block>[]) new ObjectArrayList[types.size()];
@@ -117,16 +127,23 @@ public class PagesIndex
         private static final OrderingCompiler ORDERING_COMPILER = new OrderingCompiler();
         private static final JoinCompiler JOIN_COMPILER = new JoinCompiler();
         private final boolean eagerCompact;
+        private final boolean consolidatePages;
 
         public TestingFactory(boolean eagerCompact)
+        {
+            this(eagerCompact, false);
+        }
+
+        public TestingFactory(boolean eagerCompact, boolean consolidatePages)
         {
             this.eagerCompact = eagerCompact;
+            this.consolidatePages = consolidatePages;
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, types, expectedPositions, eagerCompact);
+            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, types, expectedPositions, eagerCompact, consolidatePages);
         }
     }
 
@@ -136,19 +153,22 @@ public class PagesIndex
         private final OrderingCompiler orderingCompiler;
         private final JoinCompiler joinCompiler;
         private final boolean eagerCompact;
+        private final boolean consolidatePages;
 
         @Inject
         public DefaultFactory(OrderingCompiler orderingCompiler, JoinCompiler joinCompiler, FeaturesConfig featuresConfig)
         {
             this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
-            this.eagerCompact = requireNonNull(featuresConfig, "featuresConfig is null").isPagesIndexEagerCompactionEnabled();
+            requireNonNull(featuresConfig, "featuresConfig is null");
+            this.eagerCompact = featuresConfig.isPagesIndexEagerCompactionEnabled();
+            this.consolidatePages = featuresConfig.isPagesIndexConsolidationEnabled();
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(orderingCompiler, joinCompiler, types, expectedPositions, eagerCompact);
+            return new PagesIndex(orderingCompiler, joinCompiler, types, expectedPositions, eagerCompact, consolidatePages);
         }
     }
 
@@ -182,6 +202,8 @@ public class PagesIndex
         valueAddresses.trim();
         positionCount = 0;
         nextBlockToCompact = 0;
+        nextPositionToCompact = 0;
+        valueAddressesInInsertionOrder = true;
         pagesMemorySize = 0;
 
         estimatedSize = calculateEstimatedSize();
@@ -220,6 +242,10 @@ public class PagesIndex
 
     public void compact()
     {
+        if (canConsolidatePages()) {
+            consolidatePages();
+            return;
+        }
         if (eagerCompact) {
             return;
         }
@@ -236,9 +262,126 @@ public class PagesIndex
             }
         }
         nextBlockToCompact = channels[0].size();
+        nextPositionToCompact = positionCount;
+        estimatedSize = calculateEstimatedSize();
+    }
+
+    /**
+     * Returns the memory needed on top of {@link #getEstimatedSize()} while {@link #consolidatePages()}
+     * runs, or zero if there is nothing to consolidate. The blocks of a channel are copied before the
+     * blocks they replace are released.
+     */
+    public long getConsolidationMemoryInBytes()
+    {
+        if (!canConsolidatePages()) {
+            return 0;
+        }
+        long maxChannelSize = 0;
+        for (ObjectArrayList<Block> channel : channels) {
+            long channelSize = 0;
+            for (int i = nextBlockToCompact; i < channel.size(); i++) {
+                channelSize += channel.get(i).getSizeInBytes();
+            }
+            maxChannelSize = Math.max(maxChannelSize, channelSize);
+        }
+        return maxChannelSize;
+    }
+
+    /**
+     * Copies the pages added since the last compaction into a few large blocks, so
+     * the index holds fewer objects. Does nothing if consolidation is disabled, or if
+     * the addresses were already reordered, for example by a sort.
+     */
+    public void consolidatePages()
+    {
+        if (!canConsolidatePages()) {
+            return;
+        }
+        consolidateNewPages();
         estimatedSize = calculateEstimatedSize();
     }
 
+    private boolean canConsolidatePages()
+    {
+        return consolidatePages && valueAddressesInInsertionOrder;
+    }
+
+    // Only positions added since the last compaction are remapped, so their addresses must not have been reordered yet
+    private void consolidateNewPages()
+    {
+        int pageCount = (channels.length > 0) ? channels[0].size() : 0;
+        if (nextBlockToCompact == pageCount) {
+            return;
+        }
+
+        // group consecutive pages into consolidated pages, and remember where each page ends up
+        int[] consolidatedPageIndex = new int[pageCount - nextBlockToCompact];
+        int[] consolidatedPageOffset = new int[pageCount - nextBlockToCompact];
+        List<Integer> consolidatedPageEnds = new ArrayList<>();
+        long consolidatedSize = 0;
+        int consolidatedPositions = 0;
+        for (int page = nextBlockToCompact; page < pageCount; page++) {
+            long pageSize = 0;
+            for (ObjectArrayList<Block> channel : channels) {
+                pageSize += channel.get(page).getSizeInBytes();
+            }
+            if (consolidatedPositions > 0 && consolidatedSize + pageSize > CONSOLIDATED_PAGE_SIZE_IN_BYTES) {
+                consolidatedPageEnds.add(page);
+                consolidatedSize = 0;
+                consolidatedPositions = 0;
+            }
+            consolidatedPageIndex[page - nextBlockToCompact] = nextBlockToCompact + consolidatedPageEnds.size();
+            consolidatedPageOffset[page - nextBlockToCompact] = consolidatedPositions;
+            consolidatedSize += pageSize;
+            consolidatedPositions += channels[0].get(page).getPositionCount();
+        }
+        consolidatedPageEnds.add(pageCount);
+
+        for (int channel = 0; channel < channels.length; channel++) {
+            ObjectArrayList<Block> blocks = channels[channel];
+            List<Block> consolidatedBlocks = new ArrayList<>(consolidatedPageEnds.size());
+            int start = nextBlockToCompact;
+            for (int end : consolidatedPageEnds) {
+                consolidatedBlocks.add(consolidateBlocks(types.get(channel), blocks.subList(start, end)));
+                start = end;
+            }
+
+            for (int i = nextBlockToCompact; i < pageCount; i++) {
+                pagesMemorySize -= blocks.get(i).getRetainedSizeInBytes();
+            }
+            blocks.size(nextBlockToCompact);
+            for (Block block : consolidatedBlocks) {
+                blocks.add(block);
+                pagesMemorySize += block.getRetainedSizeInBytes();
+            }
+        }
+
+        long[] addresses = valueAddresses.elements();
+        for (int position = nextPositionToCompact; position < positionCount; position++) {
+            int page = decodeSliceIndex(addresses[position]) - nextBlockToCompact;
+            addresses[position] = encodeSyntheticAddress(consolidatedPageIndex[page], consolidatedPageOffset[page] + decodePosition(addresses[position]));
+        }
+
+        nextBlockToCompact = channels[0].size();
+        nextPositionToCompact = positionCount;
+    }
+
+    private static Block consolidateBlocks(Type type, List<Block> blocks)
+    {
+        int positions = 0;
+        long sizeInBytes = 0;
+        for (Block block : blocks) {
+            positions += block.getPositionCount();
+            sizeInBytes += block.getSizeInBytes();
+        }
+
+        BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), positions, toIntExact(sizeInBytes / positions) + 1);
+        for (Block block : blocks) {
+            blockBuilder.appendRange(block, 0, block.getPositionCount());
+        }
+        return blockBuilder.build();
+    }
+
     private long calculateEstimatedSize()
     {
         long elementsSize = (channels.length > 0) ? sizeOf(channels[0].elements()) : 0;
@@ -255,6 +398,7 @@ public class PagesIndex
     @Override
     public void swap(int a, int b)
     {
+        valueAddressesInInsertionOrder = false;
         long[] elements = valueAddresses.elements();
         long temp = elements[a];
         elements[a] = elements[b];
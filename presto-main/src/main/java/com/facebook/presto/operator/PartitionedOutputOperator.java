@@ -32,6 +32,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -310,6 +311,7 @@ public class PartitionedOutputOperator
         private final List<Optional<Block>> partitionConstants;
         private final PagesSerde serde;
         private final List<PageBuilder> pageBuilders;
+        private final IntArrayList[] partitionPositions;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
         private final AtomicLong rowsAdded = new AtomicLong();
@@ -346,6 +348,11 @@ public class PartitionedOutputOperator
                 pageBuilders.add(PageBuilder.withMaxPageSize(pageSize, sourceTypes));
             }
             this.pageBuilders = pageBuilders.build();
+
+            this.partitionPositions = new IntArrayList[partitionFunction.getPartitionCount()];
+            for (int i = 0; i < partitionPositions.length; i++) {
+                partitionPositions[i] = new IntArrayList();
+            }
         }
 
         // Does not include size of SharedBuffer
@@ -370,16 +377,23 @@ public class PartitionedOutputOperator
                 boolean shouldReplicate = (replicatesAnyRow && !hasAnyRowBeenReplicated) ||
                         nullChannel.isPresent() && page.getBlock(nullChannel.getAsInt()).isNull(position);
                 if (shouldReplicate) {
-                    for (PageBuilder pageBuilder : pageBuilders) {
-                        appendRow(pageBuilder, page, position);
+                    for (IntArrayList positions : partitionPositions) {
+                        positions.add(position);
                     }
                     hasAnyRowBeenReplicated = true;
                 }
                 else {
                     int partition = partitionFunction.getPartition(partitionFunctionArgs, position);
+                    partitionPositions[partition].add(position);
+                }
+            }
 
-                    PageBuilder pageBuilder = pageBuilders.get(partition);
-                    appendRow(pageBuilder, page, position);
+            // the rows of each partition are copied one channel at a time
+            for (int partition = 0; partition < partitionPositions.length; partition++) {
+                IntArrayList positions = partitionPositions[partition];
+                if (!positions.isEmpty()) {
+                    appendRows(pageBuilders.get(partition), page, positions.elements(), positions.size());
+                    positions.clear();
                 }
             }
             return flush(false);
@@ -400,13 +414,12 @@ public class PartitionedOutputOperator
             return new Page(page.getPositionCount(), blocks);
         }
 
-        private void appendRow(PageBuilder pageBuilder, Page page, int position)
+        private void appendRows(PageBuilder pageBuilder, Page page, int[] positions, int length)
         {
-            pageBuilder.declarePosition();
+            pageBuilder.declarePositions(length);
 
             for (int channel = 0; channel < sourceTypes.size(); channel++) {
-                Type type = sourceTypes.get(channel);
-                type.appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+                pageBuilder.getBlockBuilder(channel).appendPositions(page.getBlock(channel), positions, 0, length);
             }
         }
 
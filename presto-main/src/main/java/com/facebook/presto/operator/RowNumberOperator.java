@@ -315,24 +315,28 @@ public class RowNumberOperator
         PageBuilder pageBuilder = new PageBuilder(types);
         int rowNumberChannel = types.size() - 1;
 
+        int[] selectedPositions = new int[inputPage.getPositionCount()];
+        int selectedCount = 0;
+        BlockBuilder rowNumberBlockBuilder = pageBuilder.getBlockBuilder(rowNumberChannel);
         for (int currentPosition = 0; currentPosition < inputPage.getPositionCount(); currentPosition++) {
             long partitionId = getPartitionId(currentPosition);
             long rowCount = partitionRowCount.get(partitionId);
             if (rowCount == maxRowsPerPartition.get()) {
                 continue;
             }
-            pageBuilder.declarePosition();
-            for (int i = 0; i < outputChannels.length; i++) {
-                int channel = outputChannels[i];
-                Type type = types.get(i);
-                type.appendTo(inputPage.getBlock(channel), currentPosition, pageBuilder.getBlockBuilder(i));
-            }
-            BIGINT.writeLong(pageBuilder.getBlockBuilder(rowNumberChannel), rowCount + 1);
+            selectedPositions[selectedCount] = currentPosition;
+            selectedCount++;
+            BIGINT.writeLong(rowNumberBlockBuilder, rowCount + 1);
             partitionRowCount.set(partitionId, rowCount + 1);
         }
-        if (pageBuilder.isEmpty()) {
+        if (selectedCount == 0) {
             return null;
         }
+
+        pageBuilder.declarePositions(selectedCount);
+        for (int i = 0; i < outputChannels.length; i++) {
+            pageBuilder.getBlockBuilder(i).appendPositions(inputPage.getBlock(outputChannels[i]), selectedPositions, 0, selectedCount);
+        }
         return pageBuilder.build();
     }
 
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.execution.Lifespan;
 import com.facebook.presto.operator.ChannelSet.ChannelSetBuilder;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
@@ -29,19 +30,27 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 public class SetBuilderOperator
         implements Operator
 {
+    /**
+     * Supplies the set built for each lifespan. Under grouped execution every
+     * driver group builds and probes its own set, which is dropped once both
+     * the build and the probe pipelines are done with the driver group.
+     */
     public static class SetSupplier
     {
         private final Type type;
-        private final SettableFuture<ChannelSet> channelSetFuture = SettableFuture.create();
+        private final Map<Lifespan, PerLifespanChannelSet> channelSets = new ConcurrentHashMap<>();
 
         public SetSupplier(Type type)
         {
@@ -53,16 +62,51 @@ public class SetBuilderOperator
             return type;
         }
 
-        public ListenableFuture<ChannelSet> getChannelSet()
+        public ListenableFuture<ChannelSet> getChannelSet(Lifespan lifespan)
         {
-            return channelSetFuture;
+            return channelSetFor(lifespan).getChannelSetFuture();
         }
 
-        void setChannelSet(ChannelSet channelSet)
+        void setChannelSet(Lifespan lifespan, ChannelSet channelSet)
         {
-            boolean wasSet = channelSetFuture.set(requireNonNull(channelSet, "channelSet is null"));
+            boolean wasSet = channelSetFor(lifespan).getChannelSetFuture().set(requireNonNull(channelSet, "channelSet is null"));
             checkState(wasSet, "ChannelSet already set");
         }
+
+        void release(Lifespan lifespan)
+        {
+            if (lifespan.isTaskWide()) {
+                // the task wide set lives as long as the task
+                return;
+            }
+            channelSetFor(lifespan).getReferenceCount().release();
+        }
+
+        private PerLifespanChannelSet channelSetFor(Lifespan lifespan)
+        {
+            return channelSets.computeIfAbsent(lifespan, ignored -> {
+                PerLifespanChannelSet channelSet = new PerLifespanChannelSet();
+                // released by the set builder and by the semi join of the lifespan
+                channelSet.getReferenceCount().getFreeFuture().addListener(() -> channelSets.remove(lifespan), directExecutor());
+                return channelSet;
+            });
+        }
+
+        private static class PerLifespanChannelSet
+        {
+            private final SettableFuture<ChannelSet> channelSetFuture = SettableFuture.create();
+            private final ReferenceCount referenceCount = new ReferenceCount(2);
+
+            public SettableFuture<ChannelSet> getChannelSetFuture()
+            {
+                return channelSetFuture;
+            }
+
+            public ReferenceCount getReferenceCount()
+            {
+                return referenceCount;
+            }
+        }
     }
 
     public static class SetBuilderOperatorFactory
@@ -115,6 +159,12 @@ public class SetBuilderOperator
             return new SetBuilderOperator(operatorContext, setProvider, setChannel, hashChannel, expectedPositions, joinCompiler);
         }
 
+        @Override
+        public void noMoreOperators(Lifespan lifespan)
+        {
+            setProvider.release(lifespan);
+        }
+
         @Override
         public void noMoreOperators()
         {
@@ -183,7 +233,7 @@ public class SetBuilderOperator
         }
 
         ChannelSet channelSet = channelSetBuilder.build();
-        setSupplier.setChannelSet(channelSet);
+        setSupplier.setChannelSet(operatorContext.getDriverContext().getLifespan(), channelSet);
         operatorContext.recordGeneratedOutput(channelSet.getEstimatedSizeInBytes(), channelSet.size());
         finished = true;
     }
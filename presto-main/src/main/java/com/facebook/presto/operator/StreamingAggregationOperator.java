@@ -0,0 +1,507 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.gen.JoinCompiler;
+import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import io.airlift.units.DataSize;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder.toTypes;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.IntStream.range;
+
+/**
+ * Aggregates input that arrives grouped on some of the grouping keys, so rows of a
+ * group are never interleaved with rows of another group with different values of
+ * those keys.
+ * <p>
+ * If the input is grouped on all the grouping keys, each group is aggregated with
+ * plain accumulators and emitted as soon as the next group starts. Otherwise the
+ * remaining keys are aggregated in a hash, which is flushed whenever the pre-grouped
+ * keys change and it holds at least {@code expectedGroups} groups.
+ */
+public class StreamingAggregationOperator
+        implements Operator
+{
+    public static class StreamingAggregationOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final List<Type> sourceTypes;
+        private final List<Type> groupByTypes;
+        private final List<Integer> groupByChannels;
+        private final List<Integer> preGroupedChannels;
+        private final Step step;
+        private final List<AccumulatorFactory> accumulatorFactories;
+        private final Optional<Integer> hashChannel;
+        private final int expectedGroups;
+        private final DataSize maxPartialMemory;
+        private final JoinCompiler joinCompiler;
+        private final List<Type> types;
+
+        private boolean closed;
+
+        public StreamingAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<Type> sourceTypes,
+                List<Type> groupByTypes,
+                List<Integer> groupByChannels,
+                List<Integer> preGroupedChannels,
+                Step step,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> hashChannel,
+                int expectedGroups,
+                DataSize maxPartialMemory,
+                JoinCompiler joinCompiler)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.sourceTypes = ImmutableList.copyOf(requireNonNull(sourceTypes, "sourceTypes is null"));
+            this.groupByTypes = ImmutableList.copyOf(requireNonNull(groupByTypes, "groupByTypes is null"));
+            this.groupByChannels = ImmutableList.copyOf(requireNonNull(groupByChannels, "groupByChannels is null"));
+            this.preGroupedChannels = ImmutableList.copyOf(requireNonNull(preGroupedChannels, "preGroupedChannels is null"));
+            checkArgument(!preGroupedChannels.isEmpty(), "preGroupedChannels is empty");
+            checkArgument(groupByChannels.containsAll(preGroupedChannels), "preGroupedChannels must be a subset of groupByChannels");
+            this.step = requireNonNull(step, "step is null");
+            this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
+            this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+            this.expectedGroups = expectedGroups;
+            this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+            this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, StreamingAggregationOperator.class.getSimpleName());
+            return new StreamingAggregationOperator(
+                    operatorContext,
+                    sourceTypes,
+                    groupByTypes,
+                    groupByChannels,
+                    preGroupedChannels,
+                    step,
+                    accumulatorFactories,
+                    hashChannel,
+                    expectedGroups,
+                    maxPartialMemory,
+                    joinCompiler);
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            closed = true;
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new StreamingAggregationOperatorFactory(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    groupByTypes,
+                    groupByChannels,
+                    preGroupedChannels,
+                    step,
+                    accumulatorFactories,
+                    hashChannel,
+                    expectedGroups,
+                    maxPartialMemory,
+                    joinCompiler);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final LocalMemoryContext memoryContext;
+    private final List<Type> groupByTypes;
+    private final List<Integer> groupByChannels;
+    private final int[] preGroupedChannels;
+    private final boolean fullyPreGrouped;
+    private final Step step;
+    private final List<AccumulatorFactory> accumulatorFactories;
+    private final Optional<Integer> hashChannel;
+    private final int expectedGroups;
+    private final DataSize maxPartialMemory;
+    private final JoinCompiler joinCompiler;
+    private final List<Type> types;
+    private final PagesHashStrategy pagesHashStrategy;
+    private final PageBuilder pageBuilder;
+    private final Deque<Page> outputPages = new ArrayDeque<>();
+
+    // used when the input is grouped on all the grouping keys
+    private List<Aggregator> aggregates;
+    // used when the input is grouped on some of the grouping keys
+    private InMemoryHashAggregationBuilder aggregationBuilder;
+
+    // last row of the previous page
+    private Page currentGroup;
+    private boolean finishing;
+
+    public StreamingAggregationOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            List<Integer> preGroupedChannels,
+            Step step,
+            List<AccumulatorFactory> accumulatorFactories,
+            Optional<Integer> hashChannel,
+            int expectedGroups,
+            DataSize maxPartialMemory,
+            JoinCompiler joinCompiler)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.groupByTypes = ImmutableList.copyOf(requireNonNull(groupByTypes, "groupByTypes is null"));
+        this.groupByChannels = ImmutableList.copyOf(requireNonNull(groupByChannels, "groupByChannels is null"));
+        this.preGroupedChannels = Ints.toArray(requireNonNull(preGroupedChannels, "preGroupedChannels is null"));
+        this.fullyPreGrouped = ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(groupByChannels));
+        this.step = requireNonNull(step, "step is null");
+        this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.expectedGroups = expectedGroups;
+        this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
+        this.memoryContext = step.isOutputPartial() ? operatorContext.newLocalSystemMemoryContext() : operatorContext.localUserMemoryContext();
+
+        List<Type> preGroupedTypes = preGroupedChannels.stream()
+                .map(sourceTypes::get)
+                .collect(toImmutableList());
+        this.pagesHashStrategy = joinCompiler.compilePagesHashStrategyFactory(preGroupedTypes, Ints.asList(range(0, preGroupedTypes.size()).toArray()))
+                .createPagesHashStrategy(
+                        preGroupedTypes.stream()
+                                .map(type -> ImmutableList.<Block>of())
+                                .collect(toImmutableList()),
+                        OptionalInt.empty());
+        this.pageBuilder = new PageBuilder(types);
+
+        if (fullyPreGrouped) {
+            aggregates = createAggregates();
+        }
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && outputPages.isEmpty();
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        checkState(needsInput(), "Operator is already finishing");
+        requireNonNull(page, "page is null");
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+
+        if (fullyPreGrouped) {
+            processGroupedInput(page);
+        }
+        else {
+            processPartiallyGroupedInput(page);
+        }
+        // copy the row so the rest of the page is not retained
+        currentGroup = page.getSingleValuePage(page.getPositionCount() - 1);
+        updateMemory();
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        return outputPages.poll();
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finishing) {
+            return;
+        }
+        finishing = true;
+
+        if (fullyPreGrouped) {
+            if (currentGroup != null) {
+                evaluateAndFlushGroup(currentGroup, 0);
+            }
+        }
+        else {
+            flushAggregationBuilder();
+        }
+        if (!pageBuilder.isEmpty()) {
+            outputPages.add(pageBuilder.build());
+            pageBuilder.reset();
+        }
+        currentGroup = null;
+        updateMemory();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finishing && outputPages.isEmpty();
+    }
+
+    @Override
+    public void close()
+    {
+        if (aggregationBuilder != null) {
+            aggregationBuilder.close();
+            aggregationBuilder = null;
+        }
+        memoryContext.setBytes(0);
+    }
+
+    private void processGroupedInput(Page page)
+    {
+        Page groupingPage = getPreGroupedColumns(page);
+        if (currentGroup != null && !pagesHashStrategy.rowEqualsRow(0, getPreGroupedColumns(currentGroup), 0, groupingPage)) {
+            // the page starts a new group
+            evaluateAndFlushGroup(currentGroup, 0);
+        }
+
+        int groupStart = 0;
+        while (true) {
+            int nextGroupStart = findNextGroupStart(groupingPage, groupStart);
+            Page group = page.getRegion(groupStart, nextGroupStart - groupStart);
+            for (Aggregator aggregate : aggregates) {
+                aggregate.processPage(group);
+            }
+            if (nextGroupStart == page.getPositionCount()) {
+                // the last group may continue in the next page
+                return;
+            }
+            evaluateAndFlushGroup(page, groupStart);
+            groupStart = nextGroupStart;
+        }
+    }
+
+    private void processPartiallyGroupedInput(Page page)
+    {
+        Page groupingPage = getPreGroupedColumns(page);
+        int lastGroupStart = findLastGroupStart(groupingPage);
+        boolean startsNewGroup = lastGroupStart > 0 || currentGroup == null || !pagesHashStrategy.rowEqualsRow(0, getPreGroupedColumns(currentGroup), 0, groupingPage);
+
+        if (lastGroupStart > 0) {
+            addToAggregationBuilder(page.getRegion(0, lastGroupStart));
+        }
+        // groups of the pre-grouped keys before the last one are complete, so they can be flushed
+        if (startsNewGroup && aggregationBuilder != null && (aggregationBuilder.getGroupCount() >= expectedGroups || aggregationBuilder.isFull())) {
+            flushAggregationBuilder();
+        }
+        addToAggregationBuilder(page.getRegion(lastGroupStart, page.getPositionCount() - lastGroupStart));
+        // a partial aggregation may split a group across flushes, so it is flushed as soon as it is full
+        if (step.isOutputPartial() && aggregationBuilder.isFull()) {
+            flushAggregationBuilder();
+        }
+    }
+
+    private void addToAggregationBuilder(Page page)
+    {
+        if (aggregationBuilder == null) {
+            aggregationBuilder = new InMemoryHashAggregationBuilder(
+                    accumulatorFactories,
+                    step,
+                    expectedGroups,
+                    groupByTypes,
+                    groupByChannels,
+                    hashChannel,
+                    operatorContext,
+                    maxPartialMemory,
+                    joinCompiler,
+                    false);
+        }
+        Work<?> work = aggregationBuilder.processPage(page);
+        checkState(work.process(), "aggregation of the page did not complete");
+        aggregationBuilder.updateMemory();
+    }
+
+    private void flushAggregationBuilder()
+    {
+        if (aggregationBuilder == null) {
+            return;
+        }
+        Iterator<Page> result = aggregationBuilder.buildResult();
+        while (result.hasNext()) {
+            outputPages.add(result.next());
+        }
+        aggregationBuilder.close();
+        aggregationBuilder = null;
+    }
+
+    private void evaluateAndFlushGroup(Page page, int position)
+    {
+        pageBuilder.declarePosition();
+        for (int i = 0; i < groupByTypes.size(); i++) {
+            Block block = page.getBlock(groupByChannels.get(i));
+            groupByTypes.get(i).appendTo(block, position, pageBuilder.getBlockBuilder(i));
+        }
+        int offset = groupByTypes.size();
+        if (hashChannel.isPresent()) {
+            BIGINT.appendTo(page.getBlock(hashChannel.get()), position, pageBuilder.getBlockBuilder(offset));
+            offset++;
+        }
+        for (int i = 0; i < aggregates.size(); i++) {
+            aggregates.get(i).evaluate(pageBuilder.getBlockBuilder(offset + i));
+        }
+
+        if (pageBuilder.isFull()) {
+            outputPages.add(pageBuilder.build());
+            pageBuilder.reset();
+        }
+
+        aggregates = createAggregates();
+    }
+
+    private List<Aggregator> createAggregates()
+    {
+        return accumulatorFactories.stream()
+                .map(accumulatorFactory -> new Aggregator(accumulatorFactory, step))
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Returns the first position after {@code groupStart} with different values, or the
+     * position count if the group extends to the end of the page. Rows of a group are
+     * adjacent, so the end of the group is found by galloping and binary search.
+     */
+    private int findNextGroupStart(Page groupingPage, int groupStart)
+    {
+        int positionCount = groupingPage.getPositionCount();
+        if (pagesHashStrategy.rowEqualsRow(groupStart, groupingPage, positionCount - 1, groupingPage)) {
+            return positionCount;
+        }
+
+        // the group ends after low and at or before high
+        int low = groupStart;
+        int high = positionCount - 1;
+        int distance = 1;
+        while (low + distance < high) {
+            if (!pagesHashStrategy.rowEqualsRow(groupStart, groupingPage, low + distance, groupingPage)) {
+                high = low + distance;
+                break;
+            }
+            low += distance;
+            distance *= 2;
+        }
+        while (low + 1 < high) {
+            int middle = (low + high) >>> 1;
+            if (pagesHashStrategy.rowEqualsRow(groupStart, groupingPage, middle, groupingPage)) {
+                low = middle;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Returns the first position of the group that the last row of the page belongs to.
+     */
+    private int findLastGroupStart(Page groupingPage)
+    {
+        int last = groupingPage.getPositionCount() - 1;
+        if (pagesHashStrategy.rowEqualsRow(0, groupingPage, last, groupingPage)) {
+            return 0;
+        }
+
+        // the group starts after low and at or before high
+        int low = 0;
+        int high = last;
+        while (low + 1 < high) {
+            int middle = (low + high) >>> 1;
+            if (pagesHashStrategy.rowEqualsRow(middle, groupingPage, last, groupingPage)) {
+                high = middle;
+            }
+            else {
+                low = middle;
+            }
+        }
+        return high;
+    }
+
+    private Page getPreGroupedColumns(Page page)
+    {
+        Block[] blocks = new Block[preGroupedChannels.length];
+        for (int i = 0; i < preGroupedChannels.length; i++) {
+            blocks[i] = page.getBlock(preGroupedChannels[i]);
+        }
+        return new Page(page.getPositionCount(), blocks);
+    }
+
+    private void updateMemory()
+    {
+        long memorySize = pageBuilder.getRetainedSizeInBytes();
+        if (currentGroup != null) {
+            memorySize += currentGroup.getRetainedSizeInBytes();
+        }
+        if (fullyPreGrouped) {
+            for (Aggregator aggregate : aggregates) {
+                memorySize += aggregate.getEstimatedSize();
+            }
+        }
+        else if (!step.isOutputPartial() && aggregationBuilder != null) {
+            // a final aggregation builder reports to the same user memory context, so its size is included
+            memorySize += aggregationBuilder.getSizeInMemory();
+        }
+        memoryContext.setBytes(memorySize);
+    }
+}
@@ -16,22 +16,38 @@ package com.facebook.presto.operator.aggregation;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.AbstractLongType;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.util.Set;
+
 import static com.facebook.presto.spi.StandardErrorCode.EXCEEDED_FUNCTION_MEMORY_LIMIT;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
 import static com.facebook.presto.type.TypeUtils.hashPosition;
 import static com.facebook.presto.type.TypeUtils.positionEqualsPosition;
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static it.unimi.dsi.fastutil.HashCommon.arraySize;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Hash set of the values of a type. For integral types, whose values are equal exactly
+ * when their long representations are, the values are also kept in a {@code long[]}
+ * parallel to the hash table, so that probing does not call back into the type.
+ */
 public class TypedSet
 {
     @VisibleForTesting
@@ -41,12 +57,16 @@ public class TypedSet
     private static final int INT_ARRAY_LIST_INSTANCE_SIZE = ClassLayout.parseClass(IntArrayList.class).instanceSize();
     private static final float FILL_RATIO = 0.75f;
     static final long FOUR_MEGABYTES = MAX_FUNCTION_MEMORY.toBytes();
+    private static final Set<Type> LONG_EQUALITY_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE, TIMESTAMP);
 
     private final Type elementType;
     private final IntArrayList blockPositionByHash;
     private final BlockBuilder elementBlock;
     private final String functionName;
+    private final boolean longValues;
 
+    // values of the elements by hash slot, only used when longValues is set
+    private long[] valueByHash;
     private int hashCapacity;
     private int maxFill;
     private int hashMask;
@@ -60,6 +80,7 @@ public class TypedSet
         this.elementType = requireNonNull(elementType, "elementType must not be null");
         this.elementBlock = elementType.createBlockBuilder(null, expectedSize);
         this.functionName = functionName;
+        this.longValues = LONG_EQUALITY_TYPES.contains(elementType);
 
         hashCapacity = arraySize(expectedSize, FILL_RATIO);
         this.maxFill = calculateMaxFill(hashCapacity);
@@ -70,13 +91,16 @@ public class TypedSet
         for (int i = 0; i < hashCapacity; i++) {
             blockPositionByHash.set(i, EMPTY_SLOT);
         }
+        if (longValues) {
+            valueByHash = new long[hashCapacity];
+        }
 
         this.containsNullElement = false;
     }
 
     public long getRetainedSizeInBytes()
     {
-        return INSTANCE_SIZE + INT_ARRAY_LIST_INSTANCE_SIZE + elementBlock.getRetainedSizeInBytes() + blockPositionByHash.size() * Integer.BYTES;
+        return INSTANCE_SIZE + INT_ARRAY_LIST_INSTANCE_SIZE + elementBlock.getRetainedSizeInBytes() + blockPositionByHash.size() * Integer.BYTES + (valueByHash == null ? 0 : sizeOf(valueByHash));
     }
 
     public boolean contains(Block block, int position)
@@ -123,6 +147,10 @@ public class TypedSet
      */
     private int getHashPositionOfElement(Block block, int position)
     {
+        if (longValues) {
+            return getHashPositionOfValue(elementType.getLong(block, position));
+        }
+
         int hashPosition = getMaskedHash(hashPosition(elementType, block, position));
         while (true) {
             int blockPosition = blockPositionByHash.get(hashPosition);
@@ -139,6 +167,18 @@ public class TypedSet
         }
     }
 
+    private int getHashPositionOfValue(long value)
+    {
+        int hashPosition = getMaskedHash(AbstractLongType.hash(value));
+        while (true) {
+            int blockPosition = blockPositionByHash.get(hashPosition);
+            if (blockPosition == EMPTY_SLOT || valueByHash[hashPosition] == value) {
+                return hashPosition;
+            }
+            hashPosition = getMaskedHash(hashPosition + 1);
+        }
+    }
+
     private void addNewElement(int hashPosition, Block block, int position)
     {
         elementType.appendTo(block, position, elementBlock);
@@ -150,6 +190,9 @@ public class TypedSet
                             MAX_FUNCTION_MEMORY));
         }
         blockPositionByHash.set(hashPosition, elementBlock.getPositionCount() - 1);
+        if (longValues) {
+            valueByHash[hashPosition] = elementType.getLong(block, position);
+        }
 
         // increase capacity, if necessary
         if (elementBlock.getPositionCount() >= maxFill) {
@@ -172,6 +215,9 @@ public class TypedSet
         for (int i = 0; i < newCapacity; i++) {
             blockPositionByHash.set(i, EMPTY_SLOT);
         }
+        if (longValues) {
+            valueByHash = new long[newCapacity];
+        }
 
         rehashBlock(elementBlock);
     }
@@ -179,7 +225,11 @@ public class TypedSet
     private void rehashBlock(Block block)
     {
         for (int blockPosition = 0; blockPosition < block.getPositionCount(); blockPosition++) {
-            blockPositionByHash.set(getHashPositionOfElement(block, blockPosition), blockPosition);
+            int hashPosition = getHashPositionOfElement(block, blockPosition);
+            blockPositionByHash.set(hashPosition, blockPosition);
+            if (longValues) {
+                valueByHash[hashPosition] = elementType.getLong(block, blockPosition);
+            }
         }
     }
 
@@ -24,6 +24,8 @@ import com.facebook.presto.spi.block.DictionaryId;
 import com.facebook.presto.spi.block.LazyBlock;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -31,11 +33,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 import static com.facebook.presto.operator.project.PageProcessorOutput.EMPTY_PAGE_PROCESSOR_OUTPUT;
 import static com.facebook.presto.operator.project.SelectedPositions.positionsRange;
 import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterators.singletonIterator;
@@ -50,12 +54,36 @@ public class PageProcessor
 
     private final DictionarySourceIdFunction dictionarySourceIdFunction = new DictionarySourceIdFunction();
     private final Optional<PageFilter> filter;
+    private final int commonChannelOffset;
+    private final List<PageProjection> pageCommonProjections;
+    private final List<PageProjection> batchCommonProjections;
     private final List<PageProjection> projections;
+    private final Set<Integer> batchProjections;
 
     private int projectBatchSize = MAX_BATCH_SIZE;
 
     public PageProcessor(Optional<PageFilter> filter, List<? extends PageProjection> projections)
     {
+        this(filter, 0, ImmutableList.of(), ImmutableList.of(), projections, ImmutableSet.of());
+    }
+
+    /**
+     * Creates a processor that evaluates common subexpressions once for all of their uses.
+     * The results of {@code pageCommonProjections} are computed for all positions of the page
+     * before the filter, and the filter and projections see the first {@code commonChannelOffset}
+     * channels of the page followed by these results. The results of {@code batchCommonProjections}
+     * are computed for each batch of selected positions. The projections listed in
+     * {@code batchProjections} see the page restricted to the batch, followed by these results.
+     */
+    public PageProcessor(
+            Optional<PageFilter> filter,
+            int commonChannelOffset,
+            List<? extends PageProjection> pageCommonProjections,
+            List<? extends PageProjection> batchCommonProjections,
+            List<? extends PageProjection> projections,
+            Set<Integer> batchProjections)
+    {
+        checkArgument(commonChannelOffset >= 0, "commonChannelOffset is negative");
         this.filter = requireNonNull(filter, "filter is null")
                 .map(pageFilter -> {
                     if (pageFilter.getInputChannels().size() == 1 && pageFilter.isDeterministic()) {
@@ -63,7 +91,16 @@ public class PageProcessor
                     }
                     return pageFilter;
                 });
-        this.projections = requireNonNull(projections, "projections is null").stream()
+        this.commonChannelOffset = commonChannelOffset;
+        this.pageCommonProjections = wrapProjections(requireNonNull(pageCommonProjections, "pageCommonProjections is null"));
+        this.batchCommonProjections = wrapProjections(requireNonNull(batchCommonProjections, "batchCommonProjections is null"));
+        this.projections = wrapProjections(requireNonNull(projections, "projections is null"));
+        this.batchProjections = ImmutableSet.copyOf(requireNonNull(batchProjections, "batchProjections is null"));
+    }
+
+    private List<PageProjection> wrapProjections(List<? extends PageProjection> projections)
+    {
+        return projections.stream()
                 .map(projection -> {
                     if (projection.getInputChannels().size() == 1 && projection.isDeterministic()) {
                         return new DictionaryAwarePageProjection(projection, dictionarySourceIdFunction);
@@ -82,23 +119,25 @@ public class PageProcessor
             return EMPTY_PAGE_PROCESSOR_OUTPUT;
         }
 
+        Page inputPage = pageCommonProjections.isEmpty() ? page : appendPageCommonSubExpressions(session, page);
+
         if (filter.isPresent()) {
-            SelectedPositions selectedPositions = filter.get().filter(session, filter.get().getInputChannels().getInputChannels(page));
+            SelectedPositions selectedPositions = filter.get().filter(session, filter.get().getInputChannels().getInputChannels(inputPage));
             if (selectedPositions.isEmpty()) {
                 return EMPTY_PAGE_PROCESSOR_OUTPUT;
             }
 
             if (projections.isEmpty()) {
-                return new PageProcessorOutput(() -> calculateRetainedSizeWithoutLoading(page), singletonIterator(Optional.of(new Page(selectedPositions.size()))));
+                return new PageProcessorOutput(() -> calculateRetainedSizeWithoutLoading(inputPage), singletonIterator(Optional.of(new Page(selectedPositions.size()))));
             }
 
-            if (selectedPositions.size() != page.getPositionCount()) {
-                PositionsPageProcessorIterator pages = new PositionsPageProcessorIterator(session, yieldSignal, page, selectedPositions);
+            if (selectedPositions.size() != inputPage.getPositionCount()) {
+                PositionsPageProcessorIterator pages = new PositionsPageProcessorIterator(session, yieldSignal, inputPage, selectedPositions);
                 return new PageProcessorOutput(pages::getRetainedSizeInBytes, pages);
             }
         }
 
-        PositionsPageProcessorIterator pages = new PositionsPageProcessorIterator(session, yieldSignal, page, positionsRange(0, page.getPositionCount()));
+        PositionsPageProcessorIterator pages = new PositionsPageProcessorIterator(session, yieldSignal, inputPage, positionsRange(0, inputPage.getPositionCount()));
         return new PageProcessorOutput(pages::getRetainedSizeInBytes, pages);
     }
 
@@ -108,6 +147,33 @@ public class PageProcessor
         return projections;
     }
 
+    private Page appendPageCommonSubExpressions(ConnectorSession session, Page page)
+    {
+        Block[] blocks = new Block[commonChannelOffset + pageCommonProjections.size()];
+        for (int channel = 0; channel < commonChannelOffset; channel++) {
+            blocks[channel] = page.getBlock(channel);
+        }
+
+        // like the filter, these are evaluated for the whole page at once
+        DriverYieldSignal noYieldSignal = new DriverYieldSignal();
+        SelectedPositions allPositions = positionsRange(0, page.getPositionCount());
+        for (int i = 0; i < pageCommonProjections.size(); i++) {
+            PageProjection projection = pageCommonProjections.get(i);
+            Work<Block> work = projection.project(session, noYieldSignal, projection.getInputChannels().getInputChannels(page), allPositions);
+            verify(work.process(), "projection yielded without a yield signal");
+            blocks[commonChannelOffset + i] = work.getResult();
+        }
+        return new Page(page.getPositionCount(), blocks);
+    }
+
+    private static Block getPositions(Block block, SelectedPositions positions)
+    {
+        if (positions.isList()) {
+            return block.getPositions(positions.getPositions(), positions.getOffset(), positions.size());
+        }
+        return block.getRegion(positions.getOffset(), positions.size());
+    }
+
     private static boolean isUnloadedLazyBlock(Block block)
     {
         return (block instanceof LazyBlock) && !((LazyBlock) block).isLoaded();
@@ -146,7 +212,8 @@ public class PageProcessor
             this.yieldSignal = yieldSignal;
             this.page = page;
             this.selectedPositions = selectedPositions;
-            this.previouslyComputedResults = new Block[projections.size()];
+            // results of the batch common projections, followed by the results of the projections
+            this.previouslyComputedResults = new Block[batchCommonProjections.size() + projections.size()];
             updateRetainedSize();
         }
 
@@ -254,7 +321,8 @@ public class PageProcessor
 
             int pageSize = 0;
             SelectedPositions positionsBatch = selectedPositions.subRange(0, batchSize);
-            for (int i = 0; i < projections.size(); i++) {
+            Page batchPage = null;
+            for (int i = 0; i < previouslyComputedResults.length; i++) {
                 if (yieldSignal.isSet()) {
                     return ProcessBatchResult.processBatchYield();
                 }
@@ -263,27 +331,65 @@ public class PageProcessor
                     return ProcessBatchResult.processBatchTooLarge();
                 }
 
+                PageProjection projection;
+                Page inputPage = page;
+                SelectedPositions inputPositions = positionsBatch;
+                int projectionIndex = i - batchCommonProjections.size();
+                if (projectionIndex < 0) {
+                    projection = batchCommonProjections.get(i);
+                }
+                else {
+                    projection = projections.get(projectionIndex);
+                    if (batchProjections.contains(projectionIndex)) {
+                        // the batch common projections precede the projections, so their results are complete
+                        if (batchPage == null) {
+                            batchPage = createBatchPage(positionsBatch);
+                        }
+                        inputPage = batchPage;
+                        inputPositions = positionsRange(0, batchSize);
+                    }
+                }
+
                 // if possible, use previouslyComputedResults produced in prior optimistic failure attempt
-                PageProjection projection = projections.get(i);
+                Block result;
                 if (previouslyComputedResults[i] != null && previouslyComputedResults[i].getPositionCount() >= batchSize) {
-                    blocks[i] = previouslyComputedResults[i].getRegion(0, batchSize);
+                    result = previouslyComputedResults[i].getRegion(0, batchSize);
                 }
                 else {
                     if (pageProjectWork == null) {
-                        pageProjectWork = projection.project(session, yieldSignal, projection.getInputChannels().getInputChannels(page), positionsBatch);
+                        pageProjectWork = projection.project(session, yieldSignal, projection.getInputChannels().getInputChannels(inputPage), inputPositions);
                     }
                     if (!pageProjectWork.process()) {
                         return ProcessBatchResult.processBatchYield();
                     }
                     previouslyComputedResults[i] = pageProjectWork.getResult();
                     pageProjectWork = null;
-                    blocks[i] = previouslyComputedResults[i];
+                    result = previouslyComputedResults[i];
                 }
 
-                pageSize += blocks[i].getSizeInBytes();
+                if (projectionIndex >= 0) {
+                    blocks[projectionIndex] = result;
+                    pageSize += result.getSizeInBytes();
+                }
             }
             return ProcessBatchResult.processBatchSuccess(new Page(positionsBatch.size(), blocks));
         }
+
+        private Page createBatchPage(SelectedPositions positionsBatch)
+        {
+            int batchSize = positionsBatch.size();
+            int pageChannels = commonChannelOffset + pageCommonProjections.size();
+            Block[] blocks = new Block[pageChannels + batchCommonProjections.size()];
+            for (int channel = 0; channel < pageChannels; channel++) {
+                // only the channels read by the projections are restricted to the batch
+                Block block = page.getBlock(channel);
+                blocks[channel] = new LazyBlock(batchSize, lazyBlock -> lazyBlock.setBlock(getPositions(block, positionsBatch)));
+            }
+            for (int i = 0; i < batchCommonProjections.size(); i++) {
+                blocks[pageChannels + i] = previouslyComputedResults[i].getRegion(0, batchSize);
+            }
+            return new Page(batchSize, blocks);
+        }
     }
 
     @NotThreadSafe
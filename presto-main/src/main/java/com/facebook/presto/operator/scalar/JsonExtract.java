@@ -347,7 +347,7 @@ public final class JsonExtract
         }
     }
 
-    private static int tryParseInt(String fieldName, int defaultValue)
+    static int tryParseInt(String fieldName, int defaultValue)
     {
         int index = defaultValue;
         try {
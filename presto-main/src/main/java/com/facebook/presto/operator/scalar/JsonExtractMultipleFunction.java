@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.scalar;
+
+import com.facebook.presto.annotation.UsedByGeneratedCode;
+import com.facebook.presto.metadata.BoundVariables;
+import com.facebook.presto.metadata.FunctionRegistry;
+import com.facebook.presto.metadata.Signature;
+import com.facebook.presto.metadata.SqlScalarFunction;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.facebook.presto.type.JsonPathSetType;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+import static com.facebook.presto.metadata.FunctionKind.SCALAR;
+import static com.facebook.presto.metadata.Signature.typeVariable;
+import static com.facebook.presto.metadata.Signature.withVariadicBound;
+import static com.facebook.presto.operator.scalar.ScalarFunctionImplementation.ArgumentProperty.valueTypeArgumentProperty;
+import static com.facebook.presto.operator.scalar.ScalarFunctionImplementation.NullConvention.RETURN_NULL_ON_NULL;
+import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.type.JsonPathSetType.JSON_PATH_SET;
+import static com.facebook.presto.util.Reflection.methodHandle;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Extracts the paths of a {@link JsonPathSet} from a JSON document and returns their values
+ * as the fields of a row. The page processor compiler replaces calls of {@code json_extract}
+ * and {@code json_extract_scalar} on the same document with dereferences of this function,
+ * so the document is parsed once.
+ */
+public final class JsonExtractMultipleFunction
+        extends SqlScalarFunction
+{
+    public static final JsonExtractMultipleFunction JSON_EXTRACT_MULTIPLE = new JsonExtractMultipleFunction();
+    public static final String NAME = "$internal$json_extract_multiple";
+    private static final MethodHandle METHOD_HANDLE = methodHandle(JsonExtractMultipleFunction.class, "extract", RowType.class, Slice.class, JsonPathSet.class);
+
+    private JsonExtractMultipleFunction()
+    {
+        super(new Signature(
+                NAME,
+                SCALAR,
+                ImmutableList.of(typeVariable("T"), withVariadicBound("R", "row")),
+                ImmutableList.of(),
+                parseTypeSignature("R"),
+                ImmutableList.of(parseTypeSignature("T"), parseTypeSignature(JsonPathSetType.NAME)),
+                false));
+    }
+
+    public static Signature jsonExtractMultipleSignature(Type inputType, RowType rowType)
+    {
+        return new Signature(NAME, SCALAR, rowType.getTypeSignature(), inputType.getTypeSignature(), JSON_PATH_SET.getTypeSignature());
+    }
+
+    @Override
+    public String getDescription()
+    {
+        // Internal function, doesn't need a description
+        return null;
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean isHidden()
+    {
+        return true;
+    }
+
+    @Override
+    public ScalarFunctionImplementation specialize(BoundVariables boundVariables, int arity, TypeManager typeManager, FunctionRegistry functionRegistry)
+    {
+        checkArgument(arity == 2, "Expected arity to be 2");
+        RowType rowType = (RowType) boundVariables.getTypeVariable("R");
+        return new ScalarFunctionImplementation(
+                false,
+                ImmutableList.of(
+                        valueTypeArgumentProperty(RETURN_NULL_ON_NULL),
+                        valueTypeArgumentProperty(RETURN_NULL_ON_NULL)),
+                METHOD_HANDLE.bindTo(rowType),
+                isDeterministic());
+    }
+
+    @UsedByGeneratedCode
+    public static Block extract(RowType rowType, Slice json, JsonPathSet pathSet)
+    {
+        Slice[] values = pathSet.extract(json);
+        List<Type> fieldTypes = rowType.getTypeParameters();
+        checkArgument(fieldTypes.size() == values.length, "Row type %s does not match %s paths", rowType, values.length);
+
+        BlockBuilder rowBlockBuilder = rowType.createBlockBuilder(new BlockBuilderStatus(), 1);
+        BlockBuilder fieldBuilder = rowBlockBuilder.beginBlockEntry();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                fieldBuilder.appendNull();
+            }
+            else {
+                fieldTypes.get(i).writeSlice(fieldBuilder, values[i]);
+            }
+        }
+        rowBlockBuilder.closeEntry();
+        return rowType.getObject(rowBlockBuilder, 0);
+    }
+}
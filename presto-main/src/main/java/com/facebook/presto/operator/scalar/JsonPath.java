@@ -13,21 +13,31 @@
  */
 package com.facebook.presto.operator.scalar;
 
+import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slice;
 
+import java.util.List;
+
 public class JsonPath
 {
+    private final List<String> tokens;
     private final JsonExtract.JsonExtractor<Slice> scalarExtractor;
     private final JsonExtract.JsonExtractor<Slice> objectExtractor;
     private final JsonExtract.JsonExtractor<Long> sizeExtractor;
 
     public JsonPath(String pattern)
     {
+        tokens = ImmutableList.copyOf(new JsonPathTokenizer(pattern));
         scalarExtractor = JsonExtract.generateExtractor(pattern, new JsonExtract.ScalarValueJsonExtractor());
         objectExtractor = JsonExtract.generateExtractor(pattern, new JsonExtract.JsonValueJsonExtractor());
         sizeExtractor = JsonExtract.generateExtractor(pattern, new JsonExtract.JsonSizeExtractor());
     }
 
+    public List<String> getTokens()
+    {
+        return tokens;
+    }
+
     public JsonExtract.JsonExtractor<Slice> getScalarExtractor()
     {
         return scalarExtractor;
@@ -0,0 +1,267 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.scalar;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.operator.scalar.JsonExtract.tryParseInt;
+import static com.facebook.presto.util.JsonUtil.createJsonGenerator;
+import static com.facebook.presto.util.JsonUtil.createJsonParser;
+import static com.fasterxml.jackson.core.JsonFactory.Feature.CANONICALIZE_FIELD_NAMES;
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Extracts the values of several JSON paths in a single pass over the document. Each
+ * value is the same as the one {@link JsonExtract} returns for the path on its own:
+ * the first matching field is used, and a path whose value cannot be reached because
+ * the document has a different structure extracts null. Malformed documents are read
+ * once for each path.
+ */
+public class JsonPathSet
+{
+    private static final int ESTIMATED_JSON_OUTPUT_SIZE = 512;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(CANONICALIZE_FIELD_NAMES);
+
+    public enum ExtractType
+    {
+        SCALAR,
+        JSON
+    }
+
+    private final List<JsonPath> paths;
+    private final List<ExtractType> extractTypes;
+    private final Node root;
+    private final int nodeCount;
+
+    public JsonPathSet(List<JsonPath> paths, List<ExtractType> extractTypes)
+    {
+        this.paths = ImmutableList.copyOf(requireNonNull(paths, "paths is null"));
+        this.extractTypes = ImmutableList.copyOf(requireNonNull(extractTypes, "extractTypes is null"));
+        checkArgument(paths.size() == extractTypes.size(), "paths and extractTypes have different sizes");
+
+        List<Node> nodes = new ArrayList<>();
+        root = new Node(0);
+        nodes.add(root);
+        for (int i = 0; i < paths.size(); i++) {
+            JsonPath path = paths.get(i);
+            checkArgument(isSupported(path), "Path with non-canonical array index is not supported: %s", path.getTokens());
+            Node node = root;
+            for (String token : path.getTokens()) {
+                node = node.getOrAddChild(token, nodes);
+            }
+            node.addOutput(i, extractTypes.get(i));
+        }
+        nodeCount = nodes.size();
+    }
+
+    /**
+     * Paths with array indexes such as {@code 01} would need a value to be read for two
+     * different children, so they are only supported by {@link JsonExtract}.
+     */
+    public static boolean isSupported(JsonPath path)
+    {
+        for (String token : path.getTokens()) {
+            int index = tryParseInt(token, -1);
+            if (index >= 0 && !Integer.toString(index).equals(token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<JsonPath> getPaths()
+    {
+        return paths;
+    }
+
+    public List<ExtractType> getExtractTypes()
+    {
+        return extractTypes;
+    }
+
+    /**
+     * Returns the extracted values in the order of the paths, with null for values that do not exist.
+     */
+    public Slice[] extract(Slice jsonInput)
+    {
+        requireNonNull(jsonInput, "jsonInput is null");
+        Slice[] values = new Slice[paths.size()];
+        try (JsonParser jsonParser = createJsonParser(JSON_FACTORY, jsonInput)) {
+            if (jsonParser.nextToken() != null) {
+                extractValue(jsonParser, root, values, new boolean[nodeCount]);
+            }
+        }
+        catch (JsonParseException e) {
+            // a path extracted on its own may still find its value before the malformed part
+            return extractEach(jsonInput);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return values;
+    }
+
+    private Slice[] extractEach(Slice jsonInput)
+    {
+        Slice[] values = new Slice[paths.size()];
+        for (int i = 0; i < paths.size(); i++) {
+            JsonPath path = paths.get(i);
+            values[i] = JsonExtract.extract(jsonInput, extractTypes.get(i) == ExtractType.SCALAR ? path.getScalarExtractor() : path.getObjectExtractor());
+        }
+        return values;
+    }
+
+    /**
+     * The parser must be on the first token of the value, and is left on its last token.
+     */
+    private static void extractValue(JsonParser jsonParser, Node node, Slice[] values, boolean[] matched)
+            throws IOException
+    {
+        JsonToken token = jsonParser.getCurrentToken();
+        for (int output : node.scalarOutputs) {
+            if (token.isScalarValue() && token != VALUE_NULL) {
+                values[output] = utf8Slice(jsonParser.getText());
+            }
+        }
+
+        if (node.jsonOutputs.isEmpty()) {
+            extractChildren(jsonParser, node, values, matched);
+            return;
+        }
+
+        DynamicSliceOutput dynamicSliceOutput = new DynamicSliceOutput(ESTIMATED_JSON_OUTPUT_SIZE);
+        try (JsonGenerator jsonGenerator = createJsonGenerator(JSON_FACTORY, dynamicSliceOutput)) {
+            jsonGenerator.copyCurrentStructure(jsonParser);
+        }
+        Slice value = dynamicSliceOutput.slice();
+        for (int output : node.jsonOutputs) {
+            values[output] = value;
+        }
+
+        if (node.hasChildren()) {
+            // the value was consumed by the copy, so its children are read from the copy
+            try (JsonParser valueParser = createJsonParser(JSON_FACTORY, value)) {
+                valueParser.nextToken();
+                extractChildren(valueParser, node, values, matched);
+            }
+        }
+    }
+
+    private static void extractChildren(JsonParser jsonParser, Node node, Slice[] values, boolean[] matched)
+            throws IOException
+    {
+        JsonToken token = jsonParser.getCurrentToken();
+        if (!node.hasChildren() || (token != START_OBJECT && token != START_ARRAY)) {
+            jsonParser.skipChildren();
+            return;
+        }
+
+        int index = 0;
+        while (true) {
+            JsonToken next = jsonParser.nextToken();
+            if (next == null) {
+                throw new JsonParseException(jsonParser, "Unexpected end of value");
+            }
+            if (next == END_OBJECT || next == END_ARRAY) {
+                return;
+            }
+
+            Node child;
+            if (token == START_OBJECT) {
+                child = node.fieldChildren.get(jsonParser.getCurrentName());
+                jsonParser.nextToken();
+            }
+            else {
+                child = node.indexChildren.get(index);
+                index++;
+            }
+
+            // only the first matching field is used, like for paths extracted on their own
+            if (child != null && !matched[child.id]) {
+                matched[child.id] = true;
+                extractValue(jsonParser, child, values, matched);
+            }
+            else {
+                jsonParser.skipChildren();
+            }
+        }
+    }
+
+    private static class Node
+    {
+        private final int id;
+        private final Map<String, Node> fieldChildren = new HashMap<>();
+        private final Map<Integer, Node> indexChildren = new HashMap<>();
+        private final List<Integer> scalarOutputs = new ArrayList<>();
+        private final List<Integer> jsonOutputs = new ArrayList<>();
+
+        public Node(int id)
+        {
+            this.id = id;
+        }
+
+        public Node getOrAddChild(String token, List<Node> nodes)
+        {
+            Node child = fieldChildren.get(token);
+            if (child == null) {
+                child = new Node(nodes.size());
+                nodes.add(child);
+                fieldChildren.put(token, child);
+                int index = tryParseInt(token, -1);
+                if (index >= 0) {
+                    indexChildren.put(index, child);
+                }
+            }
+            return child;
+        }
+
+        public void addOutput(int output, ExtractType extractType)
+        {
+            if (extractType == ExtractType.SCALAR) {
+                scalarOutputs.add(output);
+            }
+            else {
+                jsonOutputs.add(output);
+            }
+        }
+
+        public boolean hasChildren()
+        {
+            return !fieldChildren.isEmpty();
+        }
+    }
+}
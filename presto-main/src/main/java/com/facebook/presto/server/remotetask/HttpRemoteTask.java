@@ -432,7 +432,14 @@ public final class HttpRemoteTask
 
     private synchronized void processTaskUpdate(TaskInfo newValue, List<TaskSource> sources)
     {
-        updateTaskInfo(newValue);
+        // Update responses are always summarized, so unless task info is summarized anyway only the
+        // status is taken from them. The full task info is kept current by the task info fetcher.
+        if (summarizeTaskInfo) {
+            updateTaskInfo(newValue);
+        }
+        else {
+            taskStatusFetcher.updateTaskStatus(newValue.getTaskStatus());
+        }
 
         // remove acknowledged splits, which frees memory
         for (TaskSource source : sources) {
@@ -506,7 +513,9 @@ public final class HttpRemoteTask
                 sources,
                 outputBuffers.get());
 
-        HttpUriBuilder uriBuilder = getHttpUriBuilder(taskStatus);
+        // the coordinator sends an update for every batch of splits, so ask for the summarized
+        // task info in the response, which is much cheaper to serialize and parse
+        HttpUriBuilder uriBuilder = uriBuilderFrom(taskStatus.getSelf()).addParameter("summarize");
         Request request = preparePost()
                 .setUri(uriBuilder.build())
                 .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.JSON_UTF_8.toString())
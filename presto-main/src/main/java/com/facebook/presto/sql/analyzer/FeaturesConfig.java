@@ -54,6 +54,7 @@ public class FeaturesConfig
     private boolean distributedIndexJoinsEnabled;
     private boolean distributedJoinsEnabled = true;
     private boolean colocatedJoinsEnabled;
+    private boolean groupedExecutionForStatefulOperatorsEnabled;
     private boolean fastInequalityJoins = true;
     private boolean reorderJoins = true;
     private boolean redistributeWrites = true;
@@ -72,8 +73,12 @@ public class FeaturesConfig
     private boolean optimizeMixedDistinctAggregations;
     private boolean forceSingleNodeOutput = true;
     private boolean pagesIndexEagerCompactionEnabled;
+    private boolean pagesIndexConsolidationEnabled;
 
     private boolean dictionaryAggregation;
+    private boolean streamingAggregation;
+    private boolean mergeJoin;
+    private boolean optimizeCommonSubExpressions;
     private boolean resourceGroups;
 
     private int re2JDfaStatesLimit = Integer.MAX_VALUE;
@@ -194,6 +199,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isGroupedExecutionForStatefulOperatorsEnabled()
+    {
+        return groupedExecutionForStatefulOperatorsEnabled;
+    }
+
+    @Config("grouped-execution-for-stateful-operators-enabled")
+    @ConfigDescription("Experimental: Use grouped execution for aggregations, windows, semi joins and table writers over bucketed tables when possible")
+    public FeaturesConfig setGroupedExecutionForStatefulOperatorsEnabled(boolean groupedExecutionForStatefulOperatorsEnabled)
+    {
+        this.groupedExecutionForStatefulOperatorsEnabled = groupedExecutionForStatefulOperatorsEnabled;
+        return this;
+    }
+
     @Config("fast-inequality-joins")
     @ConfigDescription("Use faster handling of inequality joins if it is possible")
     public FeaturesConfig setFastInequalityJoins(boolean fastInequalityJoins)
@@ -318,6 +336,42 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isStreamingAggregation()
+    {
+        return streamingAggregation;
+    }
+
+    @Config("optimizer.streaming-aggregation")
+    public FeaturesConfig setStreamingAggregation(boolean streamingAggregation)
+    {
+        this.streamingAggregation = streamingAggregation;
+        return this;
+    }
+
+    public boolean isMergeJoin()
+    {
+        return mergeJoin;
+    }
+
+    @Config("optimizer.merge-join")
+    public FeaturesConfig setMergeJoin(boolean mergeJoin)
+    {
+        this.mergeJoin = mergeJoin;
+        return this;
+    }
+
+    public boolean isOptimizeCommonSubExpressions()
+    {
+        return optimizeCommonSubExpressions;
+    }
+
+    @Config("optimizer.optimize-common-sub-expressions")
+    public FeaturesConfig setOptimizeCommonSubExpressions(boolean optimizeCommonSubExpressions)
+    {
+        this.optimizeCommonSubExpressions = optimizeCommonSubExpressions;
+        return this;
+    }
+
     @Min(2)
     public int getRe2JDfaStatesLimit()
     {
@@ -574,6 +628,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isPagesIndexConsolidationEnabled()
+    {
+        return pagesIndexConsolidationEnabled;
+    }
+
+    @Config("pages-index.consolidation-enabled")
+    @ConfigDescription("Copy small pages into large blocks when compacting a pages index")
+    public FeaturesConfig setPagesIndexConsolidationEnabled(boolean pagesIndexConsolidationEnabled)
+    {
+        this.pagesIndexConsolidationEnabled = pagesIndexConsolidationEnabled;
+        return this;
+    }
+
     @MaxDataSize("1MB")
     public DataSize getFilterAndProjectMinOutputPageSize()
     {
@@ -17,6 +17,7 @@ import com.google.common.cache.LoadingCache;
 import org.weakref.jmx.Managed;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class CacheStatsMBean
 {
@@ -50,4 +51,28 @@ public class CacheStatsMBean
     {
         return loadingCache.stats().requestCount();
     }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return loadingCache.stats().evictionCount();
+    }
+
+    @Managed(description = "Number of values compiled on a cache miss")
+    public long getLoadCount()
+    {
+        return loadingCache.stats().loadCount();
+    }
+
+    @Managed(description = "Total time spent compiling values, in milliseconds")
+    public double getTotalLoadTime()
+    {
+        return loadingCache.stats().totalLoadTime() / (double) MILLISECONDS.toNanos(1);
+    }
+
+    @Managed(description = "Average time spent compiling a value, in milliseconds")
+    public double getAverageLoadTime()
+    {
+        return loadingCache.stats().averageLoadPenalty() / MILLISECONDS.toNanos(1);
+    }
 }
@@ -0,0 +1,307 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.sql.relational.CallExpression;
+import com.facebook.presto.sql.relational.DeterminismEvaluator;
+import com.facebook.presto.sql.relational.InputReferenceExpression;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.type.FunctionType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.sql.gen.JsonExtractRewriter.getJsonExtractReplacements;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.BIND;
+import static com.facebook.presto.sql.relational.Signatures.COALESCE;
+import static com.facebook.presto.sql.relational.Signatures.IF;
+import static com.facebook.presto.sql.relational.Signatures.IN;
+import static com.facebook.presto.sql.relational.Signatures.NULL_IF;
+import static com.facebook.presto.sql.relational.Signatures.SWITCH;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Finds deterministic subexpressions that the filter and projections of a page processor
+ * evaluate more than once, and replaces them with references to input channels holding
+ * their values.
+ * <p>
+ * Only subexpressions that are evaluated for every row are considered. These are the
+ * arguments of function calls, but not the branches of conditional forms or the bodies of
+ * lambdas, which may not be evaluated at all. Subexpressions of the filter are evaluated for
+ * all positions of the page and appended to its first {@link Result#getCommonChannelOffset()}
+ * channels. Subexpressions shared only by projections are evaluated for each batch of selected
+ * positions and follow the page channels in the input of the projections that read them.
+ * <p>
+ * Subexpressions are compared with {@link RowExpression#equals}, so constants without value
+ * equality, such as a regex cast from a literal, only match if they are the same instance.
+ * The local execution planner folds the constants of all expressions of a page processor with
+ * one {@link com.facebook.presto.sql.relational.optimizer.ExpressionOptimizer}, which folds
+ * equal calls to the same constant.
+ * <p>
+ * Before that, JSON paths extracted from the same document are merged into one extraction
+ * by {@link JsonExtractRewriter}, which then becomes a common subexpression.
+ */
+public final class CommonSubExpressionRewriter
+{
+    private CommonSubExpressionRewriter() {}
+
+    public static Result rewriteCommonSubExpressions(Optional<RowExpression> originalFilter, List<? extends RowExpression> originalProjections, DeterminismEvaluator determinismEvaluator)
+    {
+        requireNonNull(originalFilter, "originalFilter is null");
+        requireNonNull(originalProjections, "originalProjections is null");
+        requireNonNull(determinismEvaluator, "determinismEvaluator is null");
+
+        int commonChannelOffset = 0;
+        for (RowExpression expression : concat(originalFilter, originalProjections)) {
+            commonChannelOffset = Math.max(commonChannelOffset, getMaxInputChannel(expression) + 1);
+        }
+
+        Map<RowExpression, RowExpression> jsonExtractReplacements = getJsonExtractReplacements(concat(originalFilter, originalProjections));
+        Optional<RowExpression> filter = originalFilter.map(expression -> replace(expression, jsonExtractReplacements));
+        List<RowExpression> projections = originalProjections.stream()
+                .map(expression -> replace(expression, jsonExtractReplacements))
+                .collect(toImmutableList());
+
+        // subexpressions of the filter are computed for the whole page, so the filter can read them as well
+        Map<RowExpression, Integer> counts = countSubExpressions(concat(filter, projections));
+        Set<RowExpression> pageCommonExpressions = new LinkedHashSet<>();
+        filter.ifPresent(expression -> collectCommonSubExpressions(expression, counts, determinismEvaluator, pageCommonExpressions));
+        Map<RowExpression, RowExpression> pageReplacements = assignChannels(pageCommonExpressions, commonChannelOffset);
+
+        Optional<RowExpression> rewrittenFilter = filter.map(expression -> replace(expression, pageReplacements));
+        List<RowExpression> projectionsWithPageCommon = projections.stream()
+                .map(expression -> replace(expression, pageReplacements))
+                .collect(toImmutableList());
+
+        // the remaining subexpressions shared by projections are computed for the selected positions only
+        Map<RowExpression, Integer> projectionCounts = countSubExpressions(projectionsWithPageCommon);
+        Set<RowExpression> batchCommonExpressions = new LinkedHashSet<>();
+        for (RowExpression projection : projectionsWithPageCommon) {
+            collectCommonSubExpressions(projection, projectionCounts, determinismEvaluator, batchCommonExpressions);
+        }
+        Map<RowExpression, RowExpression> batchReplacements = assignChannels(batchCommonExpressions, commonChannelOffset + pageCommonExpressions.size());
+
+        ImmutableList.Builder<RowExpression> rewrittenProjections = ImmutableList.builder();
+        ImmutableSet.Builder<Integer> batchProjections = ImmutableSet.builder();
+        for (int i = 0; i < projectionsWithPageCommon.size(); i++) {
+            RowExpression projection = projectionsWithPageCommon.get(i);
+            RowExpression rewrittenProjection = replace(projection, batchReplacements);
+            if (!rewrittenProjection.equals(projection)) {
+                batchProjections.add(i);
+            }
+            rewrittenProjections.add(rewrittenProjection);
+        }
+
+        return new Result(
+                rewrittenFilter,
+                rewrittenProjections.build(),
+                commonChannelOffset,
+                ImmutableList.copyOf(pageCommonExpressions),
+                ImmutableList.copyOf(batchCommonExpressions),
+                batchProjections.build());
+    }
+
+    private static List<RowExpression> concat(Optional<RowExpression> filter, List<? extends RowExpression> projections)
+    {
+        ImmutableList.Builder<RowExpression> expressions = ImmutableList.builder();
+        filter.ifPresent(expressions::add);
+        return expressions.addAll(projections).build();
+    }
+
+    private static int getMaxInputChannel(RowExpression expression)
+    {
+        if (expression instanceof InputReferenceExpression) {
+            return ((InputReferenceExpression) expression).getField();
+        }
+        int maxInputChannel = -1;
+        if (expression instanceof CallExpression) {
+            for (RowExpression argument : ((CallExpression) expression).getArguments()) {
+                maxInputChannel = Math.max(maxInputChannel, getMaxInputChannel(argument));
+            }
+        }
+        return maxInputChannel;
+    }
+
+    private static Map<RowExpression, Integer> countSubExpressions(List<RowExpression> expressions)
+    {
+        Map<RowExpression, Integer> counts = new HashMap<>();
+        for (RowExpression expression : expressions) {
+            countSubExpressions(expression, counts);
+        }
+        return counts;
+    }
+
+    private static void countSubExpressions(RowExpression expression, Map<RowExpression, Integer> counts)
+    {
+        if (!(expression instanceof CallExpression)) {
+            return;
+        }
+        counts.merge(expression, 1, Integer::sum);
+        for (RowExpression argument : getUnconditionalArguments((CallExpression) expression)) {
+            countSubExpressions(argument, counts);
+        }
+    }
+
+    private static void collectCommonSubExpressions(RowExpression expression, Map<RowExpression, Integer> counts, DeterminismEvaluator determinismEvaluator, Set<RowExpression> commonExpressions)
+    {
+        if (!(expression instanceof CallExpression)) {
+            return;
+        }
+        CallExpression call = (CallExpression) expression;
+        if (counts.getOrDefault(call, 0) > 1 && isCandidate(call, determinismEvaluator)) {
+            // subexpressions of a common subexpression are evaluated once along with it
+            commonExpressions.add(call);
+            return;
+        }
+        for (RowExpression argument : getUnconditionalArguments(call)) {
+            collectCommonSubExpressions(argument, counts, determinismEvaluator, commonExpressions);
+        }
+    }
+
+    private static boolean isCandidate(CallExpression call, DeterminismEvaluator determinismEvaluator)
+    {
+        return !call.getSignature().getName().equals(BIND) &&
+                !(call.getType() instanceof FunctionType) &&
+                determinismEvaluator.isDeterministic(call);
+    }
+
+    static List<RowExpression> getUnconditionalArguments(CallExpression call)
+    {
+        switch (call.getSignature().getName()) {
+            case IF:
+            case NULL_IF:
+            case SWITCH:
+            case COALESCE:
+            case IN:
+            case "AND":
+            case "OR":
+                return call.getArguments().subList(0, 1);
+            default:
+                return call.getArguments();
+        }
+    }
+
+    private static Map<RowExpression, RowExpression> assignChannels(Set<RowExpression> expressions, int firstChannel)
+    {
+        ImmutableMap.Builder<RowExpression, RowExpression> replacements = ImmutableMap.builder();
+        int channel = firstChannel;
+        for (RowExpression expression : expressions) {
+            replacements.put(expression, field(channel, expression.getType()));
+            channel++;
+        }
+        return replacements.build();
+    }
+
+    private static RowExpression replace(RowExpression expression, Map<RowExpression, RowExpression> replacements)
+    {
+        RowExpression replacement = replacements.get(expression);
+        if (replacement != null) {
+            return replacement;
+        }
+        // lambda bodies are left as they are, because they cannot read input channels
+        if (!(expression instanceof CallExpression)) {
+            return expression;
+        }
+        CallExpression call = (CallExpression) expression;
+        return new CallExpression(
+                call.getSignature(),
+                call.getType(),
+                call.getArguments().stream()
+                        .map(argument -> replace(argument, replacements))
+                        .collect(toImmutableList()));
+    }
+
+    public static class Result
+    {
+        private final Optional<RowExpression> filter;
+        private final List<RowExpression> projections;
+        private final int commonChannelOffset;
+        private final List<RowExpression> pageCommonExpressions;
+        private final List<RowExpression> batchCommonExpressions;
+        private final Set<Integer> batchProjections;
+
+        public Result(
+                Optional<RowExpression> filter,
+                List<RowExpression> projections,
+                int commonChannelOffset,
+                List<RowExpression> pageCommonExpressions,
+                List<RowExpression> batchCommonExpressions,
+                Set<Integer> batchProjections)
+        {
+            this.filter = requireNonNull(filter, "filter is null");
+            this.projections = ImmutableList.copyOf(requireNonNull(projections, "projections is null"));
+            this.commonChannelOffset = commonChannelOffset;
+            this.pageCommonExpressions = ImmutableList.copyOf(requireNonNull(pageCommonExpressions, "pageCommonExpressions is null"));
+            this.batchCommonExpressions = ImmutableList.copyOf(requireNonNull(batchCommonExpressions, "batchCommonExpressions is null"));
+            this.batchProjections = ImmutableSet.copyOf(requireNonNull(batchProjections, "batchProjections is null"));
+        }
+
+        public Optional<RowExpression> getFilter()
+        {
+            return filter;
+        }
+
+        public List<RowExpression> getProjections()
+        {
+            return projections;
+        }
+
+        /**
+         * Returns the number of input channels read by the expressions, after which the page
+         * common subexpressions are appended.
+         */
+        public int getCommonChannelOffset()
+        {
+            return commonChannelOffset;
+        }
+
+        /**
+         * Returns the common subexpressions evaluated for all positions of the page.
+         */
+        public List<RowExpression> getPageCommonExpressions()
+        {
+            return pageCommonExpressions;
+        }
+
+        /**
+         * Returns the common subexpressions evaluated for each batch of selected positions.
+         */
+        public List<RowExpression> getBatchCommonExpressions()
+        {
+            return batchCommonExpressions;
+        }
+
+        /**
+         * Returns the indexes of the projections that read batch common subexpressions.
+         */
+        public Set<Integer> getBatchProjections()
+        {
+            return batchProjections;
+        }
+
+        public boolean hasCommonSubExpressions()
+        {
+            return !pageCommonExpressions.isEmpty() || !batchCommonExpressions.isEmpty();
+        }
+    }
+}
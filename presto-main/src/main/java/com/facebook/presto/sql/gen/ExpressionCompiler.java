@@ -19,6 +19,7 @@ import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.sql.relational.DeterminismEvaluator;
 import com.facebook.presto.sql.relational.RowExpression;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -39,6 +40,7 @@ import java.util.function.Supplier;
 import static com.facebook.presto.spi.StandardErrorCode.COMPILER_ERROR;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.sql.gen.BytecodeUtils.invoke;
+import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.rewriteCommonSubExpressions;
 import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.facebook.presto.util.CompilerUtils.defineClass;
 import static com.facebook.presto.util.CompilerUtils.makeClassName;
@@ -53,6 +55,7 @@ import static java.util.Objects.requireNonNull;
 public class ExpressionCompiler
 {
     private final PageFunctionCompiler pageFunctionCompiler;
+    private final DeterminismEvaluator determinismEvaluator;
     private final LoadingCache<CacheKey, Class<? extends CursorProcessor>> cursorProcessors;
     private final CacheStatsMBean cacheStatsMBean;
 
@@ -61,6 +64,7 @@ public class ExpressionCompiler
     {
         requireNonNull(metadata, "metadata is null");
         this.pageFunctionCompiler = requireNonNull(pageFunctionCompiler, "pageFunctionCompiler is null");
+        this.determinismEvaluator = new DeterminismEvaluator(metadata.getFunctionRegistry());
         this.cursorProcessors = CacheBuilder.newBuilder()
                 .recordStats()
                 .maximumSize(1000)
@@ -90,20 +94,60 @@ public class ExpressionCompiler
 
     public Supplier<PageProcessor> compilePageProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections, Optional<String> classNameSuffix)
     {
+        return compilePageProcessor(filter, projections, false, classNameSuffix);
+    }
+
+    public Supplier<PageProcessor> compilePageProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections, boolean optimizeCommonSubExpressions, Optional<String> classNameSuffix)
+    {
+        if (optimizeCommonSubExpressions) {
+            CommonSubExpressionRewriter.Result rewritten = rewriteCommonSubExpressions(filter, projections, determinismEvaluator);
+            if (rewritten.hasCommonSubExpressions()) {
+                return compilePageProcessor(rewritten, classNameSuffix);
+            }
+        }
+
         Optional<Supplier<PageFilter>> filterFunctionSupplier = filter.map(expression -> pageFunctionCompiler.compileFilter(expression, classNameSuffix));
-        List<Supplier<PageProjection>> pageProjectionSuppliers = projections.stream()
-                .map(projection -> pageFunctionCompiler.compileProjection(projection, classNameSuffix))
-                .collect(toImmutableList());
+        List<Supplier<PageProjection>> pageProjectionSuppliers = compileProjections(projections, classNameSuffix);
+
+        return () -> {
+            Optional<PageFilter> filterFunction = filterFunctionSupplier.map(Supplier::get);
+            return new PageProcessor(filterFunction, getAll(pageProjectionSuppliers));
+        };
+    }
+
+    private Supplier<PageProcessor> compilePageProcessor(CommonSubExpressionRewriter.Result rewritten, Optional<String> classNameSuffix)
+    {
+        Optional<Supplier<PageFilter>> filterFunctionSupplier = rewritten.getFilter().map(expression -> pageFunctionCompiler.compileFilter(expression, classNameSuffix));
+        List<Supplier<PageProjection>> pageCommonSuppliers = compileProjections(rewritten.getPageCommonExpressions(), classNameSuffix);
+        List<Supplier<PageProjection>> batchCommonSuppliers = compileProjections(rewritten.getBatchCommonExpressions(), classNameSuffix);
+        List<Supplier<PageProjection>> pageProjectionSuppliers = compileProjections(rewritten.getProjections(), classNameSuffix);
 
         return () -> {
             Optional<PageFilter> filterFunction = filterFunctionSupplier.map(Supplier::get);
-            List<PageProjection> pageProjections = pageProjectionSuppliers.stream()
-                    .map(Supplier::get)
-                    .collect(toImmutableList());
-            return new PageProcessor(filterFunction, pageProjections);
+            return new PageProcessor(
+                    filterFunction,
+                    rewritten.getCommonChannelOffset(),
+                    getAll(pageCommonSuppliers),
+                    getAll(batchCommonSuppliers),
+                    getAll(pageProjectionSuppliers),
+                    rewritten.getBatchProjections());
         };
     }
 
+    private List<Supplier<PageProjection>> compileProjections(List<? extends RowExpression> projections, Optional<String> classNameSuffix)
+    {
+        return projections.stream()
+                .map(projection -> pageFunctionCompiler.compileProjection(projection, classNameSuffix))
+                .collect(toImmutableList());
+    }
+
+    private static List<PageProjection> getAll(List<Supplier<PageProjection>> suppliers)
+    {
+        return suppliers.stream()
+                .map(Supplier::get)
+                .collect(toImmutableList());
+    }
+
     public Supplier<PageProcessor> compilePageProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections)
     {
         return compilePageProcessor(filter, projections, Optional.empty());
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.operator.scalar.JsonExtractMultipleFunction;
+import com.facebook.presto.operator.scalar.JsonPath;
+import com.facebook.presto.operator.scalar.JsonPathSet;
+import com.facebook.presto.operator.scalar.JsonPathSet.ExtractType;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.relational.CallExpression;
+import com.facebook.presto.sql.relational.ConstantExpression;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.operator.scalar.JsonExtractMultipleFunction.jsonExtractMultipleSignature;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.getUnconditionalArguments;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Signatures.dereferenceSignature;
+import static com.facebook.presto.type.JsonPathSetType.JSON_PATH_SET;
+
+/**
+ * Finds calls of {@code json_extract} and {@code json_extract_scalar} that extract constant
+ * paths from the same document, and replaces them with fields of a single call of
+ * {@link JsonExtractMultipleFunction}, so the document is parsed once for all of them.
+ */
+final class JsonExtractRewriter
+{
+    private static final String JSON_EXTRACT = "json_extract";
+    private static final String JSON_EXTRACT_SCALAR = "json_extract_scalar";
+
+    private JsonExtractRewriter() {}
+
+    /**
+     * Returns the replacements of the calls that extract at least two paths from a document.
+     * Only calls evaluated for every row are considered, because the document is parsed for
+     * every row once the calls are merged.
+     */
+    static Map<RowExpression, RowExpression> getJsonExtractReplacements(List<RowExpression> expressions)
+    {
+        Map<RowExpression, Set<CallExpression>> extractsByDocument = new LinkedHashMap<>();
+        for (RowExpression expression : expressions) {
+            collectJsonExtracts(expression, extractsByDocument);
+        }
+
+        ImmutableMap.Builder<RowExpression, RowExpression> replacements = ImmutableMap.builder();
+        for (Map.Entry<RowExpression, Set<CallExpression>> entry : extractsByDocument.entrySet()) {
+            List<CallExpression> extracts = ImmutableList.copyOf(entry.getValue());
+            if (extracts.size() < 2) {
+                continue;
+            }
+
+            // JsonPath has no value equality, so equal paths, which may also be spelled differently,
+            // are found by their tokens and extracted once
+            Map<ExtractType, Map<List<String>, Integer>> fieldsByTokens = new EnumMap<>(ExtractType.class);
+            ImmutableList.Builder<JsonPath> paths = ImmutableList.builder();
+            ImmutableList.Builder<ExtractType> extractTypes = ImmutableList.builder();
+            ImmutableList.Builder<Type> fieldTypes = ImmutableList.builder();
+            List<Integer> extractFields = new ArrayList<>();
+            int fieldCount = 0;
+            for (CallExpression extract : extracts) {
+                JsonPath path = (JsonPath) ((ConstantExpression) extract.getArguments().get(1)).getValue();
+                ExtractType extractType = extract.getSignature().getName().equals(JSON_EXTRACT_SCALAR) ? ExtractType.SCALAR : ExtractType.JSON;
+                Map<List<String>, Integer> fields = fieldsByTokens.computeIfAbsent(extractType, type -> new HashMap<>());
+                Integer field = fields.get(path.getTokens());
+                if (field == null) {
+                    field = fieldCount++;
+                    fields.put(path.getTokens(), field);
+                    paths.add(path);
+                    extractTypes.add(extractType);
+                    fieldTypes.add(extract.getType());
+                }
+                extractFields.add(field);
+            }
+
+            RowExpression document = entry.getKey();
+            RowType rowType = new RowType(fieldTypes.build(), Optional.empty());
+            CallExpression extractMultiple = call(
+                    jsonExtractMultipleSignature(document.getType(), rowType),
+                    rowType,
+                    document,
+                    constant(new JsonPathSet(paths.build(), extractTypes.build()), JSON_PATH_SET));
+            for (int i = 0; i < extracts.size(); i++) {
+                Type fieldType = extracts.get(i).getType();
+                replacements.put(extracts.get(i), call(dereferenceSignature(fieldType, rowType), fieldType, extractMultiple, constant(extractFields.get(i), INTEGER)));
+            }
+        }
+        return replacements.build();
+    }
+
+    private static void collectJsonExtracts(RowExpression expression, Map<RowExpression, Set<CallExpression>> extractsByDocument)
+    {
+        if (!(expression instanceof CallExpression)) {
+            return;
+        }
+        CallExpression call = (CallExpression) expression;
+        if (isMergeableJsonExtract(call)) {
+            extractsByDocument.computeIfAbsent(call.getArguments().get(0), document -> new LinkedHashSet<>()).add(call);
+        }
+        for (RowExpression argument : getUnconditionalArguments(call)) {
+            collectJsonExtracts(argument, extractsByDocument);
+        }
+    }
+
+    private static boolean isMergeableJsonExtract(CallExpression call)
+    {
+        String name = call.getSignature().getName();
+        if (!name.equals(JSON_EXTRACT) && !name.equals(JSON_EXTRACT_SCALAR)) {
+            return false;
+        }
+        if (call.getArguments().size() != 2 || !(call.getArguments().get(1) instanceof ConstantExpression)) {
+            return false;
+        }
+        Object path = ((ConstantExpression) call.getArguments().get(1)).getValue();
+        return path instanceof JsonPath && JsonPathSet.isSupported((JsonPath) path);
+    }
+}
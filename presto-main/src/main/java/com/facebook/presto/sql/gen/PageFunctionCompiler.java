@@ -63,6 +63,7 @@ import org.weakref.jmx.Nested;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import java.lang.invoke.MethodHandle;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -104,7 +105,9 @@ public class PageFunctionCompiler
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
 
-    private final LoadingCache<RowExpression, Supplier<PageProjection>> projectionCache;
+    // keyed by projections with their input channels rewritten to parameters, so projections
+    // that differ only in the channels they read share the generated class
+    private final LoadingCache<RowExpression, MethodHandle> projectionCache;
     private final LoadingCache<RowExpression, Supplier<PageFilter>> filterCache;
 
     private final CacheStatsMBean projectionCacheStats;
@@ -130,7 +133,7 @@ public class PageFunctionCompiler
                     .recordStats()
                     .maximumSize(expressionCacheSize)
                     .expireAfterWrite(1, HOURS)
-                    .build(CacheLoader.from(projection -> compileProjectionInternal(projection, Optional.empty())));
+                    .build(CacheLoader.from(projection -> compileProjectionWork(projection, Optional.empty())));
             projectionCacheStats = new CacheStatsMBean(projectionCache);
         }
         else {
@@ -169,14 +172,6 @@ public class PageFunctionCompiler
     }
 
     public Supplier<PageProjection> compileProjection(RowExpression projection, Optional<String> classNameSuffix)
-    {
-        if (projectionCache == null) {
-            return compileProjectionInternal(projection, classNameSuffix);
-        }
-        return projectionCache.getUnchecked(projection);
-    }
-
-    private Supplier<PageProjection> compileProjectionInternal(RowExpression projection, Optional<String> classNameSuffix)
     {
         requireNonNull(projection, "projection is null");
 
@@ -193,11 +188,30 @@ public class PageFunctionCompiler
         }
 
         PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(projection);
+        RowExpression rewrittenProjection = result.getRewrittenExpression();
 
+        MethodHandle pageProjectionWorkFactory;
+        if (projectionCache == null) {
+            pageProjectionWorkFactory = compileProjectionWork(rewrittenProjection, classNameSuffix);
+        }
+        else {
+            pageProjectionWorkFactory = projectionCache.getUnchecked(rewrittenProjection);
+        }
+
+        boolean isDeterministic = determinismEvaluator.isDeterministic(rewrittenProjection);
+        return () -> new GeneratedPageProjection(
+                rewrittenProjection,
+                isDeterministic,
+                result.getInputChannels(),
+                pageProjectionWorkFactory);
+    }
+
+    private MethodHandle compileProjectionWork(RowExpression projection, Optional<String> classNameSuffix)
+    {
         CallSiteBinder callSiteBinder = new CallSiteBinder();
 
         // generate Work
-        ClassDefinition pageProjectionWorkDefinition = definePageProjectWorkClass(result.getRewrittenExpression(), callSiteBinder, classNameSuffix);
+        ClassDefinition pageProjectionWorkDefinition = definePageProjectWorkClass(projection, callSiteBinder, classNameSuffix);
 
         Class<? extends Work> pageProjectionWorkClass;
         try {
@@ -207,11 +221,7 @@ public class PageFunctionCompiler
             throw new PrestoException(COMPILER_ERROR, e);
         }
 
-        return () -> new GeneratedPageProjection(
-                result.getRewrittenExpression(),
-                determinismEvaluator.isDeterministic(result.getRewrittenExpression()),
-                result.getInputChannels(),
-                constructorMethodHandle(pageProjectionWorkClass, BlockBuilder.class, ConnectorSession.class, DriverYieldSignal.class, Page.class, SelectedPositions.class));
+        return constructorMethodHandle(pageProjectionWorkClass, BlockBuilder.class, ConnectorSession.class, DriverYieldSignal.class, Page.class, SelectedPositions.class);
     }
 
     private static ParameterizedType generateProjectionWorkClassName(Optional<String> classNameSuffix)
@@ -41,9 +41,13 @@ import com.facebook.presto.operator.JoinOperatorFactory;
 import com.facebook.presto.operator.LimitOperator.LimitOperatorFactory;
 import com.facebook.presto.operator.LocalPlannerAware;
 import com.facebook.presto.operator.LookupJoinOperators;
+import com.facebook.presto.operator.LookupJoinOperators.JoinType;
 import com.facebook.presto.operator.LookupOuterOperator.LookupOuterOperatorFactory;
 import com.facebook.presto.operator.LookupSourceFactoryManager;
 import com.facebook.presto.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
+import com.facebook.presto.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSource;
 import com.facebook.presto.operator.MetadataDeleteOperator.MetadataDeleteOperatorFactory;
 import com.facebook.presto.operator.NestedLoopJoinPagesSupplier;
 import com.facebook.presto.operator.OperatorFactory;
@@ -59,6 +63,7 @@ import com.facebook.presto.operator.ScanFilterAndProjectOperator.ScanFilterAndPr
 import com.facebook.presto.operator.SetBuilderOperator.SetBuilderOperatorFactory;
 import com.facebook.presto.operator.SetBuilderOperator.SetSupplier;
 import com.facebook.presto.operator.SourceOperatorFactory;
+import com.facebook.presto.operator.StreamingAggregationOperator.StreamingAggregationOperatorFactory;
 import com.facebook.presto.operator.TableScanOperator.TableScanOperatorFactory;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.operator.TaskOutputOperator.TaskOutputFactory;
@@ -146,6 +151,7 @@ import com.facebook.presto.sql.planner.plan.WindowNode;
 import com.facebook.presto.sql.planner.plan.WindowNode.Frame;
 import com.facebook.presto.sql.relational.RowExpression;
 import com.facebook.presto.sql.relational.SqlToRowExpressionTranslator;
+import com.facebook.presto.sql.relational.optimizer.ExpressionOptimizer;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.FieldReference;
 import com.facebook.presto.sql.tree.FunctionCall;
@@ -189,6 +195,7 @@ import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMin
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.SystemSessionProperties.isOptimizeCommonSubExpressions;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
 import static com.facebook.presto.metadata.FunctionKind.SCALAR;
 import static com.facebook.presto.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
@@ -233,6 +240,7 @@ import static java.util.stream.IntStream.range;
 public class LocalExecutionPlanner
 {
     private static final Logger log = Logger.get(LocalExecutionPlanner.class);
+    private static final int MERGE_JOIN_BUFFERED_PAGES = 4;
 
     private final Metadata metadata;
     private final SqlParser sqlParser;
@@ -1110,15 +1118,18 @@ public class LocalExecutionPlanner
                     concat(rewrittenFilter.map(ImmutableList::of).orElse(ImmutableList.of()), rewrittenProjections),
                     emptyList());
 
-            Optional<RowExpression> translatedFilter = rewrittenFilter.map(filter -> toRowExpression(filter, expressionTypes));
+            // a single optimizer folds equal constants, such as a regex used by several expressions, to the
+            // same value, so that common subexpressions reading them are found
+            ExpressionOptimizer optimizer = new ExpressionOptimizer(metadata.getFunctionRegistry(), metadata.getTypeManager(), session);
+            Optional<RowExpression> translatedFilter = rewrittenFilter.map(filter -> toRowExpression(filter, expressionTypes, optimizer));
             List<RowExpression> translatedProjections = rewrittenProjections.stream()
-                    .map(expression -> toRowExpression(expression, expressionTypes))
+                    .map(expression -> toRowExpression(expression, expressionTypes, optimizer))
                     .collect(toImmutableList());
 
             try {
                 if (columns != null) {
                     Supplier<CursorProcessor> cursorProcessor = expressionCompiler.compileCursorProcessor(translatedFilter, translatedProjections, sourceNode.getId());
-                    Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(translatedFilter, translatedProjections, Optional.of(context.getStageId() + "_" + planNodeId));
+                    Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(translatedFilter, translatedProjections, isOptimizeCommonSubExpressions(session), Optional.of(context.getStageId() + "_" + planNodeId));
 
                     SourceOperatorFactory operatorFactory = new ScanFilterAndProjectOperatorFactory(
                             context.getNextOperatorId(),
@@ -1135,7 +1146,7 @@ public class LocalExecutionPlanner
                     return new PhysicalOperation(operatorFactory, outputMappings, groupEnumerable ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
                 }
                 else {
-                    Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(translatedFilter, translatedProjections, Optional.of(context.getStageId() + "_" + planNodeId));
+                    Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(translatedFilter, translatedProjections, isOptimizeCommonSubExpressions(session), Optional.of(context.getStageId() + "_" + planNodeId));
 
                     OperatorFactory operatorFactory = new FilterAndProjectOperator.FilterAndProjectOperatorFactory(
                             context.getNextOperatorId(),
@@ -1158,6 +1169,11 @@ public class LocalExecutionPlanner
             return SqlToRowExpressionTranslator.translate(expression, SCALAR, types, metadata.getFunctionRegistry(), metadata.getTypeManager(), session, true);
         }
 
+        private RowExpression toRowExpression(Expression expression, Map<NodeRef<Expression>, Type> types, ExpressionOptimizer optimizer)
+        {
+            return optimizer.optimize(SqlToRowExpressionTranslator.translate(expression, SCALAR, types, metadata.getFunctionRegistry(), metadata.getTypeManager(), session, false));
+        }
+
         private Map<Integer, Type> getInputTypes(Map<Symbol, Integer> layout, List<Type> types)
         {
             Builder<Integer, Type> inputTypes = ImmutableMap.builder();
@@ -1482,6 +1498,10 @@ public class LocalExecutionPlanner
             List<Symbol> leftSymbols = Lists.transform(clauses, JoinNode.EquiJoinClause::getLeft);
             List<Symbol> rightSymbols = Lists.transform(clauses, JoinNode.EquiJoinClause::getRight);
 
+            if (node.getMergeJoinOrdering().isPresent()) {
+                return createMergeJoin(node, leftSymbols, rightSymbols, node.getMergeJoinOrdering().get(), context);
+            }
+
             switch (node.getType()) {
                 case INNER:
                 case LEFT:
@@ -1534,6 +1554,84 @@ public class LocalExecutionPlanner
             return operation;
         }
 
+        private PhysicalOperation createMergeJoin(
+                JoinNode node,
+                List<Symbol> probeSymbols,
+                List<Symbol> buildSymbols,
+                List<SortOrder> sortOrders,
+                LocalExecutionPlanContext context)
+        {
+            PhysicalOperation probeSource = node.getLeft().accept(this, context);
+
+            LocalExecutionPlanContext buildContext = context.createSubContext();
+            PhysicalOperation buildSource = node.getRight().accept(this, buildContext);
+
+            // both sides must each be a single sorted stream
+            checkState(context.getDriverInstanceCount().orElse(1) == 1, "Expected a single probe stream for merge join");
+            checkState(buildContext.getDriverInstanceCount().orElse(1) == 1, "Expected a single build stream for merge join");
+            checkState(probeSource.getPipelineExecutionStrategy() == UNGROUPED_EXECUTION, "Merge join does not support grouped execution");
+            checkState(buildSource.getPipelineExecutionStrategy() == UNGROUPED_EXECUTION, "Merge join does not support grouped execution");
+
+            MergeJoinSource mergeJoinSource = new MergeJoinSource(MERGE_JOIN_BUFFERED_PAGES);
+            context.addDriverFactory(
+                    buildContext.isInputDriver(),
+                    false,
+                    ImmutableList.<OperatorFactory>builder()
+                            .addAll(buildSource.getOperatorFactories())
+                            .add(new MergeJoinSinkOperatorFactory(buildContext.getNextOperatorId(), node.getId(), mergeJoinSource))
+                            .build(),
+                    buildContext.getDriverInstanceCount(),
+                    buildSource.getPipelineExecutionStrategy());
+
+            List<Symbol> probeOutputSymbols = node.getOutputSymbols().stream()
+                    .filter(symbol -> node.getLeft().getOutputSymbols().contains(symbol))
+                    .collect(toImmutableList());
+            List<Symbol> buildOutputSymbols = node.getOutputSymbols().stream()
+                    .filter(symbol -> node.getRight().getOutputSymbols().contains(symbol))
+                    .collect(toImmutableList());
+
+            OperatorFactory operatorFactory = new MergeJoinOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    getMergeJoinType(node.getType()),
+                    probeSource.getTypes(),
+                    getChannelsForSymbols(probeSymbols, probeSource.getLayout()),
+                    getChannelsForSymbols(probeOutputSymbols, probeSource.getLayout()),
+                    buildSource.getTypes(),
+                    getChannelsForSymbols(buildSymbols, buildSource.getLayout()),
+                    getChannelsForSymbols(buildOutputSymbols, buildSource.getLayout()),
+                    sortOrders,
+                    mergeJoinSource);
+
+            // the operator produces the probe output columns followed by the build output columns
+            ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
+            int channel = 0;
+            for (Symbol symbol : probeOutputSymbols) {
+                outputMappings.put(symbol, channel++);
+            }
+            for (Symbol symbol : buildOutputSymbols) {
+                outputMappings.put(symbol, channel++);
+            }
+
+            return new PhysicalOperation(operatorFactory, outputMappings.build(), probeSource);
+        }
+
+        private JoinType getMergeJoinType(JoinNode.Type type)
+        {
+            switch (type) {
+                case INNER:
+                    return JoinType.INNER;
+                case LEFT:
+                    return JoinType.PROBE_OUTER;
+                case RIGHT:
+                    return JoinType.LOOKUP_OUTER;
+                case FULL:
+                    return JoinType.FULL_OUTER;
+                default:
+                    throw new UnsupportedOperationException("Unsupported join type: " + type);
+            }
+        }
+
         private PhysicalOperation createLookupJoin(JoinNode node,
                 PlanNode probeNode,
                 List<Symbol> probeSymbols,
@@ -2100,6 +2198,23 @@ public class LocalExecutionPlanner
             Optional<Integer> hashChannel = node.getHashSymbol().map(channelGetter(source));
 
             Map<Symbol, Integer> mappings = outputMappings.build();
+            if (!node.getPreGroupedSymbols().isEmpty()) {
+                OperatorFactory operatorFactory = new StreamingAggregationOperatorFactory(
+                        operatorId,
+                        node.getId(),
+                        source.getTypes(),
+                        groupByTypes,
+                        groupByChannels,
+                        getChannelsForSymbols(node.getPreGroupedSymbols(), source.getLayout()),
+                        node.getStep(),
+                        accumulatorFactories,
+                        hashChannel,
+                        10_000,
+                        maxPartialAggregationMemorySize,
+                        joinCompiler);
+                return new PhysicalOperation(operatorFactory, mappings, source);
+            }
+
             OperatorFactory operatorFactory = new HashAggregationOperatorFactory(
                     operatorId,
                     node.getId(),
@@ -20,9 +20,11 @@ import com.facebook.presto.metadata.TableLayout.TablePartitioning;
 import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
 import com.facebook.presto.spi.connector.ConnectorPartitioningHandle;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.ExplainAnalyzeNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.MetadataDeleteNode;
 import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.planner.plan.PlanFragmentId;
@@ -30,10 +32,15 @@ import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.planner.plan.PlanVisitor;
 import com.facebook.presto.sql.planner.plan.RemoteSourceNode;
+import com.facebook.presto.sql.planner.plan.RowNumberNode;
+import com.facebook.presto.sql.planner.plan.SemiJoinNode;
 import com.facebook.presto.sql.planner.plan.SimplePlanRewriter;
 import com.facebook.presto.sql.planner.plan.TableFinishNode;
 import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.planner.plan.TableWriterNode;
+import com.facebook.presto.sql.planner.plan.TopNRowNumberNode;
 import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.sql.planner.plan.WindowNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -47,6 +54,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static com.facebook.presto.SystemSessionProperties.isForceSingleNodeOutput;
+import static com.facebook.presto.SystemSessionProperties.isGroupedExecutionForStatefulOperatorsEnabled;
 import static com.facebook.presto.operator.PipelineExecutionStrategy.GROUPED_EXECUTION;
 import static com.facebook.presto.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
@@ -54,6 +62,8 @@ import static com.facebook.presto.sql.planner.SchedulingOrderVisitor.scheduleOrd
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.COORDINATOR_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.plan.AggregationNode.Step.FINAL;
+import static com.facebook.presto.sql.planner.plan.AggregationNode.Step.SINGLE;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.REMOTE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -392,12 +402,14 @@ public class PlanFragmenter
         private final Session session;
         private final Metadata metadata;
         private final NodePartitioningManager nodePartitioningManager;
+        private final boolean groupedExecutionForStatefulOperators;
 
         public GroupedExecutionTagger(Session session, Metadata metadata, NodePartitioningManager nodePartitioningManager)
         {
             this.session = requireNonNull(session, "session is null");
             this.metadata = requireNonNull(metadata, "metadata is null");
             this.nodePartitioningManager = requireNonNull(nodePartitioningManager, "nodePartitioningManager is null");
+            this.groupedExecutionForStatefulOperators = isGroupedExecutionForStatefulOperatorsEnabled(session);
         }
 
         @Override
@@ -419,6 +431,54 @@ public class PlanFragmenter
             return properties;
         }
 
+        @Override
+        public GroupedExecutionProperties visitAggregation(AggregationNode node, Void context)
+        {
+            if (groupedExecutionForStatefulOperators && node.hasEmptyGroupingSet() && (node.getStep() == SINGLE || node.getStep() == FINAL)) {
+                // a global aggregation would produce a row for every driver group, even an empty one,
+                // but a partial one is fine, because the final aggregation combines those rows
+                GroupedExecutionProperties properties = processChildren(node);
+                return new GroupedExecutionProperties(false, properties.isSubTreeUseful());
+            }
+            return processStatefulNode(node);
+        }
+
+        @Override
+        public GroupedExecutionProperties visitWindow(WindowNode node, Void context)
+        {
+            return processStatefulNode(node);
+        }
+
+        @Override
+        public GroupedExecutionProperties visitRowNumber(RowNumberNode node, Void context)
+        {
+            return processStatefulNode(node);
+        }
+
+        @Override
+        public GroupedExecutionProperties visitTopNRowNumber(TopNRowNumberNode node, Void context)
+        {
+            return processStatefulNode(node);
+        }
+
+        @Override
+        public GroupedExecutionProperties visitMarkDistinct(MarkDistinctNode node, Void context)
+        {
+            return processStatefulNode(node);
+        }
+
+        @Override
+        public GroupedExecutionProperties visitSemiJoin(SemiJoinNode node, Void context)
+        {
+            return processStatefulNode(node);
+        }
+
+        @Override
+        public GroupedExecutionProperties visitTableWriter(TableWriterNode node, Void context)
+        {
+            return processStatefulNode(node);
+        }
+
         @Override
         public GroupedExecutionProperties visitTableScan(TableScanNode node, Void context)
         {
@@ -432,6 +492,21 @@ public class PlanFragmenter
                     false);
         }
 
+        /**
+         * Nodes that accumulate state for their whole input make grouped execution useful,
+         * because the state of a driver group is released before the next one starts.
+         * They can only be in the same fragment as a bucketed table scan if the planner
+         * found the table partitioning to satisfy their partitioning requirement.
+         */
+        private GroupedExecutionProperties processStatefulNode(PlanNode node)
+        {
+            GroupedExecutionProperties properties = processChildren(node);
+            if (groupedExecutionForStatefulOperators && properties.isCurrentNodeCapable()) {
+                return new GroupedExecutionProperties(true, true);
+            }
+            return properties;
+        }
+
         private GroupedExecutionProperties processChildren(PlanNode node)
         {
             // Each fragment has a partitioning handle, which is derived from leaf nodes in the fragment.
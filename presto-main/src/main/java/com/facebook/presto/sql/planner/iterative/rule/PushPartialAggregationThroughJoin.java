@@ -82,6 +82,11 @@ public class PushPartialAggregationThroughJoin
             return Result.empty();
         }
 
+        if (joinNode.getMergeJoinOrdering().isPresent()) {
+            // the pushed aggregation would not keep the input of a merge join sorted on the join keys
+            return Result.empty();
+        }
+
         // TODO: leave partial aggregation above Join?
         if (allAggregationsOn(aggregationNode.getAggregations(), joinNode.getLeft().getOutputSymbols())) {
             return Result.ofPlanNode(pushPartialToLeftChild(aggregationNode, joinNode, context));
@@ -179,7 +184,8 @@ public class PushPartialAggregationThroughJoin
                 child.getFilter(),
                 child.getLeftHashSymbol(),
                 child.getRightHashSymbol(),
-                child.getDistributionType());
+                child.getDistributionType(),
+                child.getMergeJoinOrdering());
         return restrictOutputs(context.getIdAllocator(), joinNode, ImmutableSet.copyOf(aggregation.getOutputSymbols())).orElse(joinNode);
     }
 }
@@ -18,6 +18,7 @@ import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.spi.GroupingProperty;
 import com.facebook.presto.spi.LocalProperty;
 import com.facebook.presto.spi.SortingProperty;
+import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.planner.Partitioning;
@@ -64,7 +65,9 @@ import java.util.Set;
 
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
+import static com.facebook.presto.SystemSessionProperties.isMergeJoinEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
+import static com.facebook.presto.SystemSessionProperties.isStreamingAggregationEnabled;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
@@ -269,7 +272,35 @@ public class AddLocalExchanges
             preferredChildProperties = parentPreferences.withDefaultParallelism(session)
                     .withPartitioning(partitioningRequirement);
 
-            return planAndEnforceChildren(node, requiredProperties, preferredChildProperties);
+            if (!isStreamingAggregationEnabled(session) || node.getGroupingSets().size() != 1) {
+                return planAndEnforceChildren(node, requiredProperties, preferredChildProperties);
+            }
+
+            PlanWithProperties child = planAndEnforce(
+                    node.getSource(),
+                    requiredProperties.constrainTo(node.getSource().getOutputSymbols()),
+                    preferredChildProperties.constrainTo(node.getSource().getOutputSymbols()));
+
+            // record the grouping keys on which the input is already grouped, so they can be aggregated without a hash table
+            List<Symbol> groupingKeys = node.getGroupingKeys();
+            Set<Symbol> unGroupedKeys = LocalProperties.match(child.getProperties().getLocalProperties(), LocalProperties.grouped(groupingKeys)).get(0)
+                    .map(LocalProperty::getColumns)
+                    .orElse(ImmutableSet.of());
+            List<Symbol> preGroupedSymbols = groupingKeys.stream()
+                    .filter(symbol -> !unGroupedKeys.contains(symbol))
+                    .collect(toImmutableList());
+
+            AggregationNode result = new AggregationNode(
+                    node.getId(),
+                    child.getNode(),
+                    node.getAggregations(),
+                    node.getGroupingSets(),
+                    preGroupedSymbols,
+                    node.getStep(),
+                    node.getHashSymbol(),
+                    node.getGroupIdSymbol());
+
+            return deriveProperties(result, child.getProperties());
         }
 
         @Override
@@ -448,18 +479,15 @@ public class AddLocalExchanges
         @Override
         public PlanWithProperties visitJoin(JoinNode node, StreamPreferredProperties parentPreferences)
         {
-            PlanWithProperties probe;
+            StreamPreferredProperties probeRequirement;
+            StreamPreferredProperties probePreference;
             if (isSpillEnabled(session)) {
-                probe = planAndEnforce(
-                        node.getLeft(),
-                        fixedParallelism(),
-                        parentPreferences.constrainTo(node.getLeft().getOutputSymbols()).withFixedParallelism());
+                probeRequirement = fixedParallelism();
+                probePreference = parentPreferences.constrainTo(node.getLeft().getOutputSymbols()).withFixedParallelism();
             }
             else {
-                probe = planAndEnforce(
-                        node.getLeft(),
-                        defaultParallelism(session),
-                        parentPreferences.constrainTo(node.getLeft().getOutputSymbols()).withDefaultParallelism(session));
+                probeRequirement = defaultParallelism(session);
+                probePreference = parentPreferences.constrainTo(node.getLeft().getOutputSymbols()).withDefaultParallelism(session);
             }
 
             // this build consumes the input completely, so we do not pass through parent preferences
@@ -471,9 +499,70 @@ public class AddLocalExchanges
             else {
                 buildPreference = singleStream();
             }
-            PlanWithProperties build = planAndEnforce(node.getRight(), buildPreference, buildPreference);
 
-            return rebaseAndDeriveProperties(node, ImmutableList.of(probe, build));
+            if (!isMergeJoinEnabled(session) || node.getCriteria().isEmpty() || node.getFilter().isPresent()) {
+                PlanWithProperties probe = planAndEnforce(node.getLeft(), probeRequirement, probePreference);
+                PlanWithProperties build = planAndEnforce(node.getRight(), buildPreference, buildPreference);
+                return rebaseAndDeriveProperties(node, ImmutableList.of(probe, build));
+            }
+
+            // plan both sides before enforcing any requirement, because a local exchange would lose their order
+            PlanWithProperties probe = node.getLeft().accept(this, probePreference);
+            PlanWithProperties build = node.getRight().accept(this, buildPreference);
+
+            Optional<List<SortOrder>> mergeJoinOrdering = getMergeJoinOrdering(node, probe.getProperties(), build.getProperties());
+            if (mergeJoinOrdering.isPresent()) {
+                JoinNode result = new JoinNode(
+                        node.getId(),
+                        node.getType(),
+                        probe.getNode(),
+                        build.getNode(),
+                        node.getCriteria(),
+                        node.getOutputSymbols(),
+                        node.getFilter(),
+                        node.getLeftHashSymbol(),
+                        node.getRightHashSymbol(),
+                        node.getDistributionType(),
+                        mergeJoinOrdering);
+                return deriveProperties(result, ImmutableList.of(probe.getProperties(), build.getProperties()));
+            }
+
+            return rebaseAndDeriveProperties(node, ImmutableList.of(enforce(probe, probeRequirement), enforce(build, buildPreference)));
+        }
+
+        /**
+         * Returns the sort order of each join criterion, if each side of the join is a single
+         * stream sorted on its join symbols, in the order of the criteria and with the same
+         * sort orders.
+         */
+        private Optional<List<SortOrder>> getMergeJoinOrdering(JoinNode node, StreamProperties probeProperties, StreamProperties buildProperties)
+        {
+            if (probeProperties.getDistribution() != SINGLE || buildProperties.getDistribution() != SINGLE) {
+                return Optional.empty();
+            }
+
+            List<LocalProperty<Symbol>> probeLocalProperties = LocalProperties.stripLeadingConstants(probeProperties.getLocalProperties());
+            if (probeLocalProperties.size() < node.getCriteria().size()) {
+                return Optional.empty();
+            }
+
+            ImmutableList.Builder<SortOrder> ordering = ImmutableList.builder();
+            List<LocalProperty<Symbol>> desiredBuildProperties = new ArrayList<>();
+            for (int i = 0; i < node.getCriteria().size(); i++) {
+                JoinNode.EquiJoinClause clause = node.getCriteria().get(i);
+                LocalProperty<Symbol> property = probeLocalProperties.get(i);
+                if (!(property instanceof SortingProperty) || !((SortingProperty<Symbol>) property).getColumn().equals(clause.getLeft())) {
+                    return Optional.empty();
+                }
+                SortOrder order = ((SortingProperty<Symbol>) property).getOrder();
+                ordering.add(order);
+                desiredBuildProperties.add(new SortingProperty<>(clause.getRight(), order));
+            }
+
+            if (LocalProperties.match(buildProperties.getLocalProperties(), desiredBuildProperties).stream().anyMatch(Optional::isPresent)) {
+                return Optional.empty();
+            }
+            return Optional.of(ordering.build());
         }
 
         @Override
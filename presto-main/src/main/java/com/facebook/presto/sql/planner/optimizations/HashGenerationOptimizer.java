@@ -159,7 +159,8 @@ public class HashGenerationOptimizer
         public PlanWithProperties visitAggregation(AggregationNode node, HashComputationSet parentPreference)
         {
             Optional<HashComputation> groupByHash = Optional.empty();
-            if (!canSkipHashGeneration(node.getGroupingKeys())) {
+            // streaming aggregation compares adjacent rows and does not hash the grouping keys
+            if (!node.isStreamable() && !canSkipHashGeneration(node.getGroupingKeys())) {
                 groupByHash = computeHash(node.getGroupingKeys());
             }
 
@@ -175,6 +176,7 @@ public class HashGenerationOptimizer
                             child.getNode(),
                             node.getAggregations(),
                             node.getGroupingSets(),
+                            node.getPreGroupedSymbols(),
                             node.getStep(),
                             hashSymbol,
                             node.getGroupIdSymbol()),
@@ -293,7 +295,8 @@ public class HashGenerationOptimizer
         public PlanWithProperties visitJoin(JoinNode node, HashComputationSet parentPreference)
         {
             List<JoinNode.EquiJoinClause> clauses = node.getCriteria();
-            if (clauses.isEmpty()) {
+            // merge join compares the sorted inputs and does not hash the join keys
+            if (clauses.isEmpty() || node.getMergeJoinOrdering().isPresent()) {
                 // join does not pass through preferred hash symbols since they take more memory and since
                 // the join node filters, may take more compute
                 PlanWithProperties left = planAndEnforce(node.getLeft(), new HashComputationSet(), true, new HashComputationSet());
@@ -22,6 +22,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 
 import javax.annotation.concurrent.Immutable;
@@ -45,17 +46,31 @@ public class AggregationNode
     private final PlanNode source;
     private final Map<Symbol, Aggregation> aggregations;
     private final List<List<Symbol>> groupingSets;
+    private final List<Symbol> preGroupedSymbols;
     private final Step step;
     private final Optional<Symbol> hashSymbol;
     private final Optional<Symbol> groupIdSymbol;
     private final List<Symbol> outputs;
 
+    public AggregationNode(
+            PlanNodeId id,
+            PlanNode source,
+            Map<Symbol, Aggregation> aggregations,
+            List<List<Symbol>> groupingSets,
+            Step step,
+            Optional<Symbol> hashSymbol,
+            Optional<Symbol> groupIdSymbol)
+    {
+        this(id, source, aggregations, groupingSets, ImmutableList.of(), step, hashSymbol, groupIdSymbol);
+    }
+
     @JsonCreator
     public AggregationNode(
             @JsonProperty("id") PlanNodeId id,
             @JsonProperty("source") PlanNode source,
             @JsonProperty("aggregations") Map<Symbol, Aggregation> aggregations,
             @JsonProperty("groupingSets") List<List<Symbol>> groupingSets,
+            @JsonProperty("preGroupedSymbols") List<Symbol> preGroupedSymbols,
             @JsonProperty("step") Step step,
             @JsonProperty("hashSymbol") Optional<Symbol> hashSymbol,
             @JsonProperty("groupIdSymbol") Optional<Symbol> groupIdSymbol)
@@ -78,6 +93,11 @@ public class AggregationNode
         this.hashSymbol = hashSymbol;
         this.groupIdSymbol = requireNonNull(groupIdSymbol);
 
+        requireNonNull(preGroupedSymbols, "preGroupedSymbols is null");
+        checkArgument(preGroupedSymbols.isEmpty() || groupingSets.size() == 1, "Pre-grouped symbols require a single grouping set");
+        checkArgument(groupingSets.get(0).containsAll(preGroupedSymbols), "Pre-grouped symbols must be a subset of the grouping keys");
+        this.preGroupedSymbols = ImmutableList.copyOf(preGroupedSymbols);
+
         ImmutableList.Builder<Symbol> outputs = ImmutableList.builder();
         outputs.addAll(getGroupingKeys());
         hashSymbol.ifPresent(outputs::add);
@@ -150,6 +170,25 @@ public class AggregationNode
         return source;
     }
 
+    /**
+     * @return the grouping keys on which the input is known to be grouped, i.e. rows with
+     * equal values of these keys are adjacent
+     */
+    @JsonProperty("preGroupedSymbols")
+    public List<Symbol> getPreGroupedSymbols()
+    {
+        return preGroupedSymbols;
+    }
+
+    /**
+     * @return whether the input is grouped on all the grouping keys, so each group can be
+     * aggregated and emitted as soon as the next one starts
+     */
+    public boolean isStreamable()
+    {
+        return !preGroupedSymbols.isEmpty() && ImmutableSet.copyOf(preGroupedSymbols).equals(ImmutableSet.copyOf(getGroupingKeys()));
+    }
+
     @JsonProperty("step")
     public Step getStep()
     {
@@ -185,7 +224,7 @@ public class AggregationNode
     @Override
     public PlanNode replaceChildren(List<PlanNode> newChildren)
     {
-        return new AggregationNode(getId(), Iterables.getOnlyElement(newChildren), aggregations, groupingSets, step, hashSymbol, groupIdSymbol);
+        return new AggregationNode(getId(), Iterables.getOnlyElement(newChildren), aggregations, groupingSets, preGroupedSymbols, step, hashSymbol, groupIdSymbol);
     }
 
     public boolean isDecomposable(FunctionRegistry functionRegistry)
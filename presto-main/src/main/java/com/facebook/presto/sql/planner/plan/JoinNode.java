@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.sql.planner.plan;
 
+import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.sql.planner.SortExpressionContext;
 import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.tree.ComparisonExpression;
@@ -57,6 +58,25 @@ public class JoinNode
     private final Optional<Symbol> leftHashSymbol;
     private final Optional<Symbol> rightHashSymbol;
     private final Optional<DistributionType> distributionType;
+    /**
+     * Sort order of each join criterion, if both sides of the join are known
+     * to be sorted on the criteria, so the join can be executed by merging them.
+     */
+    private final Optional<List<SortOrder>> mergeJoinOrdering;
+
+    public JoinNode(PlanNodeId id,
+            Type type,
+            PlanNode left,
+            PlanNode right,
+            List<EquiJoinClause> criteria,
+            List<Symbol> outputSymbols,
+            Optional<Expression> filter,
+            Optional<Symbol> leftHashSymbol,
+            Optional<Symbol> rightHashSymbol,
+            Optional<DistributionType> distributionType)
+    {
+        this(id, type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, Optional.empty());
+    }
 
     @JsonCreator
     public JoinNode(@JsonProperty("id") PlanNodeId id,
@@ -68,7 +88,8 @@ public class JoinNode
             @JsonProperty("filter") Optional<Expression> filter,
             @JsonProperty("leftHashSymbol") Optional<Symbol> leftHashSymbol,
             @JsonProperty("rightHashSymbol") Optional<Symbol> rightHashSymbol,
-            @JsonProperty("distributionType") Optional<DistributionType> distributionType)
+            @JsonProperty("distributionType") Optional<DistributionType> distributionType,
+            @JsonProperty("mergeJoinOrdering") Optional<List<SortOrder>> mergeJoinOrdering)
     {
         super(id);
         requireNonNull(type, "type is null");
@@ -80,6 +101,7 @@ public class JoinNode
         requireNonNull(leftHashSymbol, "leftHashSymbol is null");
         requireNonNull(rightHashSymbol, "rightHashSymbol is null");
         requireNonNull(distributionType, "distributionType is null");
+        requireNonNull(mergeJoinOrdering, "mergeJoinOrdering is null");
 
         this.type = type;
         this.left = left;
@@ -90,6 +112,7 @@ public class JoinNode
         this.leftHashSymbol = leftHashSymbol;
         this.rightHashSymbol = rightHashSymbol;
         this.distributionType = distributionType;
+        this.mergeJoinOrdering = mergeJoinOrdering.map(ImmutableList::copyOf);
 
         List<Symbol> inputSymbols = ImmutableList.<Symbol>builder()
                 .addAll(left.getOutputSymbols())
@@ -100,6 +123,8 @@ public class JoinNode
 
         checkArgument(!(criteria.isEmpty() && leftHashSymbol.isPresent()), "Left hash symbol is only valid in an equijoin");
         checkArgument(!(criteria.isEmpty() && rightHashSymbol.isPresent()), "Right hash symbol is only valid in an equijoin");
+        checkArgument(!mergeJoinOrdering.isPresent() || mergeJoinOrdering.get().size() == criteria.size(), "Merge join ordering must have an order for each criterion");
+        checkArgument(!mergeJoinOrdering.isPresent() || !filter.isPresent(), "Merge join does not support a filter");
     }
 
     public enum DistributionType
@@ -214,6 +239,12 @@ public class JoinNode
         return distributionType;
     }
 
+    @JsonProperty("mergeJoinOrdering")
+    public Optional<List<SortOrder>> getMergeJoinOrdering()
+    {
+        return mergeJoinOrdering;
+    }
+
     @Override
     public <R, C> R accept(PlanVisitor<R, C> visitor, C context)
     {
@@ -230,12 +261,12 @@ public class JoinNode
         List<Symbol> newOutputSymbols = Stream.concat(newLeft.getOutputSymbols().stream(), newRight.getOutputSymbols().stream())
                 .filter(outputSymbols::contains)
                 .collect(toImmutableList());
-        return new JoinNode(getId(), type, newLeft, newRight, criteria, newOutputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType);
+        return new JoinNode(getId(), type, newLeft, newRight, criteria, newOutputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, mergeJoinOrdering);
     }
 
     public JoinNode withDistributionType(DistributionType distributionType)
     {
-        return new JoinNode(getId(), type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, Optional.of(distributionType));
+        return new JoinNode(getId(), type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, Optional.of(distributionType), mergeJoinOrdering);
     }
 
     public boolean isCrossJoin()
@@ -562,6 +562,7 @@ public class PlanPrinter
             }
 
             node.getSortExpressionContext().ifPresent(context -> print(indent + 2, "SortExpression[%s]", context.getSortExpression()));
+            node.getMergeJoinOrdering().ifPresent(ordering -> print(indent + 2, "MergeJoin[%s]", Joiner.on(", ").join(ordering)));
             printPlanNodesStats(indent + 2, node);
             printStats(indent + 2, node.getId());
             node.getLeft().accept(this, indent + 1);
@@ -656,6 +657,9 @@ public class PlanPrinter
             if (!node.getGroupingKeys().isEmpty()) {
                 key = node.getGroupingKeys().toString();
             }
+            if (!node.getPreGroupedSymbols().isEmpty()) {
+                key += format("[preGrouped = %s]", Joiner.on(", ").join(node.getPreGroupedSymbols()));
+            }
 
             print(indent, "- Aggregate%s%s%s => [%s]", type, key, formatHash(node.getHashSymbol()), formatOutputs(node.getOutputSymbols()));
             printPlanNodesStats(indent + 2, node);
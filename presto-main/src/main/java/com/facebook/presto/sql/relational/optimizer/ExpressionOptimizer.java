@@ -32,7 +32,9 @@ import com.google.common.collect.Iterables;
 
 import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.facebook.presto.metadata.Signature.internalScalarFunction;
 import static com.facebook.presto.operator.scalar.JsonStringToArrayCast.JSON_STRING_TO_ARRAY_NAME;
@@ -71,6 +73,10 @@ public class ExpressionOptimizer
     private final TypeManager typeManager;
     private final ConnectorSession session;
 
+    // calls folded by this optimizer, so that equal calls fold to the same value even if the value
+    // does not implement equals, as is the case for a regex or JSON path cast from a literal
+    private final Map<CallExpression, RowExpression> foldedCalls = new HashMap<>();
+
     public ExpressionOptimizer(FunctionRegistry registry, TypeManager typeManager, Session session)
     {
         this.registry = registry;
@@ -189,8 +195,16 @@ public class ExpressionOptimizer
                     index++;
                 }
 
+                CallExpression constantCall = new CallExpression(signature, call.getType(), arguments);
+                RowExpression folded = foldedCalls.get(constantCall);
+                if (folded != null) {
+                    return folded;
+                }
+
                 try {
-                    return constant(method.invokeWithArguments(constantArguments), call.getType());
+                    folded = constant(method.invokeWithArguments(constantArguments), call.getType());
+                    foldedCalls.put(constantCall, folded);
+                    return folded;
                 }
                 catch (Throwable e) {
                     if (e instanceof InterruptedException) {
@@ -20,6 +20,7 @@ import com.facebook.presto.spi.function.ScalarFunction;
 import com.facebook.presto.spi.function.ScalarOperator;
 import com.facebook.presto.spi.function.SqlType;
 import com.facebook.presto.spi.type.StandardTypes;
+import com.google.common.annotations.VisibleForTesting;
 import io.airlift.jcodings.specific.NonStrictUTF8Encoding;
 import io.airlift.joni.Option;
 import io.airlift.joni.Regex;
@@ -27,19 +28,24 @@ import io.airlift.joni.Syntax;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
 import static com.facebook.presto.spi.type.Chars.padSpaces;
 import static com.facebook.presto.util.Failures.checkCondition;
 import static io.airlift.joni.constants.MetaChar.INEFFECTIVE_META_CHAR;
 import static io.airlift.joni.constants.SyntaxProperties.OP_ASTERISK_ZERO_INF;
 import static io.airlift.joni.constants.SyntaxProperties.OP_DOT_ANYCHAR;
+import static io.airlift.joni.constants.SyntaxProperties.OP_ESC_AZ_BUF_ANCHOR;
 import static io.airlift.joni.constants.SyntaxProperties.OP_LINE_ANCHOR;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public final class LikeFunctions
 {
     private static final Syntax SYNTAX = new Syntax(
-            OP_DOT_ANYCHAR | OP_ASTERISK_ZERO_INF | OP_LINE_ANCHOR,
+            OP_DOT_ANYCHAR | OP_ASTERISK_ZERO_INF | OP_LINE_ANCHOR | OP_ESC_AZ_BUF_ANCHOR,
             0,
             0,
             Option.NONE,
@@ -57,18 +63,15 @@ public final class LikeFunctions
     @ScalarFunction(value = "like", hidden = true)
     @LiteralParameters("x")
     @SqlType(StandardTypes.BOOLEAN)
-    public static boolean like(@SqlType("varchar(x)") Slice value, @SqlType(LikePatternType.NAME) Regex pattern)
+    public static boolean like(@SqlType("varchar(x)") Slice value, @SqlType(LikePatternType.NAME) LikeMatcher pattern)
     {
-        // Joni can infinite loop with UTF8Encoding when invalid UTF-8 is encountered.
-        // NonStrictUTF8Encoding must be used to avoid this issue.
-        byte[] bytes = value.getBytes();
-        return regexMatches(pattern, bytes);
+        return pattern.match(value);
     }
 
     @ScalarOperator(OperatorType.CAST)
     @LiteralParameters("x")
     @SqlType(LikePatternType.NAME)
-    public static Regex castVarcharToLikePattern(@SqlType("varchar(x)") Slice pattern)
+    public static LikeMatcher castVarcharToLikePattern(@SqlType("varchar(x)") Slice pattern)
     {
         return likePattern(pattern);
     }
@@ -76,20 +79,29 @@ public final class LikeFunctions
     @ScalarOperator(OperatorType.CAST)
     @LiteralParameters("x")
     @SqlType(LikePatternType.NAME)
-    public static Regex castCharToLikePattern(@LiteralParameter("x") Long charLength, @SqlType("char(x)") Slice pattern)
+    public static LikeMatcher castCharToLikePattern(@LiteralParameter("x") Long charLength, @SqlType("char(x)") Slice pattern)
     {
         return likePattern(padSpaces(pattern, charLength.intValue()));
     }
 
-    public static Regex likePattern(Slice pattern)
+    public static LikeMatcher likePattern(Slice pattern)
     {
         return likePattern(pattern.toStringUtf8(), '0', false);
     }
 
+    /**
+     * Compiles the pattern with the regex engine even if it has a specialized matcher.
+     */
+    @VisibleForTesting
+    public static LikeMatcher regexLikePattern(Slice pattern)
+    {
+        return likePattern(pattern.toStringUtf8(), '0', false, false);
+    }
+
     @ScalarFunction
     @LiteralParameters({"x", "y"})
     @SqlType(LikePatternType.NAME)
-    public static Regex likePattern(@SqlType("varchar(x)") Slice pattern, @SqlType("varchar(y)") Slice escape)
+    public static LikeMatcher likePattern(@SqlType("varchar(x)") Slice pattern, @SqlType("varchar(y)") Slice escape)
     {
         return likePattern(pattern.toStringUtf8(), getEscapeChar(escape), true);
     }
@@ -151,16 +163,21 @@ public final class LikeFunctions
         checkCondition(condition, INVALID_FUNCTION_ARGUMENT, "Escape character must be followed by '%%', '_' or the escape character itself");
     }
 
-    private static boolean regexMatches(Regex regex, byte[] bytes)
+    private static LikeMatcher likePattern(String patternString, char escapeChar, boolean shouldEscape)
     {
-        return regex.matcher(bytes).match(0, bytes.length, Option.NONE) != -1;
+        return likePattern(patternString, escapeChar, shouldEscape, true);
     }
 
     @SuppressWarnings("NestedSwitchStatement")
-    private static Regex likePattern(String patternString, char escapeChar, boolean shouldEscape)
+    private static LikeMatcher likePattern(String patternString, char escapeChar, boolean shouldEscape, boolean specialize)
     {
         StringBuilder regex = new StringBuilder(patternString.length() * 2);
 
+        // the pattern with each literal replaced by 'L' and runs of '%' collapsed, along with the literals
+        StringBuilder shape = new StringBuilder();
+        List<Slice> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
         regex.append('^');
         boolean escaped = false;
         for (char currentChar : patternString.toCharArray()) {
@@ -169,6 +186,16 @@ public final class LikeFunctions
                 escaped = true;
             }
             else {
+                if (!escaped && (currentChar == '%' || currentChar == '_')) {
+                    addLiteral(shape, literals, literal);
+                    if (currentChar == '_' || shape.length() == 0 || shape.charAt(shape.length() - 1) != '%') {
+                        shape.append(currentChar);
+                    }
+                }
+                else {
+                    literal.append(currentChar);
+                }
+
                 switch (currentChar) {
                     case '%':
                         regex.append(escaped ? "%" : ".*");
@@ -195,10 +222,27 @@ public final class LikeFunctions
             }
         }
         checkEscape(!escaped);
-        regex.append('$');
+        // '$' also matches before a newline, so anchor at the end of the value like the specialized matchers
+        regex.append("\\z");
+        addLiteral(shape, literals, literal);
+
+        Supplier<Regex> regexSupplier = () -> {
+            byte[] bytes = regex.toString().getBytes(UTF_8);
+            return new Regex(bytes, 0, bytes.length, Option.MULTILINE, NonStrictUTF8Encoding.INSTANCE, SYNTAX);
+        };
+        if (!specialize) {
+            return LikeMatcher.regexMatcher(regexSupplier.get());
+        }
+        return LikeMatcher.create(shape.toString(), literals, regexSupplier);
+    }
 
-        byte[] bytes = regex.toString().getBytes(UTF_8);
-        return new Regex(bytes, 0, bytes.length, Option.MULTILINE, NonStrictUTF8Encoding.INSTANCE, SYNTAX);
+    private static void addLiteral(StringBuilder shape, List<Slice> literals, StringBuilder literal)
+    {
+        if (literal.length() > 0) {
+            shape.append('L');
+            literals.add(Slices.utf8Slice(literal.toString()));
+            literal.setLength(0);
+        }
     }
 
     @SuppressWarnings("NumericCastThatLosesPrecision")
@@ -0,0 +1,241 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.type;
+
+import io.airlift.joni.Option;
+import io.airlift.joni.Regex;
+import io.airlift.slice.Slice;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static io.airlift.slice.SliceUtf8.lengthOfCodePointSafe;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compiled LIKE pattern. Patterns made of a literal with leading or trailing {@code %},
+ * or of literals and {@code _} only, are matched directly on the bytes of the value;
+ * other patterns are matched with the regex engine.
+ */
+public abstract class LikeMatcher
+{
+    /**
+     * @param shape the pattern with each literal replaced by {@code L}, for example {@code %L%}
+     * @param literals the literals of the pattern, in order
+     * @param regex the equivalent regex, used for patterns without a specialized matcher
+     */
+    static LikeMatcher create(String shape, List<Slice> literals, Supplier<Regex> regex)
+    {
+        switch (shape) {
+            case "L":
+                return new ExactMatcher(literals.get(0));
+            case "L%":
+                return new PrefixMatcher(literals.get(0));
+            case "%L":
+                return new SuffixMatcher(literals.get(0));
+            case "%L%":
+                return new ContainsMatcher(literals.get(0));
+            case "%":
+                return new AnyMatcher();
+        }
+        if (shape.matches("[L_]+%?")) {
+            return new FixedWidthMatcher(shape, literals);
+        }
+        return new RegexMatcher(regex.get());
+    }
+
+    static LikeMatcher regexMatcher(Regex regex)
+    {
+        return new RegexMatcher(regex);
+    }
+
+    public abstract boolean match(Slice value);
+
+    private static final class ExactMatcher
+            extends LikeMatcher
+    {
+        private final Slice literal;
+
+        public ExactMatcher(Slice literal)
+        {
+            this.literal = requireNonNull(literal, "literal is null");
+        }
+
+        @Override
+        public boolean match(Slice value)
+        {
+            return value.equals(literal);
+        }
+    }
+
+    private static final class PrefixMatcher
+            extends LikeMatcher
+    {
+        private final Slice prefix;
+
+        public PrefixMatcher(Slice prefix)
+        {
+            this.prefix = requireNonNull(prefix, "prefix is null");
+        }
+
+        @Override
+        public boolean match(Slice value)
+        {
+            int length = prefix.length();
+            return value.length() >= length && value.equals(0, length, prefix, 0, length);
+        }
+    }
+
+    private static final class SuffixMatcher
+            extends LikeMatcher
+    {
+        private final Slice suffix;
+
+        public SuffixMatcher(Slice suffix)
+        {
+            this.suffix = requireNonNull(suffix, "suffix is null");
+        }
+
+        @Override
+        public boolean match(Slice value)
+        {
+            int length = suffix.length();
+            return value.length() >= length && value.equals(value.length() - length, length, suffix, 0, length);
+        }
+    }
+
+    /**
+     * Boyer-Moore-Horspool search. UTF-8 is self-synchronizing, so a byte match of a valid
+     * UTF-8 literal always starts at a character boundary of a valid UTF-8 value.
+     */
+    private static final class ContainsMatcher
+            extends LikeMatcher
+    {
+        private final byte[] needle;
+        private final int[] shifts = new int[256];
+
+        public ContainsMatcher(Slice needle)
+        {
+            this.needle = requireNonNull(needle, "needle is null").getBytes();
+            Arrays.fill(shifts, this.needle.length);
+            for (int i = 0; i < this.needle.length - 1; i++) {
+                shifts[this.needle[i] & 0xFF] = this.needle.length - 1 - i;
+            }
+        }
+
+        @Override
+        public boolean match(Slice value)
+        {
+            int last = needle.length - 1;
+            int end = value.length() - needle.length;
+            int position = 0;
+            while (position <= end) {
+                byte lastByte = value.getByte(position + last);
+                if (lastByte == needle[last] && matchesAt(value, position, last)) {
+                    return true;
+                }
+                position += shifts[lastByte & 0xFF];
+            }
+            return false;
+        }
+
+        private boolean matchesAt(Slice value, int position, int length)
+        {
+            for (int i = 0; i < length; i++) {
+                if (value.getByte(position + i) != needle[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class AnyMatcher
+            extends LikeMatcher
+    {
+        @Override
+        public boolean match(Slice value)
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Matches literals and single character wildcards in order, optionally followed by any suffix.
+     */
+    private static final class FixedWidthMatcher
+            extends LikeMatcher
+    {
+        // a null part stands for a single character wildcard
+        private final List<Slice> parts;
+        private final boolean anySuffix;
+
+        public FixedWidthMatcher(String shape, List<Slice> literals)
+        {
+            Slice[] parts = new Slice[shape.endsWith("%") ? shape.length() - 1 : shape.length()];
+            int literal = 0;
+            for (int i = 0; i < parts.length; i++) {
+                if (shape.charAt(i) == 'L') {
+                    parts[i] = literals.get(literal);
+                    literal++;
+                }
+            }
+            this.parts = Arrays.asList(parts);
+            this.anySuffix = shape.endsWith("%");
+        }
+
+        @Override
+        public boolean match(Slice value)
+        {
+            int position = 0;
+            for (Slice part : parts) {
+                if (part == null) {
+                    if (position >= value.length()) {
+                        return false;
+                    }
+                    position += lengthOfCodePointSafe(value, position);
+                }
+                else {
+                    int length = part.length();
+                    if (value.length() - position < length || !value.equals(position, length, part, 0, length)) {
+                        return false;
+                    }
+                    position += length;
+                }
+            }
+            return anySuffix ? position <= value.length() : position == value.length();
+        }
+    }
+
+    private static final class RegexMatcher
+            extends LikeMatcher
+    {
+        private final Regex regex;
+
+        public RegexMatcher(Regex regex)
+        {
+            this.regex = requireNonNull(regex, "regex is null");
+        }
+
+        @Override
+        public boolean match(Slice value)
+        {
+            // Joni can infinite loop with UTF8Encoding when invalid UTF-8 is encountered.
+            // NonStrictUTF8Encoding must be used to avoid this issue.
+            byte[] bytes = value.getBytes();
+            return regex.matcher(bytes).match(0, bytes.length, Option.NONE) != -1;
+        }
+    }
+}
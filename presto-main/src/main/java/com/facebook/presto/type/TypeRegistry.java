@@ -76,6 +76,7 @@ import static com.facebook.presto.type.IntervalYearMonthType.INTERVAL_YEAR_MONTH
 import static com.facebook.presto.type.IpAddressType.IPADDRESS;
 import static com.facebook.presto.type.JoniRegexpType.JONI_REGEXP;
 import static com.facebook.presto.type.JsonPathType.JSON_PATH;
+import static com.facebook.presto.type.JsonPathSetType.JSON_PATH_SET;
 import static com.facebook.presto.type.JsonType.JSON;
 import static com.facebook.presto.type.LikePatternType.LIKE_PATTERN;
 import static com.facebook.presto.type.MapParametricType.MAP;
@@ -140,6 +141,7 @@ public final class TypeRegistry
         addType(RE2J_REGEXP);
         addType(LIKE_PATTERN);
         addType(JSON_PATH);
+        addType(JSON_PATH_SET);
         addType(COLOR);
         addType(JSON);
         addType(CODE_POINTS);
@@ -60,6 +60,25 @@ public class TestVariableWidthBlock
         assertBlockFilteredPositions(expectedValues, blockBuilder.build(), 0, 2, 4, 6, 7, 9, 10, 16);
     }
 
+    @Test
+    public void testAppendPositions()
+    {
+        Slice[] values = (Slice[]) alternatingNullValues(createExpectedValues(17));
+        Block source = createBlockBuilderWithValues(values).build();
+
+        BlockBuilder blockBuilder = new VariableWidthBlockBuilder(new BlockBuilderStatus(), 1, 1);
+        blockBuilder.appendRange(source, 3, 10);
+        blockBuilder.appendPositions(source, new int[] {16, 0, 5, 5, 2}, 1, 3);
+
+        Slice[] expectedValues = new Slice[13];
+        System.arraycopy(values, 3, expectedValues, 0, 10);
+        expectedValues[10] = values[0];
+        expectedValues[11] = values[5];
+        expectedValues[12] = values[5];
+        assertBlock(blockBuilder, expectedValues);
+        assertBlock(blockBuilder.build(), expectedValues);
+    }
+
     @Test
     public void testLazyBlockBuilderInitialization()
     {
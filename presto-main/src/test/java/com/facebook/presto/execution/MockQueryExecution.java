@@ -117,6 +117,9 @@ public class MockQueryExecution
                         new Duration(100, NANOSECONDS),
                         new Duration(200, NANOSECONDS),
 
+                        1,
+                        2,
+
                         9,
                         10,
                         11,
@@ -275,6 +278,11 @@ public class MockQueryExecution
     {
     }
 
+    @Override
+    public void recordStatementCacheUsage(int hits, int misses)
+    {
+    }
+
     @Override
     public void pruneInfo()
     {
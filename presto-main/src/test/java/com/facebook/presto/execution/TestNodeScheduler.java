@@ -19,6 +19,8 @@ import com.facebook.presto.execution.scheduler.LegacyNetworkTopology;
 import com.facebook.presto.execution.scheduler.NetworkLocation;
 import com.facebook.presto.execution.scheduler.NetworkLocationCache;
 import com.facebook.presto.execution.scheduler.NetworkTopology;
+import com.facebook.presto.execution.scheduler.NodeLoad;
+import com.facebook.presto.execution.scheduler.NodeLoadTracker;
 import com.facebook.presto.execution.scheduler.NodeScheduler;
 import com.facebook.presto.execution.scheduler.NodeSchedulerConfig;
 import com.facebook.presto.execution.scheduler.NodeSelector;
@@ -28,11 +30,13 @@ import com.facebook.presto.metadata.Split;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.testing.TestingTransactionHandle;
 import com.facebook.presto.util.FinalizerService;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -49,6 +53,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -272,6 +277,81 @@ public class TestNodeScheduler
         assertEquals(assignments.size(), 1);
     }
 
+    @Test
+    public void testPreferSplitAddresses()
+    {
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10)
+                .setPreferSplitAddresses(true);
+        NodeSelector nodeSelector = new NodeScheduler(new LegacyNetworkTopology(), nodeManager, nodeSchedulerConfig, nodeTaskMap).createNodeSelector(CONNECTOR_ID);
+
+        HostAddress preferredHost = HostAddress.fromString("127.0.0.1:12");
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            splits.add(new Split(CONNECTOR_ID, TestingTransactionHandle.create(), new TestSplitRemote(preferredHost)));
+        }
+        Multimap<Node, Split> assignments = nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values())).getAssignments();
+
+        // the preferred node takes splits up to its limit, the rest go to the other nodes
+        assertEquals(assignments.size(), 25);
+        for (Node node : assignments.keySet()) {
+            if (node.getHostAndPort().equals(preferredHost)) {
+                assertEquals(assignments.get(node).size(), 20);
+            }
+        }
+    }
+
+    @Test
+    public void testLoadAwarePlacement()
+    {
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10)
+                .setLoadAwarePlacementEnabled(true);
+        NodeLoadTracker nodeLoadTracker = new NodeLoadTracker();
+        nodeLoadTracker.update("other1", new NodeLoad(1.0, 4, 100, 4), Optional.of(new MemoryPoolInfo(100, 95, 0, ImmutableMap.of(), ImmutableMap.of())));
+        nodeLoadTracker.update("other2", new NodeLoad(0.1, 4, 0, 1), Optional.empty());
+        NodeSelector nodeSelector = new NodeScheduler(new LegacyNetworkTopology(), nodeManager, nodeSchedulerConfig, nodeTaskMap, nodeLoadTracker).createNodeSelector(CONNECTOR_ID);
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            splits.add(new Split(CONNECTOR_ID, TestingTransactionHandle.create(), new TestSplitRemote()));
+        }
+        Multimap<Node, Split> assignments = nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values())).getAssignments();
+        assertEquals(assignments.size(), 30);
+
+        Map<String, Integer> splitsByNode = new HashMap<>();
+        for (Node node : assignments.keySet()) {
+            splitsByNode.put(node.getNodeIdentifier(), assignments.get(node).size());
+        }
+        // the overloaded node still receives splits, but fewer than the others
+        int overloadedSplits = splitsByNode.getOrDefault("other1", 0);
+        assertTrue(overloadedSplits < splitsByNode.getOrDefault("other2", 0));
+        assertTrue(overloadedSplits < splitsByNode.getOrDefault("other3", 0));
+    }
+
+    @Test
+    public void testExcludedNodes()
+    {
+        Set<Node> nodes = nodeManager.getActiveConnectorNodes(CONNECTOR_ID);
+        Node excludedNode = nodes.iterator().next();
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            splits.add(new Split(CONNECTOR_ID, TestingTransactionHandle.create(), new TestSplitRemote()));
+        }
+
+        Multimap<Node, Split> assignments = nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values()), ImmutableSet.of(excludedNode)).getAssignments();
+        assertEquals(assignments.size(), 10);
+        assertFalse(assignments.containsKey(excludedNode));
+
+        // excluding every node is ignored
+        assignments = nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values()), nodes).getAssignments();
+        assertEquals(assignments.size(), 10);
+    }
+
     @Test
     public void testBasicAssignment()
     {
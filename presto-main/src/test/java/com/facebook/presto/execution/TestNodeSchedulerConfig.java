@@ -32,7 +32,9 @@ public class TestNodeSchedulerConfig
                 .setMinCandidates(10)
                 .setMaxSplitsPerNode(100)
                 .setMaxPendingSplitsPerTask(10)
-                .setIncludeCoordinator(true));
+                .setIncludeCoordinator(true)
+                .setPreferSplitAddresses(false)
+                .setLoadAwarePlacementEnabled(false));
     }
 
     @Test
@@ -44,6 +46,8 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.include-coordinator", "false")
                 .put("node-scheduler.max-pending-splits-per-task", "11")
                 .put("node-scheduler.max-splits-per-node", "101")
+                .put("node-scheduler.prefer-split-addresses", "true")
+                .put("node-scheduler.load-aware-placement-enabled", "true")
                 .build();
 
         NodeSchedulerConfig expected = new NodeSchedulerConfig()
@@ -51,7 +55,9 @@ public class TestNodeSchedulerConfig
                 .setIncludeCoordinator(false)
                 .setMaxSplitsPerNode(101)
                 .setMaxPendingSplitsPerTask(11)
-                .setMinCandidates(11);
+                .setMinCandidates(11)
+                .setPreferSplitAddresses(true)
+                .setLoadAwarePlacementEnabled(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -15,12 +15,16 @@ package com.facebook.presto.execution;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
 public class TestQueryManagerConfig
 {
     @Test
@@ -46,7 +50,9 @@ public class TestQueryManagerConfig
                 .setQueryMaxExecutionTime(new Duration(100, TimeUnit.DAYS))
                 .setQueryMaxCpuTime(new Duration(1_000_000_000, TimeUnit.DAYS))
                 .setInitializationRequiredWorkers(1)
-                .setInitializationTimeout(new Duration(5, TimeUnit.MINUTES)));
+                .setInitializationTimeout(new Duration(5, TimeUnit.MINUTES))
+                .setStragglerAvoidanceEnabled(false)
+                .setStatementCacheMaxSize(new DataSize(0, BYTE)));
     }
 
     @Test
@@ -73,6 +79,8 @@ public class TestQueryManagerConfig
                 .put("query.max-cpu-time", "2d")
                 .put("query-manager.initialization-required-workers", "200")
                 .put("query-manager.initialization-timeout", "1m")
+                .put("query.straggler-avoidance-enabled", "true")
+                .put("query.statement-cache-max-size", "10MB")
                 .build();
 
         QueryManagerConfig expected = new QueryManagerConfig()
@@ -95,7 +103,9 @@ public class TestQueryManagerConfig
                 .setQueryMaxExecutionTime(new Duration(3, TimeUnit.HOURS))
                 .setQueryMaxCpuTime(new Duration(2, TimeUnit.DAYS))
                 .setInitializationRequiredWorkers(200)
-                .setInitializationTimeout(new Duration(1, TimeUnit.MINUTES));
+                .setInitializationTimeout(new Duration(1, TimeUnit.MINUTES))
+                .setStragglerAvoidanceEnabled(true)
+                .setStatementCacheMaxSize(new DataSize(10, MEGABYTE));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
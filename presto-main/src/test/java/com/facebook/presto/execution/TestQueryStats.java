@@ -141,6 +141,9 @@ public class TestQueryStats
             new Duration(100, NANOSECONDS),
             new Duration(200, NANOSECONDS),
 
+            1,
+            2,
+
             9,
             10,
             11,
@@ -204,6 +207,9 @@ public class TestQueryStats
         assertEquals(actual.getTotalPlanningTime(), new Duration(100, NANOSECONDS));
         assertEquals(actual.getFinishingTime(), new Duration(200, NANOSECONDS));
 
+        assertEquals(actual.getStatementCacheHits(), 1);
+        assertEquals(actual.getStatementCacheMisses(), 2);
+
         assertEquals(actual.getTotalTasks(), 9);
         assertEquals(actual.getRunningTasks(), 10);
         assertEquals(actual.getCompletedTasks(), 11);
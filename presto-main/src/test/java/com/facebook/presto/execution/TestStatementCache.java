@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.sql.parser.ParsingException;
+import com.facebook.presto.sql.parser.ParsingOptions;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.Statement;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static com.facebook.presto.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DOUBLE;
+import static com.google.common.base.Strings.repeat;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class TestStatementCache
+{
+    private static final ParsingOptions PARSING_OPTIONS = new ParsingOptions(AS_DECIMAL);
+
+    @Test
+    public void testCachedStatement()
+    {
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(1, KILOBYTE));
+
+        StatementCache.Usage usage = new StatementCache.Usage();
+        Statement statement = cache.createStatement("SELECT 1.5", PARSING_OPTIONS, usage);
+        assertSame(cache.createStatement("SELECT 1.5", PARSING_OPTIONS, usage), statement);
+        assertEquals(usage.getHits(), 1);
+        assertEquals(usage.getMisses(), 1);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+
+        // only identical text is a hit
+        assertNotSame(cache.createStatement("SELECT 2.5", PARSING_OPTIONS), statement);
+
+        // parsing options change the tree, so they are part of the key
+        Statement asDouble = cache.createStatement("SELECT 1.5", new ParsingOptions(AS_DOUBLE));
+        assertNotSame(asDouble, statement);
+        assertEquals(cache.getSize(), 3);
+    }
+
+    @Test
+    public void testBoundedByTextSize()
+    {
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(1, KILOBYTE));
+        cache.createStatement("SELECT 1", PARSING_OPTIONS);
+        assertEquals(cache.getSize(), 1);
+
+        // a statement whose text is larger than the whole cache is parsed but not kept
+        String largeQuery = "SELECT '" + repeat("x", 1000) + "'";
+        Statement statement = cache.createStatement(largeQuery, PARSING_OPTIONS);
+        assertNotSame(cache.createStatement(largeQuery, PARSING_OPTIONS), statement);
+        assertEquals(cache.getSize(), 1);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        StatementCache cache = new StatementCache(new SqlParser(), new DataSize(0, BYTE));
+
+        Statement statement = cache.createStatement("SELECT 1", PARSING_OPTIONS);
+        assertNotSame(cache.createStatement("SELECT 1", PARSING_OPTIONS), statement);
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test(expectedExceptions = ParsingException.class)
+    public void testParsingFailure()
+    {
+        new StatementCache(new SqlParser(), new DataSize(1, KILOBYTE)).createStatement("SELECT FROM", PARSING_OPTIONS);
+    }
+}
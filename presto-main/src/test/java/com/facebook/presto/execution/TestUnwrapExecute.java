@@ -21,6 +21,7 @@ import com.facebook.presto.sql.tree.AllColumns;
 import com.facebook.presto.sql.tree.Execute;
 import com.facebook.presto.sql.tree.QualifiedName;
 import com.facebook.presto.sql.tree.Statement;
+import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
@@ -32,7 +33,9 @@ import static com.facebook.presto.sql.QueryUtil.simpleQuery;
 import static com.facebook.presto.sql.QueryUtil.table;
 import static com.facebook.presto.sql.analyzer.SemanticErrorCode.INVALID_PARAMETER_USAGE;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.fail;
 
 public class TestUnwrapExecute
@@ -58,6 +61,27 @@ public class TestUnwrapExecute
                 simpleQuery(selectList(new AllColumns()), table(QualifiedName.of("foo"))));
     }
 
+    @Test
+    public void testExecuteStatementWithStatementCache()
+    {
+        Session session = testSessionBuilder()
+                .addPreparedStatement("my_query", "SELECT * FROM foo")
+                .build();
+        StatementCache statementCache = new StatementCache(SQL_PARSER, new DataSize(1, KILOBYTE));
+        Statement statement = SQL_PARSER.createStatement("EXECUTE my_query");
+        StatementCache.Usage firstUsage = new StatementCache.Usage();
+        Statement unwrapped = unwrapExecuteStatement(statement, statementCache, firstUsage, session);
+        assertEquals(unwrapped, simpleQuery(selectList(new AllColumns()), table(QualifiedName.of("foo"))));
+        assertEquals(firstUsage.getHits(), 0);
+        assertEquals(firstUsage.getMisses(), 1);
+
+        StatementCache.Usage secondUsage = new StatementCache.Usage();
+        assertSame(unwrapExecuteStatement(statement, statementCache, secondUsage, session), unwrapped);
+        assertEquals(secondUsage.getHits(), 1);
+        assertEquals(secondUsage.getMisses(), 0);
+        assertEquals(statementCache.getHitCount(), 1);
+    }
+
     @Test
     public void testExecuteStatementDoesNotExist()
     {
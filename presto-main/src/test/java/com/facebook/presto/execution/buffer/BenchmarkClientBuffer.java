@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.presto.OutputBuffers.OutputBufferId;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+/**
+ * Measures the throughput of a client buffer fed by many drivers and drained by one reader.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkClientBuffer
+{
+    private static final int PAGES = 64_000;
+    private static final int PAGE_SIZE = 1024;
+    private static final DataSize MAX_READ_SIZE = new DataSize(64, KILOBYTE);
+    private static final SerializedPage PAGE = new SerializedPage(Slices.allocate(PAGE_SIZE), UNCOMPRESSED, 128, PAGE_SIZE);
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES)
+    public long enqueueAndRead(BenchmarkData data)
+            throws InterruptedException, ExecutionException
+    {
+        ClientBuffer buffer = new ClientBuffer("task-instance-id", new OutputBufferId(0));
+
+        int pagesPerProducer = PAGES / data.getProducers();
+        List<Future<?>> producers = new ArrayList<>();
+        for (int producer = 0; producer < data.getProducers(); producer++) {
+            producers.add(data.getExecutor().submit(() -> {
+                for (int i = 0; i < pagesPerProducer; i++) {
+                    SerializedPageReference page = new SerializedPageReference(PAGE, 1, () -> {});
+                    buffer.enqueuePages(ImmutableList.of(page));
+                    page.dereferencePage();
+                }
+            }));
+        }
+
+        long sequenceId = 0;
+        while (sequenceId < PAGES) {
+            sequenceId = buffer.getPages(sequenceId, MAX_READ_SIZE).get().getNextToken();
+        }
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        buffer.destroy();
+        return sequenceId;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"1", "16", "64"})
+        private int producers = 1;
+
+        private ExecutorService executor;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("benchmark-producer-%s"));
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public int getProducers()
+        {
+            return producers;
+        }
+
+        public ExecutorService getExecutor()
+        {
+            return executor;
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        new BenchmarkClientBuffer().enqueueAndRead(data);
+        data.tearDown();
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkClientBuffer.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -34,6 +34,8 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -46,7 +48,9 @@ import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -365,6 +369,59 @@ public class TestClientBuffer
         assertBufferDestroyed(buffer, 1);
     }
 
+    @Test(timeOut = 60_000)
+    public void testConcurrentProducers()
+            throws Exception
+    {
+        int producers = 4;
+        int pagesPerProducer = 250;
+        ClientBuffer buffer = new ClientBuffer(TASK_INSTANCE_ID, BUFFER_ID);
+        ExecutorService executor = newFixedThreadPool(producers);
+        try {
+            List<AtomicBoolean> references = new ArrayList<>();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int producer = 0; producer < producers; producer++) {
+                // serialize on this thread, the serde is not thread safe
+                List<SerializedPageReference> pages = new ArrayList<>();
+                for (int i = 0; i < pagesPerProducer; i++) {
+                    AtomicBoolean hasReference = new AtomicBoolean(true);
+                    pages.add(new SerializedPageReference(PAGES_SERDE.serialize(createPage(i)), 1, () -> hasReference.set(false)));
+                    references.add(hasReference);
+                }
+                futures.add(executor.submit(() -> {
+                    for (SerializedPageReference page : pages) {
+                        buffer.enqueuePages(ImmutableList.of(page));
+                        page.dereferencePage();
+                    }
+                }));
+            }
+
+            // read with a long wait, so a lost wake up of the pending read fails the test
+            long sequenceId = 0;
+            while (sequenceId < producers * pagesPerProducer) {
+                BufferResult result = getBufferResult(buffer, sequenceId, sizeOfPages(10), new Duration(10, SECONDS));
+                assertEquals(result.getToken(), sequenceId);
+                sequenceId = result.getNextToken();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            buffer.setNoMorePages();
+            BufferResult result = getBufferResult(buffer, sequenceId, sizeOfPages(10), NO_WAIT);
+            assertTrue(result.isBufferComplete());
+            assertTrue(result.getSerializedPages().isEmpty());
+
+            buffer.destroy();
+            assertEquals(references.size(), producers * pagesPerProducer);
+            references.forEach(reference -> assertFalse(reference.get()));
+            assertBufferDestroyed(buffer, producers * pagesPerProducer);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     private static void assertInvalidSequenceId(ClientBuffer buffer, int sequenceId)
     {
         try {
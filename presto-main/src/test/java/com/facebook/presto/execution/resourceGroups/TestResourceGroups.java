@@ -286,6 +286,78 @@ public class TestResourceGroups
         assertEquals(query2.getState(), RUNNING);
     }
 
+    @Test(timeOut = 10_000)
+    public void testCpuChargedWhileRunning()
+    {
+        RootInternalResourceGroup root = new RootInternalResourceGroup("root", (group, export) -> {}, directExecutor());
+        root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        root.setHardCpuLimit(new Duration(1, SECONDS));
+        root.setCpuQuotaGenerationMillisPerSecond(2000);
+        root.setMaxQueuedQueries(1);
+        root.setHardConcurrencyLimit(2);
+        InternalResourceGroup group = root.getOrCreateSubGroup("group");
+        group.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group.setMaxQueuedQueries(1);
+        group.setHardConcurrencyLimit(2);
+
+        MockQueryExecution query1 = new MockQueryExecution(0, "query_id", 1, new Duration(2, SECONDS));
+        group.run(query1);
+        assertEquals(query1.getState(), RUNNING);
+
+        // the CPU time of the running query counts against the limit before it finishes
+        root.processQueuedQueries();
+        MockQueryExecution query2 = new MockQueryExecution(0);
+        group.run(query2);
+        assertEquals(query2.getState(), QUEUED);
+
+        // completing the query does not charge its CPU time a second time
+        query1.complete();
+        root.generateCpuQuota(1);
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), RUNNING);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testFailedQueryRefundsOnlyItsShareOfCpu()
+    {
+        RootInternalResourceGroup root = new RootInternalResourceGroup("root", (group, export) -> {}, directExecutor());
+        root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        root.setHardCpuLimit(new Duration(500, MILLISECONDS));
+        root.setCpuQuotaGenerationMillisPerSecond(1000);
+        root.setMaxQueuedQueries(1);
+        root.setHardConcurrencyLimit(3);
+        InternalResourceGroup group1 = root.getOrCreateSubGroup("1");
+        group1.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group1.setMaxQueuedQueries(1);
+        group1.setHardConcurrencyLimit(3);
+        InternalResourceGroup group2 = root.getOrCreateSubGroup("2");
+        group2.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+        group2.setMaxQueuedQueries(1);
+        group2.setHardConcurrencyLimit(3);
+
+        MockQueryExecution query1 = new MockQueryExecution(0, "query_id", 1, new Duration(2, SECONDS));
+        group1.run(query1);
+        MockQueryExecution query2 = new MockQueryExecution(0, "query_id", 1, new Duration(1, SECONDS));
+        group2.run(query2);
+        assertEquals(query1.getState(), RUNNING);
+        assertEquals(query2.getState(), RUNNING);
+
+        // charge 3s of running CPU time to the root, and pay a third of it down
+        root.processQueuedQueries();
+        root.generateCpuQuota(1);
+
+        // the failed query gives back its share of the remaining 2s, and the usage of the other query is kept
+        query1.fail(new RuntimeException());
+        root.processQueuedQueries();
+        MockQueryExecution query3 = new MockQueryExecution(0);
+        group2.run(query3);
+        assertEquals(query3.getState(), QUEUED);
+
+        root.generateCpuQuota(1);
+        root.processQueuedQueries();
+        assertEquals(query3.getState(), RUNNING);
+    }
+
     @Test(timeOut = 10_000)
     public void testPriorityScheduling()
     {
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.client.NodeVersion;
+import com.facebook.presto.metadata.PrestoNode;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.testing.TestingTicker;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.Optional;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestNodeLoadTracker
+{
+    private static final Node NODE = new PrestoNode("node", URI.create("http://127.0.0.1:11"), NodeVersion.UNKNOWN, false);
+
+    @Test
+    public void testLoadFactor()
+    {
+        NodeLoadTracker tracker = new NodeLoadTracker(new TestingTicker());
+        assertEquals(tracker.getLoadFactor(NODE), 1.0);
+
+        tracker.update("node", new NodeLoad(0.5, 4, 4, 4), Optional.empty());
+        assertEquals(tracker.getLoadFactor(NODE), 2.5);
+
+        // CPU and queue penalties are capped, low memory headroom adds a penalty
+        tracker.update("node", new NodeLoad(2.0, 4, 1000, 4), Optional.of(new MemoryPoolInfo(100, 95, 0, ImmutableMap.of(), ImmutableMap.of())));
+        assertEquals(tracker.getLoadFactor(NODE), 5.0);
+
+        // CPU load is not available
+        tracker.update("node", new NodeLoad(-1, 0, 0, 0), Optional.empty());
+        assertEquals(tracker.getLoadFactor(NODE), 1.0);
+    }
+
+    @Test
+    public void testStaleAndRemovedLoads()
+    {
+        TestingTicker ticker = new TestingTicker();
+        NodeLoadTracker tracker = new NodeLoadTracker(ticker);
+
+        tracker.update("node", new NodeLoad(1.0, 4, 4, 4), Optional.empty());
+        assertEquals(tracker.getLoadFactor(NODE), 3.0);
+        ticker.increment(11, SECONDS);
+        assertEquals(tracker.getLoadFactor(NODE), 1.0);
+
+        tracker.update("node", new NodeLoad(1.0, 4, 4, 4), Optional.empty());
+        tracker.retainNodes(ImmutableSet.of("other"));
+        assertEquals(tracker.getLoadFactor(NODE), 1.0);
+    }
+}
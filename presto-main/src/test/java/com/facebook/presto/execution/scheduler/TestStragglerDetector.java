@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.execution.scheduler.StragglerDetector.TaskProgress;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.execution.scheduler.StragglerDetector.findStragglers;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestStragglerDetector
+{
+    @Test
+    public void testSlowTaskWithPendingSplits()
+    {
+        assertEquals(
+                findStragglers(ImmutableList.of(
+                        progress("node1", 60, 100, 5),
+                        progress("node2", 60, 90, 5),
+                        progress("node3", 60, 110, 5),
+                        progress("node4", 60, 10, 5))),
+                ImmutableSet.of("node4"));
+    }
+
+    @Test
+    public void testSlowTaskWithoutPendingSplits()
+    {
+        // a task that has nothing left to run does not delay the stage
+        assertEquals(
+                findStragglers(ImmutableList.of(
+                        progress("node1", 60, 100, 5),
+                        progress("node2", 60, 90, 5),
+                        progress("node3", 60, 110, 5),
+                        progress("node4", 60, 10, 0))),
+                ImmutableSet.of());
+    }
+
+    @Test
+    public void testNotEnoughInformation()
+    {
+        // too few tasks to compare
+        assertEquals(
+                findStragglers(ImmutableList.of(
+                        progress("node1", 60, 100, 5),
+                        progress("node2", 60, 10, 5))),
+                ImmutableSet.of());
+
+        // tasks have just started
+        assertEquals(
+                findStragglers(ImmutableList.of(
+                        progress("node1", 1, 100, 5),
+                        progress("node2", 1, 90, 5),
+                        progress("node3", 1, 110, 5),
+                        progress("node4", 1, 0, 5))),
+                ImmutableSet.of());
+
+        // no task has completed a split yet
+        assertEquals(
+                findStragglers(ImmutableList.of(
+                        progress("node1", 60, 0, 5),
+                        progress("node2", 60, 0, 5),
+                        progress("node3", 60, 0, 5))),
+                ImmutableSet.of());
+    }
+
+    private static TaskProgress progress(String nodeId, int elapsedSeconds, int completedSplits, int pendingSplits)
+    {
+        return new TaskProgress(nodeId, new Duration(elapsedSeconds, SECONDS), completedSplits, pendingSplits);
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Map;
 import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static org.testng.Assert.fail;
 
 public class TestNodeMemoryConfig
@@ -46,10 +47,12 @@ public class TestNodeMemoryConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("query.max-memory-per-node", "1GB")
+                .put("query.memory-reservation-batch-size", "1MB")
                 .build();
 
         NodeMemoryConfig expected = new NodeMemoryConfig()
-                .setMaxQueryMemoryPerNode(new DataSize(1, GIGABYTE));
+                .setMaxQueryMemoryPerNode(new DataSize(1, GIGABYTE))
+                .setReservationBatchSize(new DataSize(1, MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
@@ -26,6 +26,7 @@ import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
 import static com.facebook.presto.memory.LocalMemoryManager.RESERVED_POOL;
 import static com.facebook.presto.memory.LocalMemoryManager.SYSTEM_POOL;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 public class TestQueryContext
@@ -77,4 +78,52 @@ public class TestQueryContext
             revocableMemoryContext.close();
         }
     }
+
+    @Test
+    public void testReservationBatching()
+    {
+        MemoryPool generalPool = new MemoryPool(GENERAL_POOL, new DataSize(100, BYTE));
+        MemoryPool systemPool = new MemoryPool(SYSTEM_POOL, new DataSize(100, BYTE));
+        try (LocalQueryRunner localQueryRunner = new LocalQueryRunner(TEST_SESSION)) {
+            QueryContext queryContext = new QueryContext(
+                    new QueryId("query"),
+                    new DataSize(100, BYTE),
+                    generalPool,
+                    systemPool,
+                    localQueryRunner.getExecutor(),
+                    localQueryRunner.getScheduler(),
+                    new DataSize(0, BYTE),
+                    new SpillSpaceTracker(new DataSize(0, BYTE)),
+                    new DataSize(10, BYTE));
+
+            LocalMemoryContext userMemoryContext = queryContext.getQueryMemoryContext().localUserMemoryContext();
+            LocalMemoryContext systemMemoryContext = queryContext.getQueryMemoryContext().localSystemMemoryContext();
+
+            // reservations grow in whole batches
+            assertTrue(userMemoryContext.setBytes(3).isDone());
+            assertEquals(generalPool.getReservedBytes(), 10);
+            assertTrue(userMemoryContext.setBytes(10).isDone());
+            assertEquals(generalPool.getReservedBytes(), 10);
+            assertTrue(userMemoryContext.setBytes(15).isDone());
+            assertEquals(generalPool.getReservedBytes(), 20);
+
+            // up to one batch of slack is kept when usage shrinks
+            assertTrue(userMemoryContext.setBytes(12).isDone());
+            assertEquals(generalPool.getReservedBytes(), 20);
+            assertTrue(userMemoryContext.setBytes(5).isDone());
+            assertEquals(generalPool.getReservedBytes(), 10);
+
+            assertTrue(userMemoryContext.trySetBytes(25));
+            assertEquals(generalPool.getReservedBytes(), 30);
+
+            assertTrue(systemMemoryContext.setBytes(1).isDone());
+            assertEquals(systemPool.getReservedBytes(), 10);
+
+            // everything is returned to the pools once the query releases its memory
+            userMemoryContext.close();
+            systemMemoryContext.close();
+            assertEquals(generalPool.getReservedBytes(), 0);
+            assertEquals(systemPool.getReservedBytes(), 0);
+        }
+    }
 }
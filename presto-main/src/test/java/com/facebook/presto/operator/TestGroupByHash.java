@@ -20,6 +20,7 @@ import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.block.DictionaryId;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.testing.TestingSession;
@@ -38,7 +39,9 @@ import java.util.stream.IntStream;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
+import static com.facebook.presto.operator.UpdateMemory.NOOP;
 import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
@@ -135,6 +138,82 @@ public class TestGroupByHash
         }
     }
 
+    @Test
+    public void testRunLengthEncodedInput()
+    {
+        GroupByHash bigintGroupByHash = createGroupByHash(TEST_SESSION, ImmutableList.of(BIGINT), new int[] {0}, Optional.of(1), 100, JOIN_COMPILER);
+        GroupByHash varcharGroupByHash = createGroupByHash(TEST_SESSION, ImmutableList.of(VARCHAR), new int[] {0}, Optional.of(1), 100, JOIN_COMPILER);
+        assertRunLengthEncodedGroupIds(bigintGroupByHash, BIGINT, createLongsBlock(3L), createLongsBlock(5L));
+        assertRunLengthEncodedGroupIds(bigintGroupByHash, BIGINT, createLongsBlock((Long) null), createLongsBlock(3L));
+        assertRunLengthEncodedGroupIds(varcharGroupByHash, VARCHAR, createStringsBlock("a"), createStringsBlock("b"));
+        assertRunLengthEncodedGroupIds(varcharGroupByHash, VARCHAR, createStringsBlock((String) null), createStringsBlock("a"));
+    }
+
+    private static void assertRunLengthEncodedGroupIds(GroupByHash groupByHash, Type type, Block value, Block otherValue)
+    {
+        Block block = new RunLengthEncodedBlock(value, 100);
+        Page page = new Page(block, getHashBlock(ImmutableList.of(type), block));
+        int groupCount = groupByHash.getGroupCount();
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupByHash.getGroupCount(), groupCount + 1);
+        assertEquals(groupIds.getPositionCount(), 100);
+        long groupId = groupIds.getGroupId(0);
+        for (int position = 0; position < 100; position++) {
+            assertEquals(groupIds.getGroupId(position), groupId);
+        }
+
+        // the group is the one found for the value on its own
+        Page flatPage = new Page(value, getHashBlock(ImmutableList.of(type), value));
+        work = groupByHash.getGroupIds(flatPage);
+        assertTrue(work.process());
+        assertEquals(work.getResult().getGroupId(0), groupId);
+
+        // adding the other value as a flat page afterwards finds the group added for the run-length encoded page
+        Block otherBlock = new RunLengthEncodedBlock(otherValue, 10);
+        assertTrue(groupByHash.addPage(new Page(otherBlock, getHashBlock(ImmutableList.of(type), otherBlock))).process());
+        int groupCountWithOtherValue = groupByHash.getGroupCount();
+        assertTrue(groupByHash.addPage(new Page(otherValue, getHashBlock(ImmutableList.of(type), otherValue))).process());
+        assertEquals(groupByHash.getGroupCount(), groupCountWithOtherValue);
+    }
+
+    @Test
+    public void testMultiChannelDictionary()
+    {
+        List<Type> types = ImmutableList.of(VARCHAR, BIGINT, BIGINT);
+        GroupByHash dictionaryGroupByHash = createGroupByHash(types, new int[] {0, 1, 2}, Optional.empty(), 100, true, JOIN_COMPILER, NOOP);
+        GroupByHash groupByHash = createGroupByHash(types, new int[] {0, 1, 2}, Optional.empty(), 100, false, JOIN_COMPILER, NOOP);
+
+        Block varcharDictionary = createStringsBlock("a", "b", null);
+        Block bigintDictionary = createLongsBlock(1L, 2L);
+        Block constant = createLongsBlock(7L);
+        int[][] varcharIds = {{0, 1, 2, 0, 1, 2, 0}, {2, 2, 1, 0, 0, 1, 1}};
+        int[][] bigintIds = {{0, 0, 0, 1, 1, 1, 0}, {1, 0, 1, 0, 1, 0, 1}};
+
+        // the pages share the dictionaries, so the group ids found for the first page are reused for the second
+        for (int page = 0; page < varcharIds.length; page++) {
+            Page input = new Page(
+                    new DictionaryBlock(varcharIds[page].length, varcharDictionary, varcharIds[page]),
+                    new DictionaryBlock(bigintIds[page].length, bigintDictionary, bigintIds[page]),
+                    new RunLengthEncodedBlock(constant, varcharIds[page].length));
+
+            Work<GroupByIdBlock> dictionaryWork = dictionaryGroupByHash.getGroupIds(input);
+            assertTrue(dictionaryWork.process());
+            GroupByIdBlock dictionaryGroupIds = dictionaryWork.getResult();
+            Work<GroupByIdBlock> work = groupByHash.getGroupIds(input);
+            assertTrue(work.process());
+            GroupByIdBlock groupIds = work.getResult();
+
+            assertEquals(dictionaryGroupByHash.getGroupCount(), groupByHash.getGroupCount());
+            for (int position = 0; position < input.getPositionCount(); position++) {
+                assertEquals(dictionaryGroupIds.getGroupId(position), groupIds.getGroupId(position));
+            }
+        }
+        assertEquals(dictionaryGroupByHash.getGroupCount(), 6);
+    }
+
     @Test
     public void testTypes()
     {
@@ -33,6 +33,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -58,7 +59,9 @@ import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.testing.Assertions.assertContains;
 import static io.airlift.testing.Assertions.assertInstanceOf;
+import static io.airlift.testing.Assertions.assertLessThan;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.testng.Assert.assertEquals;
 
 public class TestHttpPageBufferClient
@@ -174,6 +177,107 @@ public class TestHttpPageBufferClient
         assertStatus(client, location, "closed", 3, 5, 5, 0, "not scheduled");
     }
 
+    @Test
+    public void testEagerCompletion()
+            throws Exception
+    {
+        Page expectedPage = new Page(100);
+
+        DataSize expectedMaxSize = new DataSize(11, Unit.MEGABYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(expectedMaxSize);
+
+        CyclicBarrier requestComplete = new CyclicBarrier(2);
+
+        TestingClientCallback callback = new TestingClientCallback(requestComplete);
+
+        URI location = URI.create("http://localhost:8080");
+        HttpPageBufferClient client = new HttpPageBufferClient(new TestingHttpClient(processor, scheduler),
+                expectedMaxSize,
+                new Duration(1, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                location,
+                callback,
+                scheduler,
+                pageBufferClientCallbackExecutor,
+                true);
+
+        // fetch a page and verify
+        processor.addPage(location, expectedPage);
+        callback.resetStats();
+        client.scheduleRequest();
+        requestComplete.await(10, TimeUnit.SECONDS);
+
+        assertEquals(callback.getPages().size(), 1);
+        assertEquals(callback.getCompletedRequests(), 1);
+        assertEquals(callback.getFinishedBuffers(), 0);
+
+        // the buffer complete signal finishes the client without waiting for the delete
+        callback.resetStats();
+        processor.setComplete(location);
+        client.scheduleRequest();
+        requestComplete.await(10, TimeUnit.SECONDS);
+
+        assertEquals(callback.getPages().size(), 0);
+        assertEquals(callback.getCompletedRequests(), 0);
+        assertEquals(callback.getFinishedBuffers(), 1);
+
+        // the delete is sent in the background and does not report the client finished again
+        long start = System.nanoTime();
+        while (!client.getStatus().getState().equals("closed") || client.isRunning()) {
+            assertLessThan(Duration.nanosSince(start), new Duration(10, TimeUnit.SECONDS));
+            MILLISECONDS.sleep(10);
+        }
+        assertEquals(callback.getCompletedRequests(), 0);
+        assertEquals(callback.getFinishedBuffers(), 1);
+        assertEquals(callback.getFailedBuffers(), 0);
+        assertStatus(client, location, "closed", 1, 3, 3, 0, "not scheduled");
+    }
+
+    @Test
+    public void testEagerCompletionDeleteFailure()
+            throws Exception
+    {
+        DataSize expectedMaxSize = new DataSize(11, Unit.MEGABYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(expectedMaxSize);
+
+        CyclicBarrier requestComplete = new CyclicBarrier(2);
+
+        TestingClientCallback callback = new TestingClientCallback(requestComplete);
+
+        URI location = URI.create("http://localhost:8080");
+        HttpPageBufferClient client = new HttpPageBufferClient(
+                new TestingHttpClient(request -> {
+                    if (request.getMethod().equalsIgnoreCase("DELETE")) {
+                        throw new IOException("delete failed");
+                    }
+                    return processor.handle(request);
+                }, scheduler),
+                expectedMaxSize,
+                new Duration(1, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                location,
+                callback,
+                scheduler,
+                pageBufferClientCallbackExecutor,
+                true);
+
+        processor.setComplete(location);
+        client.scheduleRequest();
+        requestComplete.await(10, TimeUnit.SECONDS);
+        assertEquals(callback.getFinishedBuffers(), 1);
+
+        // the failed delete is logged, but does not fail the exchange that already has all pages
+        long start = System.nanoTime();
+        while (!client.getStatus().getState().equals("closed") || client.isRunning()) {
+            assertLessThan(Duration.nanosSince(start), new Duration(10, TimeUnit.SECONDS));
+            MILLISECONDS.sleep(10);
+        }
+        assertEquals(callback.getCompletedRequests(), 0);
+        assertEquals(callback.getFinishedBuffers(), 1);
+        assertEquals(callback.getFailedBuffers(), 0);
+        assertStatus(client, location, "closed", 0, 2, 2, 1, "not scheduled");
+    }
+
     @Test
     public void testLifecycle()
             throws Exception
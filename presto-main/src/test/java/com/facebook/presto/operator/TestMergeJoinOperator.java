@@ -0,0 +1,403 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.operator.LookupJoinOperators.JoinType;
+import com.facebook.presto.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.operator.LookupJoinOperators.JoinType.FULL_OUTER;
+import static com.facebook.presto.operator.LookupJoinOperators.JoinType.INNER;
+import static com.facebook.presto.operator.LookupJoinOperators.JoinType.LOOKUP_OUTER;
+import static com.facebook.presto.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_FIRST;
+import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_LAST;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestMergeJoinOperator
+{
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+    private DriverContext driverContext;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+        driverContext = createDriverContext();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testInnerJoin()
+    {
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT, VARCHAR)
+                .row(2L, "b", 2L, "x")
+                .row(2L, "b", 2L, "y")
+                .row(2L, "c", 2L, "x")
+                .row(2L, "c", 2L, "y")
+                .row(4L, "d", 4L, "w")
+                .build();
+
+        assertOperatorEquals(createOperatorFactory(INNER, createFinishedSource()), driverContext, createProbePages(), expected);
+    }
+
+    @Test
+    public void testProbeOuterJoin()
+    {
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT, VARCHAR)
+                .row(1L, "a", null, null)
+                .row(2L, "b", 2L, "x")
+                .row(2L, "b", 2L, "y")
+                .row(2L, "c", 2L, "x")
+                .row(2L, "c", 2L, "y")
+                .row(4L, "d", 4L, "w")
+                .row(null, "e", null, null)
+                .build();
+
+        assertOperatorEquals(createOperatorFactory(PROBE_OUTER, createFinishedSource()), driverContext, createProbePages(), expected);
+    }
+
+    @Test
+    public void testFullOuterJoin()
+    {
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT, VARCHAR)
+                .row(1L, "a", null, null)
+                .row(2L, "b", 2L, "x")
+                .row(2L, "b", 2L, "y")
+                .row(2L, "c", 2L, "x")
+                .row(2L, "c", 2L, "y")
+                .row(null, null, 3L, "z")
+                .row(4L, "d", 4L, "w")
+                .row(null, "e", null, null)
+                .row(null, null, null, "v")
+                .build();
+
+        assertOperatorEquals(createOperatorFactory(FULL_OUTER, createFinishedSource()), driverContext, createProbePages(), expected);
+    }
+
+    @Test
+    public void testLookupOuterJoin()
+    {
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT, VARCHAR)
+                .row(2L, "b", 2L, "x")
+                .row(2L, "b", 2L, "y")
+                .row(2L, "c", 2L, "x")
+                .row(2L, "c", 2L, "y")
+                .row(null, null, 3L, "z")
+                .row(4L, "d", 4L, "w")
+                .row(null, null, null, "v")
+                .build();
+
+        assertOperatorEquals(createOperatorFactory(LOOKUP_OUTER, createFinishedSource()), driverContext, createProbePages(), expected);
+    }
+
+    @Test
+    public void testMultipleKeys()
+    {
+        // the second key is sorted in descending order
+        List<Page> probePages = rowPagesBuilder(BIGINT, VARCHAR, BIGINT)
+                .row(1L, "b", 11L)
+                .row(1L, "b", 12L)
+                .row(1L, "a", 10L)
+                .pageBreak()
+                .row(2L, "c", 14L)
+                .row(2L, "a", 13L)
+                .row(3L, null, 15L)
+                .build();
+        List<Page> buildPages = rowPagesBuilder(BIGINT, VARCHAR, VARCHAR)
+                .row(1L, "c", "y")
+                .row(1L, "b", "x")
+                .pageBreak()
+                .row(2L, "c", "v")
+                .row(2L, "a", "z")
+                .row(2L, "a", "w")
+                .build();
+
+        MergeJoinOperatorFactory operatorFactory = new MergeJoinOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                FULL_OUTER,
+                ImmutableList.of(BIGINT, VARCHAR, BIGINT),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(2),
+                ImmutableList.of(BIGINT, VARCHAR, VARCHAR),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(2),
+                ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_LAST),
+                createFinishedSource(buildPages));
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR)
+                .row(null, "y")
+                .row(11L, "x")
+                .row(12L, "x")
+                .row(10L, null)
+                .row(14L, "v")
+                .row(13L, "z")
+                .row(13L, "w")
+                .row(15L, null)
+                .build();
+
+        assertOperatorEquals(operatorFactory, driverContext, probePages, expected);
+    }
+
+    @Test
+    public void testDescendingNullsFirst()
+    {
+        List<Page> probePages = rowPagesBuilder(BIGINT, VARCHAR)
+                .row(null, "e")
+                .row(4L, "d")
+                .pageBreak()
+                .row(2L, "b")
+                .row(2L, "c")
+                .row(1L, "a")
+                .build();
+        List<Page> buildPages = rowPagesBuilder(BIGINT, VARCHAR)
+                .row(null, "v")
+                .row(4L, "w")
+                .row(3L, "z")
+                .pageBreak()
+                .row(2L, "x")
+                .row(2L, "y")
+                .build();
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT, VARCHAR)
+                .row(null, "e", null, null)
+                .row(null, null, null, "v")
+                .row(4L, "d", 4L, "w")
+                .row(null, null, 3L, "z")
+                .row(2L, "b", 2L, "x")
+                .row(2L, "b", 2L, "y")
+                .row(2L, "c", 2L, "x")
+                .row(2L, "c", 2L, "y")
+                .row(1L, "a", null, null)
+                .build();
+
+        assertOperatorEquals(createOperatorFactory(FULL_OUTER, DESC_NULLS_FIRST, createFinishedSource(buildPages)), driverContext, probePages, expected);
+    }
+
+    @Test
+    public void testNaNKeys()
+    {
+        List<Page> probePages = rowPagesBuilder(DOUBLE, VARCHAR)
+                .row(1.0, "a")
+                .row(2.0, "b")
+                .pageBreak()
+                .row(Double.NaN, "c")
+                .row(Double.NaN, "d")
+                .build();
+        List<Page> buildPages = rowPagesBuilder(DOUBLE, VARCHAR)
+                .row(2.0, "x")
+                .row(Double.NaN, "y")
+                .pageBreak()
+                .row(Double.NaN, "z")
+                .build();
+
+        // NaN is equal to itself in the sort order, but a NaN key never matches, as in the hash join
+        MaterializedResult expected = resultBuilder(TEST_SESSION, DOUBLE, VARCHAR, DOUBLE, VARCHAR)
+                .row(1.0, "a", null, null)
+                .row(2.0, "b", 2.0, "x")
+                .row(Double.NaN, "c", null, null)
+                .row(Double.NaN, "d", null, null)
+                .row(null, null, Double.NaN, "y")
+                .row(null, null, Double.NaN, "z")
+                .build();
+
+        MergeJoinOperatorFactory operatorFactory = new MergeJoinOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                FULL_OUTER,
+                ImmutableList.of(DOUBLE, VARCHAR),
+                ImmutableList.of(0),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(DOUBLE, VARCHAR),
+                ImmutableList.of(0),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(ASC_NULLS_LAST),
+                createFinishedSource(buildPages));
+        assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, probePages, expected);
+    }
+
+    @Test
+    public void testBuildSideFinishesFirst()
+            throws Exception
+    {
+        List<Page> probePages = rowPagesBuilder(BIGINT, VARCHAR)
+                .row(1L, "a")
+                .row(2L, "b")
+                .pageBreak()
+                .row(3L, "c")
+                .row(4L, "d")
+                .build();
+        List<Page> buildPages = rowPagesBuilder(BIGINT, VARCHAR)
+                .row(1L, "x")
+                .build();
+
+        // the inner join finishes once the build side is exhausted, without reading the rest of the probe side
+        Operator operator = createOperatorFactory(INNER, ASC_NULLS_LAST, createFinishedSource(buildPages)).createOperator(driverContext);
+        operator.addInput(probePages.get(0));
+        Page output = operator.getOutput();
+        assertEquals(output.getPositionCount(), 1);
+        assertTrue(operator.isFinished());
+        assertFalse(operator.needsInput());
+        operator.close();
+
+        // the remaining probe rows of an outer join are produced without a match
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT, VARCHAR)
+                .row(1L, "a", 1L, "x")
+                .row(2L, "b", null, null)
+                .row(3L, "c", null, null)
+                .row(4L, "d", null, null)
+                .build();
+
+        assertOperatorEquals(createOperatorFactory(PROBE_OUTER, ASC_NULLS_LAST, createFinishedSource(buildPages)), createDriverContext(), probePages, expected);
+    }
+
+    @Test
+    public void testBlockedOnBuildSide()
+            throws Exception
+    {
+        MergeJoinSource source = new MergeJoinSource(1);
+        Operator sink = new MergeJoinSinkOperatorFactory(1, new PlanNodeId("build"), source).createOperator(driverContext);
+        Operator operator = createOperatorFactory(INNER, source).createOperator(driverContext);
+
+        operator.addInput(createProbePages().get(0));
+        assertNull(operator.getOutput());
+        assertFalse(operator.isBlocked().isDone());
+
+        List<Page> buildPages = createBuildPages();
+        assertTrue(sink.needsInput());
+        sink.addInput(buildPages.get(0));
+        assertTrue(operator.isBlocked().isDone());
+
+        // the buffer is full until the join consumes the page
+        assertFalse(sink.needsInput());
+        assertNull(operator.getOutput());
+        assertFalse(operator.isBlocked().isDone());
+        assertTrue(sink.needsInput());
+        sink.addInput(buildPages.get(1));
+        assertTrue(operator.isBlocked().isDone());
+
+        // the inner join finishes without waiting for the end of the build side
+        operator.finish();
+        Page output = operator.getOutput();
+        assertEquals(output.getPositionCount(), 4);
+        assertTrue(operator.isFinished());
+        assertTrue(sink.isFinished());
+
+        operator.close();
+        sink.close();
+    }
+
+    private DriverContext createDriverContext()
+    {
+        return createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true)
+                .addDriverContext();
+    }
+
+    private MergeJoinOperatorFactory createOperatorFactory(JoinType joinType, MergeJoinSource source)
+    {
+        return createOperatorFactory(joinType, ASC_NULLS_LAST, source);
+    }
+
+    private MergeJoinOperatorFactory createOperatorFactory(JoinType joinType, SortOrder sortOrder, MergeJoinSource source)
+    {
+        return new MergeJoinOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                joinType,
+                ImmutableList.of(BIGINT, VARCHAR),
+                ImmutableList.of(0),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(BIGINT, VARCHAR),
+                ImmutableList.of(0),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(sortOrder),
+                source);
+    }
+
+    private static MergeJoinSource createFinishedSource()
+    {
+        return createFinishedSource(createBuildPages());
+    }
+
+    private static MergeJoinSource createFinishedSource(List<Page> buildPages)
+    {
+        MergeJoinSource source = new MergeJoinSource(10);
+        buildPages.forEach(source::addPage);
+        source.finish();
+        return source;
+    }
+
+    private static List<Page> createProbePages()
+    {
+        return rowPagesBuilder(BIGINT, VARCHAR)
+                .row(1L, "a")
+                .row(2L, "b")
+                .row(2L, "c")
+                .pageBreak()
+                .row(4L, "d")
+                .row(null, "e")
+                .build();
+    }
+
+    private static List<Page> createBuildPages()
+    {
+        return rowPagesBuilder(BIGINT, VARCHAR)
+                .row(2L, "x")
+                .row(2L, "y")
+                .pageBreak()
+                .row(3L, "z")
+                .row(4L, "w")
+                .row(null, "v")
+                .build();
+    }
+}
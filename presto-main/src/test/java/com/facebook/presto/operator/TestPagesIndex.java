@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static java.lang.String.format;
@@ -82,6 +83,66 @@ public class TestPagesIndex
         assertEquals(lazyCompactPagesIndex.getEstimatedSize(), eagerCompactPagesIndex.getEstimatedSize());
     }
 
+    @Test
+    public void testConsolidatePages()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+
+        PagesIndex pagesIndex = newPagesIndex(types, 50, false);
+        PagesIndex consolidatedPagesIndex = new PagesIndex.TestingFactory(false, true).newPagesIndex(types, 50);
+        for (int i = 0; i < 5; i++) {
+            pagesIndex.addPage(somePage(types));
+            consolidatedPagesIndex.addPage(somePage(types));
+        }
+
+        consolidatedPagesIndex.compact();
+        assertEquals(consolidatedPagesIndex.getChannel(0).size(), 1);
+        assertEquals(consolidatedPagesIndex.getChannel(1).size(), 1);
+        assertEquals(consolidatedPagesIndex.getPositionCount(), pagesIndex.getPositionCount());
+        for (int position = 0; position < pagesIndex.getPositionCount(); position++) {
+            assertEquals(consolidatedPagesIndex.getLong(0, position), pagesIndex.getLong(0, position));
+            assertEquals(consolidatedPagesIndex.getSlice(1, position), pagesIndex.getSlice(1, position));
+        }
+
+        // pages added after a compaction are consolidated separately
+        consolidatedPagesIndex.addPage(somePage(types));
+        consolidatedPagesIndex.compact();
+        assertEquals(consolidatedPagesIndex.getChannel(0).size(), 2);
+        assertEquals(consolidatedPagesIndex.getLong(0, 35), consolidatedPagesIndex.getLong(0, 0));
+    }
+
+    @Test
+    public void testConsolidationMemory()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false, true).newPagesIndex(types, 50);
+        Page page = somePage(types);
+        pagesIndex.addPage(page);
+        pagesIndex.addPage(page);
+        // the larger channel is copied while its old blocks are still referenced
+        assertEquals(pagesIndex.getConsolidationMemoryInBytes(), 2 * Math.max(page.getBlock(0).getSizeInBytes(), page.getBlock(1).getSizeInBytes()));
+
+        pagesIndex.consolidatePages();
+        assertEquals(pagesIndex.getChannel(0).size(), 1);
+        assertEquals(pagesIndex.getConsolidationMemoryInBytes(), 0);
+
+        // sorting reorders the addresses, so pages added afterwards are not consolidated
+        pagesIndex.addPage(page);
+        pagesIndex.sort(ImmutableList.of(0), ImmutableList.of(ASC_NULLS_LAST));
+        assertEquals(pagesIndex.getConsolidationMemoryInBytes(), 0);
+        pagesIndex.consolidatePages();
+        assertEquals(pagesIndex.getChannel(0).size(), 2);
+
+        // nothing is consolidated when consolidation is disabled
+        PagesIndex disabledPagesIndex = newPagesIndex(types, 50, false);
+        disabledPagesIndex.addPage(page);
+        disabledPagesIndex.addPage(page);
+        assertEquals(disabledPagesIndex.getConsolidationMemoryInBytes(), 0);
+        disabledPagesIndex.consolidatePages();
+        assertEquals(disabledPagesIndex.getChannel(0).size(), 2);
+    }
+
     private static PagesIndex newPagesIndex(List<Type> types, int expectedPositions, boolean eagerCompact)
     {
         return new PagesIndex.TestingFactory(eagerCompact).newPagesIndex(types, expectedPositions);
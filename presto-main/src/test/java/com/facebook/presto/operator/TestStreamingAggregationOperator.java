@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.metadata.Signature;
+import com.facebook.presto.operator.StreamingAggregationOperator.StreamingAggregationOperatorFactory;
+import com.facebook.presto.operator.aggregation.InternalAggregationFunction;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.sql.gen.JoinCompiler;
+import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.metadata.FunctionKind.AGGREGATE;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestStreamingAggregationOperator
+{
+    private static final MetadataManager metadata = MetadataManager.createTestMetadataManager();
+
+    private static final InternalAggregationFunction LONG_SUM = metadata.getFunctionRegistry().getAggregateFunctionImplementation(
+            new Signature("sum", AGGREGATE, BIGINT.getTypeSignature(), BIGINT.getTypeSignature()));
+    private static final InternalAggregationFunction COUNT = metadata.getFunctionRegistry().getAggregateFunctionImplementation(
+            new Signature("count", AGGREGATE, BIGINT.getTypeSignature()));
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+    private DriverContext driverContext;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+        driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true)
+                .addDriverContext();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testGroupedInput()
+    {
+        List<Page> input = rowPagesBuilder(VARCHAR, BIGINT)
+                .row("a", 1L)
+                .row("a", 2L)
+                .row("b", 3L)
+                .row("b", 4L)
+                .row("b", 5L)
+                .pageBreak()
+                .row("b", 6L)
+                .row("c", 7L)
+                .row(null, 8L)
+                .row(null, 9L)
+                .pageBreak()
+                .row("d", 10L)
+                .build();
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT)
+                .row("a", 2L, 3L)
+                .row("b", 4L, 18L)
+                .row("c", 1L, 7L)
+                .row(null, 2L, 17L)
+                .row("d", 1L, 10L)
+                .build();
+
+        OperatorFactory operatorFactory = new StreamingAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(VARCHAR, BIGINT),
+                ImmutableList.of(VARCHAR),
+                ImmutableList.of(0),
+                ImmutableList.of(0),
+                Step.SINGLE,
+                ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty()),
+                        LONG_SUM.bind(ImmutableList.of(1), Optional.empty())),
+                Optional.empty(),
+                10_000,
+                new DataSize(16, MEGABYTE),
+                new JoinCompiler());
+
+        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+    }
+
+    @Test
+    public void testPartiallyGroupedInput()
+    {
+        // grouped on the first key only
+        List<Page> input = rowPagesBuilder(BIGINT, BIGINT, BIGINT)
+                .row(1L, 1L, 1L)
+                .row(1L, 2L, 2L)
+                .row(1L, 1L, 3L)
+                .row(2L, 1L, 4L)
+                .pageBreak()
+                .row(2L, 2L, 5L)
+                .row(2L, 1L, 6L)
+                .pageBreak()
+                .row(3L, 1L, 7L)
+                .row(3L, 1L, 8L)
+                .row(4L, 2L, 9L)
+                .build();
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, BIGINT, BIGINT, BIGINT)
+                .row(1L, 1L, 2L, 4L)
+                .row(1L, 2L, 1L, 2L)
+                .row(2L, 1L, 2L, 10L)
+                .row(2L, 2L, 1L, 5L)
+                .row(3L, 1L, 2L, 15L)
+                .row(4L, 2L, 1L, 9L)
+                .build();
+
+        // a small number of expected groups flushes the hash at most group boundaries
+        for (int expectedGroups : new int[] {1, 2, 10_000}) {
+            OperatorFactory operatorFactory = new StreamingAggregationOperatorFactory(
+                    0,
+                    new PlanNodeId("test"),
+                    ImmutableList.of(BIGINT, BIGINT, BIGINT),
+                    ImmutableList.of(BIGINT, BIGINT),
+                    ImmutableList.of(0, 1),
+                    ImmutableList.of(0),
+                    Step.SINGLE,
+                    ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty()),
+                            LONG_SUM.bind(ImmutableList.of(2), Optional.empty())),
+                    Optional.empty(),
+                    expectedGroups,
+                    new DataSize(16, MEGABYTE),
+                    new JoinCompiler());
+            DriverContext newDriverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                    .addPipelineContext(0, true, true)
+                    .addDriverContext();
+            assertOperatorEqualsIgnoreOrder(operatorFactory, newDriverContext, input, expected);
+        }
+    }
+
+    @Test
+    public void testPartialFlushWhenFull()
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(BIGINT, BIGINT);
+        for (long i = 0; i < 100; i++) {
+            rowPagesBuilder.row(1L, i);
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        OperatorFactory operatorFactory = new StreamingAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT, BIGINT),
+                ImmutableList.of(BIGINT, BIGINT),
+                ImmutableList.of(0, 1),
+                ImmutableList.of(0),
+                Step.PARTIAL,
+                ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty())),
+                Optional.empty(),
+                10_000,
+                new DataSize(1, BYTE),
+                new JoinCompiler());
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+        operator.addInput(input.get(0));
+
+        // the group of the pre-grouped key is not complete, but the full partial aggregation is flushed
+        Page output = operator.getOutput();
+        assertNotNull(output);
+        assertEquals(output.getPositionCount(), 100);
+
+        // the last row is retained to find where the next page starts
+        assertTrue(operator.getOperatorContext().getOperatorStats().getSystemMemoryReservation().toBytes() > 0);
+
+        operator.finish();
+        assertNull(operator.getOutput());
+        assertTrue(operator.isFinished());
+    }
+}
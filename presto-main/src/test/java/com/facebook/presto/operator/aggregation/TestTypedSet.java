@@ -29,11 +29,13 @@ import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.spi.StandardErrorCode.EXCEEDED_FUNCTION_MEMORY_LIMIT;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.slice.Slices.utf8Slice;
 import static java.util.Collections.nCopies;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 public class TestTypedSet
@@ -104,6 +106,36 @@ public class TestTypedSet
         assertFalse(set.contains(values, 3));
     }
 
+    @Test
+    public void testIntegerTypedSet()
+    {
+        // starts small, so that the set is rehashed several times
+        TypedSet set = new TypedSet(INTEGER, 1, FUNCTION_NAME);
+        BlockBuilder blockBuilder = INTEGER.createFixedSizeBlockBuilder(2000);
+        for (int i = 0; i < 1000; i++) {
+            INTEGER.writeLong(blockBuilder, i * 7);
+        }
+        for (int i = 0; i < 1000; i++) {
+            INTEGER.writeLong(blockBuilder, i * 7);
+        }
+        blockBuilder.appendNull();
+        Block block = blockBuilder.build();
+
+        for (int i = 0; i < block.getPositionCount(); i++) {
+            set.add(block, i);
+        }
+        assertEquals(set.size(), 1001);
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(set.contains(block, i));
+            assertEquals(set.positionOf(block, i), i % 1000);
+        }
+        assertTrue(set.contains(block, 2000));
+
+        BlockBuilder missing = INTEGER.createFixedSizeBlockBuilder(1);
+        INTEGER.writeLong(missing, 3);
+        assertFalse(set.contains(missing.build(), 0));
+    }
+
     @Test
     public void testBigintSimpleTypedSet()
     {
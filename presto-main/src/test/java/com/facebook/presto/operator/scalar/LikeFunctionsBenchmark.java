@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.scalar;
+
+import com.facebook.presto.type.LikeMatcher;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.facebook.presto.type.LikeFunctions.like;
+import static com.facebook.presto.type.LikeFunctions.likePattern;
+import static com.facebook.presto.type.LikeFunctions.regexLikePattern;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+
+@State(Thread)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class LikeFunctionsBenchmark
+{
+    @Benchmark
+    public boolean benchmarkLikeSpecialized(LikeData data)
+    {
+        return like(data.getSource(), data.getSpecializedPattern());
+    }
+
+    @Benchmark
+    public boolean benchmarkLikeJoni(LikeData data)
+    {
+        return like(data.getSource(), data.getJoniPattern());
+    }
+
+    @State(Thread)
+    public static class LikeData
+    {
+        @Param({"abc%", "%error%", "%.png", "abc_%", "a%b%c"})
+        private String patternString;
+
+        @Param({"16", "1024", "32768"})
+        private int sourceLength;
+
+        private LikeMatcher specializedPattern;
+        private LikeMatcher joniPattern;
+        private Slice source;
+
+        @Setup
+        public void setup()
+        {
+            // 97-122: 'a'-'z', so the source matches the prefix and suffix patterns only by chance
+            SliceOutput sliceOutput = new DynamicSliceOutput(sourceLength);
+            ThreadLocalRandom.current().ints(97, 123).limit(sourceLength).forEach(sliceOutput::appendByte);
+
+            Slice pattern = utf8Slice(patternString);
+            specializedPattern = likePattern(pattern);
+            joniPattern = regexLikePattern(pattern);
+            source = sliceOutput.slice();
+            checkState(source.length() == sourceLength, "source.length=%s, sourceLength=%s", source.length(), sourceLength);
+        }
+
+        public Slice getSource()
+        {
+            return source;
+        }
+
+        public LikeMatcher getSpecializedPattern()
+        {
+            return specializedPattern;
+        }
+
+        public LikeMatcher getJoniPattern()
+        {
+            return joniPattern;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + LikeFunctionsBenchmark.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -33,6 +33,7 @@ import static com.facebook.presto.operator.scalar.JsonExtract.generateExtractor;
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -325,6 +326,45 @@ public class TestJsonExtract
         assertEquals(doJsonExtract("{\"15day\" : 0, \"30day\" : 1, \"90day\" : 2, }", "$[\"30day\"]"), "1");
     }
 
+    @Test
+    public void testJsonPathSet()
+    {
+        List<String> paths = ImmutableList.of("$", "$.fuu", "$.fuu.bar", "$.fuu[1]", "$.fuu[1][0]", "$[1]", "$.1", "$.bar", "$[\"fuu\"].bar");
+        List<String> inputs = ImmutableList.of(
+                "{\"fuu\": {\"bar\": 1}}",
+                "{\"fuu\": {\"bar\": [1, 2]}, \"fuu\": {\"bar\": 3}}",
+                "{\"fuu\": [0, [100, 101], 2], \"bar\": \"abc\"}",
+                "{\"fuu\": null, \"bar\": null}",
+                "{\"0\": 0, \"1\": {\"a\": 1}}",
+                "[0, [1], 2]",
+                "\"abc\"",
+                "{\"bar\": 1, \"fuu\": {\"bar\": 2}, ",
+                "{\"fuu\": {\"bar\": 1}, \"bar\": ]");
+
+        ImmutableList.Builder<JsonPath> jsonPaths = ImmutableList.builder();
+        ImmutableList.Builder<JsonPathSet.ExtractType> extractTypes = ImmutableList.builder();
+        for (String path : paths) {
+            jsonPaths.add(new JsonPath(path));
+            extractTypes.add(JsonPathSet.ExtractType.SCALAR);
+            jsonPaths.add(new JsonPath(path));
+            extractTypes.add(JsonPathSet.ExtractType.JSON);
+        }
+        JsonPathSet pathSet = new JsonPathSet(jsonPaths.build(), extractTypes.build());
+
+        // every value is the same as the one extracted for the path on its own
+        for (String input : inputs) {
+            Slice[] values = pathSet.extract(Slices.utf8Slice(input));
+            for (int i = 0; i < paths.size(); i++) {
+                String path = paths.get(i);
+                assertEquals(values[2 * i] == null ? null : values[2 * i].toStringUtf8(), doScalarExtract(input, path), input + " " + path);
+                assertEquals(values[2 * i + 1] == null ? null : values[2 * i + 1].toStringUtf8(), doJsonExtract(input, path), input + " " + path);
+            }
+        }
+
+        assertTrue(JsonPathSet.isSupported(new JsonPath("$.fuu[10]")));
+        assertFalse(JsonPathSet.isSupported(new JsonPath("$.fuu[01]")));
+    }
+
     @Test
     public void testInvalidExtracts()
     {
@@ -61,6 +61,8 @@ public class TestBasicQueryInfo
                                 Duration.valueOf("10m"),
                                 Duration.valueOf("11m"),
                                 Duration.valueOf("12m"),
+                                1,
+                                2,
                                 13,
                                 14,
                                 15,
@@ -241,6 +241,8 @@ public class TestQueryStateInfo
                         Duration.valueOf("10m"),
                         Duration.valueOf("11m"),
                         Duration.valueOf("12m"),
+                        1,
+                        2,
                         13,
                         14,
                         15,
@@ -28,9 +28,11 @@ import com.facebook.presto.execution.TestSqlTaskManager;
 import com.facebook.presto.metadata.HandleJsonModule;
 import com.facebook.presto.metadata.HandleResolver;
 import com.facebook.presto.metadata.PrestoNode;
+import com.facebook.presto.operator.PipelineStats;
+import com.facebook.presto.operator.TaskStats;
+import com.facebook.presto.operator.TestTaskStats;
 import com.facebook.presto.server.HttpRemoteTaskFactory;
 import com.facebook.presto.server.TaskUpdateRequest;
-import com.facebook.presto.spi.ErrorCode;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
@@ -77,6 +79,8 @@ import static com.facebook.presto.OutputBuffers.createInitialEmptyOutputBuffers;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CURRENT_STATE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_WAIT;
+import static com.facebook.presto.execution.TaskTestUtils.SPLIT;
+import static com.facebook.presto.execution.TaskTestUtils.TABLE_SCAN_NODE_ID;
 import static com.facebook.presto.spi.StandardErrorCode.REMOTE_TASK_ERROR;
 import static com.facebook.presto.spi.StandardErrorCode.REMOTE_TASK_MISMATCH;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
@@ -89,6 +93,7 @@ import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestHttpRemoteTask
@@ -124,6 +129,13 @@ public class TestHttpRemoteTask
         runTest(TestCase.REJECTED_EXECUTION);
     }
 
+    @Test(timeOut = 30000)
+    public void testFinalTaskInfoNotSummarized()
+            throws Exception
+    {
+        runTest(TestCase.FINISHED_BY_UPDATE);
+    }
+
     private void runTest(TestCase testCase)
             throws Exception
     {
@@ -140,10 +152,13 @@ public class TestHttpRemoteTask
                 ImmutableMultimap.of(),
                 createInitialEmptyOutputBuffers(OutputBuffers.BufferType.BROADCAST),
                 new NodeTaskMap.PartitionedSplitCountTracker(i -> {}),
-                true);
+                testCase != TestCase.FINISHED_BY_UPDATE);
 
         testingTaskResource.setInitialTaskInfo(remoteTask.getTaskInfo());
         remoteTask.start();
+        if (testCase == TestCase.FINISHED_BY_UPDATE) {
+            remoteTask.addSplits(ImmutableMultimap.of(TABLE_SCAN_NODE_ID, SPLIT.getSplit()));
+        }
 
         CompletableFuture<Void> testComplete = new CompletableFuture<>();
         asyncRun(
@@ -158,14 +173,22 @@ public class TestHttpRemoteTask
         assertTrue(remoteTask.getTaskStatus().getState().isDone(), format("TaskStatus is not in a done state: %s", remoteTask.getTaskStatus()));
         assertTrue(remoteTask.getTaskInfo().getTaskStatus().getState().isDone(), format("TaskInfo is not in a done state: %s", remoteTask.getTaskInfo()));
 
-        ErrorCode actualErrorCode = getOnlyElement(remoteTask.getTaskStatus().getFailures()).getErrorCode();
         switch (testCase) {
             case TASK_MISMATCH:
             case TASK_MISMATCH_WHEN_VERSION_IS_HIGH:
-                assertEquals(actualErrorCode, REMOTE_TASK_MISMATCH.toErrorCode());
+                assertEquals(getOnlyElement(remoteTask.getTaskStatus().getFailures()).getErrorCode(), REMOTE_TASK_MISMATCH.toErrorCode());
                 break;
             case REJECTED_EXECUTION:
-                assertEquals(actualErrorCode, REMOTE_TASK_ERROR.toErrorCode());
+                assertEquals(getOnlyElement(remoteTask.getTaskStatus().getFailures()).getErrorCode(), REMOTE_TASK_ERROR.toErrorCode());
+                break;
+            case FINISHED_BY_UPDATE:
+                // the update responses are summarized, but the final task info must still be the full one
+                assertTrue(testingTaskResource.getSummarizedUpdateCount() > 0, "no summarized task update was sent");
+                TaskInfo taskInfo = remoteTask.getTaskInfo();
+                assertEquals(taskInfo.getTaskStatus().getState(), TaskState.FINISHED);
+                PipelineStats pipelineStats = getOnlyElement(taskInfo.getStats().getPipelines());
+                assertFalse(pipelineStats.getOperatorSummaries().isEmpty(), "operator stats are missing");
+                assertFalse(pipelineStats.getDrivers().isEmpty(), "driver stats are missing");
                 break;
             default:
                 throw new UnsupportedOperationException();
@@ -256,7 +279,8 @@ public class TestHttpRemoteTask
     {
         TASK_MISMATCH,
         TASK_MISMATCH_WHEN_VERSION_IS_HIGH,
-        REJECTED_EXECUTION
+        REJECTED_EXECUTION,
+        FINISHED_BY_UPDATE
     }
 
     @Path("/task/{nodeId}")
@@ -270,11 +294,13 @@ public class TestHttpRemoteTask
 
         private TaskInfo initialTaskInfo;
         private TaskStatus initialTaskStatus;
+        private TaskStats taskStats;
         private long version;
         private TaskState taskState;
         private String taskInstanceId = INITIAL_TASK_INSTANCE_ID;
 
         private long statusFetchCounter;
+        private long summarizedUpdateCount;
 
         public TestingTaskResource(AtomicLong lastActivityNanos, TestCase testCase)
         {
@@ -292,7 +318,7 @@ public class TestHttpRemoteTask
                 @Context UriInfo uriInfo)
         {
             lastActivityNanos.set(System.nanoTime());
-            return buildTaskInfo();
+            return buildTaskInfo(uriInfo);
         }
 
         @POST
@@ -305,7 +331,16 @@ public class TestHttpRemoteTask
                 @Context UriInfo uriInfo)
         {
             lastActivityNanos.set(System.nanoTime());
-            return buildTaskInfo();
+
+            if (uriInfo.getQueryParameters().containsKey("summarize")) {
+                summarizedUpdateCount++;
+            }
+            if (testCase == TestCase.FINISHED_BY_UPDATE && taskUpdateRequest.getSources().stream().anyMatch(source -> !source.getSplits().isEmpty())) {
+                // the task reaches its final state in the update response
+                taskState = TaskState.FINISHED;
+                notifyAll();
+            }
+            return buildTaskInfo(uriInfo);
         }
 
         @GET
@@ -334,8 +369,10 @@ public class TestHttpRemoteTask
         {
             lastActivityNanos.set(System.nanoTime());
 
-            taskState = abort ? TaskState.ABORTED : TaskState.CANCELED;
-            return buildTaskInfo();
+            if (!taskState.isDone()) {
+                taskState = abort ? TaskState.ABORTED : TaskState.CANCELED;
+            }
+            return buildTaskInfo(uriInfo);
         }
 
         public void setInitialTaskInfo(TaskInfo initialTaskInfo)
@@ -344,6 +381,7 @@ public class TestHttpRemoteTask
             this.initialTaskStatus = initialTaskInfo.getTaskStatus();
             this.taskState = initialTaskStatus.getState();
             this.version = initialTaskStatus.getVersion();
+            this.taskStats = initialTaskInfo.getStats();
             switch (testCase) {
                 case TASK_MISMATCH_WHEN_VERSION_IS_HIGH:
                     // Make the initial version large enough.
@@ -353,21 +391,34 @@ public class TestHttpRemoteTask
                 case TASK_MISMATCH:
                 case REJECTED_EXECUTION:
                     break; // do nothing
+                case FINISHED_BY_UPDATE:
+                    // report full pipeline, operator and driver stats
+                    taskStats = TestTaskStats.EXPECTED;
+                    break;
                 default:
                     throw new UnsupportedOperationException();
             }
         }
 
-        private TaskInfo buildTaskInfo()
+        public synchronized long getSummarizedUpdateCount()
+        {
+            return summarizedUpdateCount;
+        }
+
+        private TaskInfo buildTaskInfo(UriInfo uriInfo)
         {
-            return new TaskInfo(
+            TaskInfo taskInfo = new TaskInfo(
                     buildTaskStatus(),
                     initialTaskInfo.getLastHeartbeat(),
                     initialTaskInfo.getOutputBuffers(),
                     initialTaskInfo.getNoMoreSplits(),
-                    initialTaskInfo.getStats(),
+                    taskStats,
                     initialTaskInfo.isNeedsPlan(),
                     initialTaskInfo.isComplete());
+            if (uriInfo.getQueryParameters().containsKey("summarize")) {
+                return taskInfo.summarize();
+            }
+            return taskInfo;
         }
 
         private TaskStatus buildTaskStatus()
@@ -387,6 +438,8 @@ public class TestHttpRemoteTask
                         throw new RejectedExecutionException();
                     }
                     break;
+                case FINISHED_BY_UPDATE:
+                    break;
                 default:
                     throw new UnsupportedOperationException();
             }
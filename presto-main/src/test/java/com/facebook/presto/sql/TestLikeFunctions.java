@@ -14,7 +14,7 @@
 package com.facebook.presto.sql;
 
 import com.facebook.presto.spi.PrestoException;
-import io.airlift.joni.Regex;
+import com.facebook.presto.type.LikeMatcher;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.testng.annotations.Test;
@@ -23,6 +23,7 @@ import static com.facebook.presto.type.LikeFunctions.castCharToLikePattern;
 import static com.facebook.presto.type.LikeFunctions.isLikePattern;
 import static com.facebook.presto.type.LikeFunctions.like;
 import static com.facebook.presto.type.LikeFunctions.likePattern;
+import static com.facebook.presto.type.LikeFunctions.regexLikePattern;
 import static com.facebook.presto.type.LikeFunctions.unescapeLiteralLikePattern;
 import static io.airlift.slice.Slices.utf8Slice;
 import static org.testng.Assert.assertEquals;
@@ -35,14 +36,14 @@ public class TestLikeFunctions
     @Test
     public void testLikeBasic()
     {
-        Regex regex = likePattern(utf8Slice("f%b__"));
+        LikeMatcher regex = likePattern(utf8Slice("f%b__"));
         assertTrue(like(utf8Slice("foobar"), regex));
     }
 
     @Test
     public void testLikeSpacesInPattern()
     {
-        Regex regex = likePattern(utf8Slice("ala  "));
+        LikeMatcher regex = likePattern(utf8Slice("ala  "));
         assertTrue(like(utf8Slice("ala  "), regex));
         assertFalse(like(utf8Slice("ala"), regex));
 
@@ -54,28 +55,28 @@ public class TestLikeFunctions
     @Test
     public void testLikeNewlineInPattern()
     {
-        Regex regex = likePattern(utf8Slice("%o\nbar"));
+        LikeMatcher regex = likePattern(utf8Slice("%o\nbar"));
         assertTrue(like(utf8Slice("foo\nbar"), regex));
     }
 
     @Test
     public void testLikeNewlineBeforeMatch()
     {
-        Regex regex = likePattern(utf8Slice("%b%"));
+        LikeMatcher regex = likePattern(utf8Slice("%b%"));
         assertTrue(like(utf8Slice("foo\nbar"), regex));
     }
 
     @Test
     public void testLikeNewlineInMatch()
     {
-        Regex regex = likePattern(utf8Slice("f%b%"));
+        LikeMatcher regex = likePattern(utf8Slice("f%b%"));
         assertTrue(like(utf8Slice("foo\nbar"), regex));
     }
 
     @Test(timeOut = 1000)
     public void testLikeUtf8Pattern()
     {
-        Regex regex = likePattern(utf8Slice("%\u540d\u8a89%"), utf8Slice("\\"));
+        LikeMatcher regex = likePattern(utf8Slice("%\u540d\u8a89%"), utf8Slice("\\"));
         assertFalse(like(utf8Slice("foo"), regex));
     }
 
@@ -84,31 +85,88 @@ public class TestLikeFunctions
     public void testLikeInvalidUtf8Value()
     {
         Slice value = Slices.wrappedBuffer(new byte[] {'a', 'b', 'c', (byte) 0xFF, 'x', 'y'});
-        Regex regex = likePattern(utf8Slice("%b%"), utf8Slice("\\"));
+        LikeMatcher regex = likePattern(utf8Slice("%b%"), utf8Slice("\\"));
         assertTrue(like(value, regex));
     }
 
     @Test
     public void testBackslashesNoSpecialTreatment()
     {
-        Regex regex = likePattern(utf8Slice("\\abc\\/\\\\"));
+        LikeMatcher regex = likePattern(utf8Slice("\\abc\\/\\\\"));
         assertTrue(like(utf8Slice("\\abc\\/\\\\"), regex));
     }
 
     @Test
     public void testSelfEscaping()
     {
-        Regex regex = likePattern(utf8Slice("\\\\abc\\%"), utf8Slice("\\"));
+        LikeMatcher regex = likePattern(utf8Slice("\\\\abc\\%"), utf8Slice("\\"));
         assertTrue(like(utf8Slice("\\abc%"), regex));
     }
 
     @Test
     public void testAlternateEscapedCharacters()
     {
-        Regex regex = likePattern(utf8Slice("xxx%x_abcxx"), utf8Slice("x"));
+        LikeMatcher regex = likePattern(utf8Slice("xxx%x_abcxx"), utf8Slice("x"));
         assertTrue(like(utf8Slice("x%_abcx"), regex));
     }
 
+    @Test
+    public void testSpecializedPatterns()
+    {
+        assertLike("abc%", "abcdef", true);
+        assertLike("abc%", "abc", true);
+        assertLike("abc%", "ab", false);
+        assertLike("abc%", "xabc", false);
+
+        assertLike("%.png", "image.png", true);
+        assertLike("%.png", ".png", true);
+        assertLike("%.png", "image.pngx", false);
+        assertLike("%.png", "png", false);
+
+        assertLike("%error%", "an error occurred", true);
+        assertLike("%error%", "error", true);
+        assertLike("%error%", "errxerror", true);
+        assertLike("%error%", "erro", false);
+        assertLike("%error%", "", false);
+        assertLike("%\u540d\u8a89%", "x\u540d\u8a89y", true);
+
+        assertLike("%", "", true);
+        assertLike("%%", "abc", true);
+
+        assertLike("___", "abc", true);
+        assertLike("___", "\u540dx\u8a89", true);
+        assertLike("___", "ab", false);
+        assertLike("___", "abcd", false);
+        assertLike("a_c%", "abcdef", true);
+        assertLike("a_c%", "a\u540dc", true);
+        assertLike("a_c%", "ac", false);
+        assertLike("a_c", "abcd", false);
+    }
+
+    @Test
+    public void testNewlineAtEndOfValue()
+    {
+        assertLike("abc", "abc\n", false);
+        assertLike("abc", "abc\ndef", false);
+        assertLike("abc%", "abc\n", true);
+        assertLike("%.png", "image.png\n", false);
+        assertLike("%.png", "image.png\nx.png", true);
+        assertLike("%error%", "error\n", true);
+        assertLike("___", "abc\n", false);
+        assertLike("a_c", "abc\n", false);
+        assertLike("a_c%", "abc\n", true);
+        assertLike("a%c", "abc\n", false);
+        assertLike("a%c", "abc\nc", true);
+        assertLike("a%_", "abc\n", true);
+        assertLike("%\n", "abc\n", true);
+    }
+
+    private static void assertLike(String pattern, String value, boolean expected)
+    {
+        assertEquals(like(utf8Slice(value), likePattern(utf8Slice(pattern))), expected);
+        assertEquals(like(utf8Slice(value), regexLikePattern(utf8Slice(pattern))), expected);
+    }
+
     @Test
     public void testInvalidLikePattern()
     {
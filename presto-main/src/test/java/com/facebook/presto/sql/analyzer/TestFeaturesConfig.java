@@ -47,6 +47,7 @@ public class TestFeaturesConfig
                 .setDistributedJoinsEnabled(true)
                 .setFastInequalityJoins(true)
                 .setColocatedJoinsEnabled(false)
+                .setGroupedExecutionForStatefulOperatorsEnabled(false)
                 .setJoinReorderingEnabled(true)
                 .setRedistributeWrites(true)
                 .setScaleWriters(false)
@@ -56,6 +57,9 @@ public class TestFeaturesConfig
                 .setOptimizeSingleDistinct(true)
                 .setPushTableWriteThroughUnion(true)
                 .setDictionaryAggregation(false)
+                .setStreamingAggregation(false)
+                .setMergeJoin(false)
+                .setOptimizeCommonSubExpressions(false)
                 .setLegacyArrayAgg(false)
                 .setLegacyMapSubscript(false)
                 .setRegexLibrary(JONI)
@@ -80,6 +84,7 @@ public class TestFeaturesConfig
                 .setParseDecimalLiteralsAsDouble(true)
                 .setForceSingleNodeOutput(true)
                 .setPagesIndexEagerCompactionEnabled(false)
+                .setPagesIndexConsolidationEnabled(false)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(25, KILOBYTE))
                 .setFilterAndProjectMinOutputPageRowCount(256)
                 .setHistogramGroupImplementation(NEW));
@@ -100,6 +105,7 @@ public class TestFeaturesConfig
                 .put("distributed-joins-enabled", "false")
                 .put("fast-inequality-joins", "false")
                 .put("colocated-joins-enabled", "true")
+                .put("grouped-execution-for-stateful-operators-enabled", "true")
                 .put("reorder-joins", "false")
                 .put("redistribute-writes", "false")
                 .put("scale-writers", "true")
@@ -110,6 +116,9 @@ public class TestFeaturesConfig
                 .put("optimizer.optimize-mixed-distinct-aggregations", "true")
                 .put("optimizer.push-table-write-through-union", "false")
                 .put("optimizer.dictionary-aggregation", "true")
+                .put("optimizer.streaming-aggregation", "true")
+                .put("optimizer.merge-join", "true")
+                .put("optimizer.optimize-common-sub-expressions", "true")
                 .put("optimizer.push-aggregation-through-join", "false")
                 .put("regex-library", "RE2J")
                 .put("re2j.dfa-states-limit", "42")
@@ -127,6 +136,7 @@ public class TestFeaturesConfig
                 .put("parse-decimal-literals-as-double", "false")
                 .put("optimizer.force-single-node-output", "false")
                 .put("pages-index.eager-compaction-enabled", "true")
+                .put("pages-index.consolidation-enabled", "true")
                 .put("experimental.filter-and-project-min-output-page-size", "1MB")
                 .put("experimental.filter-and-project-min-output-page-row-count", "2048")
                 .put("histogram.implemenation", "LEGACY")
@@ -141,6 +151,7 @@ public class TestFeaturesConfig
                 .setDistributedJoinsEnabled(false)
                 .setFastInequalityJoins(false)
                 .setColocatedJoinsEnabled(true)
+                .setGroupedExecutionForStatefulOperatorsEnabled(true)
                 .setJoinReorderingEnabled(false)
                 .setRedistributeWrites(false)
                 .setScaleWriters(true)
@@ -151,6 +162,9 @@ public class TestFeaturesConfig
                 .setOptimizeMixedDistinctAggregations(true)
                 .setPushTableWriteThroughUnion(false)
                 .setDictionaryAggregation(true)
+                .setStreamingAggregation(true)
+                .setMergeJoin(true)
+                .setOptimizeCommonSubExpressions(true)
                 .setPushAggregationThroughJoin(false)
                 .setLegacyArrayAgg(true)
                 .setLegacyMapSubscript(true)
@@ -171,6 +185,7 @@ public class TestFeaturesConfig
                 .setParseDecimalLiteralsAsDouble(false)
                 .setForceSingleNodeOutput(false)
                 .setPagesIndexEagerCompactionEnabled(true)
+                .setPagesIndexConsolidationEnabled(true)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(1, MEGABYTE))
                 .setFilterAndProjectMinOutputPageRowCount(2048)
                 .setHistogramGroupImplementation(LEGACY);
@@ -0,0 +1,295 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.metadata.Signature;
+import com.facebook.presto.operator.DriverYieldSignal;
+import com.facebook.presto.operator.scalar.JsonExtractMultipleFunction;
+import com.facebook.presto.operator.scalar.JsonPath;
+import com.facebook.presto.operator.scalar.JsonPathSet;
+import com.facebook.presto.operator.project.PageProcessor;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.function.OperatorType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeSignature;
+import com.facebook.presto.sql.relational.CallExpression;
+import com.facebook.presto.sql.relational.ConstantExpression;
+import com.facebook.presto.sql.relational.DeterminismEvaluator;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolToInputRewriter;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.facebook.presto.sql.relational.SqlToRowExpressionTranslator;
+import com.facebook.presto.sql.relational.optimizer.ExpressionOptimizer;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.NodeRef;
+import com.facebook.presto.sql.tree.QualifiedName;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.metadata.FunctionKind.SCALAR;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.operator.scalar.FunctionAssertions.createExpression;
+import static com.facebook.presto.spi.function.OperatorType.ADD;
+import static com.facebook.presto.spi.function.OperatorType.GREATER_THAN;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.analyzer.ExpressionAnalyzer.getExpressionTypesFromInput;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.rewriteCommonSubExpressions;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.ifSignature;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static com.facebook.presto.type.JsonPathType.JSON_PATH;
+import static com.facebook.presto.type.JsonType.JSON;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.MoreCollectors.onlyElement;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestCommonSubExpressionRewriter
+{
+    private final MetadataManager metadata = createTestMetadataManager();
+    private final DeterminismEvaluator determinismEvaluator = new DeterminismEvaluator(metadata.getFunctionRegistry());
+
+    @Test
+    public void testNoCommonSubExpressions()
+    {
+        CommonSubExpressionRewriter.Result result = rewriteCommonSubExpressions(
+                Optional.of(greaterThan(add(field(0, BIGINT), 10), 12)),
+                ImmutableList.of(add(field(0, BIGINT), 1), add(field(1, BIGINT), 10)),
+                determinismEvaluator);
+
+        assertFalse(result.hasCommonSubExpressions());
+        assertEquals(result.getFilter(), Optional.of(greaterThan(add(field(0, BIGINT), 10), 12)));
+        assertEquals(result.getProjections(), ImmutableList.of(add(field(0, BIGINT), 1), add(field(1, BIGINT), 10)));
+        assertEquals(result.getBatchProjections(), ImmutableSet.of());
+    }
+
+    @Test
+    public void testRewrite()
+    {
+        RowExpression xPlus10 = add(field(0, BIGINT), 10);
+        RowExpression yPlus5 = add(field(1, BIGINT), 5);
+
+        CommonSubExpressionRewriter.Result result = rewriteCommonSubExpressions(
+                Optional.of(greaterThan(xPlus10, 12)),
+                ImmutableList.of(xPlus10, add(xPlus10, 1), yPlus5, add(yPlus5, 10), field(0, BIGINT)),
+                determinismEvaluator);
+
+        // shared with the filter, so computed for the whole page after the two input channels
+        assertEquals(result.getCommonChannelOffset(), 2);
+        assertEquals(result.getPageCommonExpressions(), ImmutableList.of(xPlus10));
+        assertEquals(result.getFilter(), Optional.of(greaterThan(field(2, BIGINT), 12)));
+
+        // shared by projections only, so computed for the selected positions
+        assertEquals(result.getBatchCommonExpressions(), ImmutableList.of(yPlus5));
+        assertEquals(
+                result.getProjections(),
+                ImmutableList.of(field(2, BIGINT), add(field(2, BIGINT), 1), field(3, BIGINT), add(field(3, BIGINT), 10), field(0, BIGINT)));
+        assertEquals(result.getBatchProjections(), ImmutableSet.of(2, 3));
+    }
+
+    @Test
+    public void testConditionalBranchesNotExtracted()
+    {
+        RowExpression condition = greaterThan(field(0, BIGINT), 0);
+        RowExpression xPlus10 = add(field(0, BIGINT), 10);
+
+        // the branches are not evaluated for every row, but the condition is
+        CommonSubExpressionRewriter.Result result = rewriteCommonSubExpressions(
+                Optional.empty(),
+                ImmutableList.of(
+                        call(ifSignature(BIGINT), BIGINT, condition, xPlus10, constant(0L, BIGINT)),
+                        call(ifSignature(BIGINT), BIGINT, condition, xPlus10, constant(1L, BIGINT))),
+                determinismEvaluator);
+
+        assertEquals(result.getPageCommonExpressions(), ImmutableList.of());
+        assertEquals(result.getBatchCommonExpressions(), ImmutableList.of(condition));
+    }
+
+    @Test
+    public void testRepeatedRegexAndJsonCallsFromSql()
+    {
+        List<RowExpression> projections = translate(
+                "regexp_extract(a, '[0-9]+')",
+                "length(regexp_extract(a, '[0-9]+'))",
+                "json_extract_scalar(b, '$.x')",
+                "upper(json_extract_scalar(b, '$.x'))",
+                "a LIKE '%x_y%'",
+                "NOT (a LIKE '%x_y%')");
+
+        // the regex, JSON path and LIKE pattern of each pair are folded to the same constant
+        CommonSubExpressionRewriter.Result result = rewriteCommonSubExpressions(Optional.empty(), projections, determinismEvaluator);
+        assertEquals(result.getBatchCommonExpressions(), ImmutableList.of(projections.get(0), projections.get(2), projections.get(4)));
+        assertEquals(result.getBatchProjections(), ImmutableSet.of(0, 1, 2, 3, 4, 5));
+    }
+
+    @Test
+    public void testPageProcessor()
+    {
+        RowExpression xPlus10 = add(field(0, BIGINT), 10);
+        RowExpression yPlus5 = add(field(1, BIGINT), 5);
+        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata, 0);
+        PageProcessor processor = new ExpressionCompiler(metadata, pageFunctionCompiler)
+                .compilePageProcessor(
+                        Optional.of(greaterThan(xPlus10, 12)),
+                        ImmutableList.of(xPlus10, add(xPlus10, 1), yPlus5, add(yPlus5, 10)),
+                        true,
+                        Optional.empty())
+                .get();
+
+        Page input = new Page(createLongSequenceBlock(0, 10), createLongSequenceBlock(100, 110));
+        Iterator<Optional<Page>> output = processor.process(SESSION, new DriverYieldSignal(), input);
+
+        assertTrue(output.hasNext());
+        Optional<Page> page = output.next();
+        assertTrue(page.isPresent());
+        assertPageEquals(
+                ImmutableList.of(BIGINT, BIGINT, BIGINT, BIGINT),
+                page.get(),
+                new Page(
+                        createLongsBlock(13, 14, 15, 16, 17, 18, 19),
+                        createLongsBlock(14, 15, 16, 17, 18, 19, 20),
+                        createLongsBlock(108, 109, 110, 111, 112, 113, 114),
+                        createLongsBlock(118, 119, 120, 121, 122, 123, 124)));
+        assertFalse(output.hasNext());
+    }
+
+    @Test
+    public void testJsonExtractsMerged()
+    {
+        RowExpression document = field(0, VARCHAR);
+        RowExpression scalar = jsonExtract("json_extract_scalar", document, "$.a", VARCHAR);
+        RowExpression json = jsonExtract("json_extract", document, "$.b", JSON);
+
+        // both paths are extracted from the document by one call
+        CommonSubExpressionRewriter.Result result = rewriteCommonSubExpressions(Optional.empty(), ImmutableList.of(scalar, json), determinismEvaluator);
+        assertEquals(result.getBatchCommonExpressions().size(), 1);
+        assertEquals(((CallExpression) result.getBatchCommonExpressions().get(0)).getSignature().getName(), JsonExtractMultipleFunction.NAME);
+
+        PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata, 0);
+        PageProcessor processor = new ExpressionCompiler(metadata, pageFunctionCompiler)
+                .compilePageProcessor(Optional.empty(), ImmutableList.of(scalar, json), true, Optional.empty())
+                .get();
+
+        Page input = new Page(createStringsBlock("{\"a\": \"x\", \"b\": [1, 2]}", "{\"a\": 1}", "{\"a\": [1], \"b\": null}", null));
+        Iterator<Optional<Page>> output = processor.process(SESSION, new DriverYieldSignal(), input);
+
+        BlockBuilder expectedJson = JSON.createBlockBuilder(new BlockBuilderStatus(), 4);
+        JSON.writeSlice(expectedJson, utf8Slice("[1,2]"));
+        expectedJson.appendNull();
+        JSON.writeSlice(expectedJson, utf8Slice("null"));
+        expectedJson.appendNull();
+
+        assertTrue(output.hasNext());
+        Optional<Page> page = output.next();
+        assertTrue(page.isPresent());
+        assertPageEquals(
+                ImmutableList.of(VARCHAR, JSON),
+                page.get(),
+                new Page(createStringsBlock("x", "1", null, null), expectedJson.build()));
+        assertFalse(output.hasNext());
+    }
+
+    @Test
+    public void testJsonExtractsMergedByPathTokens()
+    {
+        RowExpression document = field(0, VARCHAR);
+        RowExpression dotted = jsonExtract("json_extract_scalar", document, "$.a", VARCHAR);
+        RowExpression bracketed = jsonExtract("json_extract_scalar", document, "$[\"a\"]", VARCHAR);
+        RowExpression other = jsonExtract("json_extract_scalar", document, "$.b", VARCHAR);
+
+        // both spellings of the same path are extracted once
+        CommonSubExpressionRewriter.Result result = rewriteCommonSubExpressions(Optional.empty(), ImmutableList.of(dotted, bracketed, other), determinismEvaluator);
+        CallExpression extractMultiple = result.getBatchCommonExpressions().stream()
+                .map(CallExpression.class::cast)
+                .filter(call -> call.getSignature().getName().equals(JsonExtractMultipleFunction.NAME))
+                .collect(onlyElement());
+        JsonPathSet pathSet = (JsonPathSet) ((ConstantExpression) extractMultiple.getArguments().get(1)).getValue();
+        assertEquals(
+                pathSet.getPaths().stream()
+                        .map(JsonPath::getTokens)
+                        .collect(toImmutableList()),
+                ImmutableList.of(ImmutableList.of("a"), ImmutableList.of("b")));
+        assertEquals(result.getProjections().get(0), result.getProjections().get(1));
+        assertNotEquals(result.getProjections().get(0), result.getProjections().get(2));
+    }
+
+    private List<RowExpression> translate(String... expressions)
+    {
+        Map<Symbol, Type> symbolTypes = ImmutableMap.of(new Symbol("a"), VARCHAR, new Symbol("b"), VARCHAR);
+        SymbolToInputRewriter symbolToInputRewriter = new SymbolToInputRewriter(ImmutableMap.of(new Symbol("a"), 0, new Symbol("b"), 1));
+        List<Expression> inputExpressions = Stream.of(expressions)
+                .map(expression -> symbolToInputRewriter.rewrite(createExpression(expression, metadata, symbolTypes)))
+                .collect(toImmutableList());
+        Map<NodeRef<Expression>, Type> expressionTypes = getExpressionTypesFromInput(
+                TEST_SESSION,
+                metadata,
+                new SqlParser(),
+                ImmutableMap.of(0, VARCHAR, 1, VARCHAR),
+                inputExpressions,
+                ImmutableList.of());
+
+        // like the local execution planner, fold the constants of all expressions with one optimizer
+        ExpressionOptimizer optimizer = new ExpressionOptimizer(metadata.getFunctionRegistry(), metadata.getTypeManager(), TEST_SESSION);
+        return inputExpressions.stream()
+                .map(expression -> SqlToRowExpressionTranslator.translate(expression, SCALAR, expressionTypes, metadata.getFunctionRegistry(), metadata.getTypeManager(), TEST_SESSION, false))
+                .map(optimizer::optimize)
+                .collect(toImmutableList());
+    }
+
+    private RowExpression jsonExtract(String name, RowExpression document, String path, Type returnType)
+    {
+        Signature signature = metadata.getFunctionRegistry().resolveFunction(QualifiedName.of(name), fromTypes(ImmutableList.of(document.getType(), JSON_PATH)));
+        return call(signature, returnType, document, constant(new JsonPath(path), JSON_PATH));
+    }
+
+    private static RowExpression add(RowExpression left, long right)
+    {
+        return call(operator(ADD, BIGINT.getTypeSignature()), BIGINT, left, constant(right, BIGINT));
+    }
+
+    private static RowExpression greaterThan(RowExpression left, long right)
+    {
+        return call(operator(GREATER_THAN, BOOLEAN.getTypeSignature()), BOOLEAN, left, constant(right, BIGINT));
+    }
+
+    private static Signature operator(OperatorType operatorType, TypeSignature returnType)
+    {
+        return Signature.internalOperator(operatorType, returnType, ImmutableList.of(BIGINT.getTypeSignature(), BIGINT.getTypeSignature()));
+    }
+}
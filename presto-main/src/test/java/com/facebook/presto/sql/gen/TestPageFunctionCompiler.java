@@ -130,31 +130,61 @@ public class TestPageFunctionCompiler
     {
         PageFunctionCompiler cacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 100);
         assertSame(
-                cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty()),
-                cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty()));
+                getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty())));
         assertSame(
-                cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint")),
-                cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint")));
+                getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint"))),
+                getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint"))));
         assertSame(
-                cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint")),
-                cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint2")));
+                getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint"))),
+                getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint2"))));
         assertSame(
-                cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty()),
-                cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint2")));
+                getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint2"))));
 
         PageFunctionCompiler noCacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 0);
         assertNotSame(
-                noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty()),
-                noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty()));
+                getWorkClass(noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty())));
         assertNotSame(
-                noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint")),
-                noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint")));
+                getWorkClass(noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint"))),
+                getWorkClass(noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint"))));
         assertNotSame(
-                noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint")),
-                noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint2")));
+                getWorkClass(noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint"))),
+                getWorkClass(noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint2"))));
         assertNotSame(
-                noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty()),
-                noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint2")));
+                getWorkClass(noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty())),
+                getWorkClass(noCacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.of("hint2"))));
+    }
+
+    @Test
+    public void testCacheSharedAcrossInputChannels()
+    {
+        PageFunctionCompiler cacheCompiler = new PageFunctionCompiler(createTestMetadataManager(), 100);
+        CallExpression add10ToSecondChannel = call(
+                Signature.internalOperator(ADD, BIGINT.getTypeSignature(), ImmutableList.of(BIGINT.getTypeSignature(), BIGINT.getTypeSignature())),
+                BIGINT,
+                field(1, BIGINT),
+                constant(10L, BIGINT));
+
+        PageProjection projection = cacheCompiler.compileProjection(add10ToSecondChannel, Optional.empty()).get();
+        assertSame(getWorkClass(cacheCompiler.compileProjection(ADD_10_EXPRESSION, Optional.empty())), getWorkClass(projection));
+        assertEquals(cacheCompiler.getProjectionCache().size(), 1);
+
+        // the shared class still reads the channel of each projection
+        Page page = new Page(createLongBlockPage(1).getBlock(0), createLongBlockPage(5).getBlock(0));
+        Block result = projectWithoutYield(projection, projection.getInputChannels().getInputChannels(page), SelectedPositions.positionsRange(0, 1));
+        assertEquals(BIGINT.getLong(result, 0), 15L);
+    }
+
+    private static Class<?> getWorkClass(Supplier<PageProjection> projectionSupplier)
+    {
+        return getWorkClass(projectionSupplier.get());
+    }
+
+    private static Class<?> getWorkClass(PageProjection projection)
+    {
+        return projection.project(SESSION, new DriverYieldSignal(), createLongBlockPage(0), SelectedPositions.positionsRange(0, 1)).getClass();
     }
 
     private Block projectWithYield(PageProjection projection, Page page, SelectedPositions selectedPositions, int expectedYields)
@@ -16,6 +16,7 @@ package com.facebook.presto.sql.planner.assertions;
 import com.facebook.presto.Session;
 import com.facebook.presto.cost.StatsProvider;
 import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.sql.planner.plan.JoinNode;
 import com.facebook.presto.sql.planner.plan.JoinNode.DistributionType;
 import com.facebook.presto.sql.planner.plan.PlanNode;
@@ -39,13 +40,25 @@ final class JoinMatcher
     private final List<ExpectedValueProvider<JoinNode.EquiJoinClause>> equiCriteria;
     private final Optional<Expression> filter;
     private final Optional<DistributionType> distributionType;
+    private final Optional<List<SortOrder>> mergeJoinOrdering;
 
     JoinMatcher(JoinNode.Type joinType, List<ExpectedValueProvider<JoinNode.EquiJoinClause>> equiCriteria, Optional<Expression> filter, Optional<DistributionType> distributionType)
+    {
+        this(joinType, equiCriteria, filter, distributionType, Optional.empty());
+    }
+
+    JoinMatcher(
+            JoinNode.Type joinType,
+            List<ExpectedValueProvider<JoinNode.EquiJoinClause>> equiCriteria,
+            Optional<Expression> filter,
+            Optional<DistributionType> distributionType,
+            Optional<List<SortOrder>> mergeJoinOrdering)
     {
         this.joinType = requireNonNull(joinType, "joinType is null");
         this.equiCriteria = requireNonNull(equiCriteria, "equiCriteria is null");
         this.filter = requireNonNull(filter, "filter can not be null");
         this.distributionType = requireNonNull(distributionType, "distributionType is null");
+        this.mergeJoinOrdering = requireNonNull(mergeJoinOrdering, "mergeJoinOrdering is null");
     }
 
     @Override
@@ -88,6 +101,10 @@ final class JoinMatcher
             return NO_MATCH;
         }
 
+        if (mergeJoinOrdering.isPresent() && !mergeJoinOrdering.equals(joinNode.getMergeJoinOrdering())) {
+            return NO_MATCH;
+        }
+
         /*
          * Have to use order-independent comparison; there are no guarantees what order
          * the equi criteria will have after planning and optimizing.
@@ -108,6 +125,7 @@ final class JoinMatcher
                 .omitNullValues()
                 .add("equiCriteria", equiCriteria)
                 .add("filter", filter.orElse(null))
+                .add("mergeJoinOrdering", mergeJoinOrdering.orElse(null))
                 .toString();
     }
 }
@@ -15,7 +15,9 @@ package com.facebook.presto.sql.planner.iterative.rule;
 
 import com.facebook.presto.sql.planner.assertions.PlanMatchPattern;
 import com.facebook.presto.sql.planner.iterative.rule.test.BaseRuleTest;
+import com.facebook.presto.sql.planner.plan.JoinNode;
 import com.facebook.presto.sql.planner.plan.JoinNode.EquiJoinClause;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.Test;
@@ -23,6 +25,7 @@ import org.testng.annotations.Test;
 import java.util.Optional;
 
 import static com.facebook.presto.SystemSessionProperties.PUSH_PARTIAL_AGGREGATION_THROUGH_JOIN;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.aggregation;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.equiJoinClause;
@@ -71,4 +74,29 @@ public class TestPushPartialAggregationThroughJoin
                                         values("LEFT_EQUI", "LEFT_NON_EQUI", "LEFT_GROUP_BY", "LEFT_AGGR", "LEFT_HASH")),
                                 values("RIGHT_EQUI", "RIGHT_NON_EQUI", "RIGHT_GROUP_BY", "RIGHT_HASH"))));
     }
+
+    @Test
+    public void testDoesNotFireOnMergeJoin()
+    {
+        tester().assertThat(new PushPartialAggregationThroughJoin())
+                .setSystemProperty(PUSH_PARTIAL_AGGREGATION_THROUGH_JOIN, "true")
+                .on(p -> p.aggregation(ab -> ab
+                        .source(
+                                new JoinNode(
+                                        new PlanNodeId("join"),
+                                        INNER,
+                                        p.values(p.symbol("LEFT_EQUI"), p.symbol("LEFT_AGGR")),
+                                        p.values(p.symbol("RIGHT_EQUI"), p.symbol("RIGHT_GROUP_BY")),
+                                        ImmutableList.of(new EquiJoinClause(p.symbol("LEFT_EQUI"), p.symbol("RIGHT_EQUI"))),
+                                        ImmutableList.of(p.symbol("LEFT_AGGR"), p.symbol("RIGHT_GROUP_BY")),
+                                        Optional.empty(),
+                                        Optional.empty(),
+                                        Optional.empty(),
+                                        Optional.empty(),
+                                        Optional.of(ImmutableList.of(ASC_NULLS_LAST))))
+                        .addAggregation(p.symbol("AVG", DOUBLE), expression("AVG(LEFT_AGGR)"), ImmutableList.of(DOUBLE))
+                        .addGroupingSet(p.symbol("RIGHT_GROUP_BY"))
+                        .step(PARTIAL)))
+                .doesNotFire();
+    }
 }
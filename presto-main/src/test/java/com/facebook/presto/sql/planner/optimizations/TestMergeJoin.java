@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.sql.planner.LogicalPlanner;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.assertions.BasePlanTest;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.SystemSessionProperties.MERGE_JOIN;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_LAST;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.anyTree;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.equiJoinClause;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.mergeJoin;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.output;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.sort;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.tableScan;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static org.testng.Assert.assertFalse;
+
+public class TestMergeJoin
+        extends BasePlanTest
+{
+    @Test
+    public void testSortedInputs()
+    {
+        assertPlanWithSession(
+                "SELECT o.orderkey, l.linenumber " +
+                        "FROM (SELECT orderkey FROM orders ORDER BY orderkey) o " +
+                        "JOIN (SELECT orderkey, linenumber FROM lineitem ORDER BY orderkey) l " +
+                        "ON o.orderkey = l.orderkey",
+                mergeJoinEnabled(true),
+                true,
+                output(
+                        mergeJoin(JoinNode.Type.INNER, ImmutableList.of(equiJoinClause("O_ORDERKEY", "L_ORDERKEY")), ImmutableList.of(ASC_NULLS_LAST),
+                                sort(anyTree(tableScan("orders", ImmutableMap.of("O_ORDERKEY", "orderkey")))),
+                                sort(anyTree(tableScan("lineitem", ImmutableMap.of("L_ORDERKEY", "orderkey", "L_LINENUMBER", "linenumber")))))));
+    }
+
+    @Test
+    public void testMultipleKeys()
+    {
+        assertPlanWithSession(
+                "SELECT a.partkey, b.suppkey " +
+                        "FROM (SELECT orderkey, linenumber, partkey FROM lineitem ORDER BY orderkey, linenumber DESC) a " +
+                        "FULL JOIN (SELECT orderkey, linenumber, suppkey FROM lineitem ORDER BY orderkey, linenumber DESC) b " +
+                        "ON a.orderkey = b.orderkey AND a.linenumber = b.linenumber",
+                mergeJoinEnabled(true),
+                true,
+                anyTree(
+                        mergeJoin(
+                                JoinNode.Type.FULL,
+                                ImmutableList.of(equiJoinClause("A_ORDERKEY", "B_ORDERKEY"), equiJoinClause("A_LINENUMBER", "B_LINENUMBER")),
+                                ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_LAST),
+                                sort(anyTree(tableScan("lineitem", ImmutableMap.of("A_ORDERKEY", "orderkey", "A_LINENUMBER", "linenumber")))),
+                                sort(anyTree(tableScan("lineitem", ImmutableMap.of("B_ORDERKEY", "orderkey", "B_LINENUMBER", "linenumber")))))));
+    }
+
+    @Test
+    public void testNoMergeJoin()
+    {
+        @Language("SQL") String sql = "SELECT o.orderkey, l.linenumber " +
+                "FROM (SELECT orderkey FROM orders ORDER BY orderkey) o " +
+                "JOIN (SELECT orderkey, linenumber FROM lineitem ORDER BY orderkey) l " +
+                "ON o.orderkey = l.orderkey";
+
+        // disabled
+        assertNoMergeJoin(sql, mergeJoinEnabled(false), true);
+        // the remote exchanges of a distributed plan lose the sort order
+        assertNoMergeJoin(sql, mergeJoinEnabled(true), false);
+        // the inputs are sorted in different orders
+        assertNoMergeJoin(
+                "SELECT o.orderkey, l.linenumber " +
+                        "FROM (SELECT orderkey FROM orders ORDER BY orderkey) o " +
+                        "JOIN (SELECT orderkey, linenumber FROM lineitem ORDER BY orderkey DESC) l " +
+                        "ON o.orderkey = l.orderkey",
+                mergeJoinEnabled(true),
+                true);
+        // the inputs are not sorted
+        assertNoMergeJoin("SELECT o.orderkey, l.linenumber FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey", mergeJoinEnabled(true), true);
+    }
+
+    private void assertNoMergeJoin(@Language("SQL") String sql, Session session, boolean forceSingleNode)
+    {
+        Plan plan = getQueryRunner().inTransaction(session, transactionSession ->
+                getQueryRunner().createPlan(transactionSession, sql, LogicalPlanner.Stage.OPTIMIZED_AND_VALIDATED, forceSingleNode));
+        JoinNode join = searchFrom(plan.getRoot())
+                .where(JoinNode.class::isInstance)
+                .findOnlyElement();
+        assertFalse(join.getMergeJoinOrdering().isPresent(), "unexpected merge join");
+    }
+
+    private Session mergeJoinEnabled(boolean enabled)
+    {
+        return Session.builder(getQueryRunner().getDefaultSession())
+                .setSystemProperty(MERGE_JOIN, Boolean.toString(enabled))
+                .build();
+    }
+}
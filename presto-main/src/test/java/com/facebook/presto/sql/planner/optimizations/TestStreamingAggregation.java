@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.sql.planner.LogicalPlanner;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.assertions.BasePlanTest;
+import com.facebook.presto.sql.planner.assertions.PlanMatchPattern;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.STREAMING_AGGREGATION;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.aggregation;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.anyTree;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.functionCall;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.output;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.sort;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.tableScan;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.facebook.presto.sql.planner.plan.AggregationNode.Step.SINGLE;
+import static org.testng.Assert.assertEquals;
+
+public class TestStreamingAggregation
+        extends BasePlanTest
+{
+    @Test
+    public void testGroupedInput()
+    {
+        // lineitem splits are sorted on orderkey, and each orderkey is in a single split
+        @Language("SQL") String sql = "SELECT orderkey, count(*) FROM lineitem GROUP BY orderkey";
+
+        assertPlanWithSession(sql, streamingAggregation(true), true, output(countByOrderKey()));
+        assertPlanWithSession(sql, streamingAggregation(true), false, anyTree(countByOrderKey()));
+    }
+
+    @Test
+    public void testSortedInput()
+    {
+        assertPlanWithSession(
+                "SELECT custkey, count(*) FROM (SELECT custkey FROM orders ORDER BY custkey) GROUP BY custkey",
+                streamingAggregation(true),
+                true,
+                output(
+                        aggregation(
+                                ImmutableList.of(ImmutableList.of("CUSTKEY")),
+                                ImmutableList.of("CUSTKEY"),
+                                ImmutableMap.of(Optional.of("COUNT"), functionCall("count", ImmutableList.of())),
+                                ImmutableMap.of(),
+                                Optional.empty(),
+                                SINGLE,
+                                sort(anyTree(tableScan("orders", ImmutableMap.of("CUSTKEY", "custkey")))))));
+    }
+
+    @Test
+    public void testPartiallyGroupedInput()
+    {
+        assertPlanWithSession(
+                "SELECT orderkey, partkey, sum(quantity) FROM lineitem GROUP BY orderkey, partkey",
+                streamingAggregation(true),
+                true,
+                anyTree(
+                        aggregation(
+                                ImmutableList.of(ImmutableList.of("ORDERKEY", "PARTKEY")),
+                                ImmutableList.of("ORDERKEY"),
+                                ImmutableMap.of(Optional.of("SUM"), functionCall("sum", ImmutableList.of("QUANTITY"))),
+                                ImmutableMap.of(),
+                                Optional.empty(),
+                                SINGLE,
+                                anyTree(tableScan("lineitem", ImmutableMap.of("ORDERKEY", "orderkey", "PARTKEY", "partkey", "QUANTITY", "quantity"))))));
+    }
+
+    @Test
+    public void testNotGrouped()
+    {
+        // disabled
+        assertNotPreGrouped("SELECT orderkey, count(*) FROM lineitem GROUP BY orderkey", streamingAggregation(false));
+        // the input is not grouped on the grouping key
+        assertNotPreGrouped("SELECT partkey, count(*) FROM lineitem GROUP BY partkey", streamingAggregation(true));
+        // global aggregation
+        assertNotPreGrouped("SELECT count(*) FROM lineitem", streamingAggregation(true));
+    }
+
+    private static PlanMatchPattern countByOrderKey()
+    {
+        return aggregation(
+                ImmutableList.of(ImmutableList.of("ORDERKEY")),
+                ImmutableList.of("ORDERKEY"),
+                ImmutableMap.of(Optional.of("COUNT"), functionCall("count", ImmutableList.of())),
+                ImmutableMap.of(),
+                Optional.empty(),
+                SINGLE,
+                tableScan("lineitem", ImmutableMap.of("ORDERKEY", "orderkey")));
+    }
+
+    private void assertNotPreGrouped(@Language("SQL") String sql, Session session)
+    {
+        Plan plan = getQueryRunner().inTransaction(session, transactionSession ->
+                getQueryRunner().createPlan(transactionSession, sql, LogicalPlanner.Stage.OPTIMIZED_AND_VALIDATED, true));
+        List<AggregationNode> aggregations = searchFrom(plan.getRoot())
+                .where(AggregationNode.class::isInstance)
+                .findAll();
+        for (AggregationNode aggregation : aggregations) {
+            assertEquals(aggregation.getPreGroupedSymbols(), ImmutableList.of());
+        }
+    }
+
+    private Session streamingAggregation(boolean enabled)
+    {
+        return Session.builder(getQueryRunner().getDefaultSession())
+                .setSystemProperty(STREAMING_AGGREGATION, Boolean.toString(enabled))
+                .build();
+    }
+}
@@ -32,9 +32,11 @@ import org.joda.time.DateTimeZone;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -221,6 +223,34 @@ public class OrcReader
             DateTimeZone hiveStorageTimeZone,
             AggregatedMemoryContext systemMemoryUsage)
     {
+        return createRecordReader(includedColumns, predicate, offset, length, hiveStorageTimeZone, systemMemoryUsage, Optional.empty());
+    }
+
+    /**
+     * @param stripePrefetchExecutor if present, the data of the next stripe is read on this
+     * executor while the current stripe is decoded
+     */
+    public OrcRecordReader createRecordReader(
+            Map<Integer, Type> includedColumns,
+            OrcPredicate predicate,
+            long offset,
+            long length,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryUsage,
+            Optional<Executor> stripePrefetchExecutor)
+    {
+        requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        // stripe footers are decoded on the prefetch threads, so each record reader needs its own decompressor
+        Optional<OrcDecompressor> stripePrefetchDecompressor = Optional.empty();
+        if (stripePrefetchExecutor.isPresent()) {
+            try {
+                stripePrefetchDecompressor = createOrcDecompressor(orcDataSource.getId(), compressionKind, bufferSize);
+            }
+            catch (OrcCorruptionException e) {
+                // the compression kind was already validated when the file was opened
+                throw new UncheckedIOException(e);
+            }
+        }
         return new OrcRecordReader(
                 requireNonNull(includedColumns, "includedColumns is null"),
                 requireNonNull(predicate, "predicate is null"),
@@ -242,7 +272,9 @@ public class OrcReader
                 maxBlockSize,
                 footer.getUserMetadata(),
                 systemMemoryUsage,
-                writeValidation);
+                writeValidation,
+                stripePrefetchExecutor,
+                stripePrefetchDecompressor);
     }
 
     private static OrcDataSource wrapWithCacheIfTiny(OrcDataSource dataSource, DataSize maxCacheSize)
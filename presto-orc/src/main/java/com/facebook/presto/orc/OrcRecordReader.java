@@ -51,6 +51,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
@@ -64,11 +66,15 @@ import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 public class OrcRecordReader
         implements Closeable
 {
+    private static final CompletableFuture<?> NOT_BLOCKED = completedFuture(null);
+
     private final OrcDataSource orcDataSource;
+    private final Optional<StripePrefetcher> stripePrefetcher;
 
     private final StreamReader[] streamReaders;
     private final long[] maxBytesPerCell;
@@ -129,7 +135,9 @@ public class OrcRecordReader
             DataSize maxBlockSize,
             Map<String, Slice> userMetadata,
             AggregatedMemoryContext systemMemoryUsage,
-            Optional<OrcWriteValidation> writeValidation)
+            Optional<OrcWriteValidation> writeValidation,
+            Optional<Executor> stripePrefetchExecutor,
+            Optional<OrcDecompressor> stripePrefetchDecompressor)
     {
         requireNonNull(includedColumns, "includedColumns is null");
         requireNonNull(predicate, "predicate is null");
@@ -140,6 +148,8 @@ public class OrcRecordReader
         requireNonNull(decompressor, "decompressor is null");
         requireNonNull(hiveStorageTimeZone, "hiveStorageTimeZone is null");
         requireNonNull(userMetadata, "userMetadata is null");
+        requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        requireNonNull(stripePrefetchDecompressor, "stripePrefetchDecompressor is null");
 
         this.includedColumns = requireNonNull(includedColumns, "includedColumns is null");
         this.writeValidation = requireNonNull(writeValidation, "writeValidation is null");
@@ -199,7 +209,29 @@ public class OrcRecordReader
         this.stripes = stripes.build();
         this.stripeFilePositions = stripeFilePositions.build();
 
+        this.systemMemoryUsage = requireNonNull(systemMemoryUsage, "systemMemoryUsage is null").newAggregatedMemoryContext();
+        this.currentStripeSystemMemoryContext = systemMemoryUsage.newAggregatedMemoryContext();
+
         orcDataSource = wrapWithCacheIfTinyStripes(orcDataSource, this.stripes, maxMergeDistance, maxReadSize);
+        // tiny stripes are already read together through the cache, so there is nothing to prefetch
+        if (stripePrefetchExecutor.isPresent() && !(orcDataSource instanceof CachingOrcDataSource)) {
+            StripeReader footerReader = new StripeReader(
+                    orcDataSource,
+                    stripePrefetchDecompressor,
+                    types,
+                    this.presentColumns,
+                    rowsInRowGroup,
+                    predicate,
+                    hiveWriterVersion,
+                    metadataReader,
+                    Optional.empty());
+            StripePrefetcher prefetcher = new StripePrefetcher(orcDataSource, footerReader, stripePrefetchExecutor.get(), maxMergeDistance, maxReadSize, this.systemMemoryUsage);
+            this.stripePrefetcher = Optional.of(prefetcher);
+            orcDataSource = prefetcher.getDataSource();
+        }
+        else {
+            this.stripePrefetcher = Optional.empty();
+        }
         this.orcDataSource = orcDataSource;
         this.splitLength = splitLength;
 
@@ -210,9 +242,6 @@ public class OrcRecordReader
 
         this.userMetadata = ImmutableMap.copyOf(Maps.transformValues(userMetadata, Slices::copyOf));
 
-        this.systemMemoryUsage = requireNonNull(systemMemoryUsage, "systemMemoryUsage is null").newAggregatedMemoryContext();
-        this.currentStripeSystemMemoryContext = systemMemoryUsage.newAggregatedMemoryContext();
-
         stripeReader = new StripeReader(
                 orcDataSource,
                 decompressor,
@@ -318,10 +347,30 @@ public class OrcRecordReader
         return maxCombinedBytesPerRow;
     }
 
+    /**
+     * Returns a future that completes when {@link #nextBatch()} can advance to the
+     * next stripe without waiting for its data to be read. This is only ever blocked
+     * when stripe prefetching is enabled.
+     */
+    public CompletableFuture<?> isBlocked()
+    {
+        if (!stripePrefetcher.isPresent() || nextRowInGroup < currentGroupRowCount || rowGroups.hasNext()) {
+            return NOT_BLOCKED;
+        }
+        int nextStripe = currentStripe + 1;
+        if (nextStripe >= stripes.size()) {
+            return NOT_BLOCKED;
+        }
+        StripeInformation stripe = stripes.get(nextStripe);
+        stripePrefetcher.get().prefetch(stripe);
+        return stripePrefetcher.get().isBlocked(stripe);
+    }
+
     @Override
     public void close()
             throws IOException
     {
+        stripePrefetcher.ifPresent(StripePrefetcher::close);
         orcDataSource.close();
 
         if (writeChecksumBuilder.isPresent()) {
@@ -463,6 +512,7 @@ public class OrcRecordReader
 
         currentStripe++;
         if (currentStripe >= stripes.size()) {
+            stripePrefetcher.ifPresent(StripePrefetcher::close);
             return;
         }
 
@@ -473,6 +523,13 @@ public class OrcRecordReader
         StripeInformation stripeInformation = stripes.get(currentStripe);
         validateWriteStripe(stripeInformation.getNumberOfRows());
 
+        if (stripePrefetcher.isPresent()) {
+            stripePrefetcher.get().startStripe(stripeInformation);
+            if (currentStripe + 1 < stripes.size()) {
+                stripePrefetcher.get().prefetch(stripes.get(currentStripe + 1));
+            }
+        }
+
         Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext);
         if (stripe != null) {
             // Give readers access to dictionary streams
@@ -0,0 +1,358 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Reads the file regions of the next stripe on a background executor while the
+ * current stripe is decoded. Prefetched regions are served through the data source
+ * returned by {@link #getDataSource()}; reads outside of them go to the underlying
+ * data source, so a stripe that was not prefetched is simply read synchronously.
+ */
+class StripePrefetcher
+        implements Closeable
+{
+    private static final CompletableFuture<?> NOT_BLOCKED = completedFuture(null);
+
+    private final OrcDataSource dataSource;
+    private final StripeReader footerReader;
+    private final Executor executor;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxReadSize;
+    private final AggregatedMemoryContext systemMemoryUsage;
+    private final PrefetchedOrcDataSource prefetchedDataSource;
+
+    private PendingStripe pendingStripe;
+    private LocalMemoryContext currentStripeMemoryContext;
+
+    /**
+     * @param footerReader a stripe reader over {@code dataSource} with its own decompressor,
+     * because stripe footers are decoded on the executor threads
+     */
+    public StripePrefetcher(
+            OrcDataSource dataSource,
+            StripeReader footerReader,
+            Executor executor,
+            DataSize maxMergeDistance,
+            DataSize maxReadSize,
+            AggregatedMemoryContext systemMemoryUsage)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.footerReader = requireNonNull(footerReader, "footerReader is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxReadSize = requireNonNull(maxReadSize, "maxReadSize is null");
+        this.systemMemoryUsage = requireNonNull(systemMemoryUsage, "systemMemoryUsage is null");
+        this.prefetchedDataSource = new PrefetchedOrcDataSource(dataSource);
+    }
+
+    public OrcDataSource getDataSource()
+    {
+        return prefetchedDataSource;
+    }
+
+    /**
+     * Starts reading the stripe in the background, unless it is already being read.
+     */
+    public void prefetch(StripeInformation stripe)
+    {
+        if (pendingStripe != null) {
+            if (pendingStripe.getOffset() == stripe.getOffset()) {
+                return;
+            }
+            pendingStripe.cancel();
+        }
+
+        // the whole stripe is an upper bound of the regions read for the included columns
+        LocalMemoryContext memoryContext = systemMemoryUsage.newLocalMemoryContext();
+        memoryContext.setBytes(stripe.getTotalLength());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<Map<DiskRange, byte[]>> future = CompletableFuture.supplyAsync(() -> readStripeRegions(stripe, cancelled), executor);
+        pendingStripe = new PendingStripe(stripe.getOffset(), future, cancelled, memoryContext);
+    }
+
+    /**
+     * Returns a future that completes when the prefetch of the stripe is done, or
+     * {@code NOT_BLOCKED} if the stripe is not being prefetched.
+     */
+    public CompletableFuture<?> isBlocked(StripeInformation stripe)
+    {
+        if (pendingStripe == null || pendingStripe.getOffset() != stripe.getOffset() || pendingStripe.getFuture().isDone()) {
+            return NOT_BLOCKED;
+        }
+        return pendingStripe.getFuture();
+    }
+
+    /**
+     * Makes the prefetched regions of the stripe visible through {@link #getDataSource()},
+     * waiting for the prefetch if it is still running. The regions of the previous stripe
+     * are released. If the prefetch failed, the stripe is read from the underlying data
+     * source, which reports the failure to the reader.
+     */
+    public void startStripe(StripeInformation stripe)
+    {
+        releaseCurrentStripe();
+
+        PendingStripe pending = pendingStripe;
+        pendingStripe = null;
+        if (pending == null) {
+            return;
+        }
+        if (pending.getOffset() != stripe.getOffset()) {
+            pending.cancel();
+            return;
+        }
+
+        Map<DiskRange, byte[]> buffers;
+        try {
+            buffers = pending.getFuture().join();
+        }
+        catch (CompletionException | CancellationException e) {
+            pending.cancel();
+            return;
+        }
+
+        long bufferedBytes = 0;
+        for (byte[] buffer : buffers.values()) {
+            bufferedBytes += buffer.length;
+        }
+        currentStripeMemoryContext = pending.getMemoryContext();
+        currentStripeMemoryContext.setBytes(bufferedBytes);
+        prefetchedDataSource.setBuffers(buffers);
+    }
+
+    @Override
+    public void close()
+    {
+        releaseCurrentStripe();
+        if (pendingStripe != null) {
+            pendingStripe.cancel();
+            pendingStripe = null;
+        }
+    }
+
+    private void releaseCurrentStripe()
+    {
+        prefetchedDataSource.setBuffers(ImmutableMap.of());
+        if (currentStripeMemoryContext != null) {
+            currentStripeMemoryContext.close();
+            currentStripeMemoryContext = null;
+        }
+    }
+
+    private Map<DiskRange, byte[]> readStripeRegions(StripeInformation stripe, AtomicBoolean cancelled)
+    {
+        try {
+            StripeFooter stripeFooter = footerReader.readStripeFooter(stripe, newSimpleAggregatedMemoryContext());
+            List<DiskRange> diskRanges = mergeAdjacentDiskRanges(footerReader.getStripeDiskRanges(stripe, stripeFooter), maxMergeDistance, maxReadSize);
+
+            ImmutableMap.Builder<DiskRange, byte[]> buffers = ImmutableMap.builder();
+            for (DiskRange diskRange : diskRanges) {
+                if (cancelled.get()) {
+                    throw new CancellationException();
+                }
+                byte[] buffer = new byte[diskRange.getLength()];
+                dataSource.readFully(diskRange.getOffset(), buffer);
+                buffers.put(diskRange, buffer);
+            }
+            return buffers.build();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class PendingStripe
+    {
+        private final long offset;
+        private final CompletableFuture<Map<DiskRange, byte[]>> future;
+        private final AtomicBoolean cancelled;
+        private final LocalMemoryContext memoryContext;
+
+        public PendingStripe(long offset, CompletableFuture<Map<DiskRange, byte[]>> future, AtomicBoolean cancelled, LocalMemoryContext memoryContext)
+        {
+            this.offset = offset;
+            this.future = requireNonNull(future, "future is null");
+            this.cancelled = requireNonNull(cancelled, "cancelled is null");
+            this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public CompletableFuture<Map<DiskRange, byte[]>> getFuture()
+        {
+            return future;
+        }
+
+        public LocalMemoryContext getMemoryContext()
+        {
+            return memoryContext;
+        }
+
+        /**
+         * Stops the prefetch and waits for the read in flight, so the data source and the
+         * memory context are not used after they are released.
+         */
+        public void cancel()
+        {
+            cancelled.set(true);
+            try {
+                future.join();
+            }
+            catch (CompletionException | CancellationException ignored) {
+                // the stripe is read again by the reader if needed
+            }
+            memoryContext.close();
+        }
+    }
+
+    private static class PrefetchedOrcDataSource
+            implements OrcDataSource
+    {
+        private final OrcDataSource dataSource;
+        private Map<DiskRange, byte[]> buffers = ImmutableMap.of();
+
+        public PrefetchedOrcDataSource(OrcDataSource dataSource)
+        {
+            this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        }
+
+        public void setBuffers(Map<DiskRange, byte[]> buffers)
+        {
+            this.buffers = requireNonNull(buffers, "buffers is null");
+        }
+
+        @Override
+        public OrcDataSourceId getId()
+        {
+            return dataSource.getId();
+        }
+
+        @Override
+        public long getReadBytes()
+        {
+            return dataSource.getReadBytes();
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return dataSource.getReadTimeNanos();
+        }
+
+        @Override
+        public long getSize()
+        {
+            return dataSource.getSize();
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer)
+                throws IOException
+        {
+            readFully(position, buffer, 0, buffer.length);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int bufferOffset, int length)
+                throws IOException
+        {
+            DiskRange diskRange = new DiskRange(position, length);
+            for (Entry<DiskRange, byte[]> entry : buffers.entrySet()) {
+                DiskRange bufferRange = entry.getKey();
+                if (bufferRange.contains(diskRange)) {
+                    System.arraycopy(entry.getValue(), toIntExact(position - bufferRange.getOffset()), buffer, bufferOffset, length);
+                    return;
+                }
+            }
+            dataSource.readFully(position, buffer, bufferOffset, length);
+        }
+
+        @Override
+        public <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
+                throws IOException
+        {
+            ImmutableMap.Builder<K, FixedLengthSliceInput> slices = ImmutableMap.builder();
+            Map<K, DiskRange> remainingRanges = new LinkedHashMap<>();
+            for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+                FixedLengthSliceInput slice = getPrefetchedSlice(entry.getValue());
+                if (slice != null) {
+                    slices.put(entry.getKey(), slice);
+                }
+                else {
+                    remainingRanges.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (!remainingRanges.isEmpty()) {
+                slices.putAll(dataSource.readFully(remainingRanges));
+            }
+            return slices.build();
+        }
+
+        private FixedLengthSliceInput getPrefetchedSlice(DiskRange diskRange)
+        {
+            for (Entry<DiskRange, byte[]> entry : buffers.entrySet()) {
+                DiskRange bufferRange = entry.getKey();
+                if (bufferRange.contains(diskRange)) {
+                    int offset = toIntExact(diskRange.getOffset() - bufferRange.getOffset());
+                    return Slices.wrappedBuffer(entry.getValue(), offset, diskRange.getLength()).getInput();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            dataSource.close();
+        }
+
+        @Override
+        public String toString()
+        {
+            return dataSource.toString();
+        }
+    }
+}
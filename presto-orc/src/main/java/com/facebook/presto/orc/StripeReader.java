@@ -367,6 +367,24 @@ public class StripeReader
         }
     }
 
+    /**
+     * Returns the file regions {@link #readStripe} reads for the stripe: the stripe
+     * footer and the streams of the included columns, with absolute file offsets.
+     */
+    public List<DiskRange> getStripeDiskRanges(StripeInformation stripe, StripeFooter stripeFooter)
+    {
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        long footerOffset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
+        diskRanges.add(new DiskRange(footerOffset, toIntExact(stripe.getFooterLength())));
+        for (Entry<StreamId, DiskRange> entry : getDiskRanges(stripeFooter.getStreams()).entrySet()) {
+            if (includedOrcColumns.contains(entry.getKey().getColumn())) {
+                DiskRange diskRange = entry.getValue();
+                diskRanges.add(new DiskRange(stripe.getOffset() + diskRange.getOffset(), diskRange.getLength()));
+            }
+        }
+        return diskRanges.build();
+    }
+
     static boolean isIndexStream(Stream stream)
     {
         return stream.getStreamKind() == ROW_INDEX || stream.getStreamKind() == DICTIONARY_COUNT || stream.getStreamKind() == BLOOM_FILTER;
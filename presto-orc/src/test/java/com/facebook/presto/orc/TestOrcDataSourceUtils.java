@@ -46,6 +46,17 @@ public class TestOrcDataSourceUtils
         assertEquals(diskRanges, ImmutableList.of(new DiskRange(100, 300)));
     }
 
+    @Test
+    public void testMergeOverlapping()
+    {
+        List<DiskRange> overlapping = ImmutableList.of(new DiskRange(300, 100), new DiskRange(100, 150), new DiskRange(200, 150), new DiskRange(120, 10));
+        assertEquals(mergeAdjacentDiskRanges(overlapping, new DataSize(0, BYTE), new DataSize(1, GIGABYTE)), ImmutableList.of(new DiskRange(100, 300)));
+        assertEquals(mergeAdjacentDiskRanges(overlapping, new DataSize(0, BYTE), new DataSize(250, BYTE)),
+                ImmutableList.of(new DiskRange(100, 250), new DiskRange(300, 100)));
+        assertEquals(mergeAdjacentDiskRanges(overlapping, new DataSize(0, BYTE), new DataSize(0, BYTE)),
+                ImmutableList.of(new DiskRange(100, 150), new DiskRange(120, 10), new DiskRange(200, 150), new DiskRange(300, 100)));
+    }
+
     @Test
     public void testMergeGap()
     {
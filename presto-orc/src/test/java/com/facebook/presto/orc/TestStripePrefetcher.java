@@ -0,0 +1,313 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.orc.metadata.ExceptionWrappingMetadataReader;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.orc.OrcDecompressor.createOrcDecompressor;
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcPredicate.TRUE;
+import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.writeOrcColumnHive;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion.ORC_HIVE_8732;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertGreaterThan;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.toIntExact;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestStripePrefetcher
+{
+    private static final DataSize MAX_MERGE_DISTANCE = new DataSize(1, MEGABYTE);
+    private static final DataSize MAX_READ_SIZE = new DataSize(8, MEGABYTE);
+
+    private TempFile tempFile;
+    private OrcReader orcReader;
+    private StripeInformation stripe;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        tempFile = new TempFile();
+        Random random = new Random(0);
+        Iterator<String> values = Stream.generate(() -> Long.toHexString(random.nextLong())).limit(10_000).iterator();
+        writeOrcColumnHive(tempFile.getFile(), ORC_12, ZLIB, VARCHAR, values);
+
+        orcReader = new OrcReader(createFileDataSource(), ORC, MAX_MERGE_DISTANCE, MAX_READ_SIZE, new DataSize(1, MEGABYTE));
+        stripe = orcReader.getFooter().getStripes().get(0);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        tempFile.close();
+    }
+
+    @Test
+    public void testPrefetchHit()
+            throws Exception
+    {
+        ControlledOrcDataSource dataSource = new ControlledOrcDataSource(createFileDataSource());
+        AggregatedMemoryContext systemMemoryUsage = newSimpleAggregatedMemoryContext();
+        try (StripePrefetcher prefetcher = createPrefetcher(dataSource, directExecutor(), systemMemoryUsage)) {
+            prefetcher.prefetch(stripe);
+            assertTrue(prefetcher.isBlocked(stripe).isDone());
+
+            prefetcher.startStripe(stripe);
+            assertGreaterThan(systemMemoryUsage.getBytes(), 0L);
+
+            // the stripe footer is served from the prefetched regions
+            int readCount = dataSource.getReadCount();
+            assertEquals(readStripeFooter(prefetcher.getDataSource()), readStripeFooter(createFileDataSource()));
+            assertEquals(dataSource.getReadCount(), readCount);
+        }
+        assertEquals(systemMemoryUsage.getBytes(), 0);
+    }
+
+    @Test
+    public void testFailedPrefetchFallsBackToSynchronousRead()
+            throws Exception
+    {
+        ControlledOrcDataSource dataSource = new ControlledOrcDataSource(createFileDataSource());
+        AggregatedMemoryContext systemMemoryUsage = newSimpleAggregatedMemoryContext();
+        try (StripePrefetcher prefetcher = createPrefetcher(dataSource, directExecutor(), systemMemoryUsage)) {
+            dataSource.setFailing(true);
+            prefetcher.prefetch(stripe);
+            assertTrue(prefetcher.isBlocked(stripe).isDone());
+
+            prefetcher.startStripe(stripe);
+            assertEquals(systemMemoryUsage.getBytes(), 0);
+
+            // reads go to the underlying data source
+            dataSource.setFailing(false);
+            int readCount = dataSource.getReadCount();
+            assertEquals(readStripeFooter(prefetcher.getDataSource()), readStripeFooter(createFileDataSource()));
+            assertEquals(dataSource.getReadCount(), readCount + 1);
+        }
+    }
+
+    @Test
+    public void testCloseWhileReadInFlight()
+            throws Exception
+    {
+        ControlledOrcDataSource dataSource = new ControlledOrcDataSource(createFileDataSource());
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch releaseRead = new CountDownLatch(1);
+        dataSource.blockReads(readStarted, releaseRead);
+
+        AggregatedMemoryContext systemMemoryUsage = newSimpleAggregatedMemoryContext();
+        ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-stripe-prefetch-%s"));
+        try {
+            StripePrefetcher prefetcher = createPrefetcher(dataSource, executor, systemMemoryUsage);
+            prefetcher.prefetch(stripe);
+            CompletableFuture<?> blocked = prefetcher.isBlocked(stripe);
+            assertTrue(readStarted.await(10, SECONDS));
+            assertFalse(blocked.isDone());
+            assertEquals(systemMemoryUsage.getBytes(), stripe.getTotalLength());
+
+            // close waits for the read in flight before the memory is released
+            CompletableFuture<?> closed = CompletableFuture.runAsync(prefetcher::close, executor);
+            try {
+                closed.get(100, MILLISECONDS);
+                fail("expected close to wait for the read in flight");
+            }
+            catch (TimeoutException expected) {
+            }
+            assertEquals(systemMemoryUsage.getBytes(), stripe.getTotalLength());
+
+            int readCount = dataSource.getReadCount();
+            releaseRead.countDown();
+            closed.get(10, SECONDS);
+            assertTrue(blocked.isDone());
+            assertEquals(systemMemoryUsage.getBytes(), 0);
+            assertTrue(prefetcher.isBlocked(stripe).isDone());
+
+            // the cancelled prefetch does not read any more regions
+            assertEquals(dataSource.getReadCount(), readCount);
+        }
+        finally {
+            releaseRead.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, SECONDS));
+        }
+        assertEquals(systemMemoryUsage.getBytes(), 0);
+    }
+
+    private StripePrefetcher createPrefetcher(OrcDataSource dataSource, Executor executor, AggregatedMemoryContext systemMemoryUsage)
+            throws IOException
+    {
+        StripeReader footerReader = new StripeReader(
+                dataSource,
+                createOrcDecompressor(dataSource.getId(), orcReader.getCompressionKind(), orcReader.getBufferSize()),
+                orcReader.getFooter().getTypes(),
+                ImmutableSet.of(0),
+                orcReader.getFooter().getRowsInRowGroup(),
+                TRUE,
+                ORC_HIVE_8732,
+                new ExceptionWrappingMetadataReader(dataSource.getId(), ORC.createMetadataReader()),
+                Optional.empty());
+        return new StripePrefetcher(dataSource, footerReader, executor, MAX_MERGE_DISTANCE, MAX_READ_SIZE, systemMemoryUsage);
+    }
+
+    private byte[] readStripeFooter(OrcDataSource dataSource)
+            throws IOException
+    {
+        byte[] buffer = new byte[toIntExact(stripe.getFooterLength())];
+        dataSource.readFully(stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength(), buffer);
+        return buffer;
+    }
+
+    private OrcDataSource createFileDataSource()
+            throws IOException
+    {
+        return new FileOrcDataSource(tempFile.getFile(), MAX_MERGE_DISTANCE, MAX_READ_SIZE, new DataSize(1, MEGABYTE), true);
+    }
+
+    private static class ControlledOrcDataSource
+            implements OrcDataSource
+    {
+        private final OrcDataSource delegate;
+        private final AtomicInteger readCount = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile CountDownLatch readStarted;
+        private volatile CountDownLatch releaseRead;
+
+        public ControlledOrcDataSource(OrcDataSource delegate)
+        {
+            this.delegate = delegate;
+        }
+
+        public int getReadCount()
+        {
+            return readCount.get();
+        }
+
+        public void setFailing(boolean failing)
+        {
+            this.failing = failing;
+        }
+
+        public void blockReads(CountDownLatch readStarted, CountDownLatch releaseRead)
+        {
+            this.readStarted = readStarted;
+            this.releaseRead = releaseRead;
+        }
+
+        @Override
+        public OrcDataSourceId getId()
+        {
+            return delegate.getId();
+        }
+
+        @Override
+        public long getReadBytes()
+        {
+            return delegate.getReadBytes();
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return delegate.getReadTimeNanos();
+        }
+
+        @Override
+        public long getSize()
+        {
+            return delegate.getSize();
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer)
+                throws IOException
+        {
+            readFully(position, buffer, 0, buffer.length);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException
+        {
+            beforeRead();
+            delegate.readFully(position, buffer, bufferOffset, bufferLength);
+        }
+
+        @Override
+        public <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
+                throws IOException
+        {
+            beforeRead();
+            return delegate.readFully(diskRanges);
+        }
+
+        private void beforeRead()
+                throws IOException
+        {
+            readCount.incrementAndGet();
+            if (failing) {
+                throw new IOException("read failed");
+            }
+            if (releaseRead != null) {
+                readStarted.countDown();
+                try {
+                    releaseRead.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            delegate.close();
+        }
+    }
+}
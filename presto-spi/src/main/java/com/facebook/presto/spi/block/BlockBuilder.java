@@ -75,6 +75,46 @@ public interface BlockBuilder
         throw new UnsupportedOperationException(getClass().getName());
     }
 
+    /**
+     * Appends the values at positions {@code offset} to {@code offset + length - 1} of
+     * {@code source}, which must have the type of this block builder. This is generally
+     * more efficient than appending the values one at a time.
+     */
+    default BlockBuilder appendRange(Block source, int offset, int length)
+    {
+        for (int position = offset; position < offset + length; position++) {
+            if (source.isNull(position)) {
+                appendNull();
+            }
+            else {
+                source.writePositionTo(position, this);
+                closeEntry();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the values at the positions {@code positions[offset]} to
+     * {@code positions[offset + length - 1]} of {@code source}, which must have the type
+     * of this block builder. This is generally more efficient than appending the values
+     * one at a time.
+     */
+    default BlockBuilder appendPositions(Block source, int[] positions, int offset, int length)
+    {
+        for (int i = offset; i < offset + length; i++) {
+            int position = positions[i];
+            if (source.isNull(position)) {
+                appendNull();
+            }
+            else {
+                source.writePositionTo(position, this);
+                closeEntry();
+            }
+        }
+        return this;
+    }
+
     /**
      * Create a new block from the current materialized block by keeping the same elements
      * only with respect to {@code visiblePositions}.
@@ -67,6 +67,45 @@ public class ByteArrayBlockBuilder
         return this;
     }
 
+    @Override
+    public BlockBuilder appendRange(Block source, int offset, int length)
+    {
+        checkValidRegion(source.getPositionCount(), offset, length);
+        ensureCapacity(positionCount + length);
+        for (int position = offset; position < offset + length; position++) {
+            appendValue(source, position);
+        }
+        if (blockBuilderStatus != null) {
+            blockBuilderStatus.addBytes((Byte.BYTES + Byte.BYTES) * length);
+        }
+        return this;
+    }
+
+    @Override
+    public BlockBuilder appendPositions(Block source, int[] positions, int offset, int length)
+    {
+        checkArrayRange(positions, offset, length);
+        ensureCapacity(positionCount + length);
+        for (int i = offset; i < offset + length; i++) {
+            appendValue(source, positions[i]);
+        }
+        if (blockBuilderStatus != null) {
+            blockBuilderStatus.addBytes((Byte.BYTES + Byte.BYTES) * length);
+        }
+        return this;
+    }
+
+    private void appendValue(Block source, int position)
+    {
+        if (source.isNull(position)) {
+            valueIsNull[positionCount] = true;
+        }
+        else {
+            values[positionCount] = source.getByte(position, 0);
+        }
+        positionCount++;
+    }
+
     @Override
     public BlockBuilder closeEntry()
     {
@@ -101,6 +140,13 @@ public class ByteArrayBlockBuilder
         return new ByteArrayBlockBuilder(blockBuilderStatus, positionCount);
     }
 
+    private void ensureCapacity(int capacity)
+    {
+        while (values.length < capacity) {
+            growCapacity();
+        }
+    }
+
     private void growCapacity()
     {
         int newSize;
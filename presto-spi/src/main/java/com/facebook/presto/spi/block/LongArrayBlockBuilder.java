@@ -69,6 +69,45 @@ public class LongArrayBlockBuilder
         return this;
     }
 
+    @Override
+    public BlockBuilder appendRange(Block source, int offset, int length)
+    {
+        checkValidRegion(source.getPositionCount(), offset, length);
+        ensureCapacity(positionCount + length);
+        for (int position = offset; position < offset + length; position++) {
+            appendValue(source, position);
+        }
+        if (blockBuilderStatus != null) {
+            blockBuilderStatus.addBytes((Byte.BYTES + Long.BYTES) * length);
+        }
+        return this;
+    }
+
+    @Override
+    public BlockBuilder appendPositions(Block source, int[] positions, int offset, int length)
+    {
+        checkArrayRange(positions, offset, length);
+        ensureCapacity(positionCount + length);
+        for (int i = offset; i < offset + length; i++) {
+            appendValue(source, positions[i]);
+        }
+        if (blockBuilderStatus != null) {
+            blockBuilderStatus.addBytes((Byte.BYTES + Long.BYTES) * length);
+        }
+        return this;
+    }
+
+    private void appendValue(Block source, int position)
+    {
+        if (source.isNull(position)) {
+            valueIsNull[positionCount] = true;
+        }
+        else {
+            values[positionCount] = source.getLong(position, 0);
+        }
+        positionCount++;
+    }
+
     @Override
     public BlockBuilder closeEntry()
     {
@@ -103,6 +142,13 @@ public class LongArrayBlockBuilder
         return new LongArrayBlockBuilder(blockBuilderStatus, calculateBlockResetSize(positionCount));
     }
 
+    private void ensureCapacity(int capacity)
+    {
+        while (values.length < capacity) {
+            growCapacity();
+        }
+    }
+
     private void growCapacity()
     {
         int newSize;
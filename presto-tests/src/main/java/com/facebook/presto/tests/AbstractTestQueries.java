@@ -59,6 +59,9 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.facebook.presto.SystemSessionProperties.LEGACY_ORDER_BY;
+import static com.facebook.presto.SystemSessionProperties.MERGE_JOIN;
+import static com.facebook.presto.SystemSessionProperties.OPTIMIZE_COMMON_SUB_EXPRESSIONS;
+import static com.facebook.presto.SystemSessionProperties.STREAMING_AGGREGATION;
 import static com.facebook.presto.connector.informationSchema.InformationSchemaMetadata.INFORMATION_SCHEMA;
 import static com.facebook.presto.operator.scalar.ApplyFunction.APPLY_FUNCTION;
 import static com.facebook.presto.operator.scalar.InvokeFunction.INVOKE_FUNCTION;
@@ -285,6 +288,28 @@ public abstract class AbstractTestQueries
         assertQuery("SELECT try(10 / a), try(10 / a) FROM (VALUES 5) t(a)", "SELECT 2, 2");
     }
 
+    @Test
+    public void testCommonSubExpressions()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(OPTIMIZE_COMMON_SUB_EXPRESSIONS, "true")
+                .build();
+
+        assertQuery(
+                session,
+                "SELECT regexp_extract(a, '[0-9]+'), length(regexp_extract(a, '[0-9]+')), a LIKE '%x_y%', NOT (a LIKE '%x_y%') " +
+                        "FROM (VALUES 'ab12', 'x-y34', 'xyz', 'x1y') t(a) " +
+                        "WHERE regexp_extract(a, '[0-9]+') IS NOT NULL",
+                "VALUES ('12', 2, false, true), ('34', 2, true, false), ('1', 1, true, false)");
+        assertQuery(
+                session,
+                "SELECT json_extract_scalar(j, '$.a'), upper(json_extract_scalar(j, '$.a')), json_extract_scalar(j, '$.b'), json_format(json_extract(j, '$.c')), json_extract_scalar(j, '$[\"a\"]') " +
+                        "FROM (VALUES '{\"a\": \"x\", \"b\": 1, \"c\": [1, 2]}', '{\"a\": \"y\"}') t(j)",
+                "VALUES ('x', 'X', '1', '[1,2]', 'x'), ('y', 'Y', NULL, NULL, 'y')");
+        assertQuery(session, "SELECT apply(a, i -> i * i) + apply(a, i -> i * i) FROM (VALUES 3) t(a)", "SELECT 18");
+        assertQuery(session, "SELECT try(10 / a), try(10 / a) + 1 FROM (VALUES 5, 0) t(a)", "VALUES (2, 3), (NULL, NULL)");
+    }
+
     @Test
     public void testNonDeterministicFilter()
     {
@@ -2445,6 +2470,74 @@ public abstract class AbstractTestQueries
                 "ON NOT (a.orderkey <= b.orderkey)");
     }
 
+    @Test
+    public void testStreamingAggregation()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(STREAMING_AGGREGATION, "true")
+                .build();
+
+        // lineitem is grouped on orderkey
+        assertQuery(session, "SELECT orderkey, count(*), sum(quantity), max(comment) FROM lineitem GROUP BY orderkey");
+        assertQuery(session, "SELECT orderkey, partkey, count(*), sum(quantity) FROM lineitem GROUP BY orderkey, partkey");
+        assertQuery(session, "SELECT orderkey, count(*) FROM lineitem GROUP BY orderkey HAVING count(*) > 5");
+        assertQuery(session, "SELECT custkey, count(*), min(orderdate) FROM (SELECT custkey, orderdate FROM orders ORDER BY custkey) GROUP BY custkey");
+        assertQuery(session, "SELECT orderkey, count(*) FROM lineitem WHERE orderkey < 0 GROUP BY orderkey");
+    }
+
+    @Test
+    public void testMergeJoin()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(MERGE_JOIN, "true")
+                .build();
+
+        assertQuery(
+                session,
+                "SELECT o.orderkey, o.orderstatus, l.linenumber " +
+                        "FROM (SELECT orderkey, orderstatus FROM orders ORDER BY orderkey) o " +
+                        "JOIN (SELECT orderkey, linenumber FROM lineitem ORDER BY orderkey) l " +
+                        "ON o.orderkey = l.orderkey");
+        assertQuery(
+                session,
+                "SELECT a.partkey, b.suppkey " +
+                        "FROM (SELECT orderkey, linenumber, partkey FROM lineitem WHERE orderkey % 3 = 0 ORDER BY orderkey, linenumber DESC) a " +
+                        "LEFT JOIN (SELECT orderkey, linenumber, suppkey FROM lineitem WHERE orderkey % 2 = 0 ORDER BY orderkey, linenumber DESC) b " +
+                        "ON a.orderkey = b.orderkey AND a.linenumber = b.linenumber");
+
+        String left = "(SELECT * FROM (VALUES (1, 'a'), (2, 'b'), (2, 'c'), (4, 'd'), (NULL, 'e')) t(k, v) ORDER BY k DESC NULLS FIRST) a";
+        String right = "(SELECT * FROM (VALUES (2, 'x'), (2, 'y'), (3, 'z'), (4, 'w'), (NULL, 'v')) t(k, w) ORDER BY k DESC NULLS FIRST) b";
+        assertQuery(
+                session,
+                "SELECT a.k, a.v, b.k, b.w FROM " + left + " LEFT JOIN " + right + " ON a.k = b.k",
+                "VALUES (1, 'a', NULL, NULL), (2, 'b', 2, 'x'), (2, 'b', 2, 'y'), (2, 'c', 2, 'x'), (2, 'c', 2, 'y'), (4, 'd', 4, 'w'), (NULL, 'e', NULL, NULL)");
+        assertQuery(
+                session,
+                "SELECT a.k, a.v, b.k, b.w FROM " + left + " RIGHT JOIN " + right + " ON a.k = b.k",
+                "VALUES (2, 'b', 2, 'x'), (2, 'b', 2, 'y'), (2, 'c', 2, 'x'), (2, 'c', 2, 'y'), (NULL, NULL, 3, 'z'), (4, 'd', 4, 'w'), (NULL, NULL, NULL, 'v')");
+        assertQuery(
+                session,
+                "SELECT a.k, a.v, b.k, b.w FROM " + left + " FULL JOIN " + right + " ON a.k = b.k",
+                "VALUES (1, 'a', NULL, NULL), (2, 'b', 2, 'x'), (2, 'b', 2, 'y'), (2, 'c', 2, 'x'), (2, 'c', 2, 'y'), (NULL, NULL, 3, 'z'), (4, 'd', 4, 'w'), " +
+                        "(NULL, 'e', NULL, NULL), (NULL, NULL, NULL, 'v')");
+
+        // NaN keys never match
+        assertQuery(
+                session,
+                "SELECT a.v, b.w " +
+                        "FROM (SELECT * FROM (VALUES (1.0, 'a'), (nan(), 'b'), (2.0, 'c'), (nan(), 'd')) t(k, v) ORDER BY k) a " +
+                        "JOIN (SELECT * FROM (VALUES (nan(), 'x'), (2.0, 'y'), (1.0, 'z')) t(k, w) ORDER BY k) b " +
+                        "ON a.k = b.k",
+                "VALUES ('a', 'z'), ('c', 'y')");
+        assertQuery(
+                session,
+                "SELECT a.v, b.w " +
+                        "FROM (SELECT * FROM (VALUES (REAL '1.0', 'a'), (CAST(nan() AS REAL), 'b')) t(k, v) ORDER BY k DESC) a " +
+                        "FULL JOIN (SELECT * FROM (VALUES (CAST(nan() AS REAL), 'x'), (REAL '1.0', 'y')) t(k, w) ORDER BY k DESC) b " +
+                        "ON a.k = b.k",
+                "VALUES ('a', 'y'), ('b', NULL), (NULL, 'x')");
+    }
+
     @Test
     public void testJoinWithRightConstantEquality()
     {